@@ -0,0 +1,89 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.objectteams.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of team activation churn: explicit (de)activation for the current thread or all threads,
+ * and a callin invoked within a <code>within</code> block, which (de)activates the team around the call.
+ * Baselines are a thread local and the plain Java twin of the base method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ActivationBenchmark {
+
+	private static final ThreadLocal<Object> ACTIVE = new ThreadLocal<Object>();
+
+	CallinTeam callinTeam;
+	Target target;
+	PlainTarget plain;
+
+	@Setup
+	public void setup() {
+		this.callinTeam = new CallinTeam();
+		this.target = new Target();
+		this.plain = new PlainTarget();
+	}
+
+	@Benchmark
+	public void threadLocalPlain() {
+		ACTIVE.set(this.callinTeam);
+		ACTIVE.remove();
+	}
+
+	@Benchmark
+	public void activateDeactivate() {
+		this.callinTeam.activate();
+		this.callinTeam.deactivate();
+	}
+
+	@Benchmark
+	public void activateDeactivateAllThreads() {
+		this.callinTeam.activate(Team.ALL_THREADS);
+		this.callinTeam.deactivate(Team.ALL_THREADS);
+	}
+
+	@Benchmark
+	public int withinPlain() {
+		return this.plain.beforeMethod(1);
+	}
+
+	@Benchmark
+	public int withinCallin() {
+		within (this.callinTeam) {
+			return this.target.beforeMethod(1);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.objectteams.Team;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of callin dispatch (before, after, replace; instance and static base methods)
+ * compared to the same logic hand-coded in plain Java ({@link PlainTarget}).
+ * <p>
+ * With <code>active=false</code> the team is instantiated but not active,
+ * measuring the overhead that remains in woven base methods while no team is interested.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallinDispatchBenchmark {
+
+	@Param({"true", "false"})
+	boolean active;
+
+	CallinTeam callinTeam;
+	Target target;
+	PlainTarget plain;
+
+	@Setup
+	public void setup() {
+		this.callinTeam = new CallinTeam();
+		if (this.active)
+			this.callinTeam.activate(Team.ALL_THREADS);
+		this.target = new Target();
+		this.plain = new PlainTarget();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.callinTeam.deactivate(Team.ALL_THREADS);
+	}
+
+	@Benchmark
+	public int beforePlain() {
+		return this.plain.beforeMethod(1);
+	}
+
+	@Benchmark
+	public int beforeCallin() {
+		return this.target.beforeMethod(1);
+	}
+
+	@Benchmark
+	public int afterPlain() {
+		return this.plain.afterMethod(1);
+	}
+
+	@Benchmark
+	public int afterCallin() {
+		return this.target.afterMethod(1);
+	}
+
+	@Benchmark
+	public int replacePlain() {
+		return this.plain.replaceMethod(1);
+	}
+
+	@Benchmark
+	public int replaceCallin() {
+		return this.target.replaceMethod(1);
+	}
+
+	@Benchmark
+	public int staticBeforePlain() {
+		return PlainTarget.staticBeforeMethod(1);
+	}
+
+	@Benchmark
+	public int staticBeforeCallin() {
+		return Target.staticBeforeMethod(1);
+	}
+
+	@Benchmark
+	public int staticReplacePlain() {
+		return PlainTarget.staticReplaceMethod(1);
+	}
+
+	@Benchmark
+	public int staticReplaceCallin() {
+		return Target.staticReplaceMethod(1);
+	}
+}
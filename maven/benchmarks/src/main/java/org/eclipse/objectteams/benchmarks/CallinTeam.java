@@ -0,0 +1,54 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+/**
+ * Team with one callin binding of each kind to methods of {@link Target}.
+ * Each role method only increments a counter, so measurements reflect the cost of dispatch.
+ */
+public team class CallinTeam {
+
+	public static int staticCount;
+	int count;
+
+	protected class Advisor playedBy Target {
+
+		void count() {
+			CallinTeam.this.count++;
+		}
+		count <- before beforeMethod;
+		count <- after afterMethod;
+
+		callin int around(int i) {
+			CallinTeam.this.count++;
+			return base.around(i);
+		}
+		around <- replace replaceMethod;
+
+		static void staticCount() {
+			staticCount++;
+		}
+		staticCount <- before staticBeforeMethod;
+
+		static callin int staticAround(int i) {
+			staticCount++;
+			return base.staticAround(i);
+		}
+		staticAround <- replace staticReplaceMethod;
+	}
+}
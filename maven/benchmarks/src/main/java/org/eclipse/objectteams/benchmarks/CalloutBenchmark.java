@@ -0,0 +1,94 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of callout to a private field and a private method of a base class (decapsulation),
+ * compared to plain Java accessors and to reflection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalloutBenchmark {
+
+	LiftingTeam liftingTeam;
+	Target target;
+	PlainTarget plain;
+	Field secretField;
+	Method computeMethod;
+
+	@Setup
+	public void setup() throws Exception {
+		this.liftingTeam = new LiftingTeam();
+		this.target = new Target();
+		this.liftingTeam.setWrapper(this.target);
+		this.plain = new PlainTarget();
+		this.secretField = Target.class.getDeclaredField("secret");
+		this.secretField.setAccessible(true);
+		this.computeMethod = Target.class.getDeclaredMethod("compute", int.class);
+		this.computeMethod.setAccessible(true);
+	}
+
+	@Benchmark
+	public int fieldPlain() {
+		return this.plain.getSecret();
+	}
+
+	@Benchmark
+	public int fieldCallout() {
+		return this.liftingTeam.readSecret();
+	}
+
+	@Benchmark
+	public int fieldReflection() throws Exception {
+		return this.secretField.getInt(this.target);
+	}
+
+	@Benchmark
+	public int methodPlain() {
+		return this.plain.compute(1);
+	}
+
+	@Benchmark
+	public int methodCallout() {
+		return this.liftingTeam.compute(1);
+	}
+
+	@Benchmark
+	public Object methodReflection() throws Exception {
+		return this.computeMethod.invoke(this.target, 1);
+	}
+}
@@ -0,0 +1,200 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup cost of load-time weaving: each invocation loads and initializes several thousand generated classes
+ * through a fresh parallel-capable class loader, using the given number of threads.
+ * <p>
+ * Classes form short superclass chains (<code>C1 extends C0</code>, ...), so that loading a class
+ * also involves its superclasses, as in typical application startup.
+ * Run with and without the OTDRE agent to see the overhead of weaving and its scalability across threads.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassLoadingBenchmark {
+
+	private static final String PACKAGE = "org/eclipse/objectteams/benchmarks/generated/";
+	private static final int CHAIN_LENGTH = 10;
+
+	@Param({"4000"})
+	int classes;
+
+	@Param({"1", "8"})
+	int threads;
+
+	byte[][] classBytes;
+	ExecutorService executor;
+	GeneratedClassLoader loader;
+
+	@Setup
+	public void setup() throws IOException {
+		this.classBytes = new byte[this.classes][];
+		for (int i = 0; i < this.classes; i++) {
+			String superName = i % CHAIN_LENGTH == 0 ? "java/lang/Object" : className(i-1);
+			this.classBytes[i] = generateClass(className(i), superName, i);
+		}
+		this.executor = Executors.newFixedThreadPool(this.threads);
+	}
+
+	@Setup(Level.Invocation)
+	public void newLoader() {
+		this.loader = new GeneratedClassLoader(this.classBytes);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	@Benchmark
+	public int loadClasses() throws Exception {
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < this.threads; t++) {
+			final int first = t;
+			results.add(this.executor.submit(() -> {
+				int loaded = 0;
+				// walk backwards so that most requests start at the end of a superclass chain:
+				for (int i = this.classes - 1 - first; i >= 0; i -= this.threads) {
+					Class.forName(className(i).replace('/', '.'), true, this.loader);
+					loaded++;
+				}
+				return loaded;
+			}));
+		}
+		int total = 0;
+		for (Future<Integer> result : results)
+			total += result.get();
+		return total;
+	}
+
+	static String className(int i) {
+		return PACKAGE+"C"+i;
+	}
+
+	static class GeneratedClassLoader extends ClassLoader {
+		static {
+			registerAsParallelCapable();
+		}
+
+		private final byte[][] classBytes;
+
+		GeneratedClassLoader(byte[][] classBytes) {
+			super(GeneratedClassLoader.class.getClassLoader());
+			this.classBytes = classBytes;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			String prefix = PACKAGE.replace('/', '.')+"C";
+			if (name.startsWith(prefix)) {
+				int i = Integer.parseInt(name.substring(prefix.length()));
+				if (i < this.classBytes.length)
+					return defineClass(name, this.classBytes[i], 0, this.classBytes[i].length);
+			}
+			throw new ClassNotFoundException(name);
+		}
+	}
+
+	/**
+	 * Generate the bytes of a class file (version 52) equivalent to
+	 * <pre>
+	 * public class name extends superName {
+	 *     public name() { super(); }
+	 *     public int value() { return value; }
+	 * }
+	 * </pre>
+	 */
+	static byte[] generateClass(String name, String superName, int value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0);						// minor version
+		out.writeShort(52);						// major version
+		out.writeShort(13);						// constant pool count
+		out.writeByte(1);  out.writeUTF(name);				// #1
+		out.writeByte(7);  out.writeShort(1);				// #2 this class
+		out.writeByte(1);  out.writeUTF(superName);			// #3
+		out.writeByte(7);  out.writeShort(3);				// #4 super class
+		out.writeByte(1);  out.writeUTF("<init>");			// #5
+		out.writeByte(1);  out.writeUTF("()V");				// #6
+		out.writeByte(12); out.writeShort(5); out.writeShort(6);	// #7 <init>()V
+		out.writeByte(10); out.writeShort(4); out.writeShort(7);	// #8 super.<init>()V
+		out.writeByte(1);  out.writeUTF("Code");			// #9
+		out.writeByte(1);  out.writeUTF("value");			// #10
+		out.writeByte(1);  out.writeUTF("()I");				// #11
+		out.writeByte(3);  out.writeInt(value);				// #12
+		out.writeShort(0x0021);					// ACC_PUBLIC | ACC_SUPER
+		out.writeShort(2);
+		out.writeShort(4);
+		out.writeShort(0);						// interfaces
+		out.writeShort(0);						// fields
+		out.writeShort(2);						// methods
+		// constructor: aload_0, invokespecial #8, return
+		writeMethod(out, 5, 6, new byte[] { 0x2a, (byte) 0xb7, 0, 8, (byte) 0xb1 });
+		// value(): ldc_w #12, ireturn
+		writeMethod(out, 10, 11, new byte[] { 0x13, 0, 12, (byte) 0xac });
+		out.writeShort(0);						// class attributes
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static void writeMethod(DataOutputStream out, int nameIndex, int descIndex, byte[] code) throws IOException {
+		out.writeShort(0x0001);					// ACC_PUBLIC
+		out.writeShort(nameIndex);
+		out.writeShort(descIndex);
+		out.writeShort(1);						// attributes
+		out.writeShort(9);						// "Code"
+		out.writeInt(12 + code.length);
+		out.writeShort(1);						// max stack
+		out.writeShort(1);						// max locals
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(0);						// exception table
+		out.writeShort(0);						// code attributes
+	}
+}
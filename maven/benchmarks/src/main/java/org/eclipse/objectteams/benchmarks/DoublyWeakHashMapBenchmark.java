@@ -0,0 +1,157 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.objectteams.DoublyWeakHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the role cache {@link DoublyWeakHashMap} of the runtime against the previous
+ * implementation based on a synchronized WeakHashMap ({@link LegacyDoublyWeakHashMap}).
+ * <p>
+ * Each benchmark mimics the code generated into teams: lifting looks up the role of a base object
+ * while holding the monitor of the cache (or without locking when compiled for concurrent lifting),
+ * <code>getAllRoles()</code> takes a snapshot of all values, and role registration churn
+ * adds and removes roles. Run with several threads (JMH option <code>-t</code>) to see the effect of contention.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoublyWeakHashMapBenchmark {
+
+	public static class Base {}
+
+	public static class Role {
+		final Base base;
+		Role(Base base) {
+			this.base = base;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Caches {
+		@Param({"1000", "1000000"})
+		int size;
+
+		Base[] bases;
+		Role[] roles; // keep all roles strongly reachable
+		DoublyWeakHashMap<Base,Role> current;
+		LegacyDoublyWeakHashMap<Base,Role> legacy;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.bases = new Base[this.size];
+			this.roles = new Role[this.size];
+			this.current = new DoublyWeakHashMap<Base,Role>();
+			this.legacy = new LegacyDoublyWeakHashMap<Base,Role>();
+			for (int i = 0; i < this.size; i++) {
+				this.bases[i] = new Base();
+				this.roles[i] = new Role(this.bases[i]);
+				this.current.put(this.bases[i], this.roles[i]);
+				this.legacy.put(this.bases[i], this.roles[i]);
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next = ThreadLocalRandom.current().nextInt(1 << 20);
+
+		Base nextBase(Caches caches) {
+			int i = this.next++ % caches.size;
+			return caches.bases[i];
+		}
+	}
+
+	// ==== lifting of existing roles: ====
+
+	@Benchmark
+	public Role liftLegacy(Caches caches, Cursor cursor) {
+		Base base = cursor.nextBase(caches);
+		LegacyDoublyWeakHashMap<Base,Role> cache = caches.legacy;
+		synchronized (cache) {
+			if (cache.containsKey(base))
+				return cache.get(base);
+		}
+		return null;
+	}
+
+	@Benchmark
+	public Role liftCurrent(Caches caches, Cursor cursor) {
+		Base base = cursor.nextBase(caches);
+		DoublyWeakHashMap<Base,Role> cache = caches.current;
+		synchronized (cache) {
+			if (cache.containsKey(base))
+				return cache.get(base);
+		}
+		return null;
+	}
+
+	@Benchmark
+	public Role liftCurrentConcurrent(Caches caches, Cursor cursor) {
+		return caches.current.get(cursor.nextBase(caches));
+	}
+
+	// ==== getAllRoles(): ====
+
+	@Benchmark
+	public Collection<Role> allRolesLegacy(Caches caches) {
+		return caches.legacy.values();
+	}
+
+	@Benchmark
+	public Collection<Role> allRolesCurrent(Caches caches) {
+		return caches.current.values();
+	}
+
+	// ==== registration of new roles: ====
+
+	@Benchmark
+	public Role registerLegacy(Caches caches) {
+		Base base = new Base();
+		Role role = new Role(base);
+		caches.legacy.put(base, role);
+		return caches.legacy.remove(base);
+	}
+
+	@Benchmark
+	public Role registerCurrent(Caches caches) {
+		Base base = new Base();
+		Role role = new Role(base);
+		caches.current.put(base, role);
+		return caches.current.remove(base);
+	}
+}
@@ -0,0 +1,62 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.WeakHashMap;
+
+/**
+ * Baseline for {@link DoublyWeakHashMapBenchmark}: the role cache of OT/J runtime versions up to 2.7,
+ * delegating to a WeakHashMap and additionally wrapping each value in a WeakReference.
+ * Only the operations used by generated team code are retained.
+ */
+public class LegacyDoublyWeakHashMap<K,V> {
+
+	private WeakHashMap<K, WeakReference<V>> map = new WeakHashMap<K, WeakReference<V>>();
+
+	public boolean containsKey(Object key) {
+		return this.map.containsKey(key);
+	}
+
+	public V get(Object key) {
+		WeakReference<V> valRef = this.map.get(key);
+		return valRef == null ? null : valRef.get();
+	}
+
+	public synchronized V put(K key, V value) {
+		this.map.put(key, new WeakReference<V>(value));
+		return value;
+	}
+
+	public synchronized V remove(Object key) {
+		WeakReference<V> value = this.map.remove(key);
+		return (value == null) ? null : value.get();
+	}
+
+	public synchronized Collection<V> values() {
+		ArrayList<V> result = new ArrayList<V>(this.map.size());
+		for (WeakReference<V> valRef : this.map.values()) {
+			V value = valRef.get();
+			if (value != null)
+				result.add(value);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,88 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of lifting base objects to roles and lowering them again ({@link LiftingTeam}),
+ * compared to navigating from a plain Java object to an associated wrapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LiftingBenchmark {
+
+	private static final int BASES = 1024; // must be a power of two
+
+	LiftingTeam liftingTeam;
+	Target[] bases;
+	PlainTarget[] plains;
+	int next;
+
+	@Setup
+	public void setup() {
+		this.liftingTeam = new LiftingTeam();
+		this.bases = new Target[BASES];
+		this.plains = new PlainTarget[BASES];
+		for (int i = 0; i < BASES; i++) {
+			this.bases[i] = new Target();
+			this.plains[i] = new PlainTarget();
+			this.liftingTeam.lift(this.bases[i]); // create all roles upfront
+		}
+	}
+
+	@Benchmark
+	public Object liftExistingPlain() {
+		return this.plains[this.next++ & (BASES-1)].wrapper;
+	}
+
+	@Benchmark
+	public Object liftExisting() {
+		return this.liftingTeam.lift(this.bases[this.next++ & (BASES-1)]);
+	}
+
+	@Benchmark
+	public Object liftAndLower() {
+		return this.liftingTeam.liftAndLower(this.bases[this.next++ & (BASES-1)]);
+	}
+
+	@Benchmark
+	public Object liftNewPlain() {
+		return new PlainTarget().wrapper;
+	}
+
+	@Benchmark
+	public Object liftNew() {
+		return this.liftingTeam.lift(new Target());
+	}
+}
@@ -0,0 +1,55 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+/**
+ * Team for measuring lifting, lowering and callout (including decapsulation) to {@link Target}.
+ */
+public team class LiftingTeam {
+
+	@SuppressWarnings("decapsulation")
+	protected class Wrapper playedBy Target {
+		// callout to a private field and a private method of the base class:
+		protected int getSecret() -> get int secret;
+		protected int compute(int i) -> int compute(int i);
+	}
+
+	Wrapper wrapper;
+
+	/** Lift the given base object, creating its role on first access. */
+	public Object lift(Target as Wrapper w) {
+		return w;
+	}
+
+	/** Lift the given base object and lower the role again. */
+	public Target liftAndLower(Target as Wrapper w) {
+		return w;
+	}
+
+	public void setWrapper(Target as Wrapper w) {
+		this.wrapper = w;
+	}
+
+	public int readSecret() {
+		return this.wrapper.getSecret();
+	}
+
+	public int compute(int i) {
+		return this.wrapper.compute(i);
+	}
+}
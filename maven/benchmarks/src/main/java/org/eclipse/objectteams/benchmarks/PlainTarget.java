@@ -0,0 +1,79 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+/**
+ * Plain Java twin of {@link Target}, no team adapts this class.
+ * Advice is hand-coded as direct calls to {@link #count()}, mimicking the work done by the role methods
+ * of {@link CallinTeam}, so that benchmarks can compare OT/J dispatch against plain Java.
+ */
+public class PlainTarget {
+
+	public static int staticCount;
+
+	private int secret = 42;
+	int value;
+	int count;
+	final Object wrapper = new Object();
+
+	void count() {
+		this.count++;
+	}
+
+	public int beforeMethod(int i) {
+		count();
+		return this.value += i;
+	}
+
+	public int afterMethod(int i) {
+		int result = this.value += i;
+		count();
+		return result;
+	}
+
+	public int replaceMethod(int i) {
+		count();
+		return basicReplaceMethod(i);
+	}
+
+	private int basicReplaceMethod(int i) {
+		return this.value += i;
+	}
+
+	public static int staticBeforeMethod(int i) {
+		staticCount++;
+		return i + 1;
+	}
+
+	public static int staticReplaceMethod(int i) {
+		staticCount++;
+		return basicStaticReplaceMethod(i);
+	}
+
+	private static int basicStaticReplaceMethod(int i) {
+		return i + 1;
+	}
+
+	public int getSecret() {
+		return this.secret;
+	}
+
+	public int compute(int i) {
+		return this.secret + i;
+	}
+}
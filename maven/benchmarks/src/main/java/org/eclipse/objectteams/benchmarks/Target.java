@@ -0,0 +1,53 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+/**
+ * Base class adapted by the teams of the runtime benchmarks.
+ * See {@link PlainTarget} for its unadapted twin used for baselines.
+ */
+public class Target {
+
+	private int secret = 42;
+	int value;
+
+	public int beforeMethod(int i) {
+		return this.value += i;
+	}
+
+	public int afterMethod(int i) {
+		return this.value += i;
+	}
+
+	public int replaceMethod(int i) {
+		return this.value += i;
+	}
+
+	public static int staticBeforeMethod(int i) {
+		return i + 1;
+	}
+
+	public static int staticReplaceMethod(int i) {
+		return i + 1;
+	}
+
+	@SuppressWarnings("unused") // accessed via callout
+	private int compute(int i) {
+		return this.secret + i;
+	}
+}
@@ -0,0 +1,125 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.benchmarks;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test for team activation with large numbers of short-lived virtual threads.
+ * <p>
+ * Each scenario starts <code>vt.threads</code> (default 1,000,000) virtual threads,
+ * each of which invokes a base method adapted by this team, and checks the number
+ * of callin invocations. Reported are the elapsed time and the heap retained after
+ * all threads have ended, which reveals per-thread bookkeeping of the runtime.
+ * </p>
+ * Run with <code>-Dot.thread.tracking=LAZY</code> to avoid registering each thread
+ * with the TeamThreadManager. Requires Java 21 (the code uses reflection
+ * so that it can be compiled at a lower source level).
+ */
+public team class VirtualThreadActivation {
+
+	final AtomicLong callinCount = new AtomicLong();
+
+	protected class Counter playedBy Worker {
+		void count() {
+			callinCount.incrementAndGet();
+		}
+		count <- after work;
+	}
+
+	// scenarios, as interpreted by runScenario():
+	static final int GLOBAL = 0, GLOBAL_DEACTIVATED = 1, PER_THREAD = 2, INHERITED = 3;
+
+	public static void main(String[] args) throws Exception {
+		int threads = Integer.getInteger("vt.threads", 1000000);
+		System.out.println("Starting "+threads+" virtual threads per scenario, ot.thread.tracking="+System.getProperty("ot.thread.tracking", "EAGER"));
+
+		measure("global activation", GLOBAL, threads, threads);
+		measure("global activation, deactivated for every other thread", GLOBAL_DEACTIVATED, threads, threads / 2);
+		measure("per-thread activation", PER_THREAD, threads, threads);
+		measure("inherited activation", INHERITED, threads, threads);
+	}
+
+	static void runScenario(int scenario, VirtualThreadActivation theTeam, Worker worker, int i) {
+		switch (scenario) {
+		case GLOBAL_DEACTIVATED:
+			if (i % 2 == 0)
+				theTeam.deactivate();
+			worker.work(i);
+			break;
+		case PER_THREAD:
+			theTeam.activate();
+			worker.work(i);
+			theTeam.deactivate();
+			break;
+		default:
+			worker.work(i);
+		}
+	}
+
+	static void measure(String name, final int scenario, int threads, long expectedCallins) throws Exception {
+		final VirtualThreadActivation theTeam = new VirtualThreadActivation();
+		final Worker worker = new Worker();
+		if (scenario == GLOBAL || scenario == GLOBAL_DEACTIVATED) {
+			theTeam.activate(ALL_THREADS);
+		} else if (scenario == INHERITED) {
+			theTeam.setInheritableActivation(true);
+			theTeam.activate();
+		}
+		long heapBefore = usedHeap();
+		long start = System.nanoTime();
+		ExecutorService executor = newVirtualThreadPerTaskExecutor();
+		for (int i = 0; i < threads; i++) {
+			final int n = i;
+			executor.execute(new Runnable() {
+				public void run() {
+					runScenario(scenario, theTeam, worker, n);
+				}
+			});
+		}
+		executor.shutdown();
+		if (!executor.awaitTermination(10, TimeUnit.MINUTES))
+			throw new IllegalStateException("Timeout in scenario "+name);
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		long retained = usedHeap() - heapBefore;
+		long callins = theTeam.callinCount.get();
+		System.out.println(String.format("%-60s %8d ms  %10d bytes retained  %s",
+				name, millis, retained, callins == expectedCallins ? "OK" : "FAILED: "+callins+" callins, expected "+expectedCallins));
+		theTeam.deactivate(ALL_THREADS);
+		theTeam.deactivate();
+		theTeam.setInheritableActivation(false);
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new UnsupportedOperationException("Virtual threads require Java 21 or greater", e);
+		}
+	}
+
+	static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
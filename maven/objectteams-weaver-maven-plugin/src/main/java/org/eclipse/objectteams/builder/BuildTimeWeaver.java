@@ -16,16 +16,32 @@
  */
 package org.eclipse.objectteams.builder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.instrument.IllegalClassFormatException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.JavaClass;
 import org.apache.bcel.generic.ClassGen;
 import org.apache.maven.plugin.MojoFailureException;
 import org.eclipse.objectteams.otre.ObjectTeamsTransformation;
@@ -42,15 +58,32 @@ import org.eclipse.objectteams.otre.jplis.ObjectTeamsTransformer;
  * <li>Only in a second phase we perform actual transformation, at which point we
  *     are sure, we don't miss any weaving instructions.</li>
  * </ul>
+ * In the second phase, classes other than the main class and the teams are read, checked and written
+ * in parallel (see {@link #setThreads(int)}). The transformation itself is performed one class at a time,
+ * because the OTRE keeps its state in static fields.
+ * If a state file is given (see {@link #setStateFile(File)}) weaving is incremental:
+ * as long as the team set (configuration plus the bytes of all scanned teams and roles) is unchanged,
+ * only those classes are woven again whose class file or superclass files have changed.
  */
 public class BuildTimeWeaver {
 
+	// synchronization: all scanning and transformation by the OTRE is protected using this monitor.
+	private static final Object OTRE_LOCK = new Object();
+
 	private ILogger logger;
 
 	private Set<String> scannedClasses;	// to avoid double scanning
 	private Set<String> wovenClasses;	// to avoid double weaving
 	
-	private int numMissing = 0;
+	private AtomicInteger numMissing = new AtomicInteger();
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private File stateFile;
+
+	// for incremental weaving:
+	private WeaverState previousState;
+	private WeaverState currentState;
+	private Set<String> previouslyWoven;
 
 	/**
 	 * Create a build time weaver wired to the given logger.
@@ -60,6 +93,22 @@ public class BuildTimeWeaver {
 		this.logger = logger;
 	}
 
+	/**
+	 * Set the number of threads for weaving classes other than the main class and the teams.
+	 * @param threads number of threads, values below 1 select the number of available processors.
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Enable incremental weaving by setting the file where the weaver records its state between invocations.
+	 * @param stateFile the state file, or null for weaving all classes in each invocation.
+	 */
+	public void setStateFile(File stateFile) {
+		this.stateFile = stateFile;
+	}
+
 	/**
 	 * Perform weaving for the given classes, reading classfiles using 'loader' and passing woven class bytes to the 'requestor'
 	 * @param teamClasses known team classes, if not listed here, bindings are not guaranteed to be applied correctly.
@@ -84,9 +133,24 @@ public class BuildTimeWeaver {
         for (String teamClassName : teamClasses)
 			teamFileNames.add(toClassFileName(teamClassName));
         //  - empty collections:
-		wovenClasses = new HashSet<>();
+		wovenClasses = Collections.synchronizedSet(new HashSet<String>());
 		scannedClasses = new HashSet<>();
 		Set<String> moreClassesToWeave = new HashSet<>();
+		//  - the team set, starting with the configuration:
+		previousState = stateFile != null ? WeaverState.read(stateFile, logger) : new WeaverState();
+		currentState = new WeaverState();
+		previouslyWoven = previousState.getWovenClassFiles();
+		Map<String, String> scannedDigests = new TreeMap<>();
+		MessageDigest teamSetDigest = WeaverState.newDigest();
+		updateDigest(teamSetDigest, "main="+mainClass);
+		for (String teamClassName : teamClasses)
+			updateDigest(teamSetDigest, "team="+teamClassName);
+		String teamConfig = System.getProperty("ot.teamconfig");
+		if (teamConfig != null) {
+			File teamConfigFile = new File(teamConfig);
+			if (teamConfigFile.exists())
+				teamSetDigest.update(Files.readAllBytes(teamConfigFile.toPath()));
+		}
 
 		// 1st round: scan all team classes so we know what to weave (stored in CallinBindingManager)
 		logger.info("==== Scanning OT classes ====");
@@ -96,19 +160,27 @@ public class BuildTimeWeaver {
 			for (String classFileName : current) {
 				scannedClasses.add(classFileName);
 				logger.info("Scanning OT class: "+classFileName);
-				try (InputStream stream = loader.getResourceAsStream(classFileName)) {
-					if (stream == null) {
-						logger.error("Failed to read class "+classFileName);
-						numMissing++;
-					} else {
-						Collection<String> adaptedBases = readOTAttributes(transformer, stream, classFileName, loader, otClasses);
-						moreClassesToWeave.addAll(adaptedBases);
+				byte[] classBytes = readClassFile(loader, classFileName);
+				if (classBytes != null) {
+					scannedDigests.put(classFileName, WeaverState.toHex(WeaverState.newDigest().digest(classBytes)));
+					Collection<String> adaptedBases;
+					synchronized (OTRE_LOCK) {
+						adaptedBases = readOTAttributes(transformer, new ByteArrayInputStream(classBytes), classFileName, loader, otClasses);
 					}
+					moreClassesToWeave.addAll(adaptedBases);
 				}
 				moreClassesToWeave.addAll(otClasses);
 			}
 			current = otClasses; // iterate over (transitively) referenced roles and teams
 		}
+		for (Map.Entry<String, String> entry : scannedDigests.entrySet())
+			updateDigest(teamSetDigest, entry.getKey()+'='+entry.getValue());
+		currentState.teamSetDigest = WeaverState.toHex(teamSetDigest.digest());
+		if (!currentState.teamSetDigest.equals(previousState.teamSetDigest)) {
+			if (previousState.teamSetDigest != null)
+				logger.info("Team set has changed, weaving all classes");
+			previousState.entries.clear();
+		}
 
 		// 2.a: if a main class is specified weave it first to insert team activations:
 		if (mainClass != null) {
@@ -120,37 +192,137 @@ public class BuildTimeWeaver {
 		for (String teamClassFile : teamFileNames)
 			weaveClass(transformer, loader, teamClassFile, requestor);
 		// 2.c: weave all other classes:
-		logger.info("==== Weaving other classes ====");
-		for (String anyClass : moreClassesToWeave)
-			weaveClass(transformer, loader, anyClass, requestor);
+		logger.info("==== Weaving other classes ("+threads+" threads) ====");
+		weaveInParallel(transformer, moreClassesToWeave, loader, requestor);
+		// remove output of classes no longer considered for weaving:
+		Set<String> obsolete = new HashSet<>(previouslyWoven);
+		obsolete.removeAll(wovenClasses);
+		for (String classFile : obsolete) {
+			logger.debug("Removing obsolete woven class: "+classFile);
+			requestor.remove(classFile);
+		}
 		logger.info("==== Number of woven classes: "+wovenClasses.size()+" ====");
-		if (numMissing > 0)
+		if (stateFile != null)
+			currentState.write(stateFile);
+		if (numMissing.get() > 0)
 			throw new MojoFailureException("Could not read "+numMissing+" class files");
 	}
 
+	private void weaveInParallel(final ObjectTeamsTransformer transformer, Collection<String> classFiles,
+			final ClassLoader loader, final Requestor requestor)
+			throws IOException, IllegalClassFormatException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> results = new ArrayList<>();
+			for (final String classFile : classFiles) {
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						weaveClass(transformer, loader, classFile, requestor);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results)
+				result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while weaving", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof IllegalClassFormatException)
+				throw (IllegalClassFormatException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private void weaveClass(ObjectTeamsTransformer transformer, ClassLoader loader, String classFile, Requestor requestor)
 			throws IOException, IllegalClassFormatException 
 	{
 		if (!wovenClasses.add(classFile))
 			return;
+		byte[] classBytes = readClassFile(loader, classFile);
+		if (classBytes == null)
+			return;
+		boolean isTeam = scannedClasses.contains(classFile);
+		String inputDigest = null;
+		if (!isTeam) {
+			// teams (and roles) are always woven, their changes are covered by the team set digest
+			inputDigest = computeInputDigest(loader, classBytes);
+			WeaverState.Entry previous = previousState.entries.get(classFile);
+			if (previous != null && previous.inputDigest.equals(inputDigest)
+					&& (!previous.isWoven || requestor.isPresent(classFile)))
+			{
+				currentState.entries.put(classFile, previous);
+				logger.debug("Unchanged class: "+classFile);
+				return;
+			}
+		}
+		byte[] newBytes;
+		synchronized (OTRE_LOCK) {
+			newBytes = transformer.transform(loader, classFile, null, null, classBytes);
+		}
+		boolean isWoven = newBytes != null && newBytes != classBytes;
+		if (isWoven) {
+			requestor.accept(classFile, newBytes);
+			logger.debug("Has woven class: "+classFile);
+		} else if (previouslyWoven.contains(classFile)) {
+			requestor.remove(classFile); // no longer affected by weaving
+		}
+		if (inputDigest != null)
+			currentState.entries.put(classFile, new WeaverState.Entry(inputDigest, isWoven));
+	}
+
+	/** Read the given class file, or report an error and answer null if it cannot be found. */
+	private byte[] readClassFile(ClassLoader loader, String classFile) throws IOException {
 		try (InputStream stream = loader.getResourceAsStream(classFile)) {
 			if (stream == null) {
 				logger.error("Failed to read class "+classFile);
-				numMissing++;
-			} else {
-				int avail = stream.available();
-				byte[] classBytes = new byte[avail];
-				int real = 0;
-				while (real < avail)
-					real += stream.read(classBytes, real, avail-real);
-				byte[] newBytes = transformer.transform(loader, classFile, null, null, classBytes);
-				if (newBytes != classBytes) {
-					requestor.accept(classFile, newBytes);
-					logger.debug("Has woven class: "+classFile);
-				}
+				numMissing.incrementAndGet();
+				return null;
 			}
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = stream.read(buffer)) != -1)
+				bytes.write(buffer, 0, n);
+			return bytes.toByteArray();
 		}
 	}
+
+	/**
+	 * Compute the digest of all inputs for weaving a base class, besides the team set:
+	 * the class file itself and the class files of its superclasses.
+	 */
+	private String computeInputDigest(ClassLoader loader, byte[] classBytes) throws IOException {
+		MessageDigest digest = WeaverState.newDigest();
+		digest.update(classBytes);
+		String superclassName = new ClassParser(new ByteArrayInputStream(classBytes), "").parse().getSuperclassName();
+		while (!superclassName.startsWith("java.")) {
+			try (InputStream stream = loader.getResourceAsStream(toClassFileName(superclassName))) {
+				if (stream == null)
+					break;
+				JavaClass superclass = new ClassParser(stream, superclassName).parse();
+				digest.update(superclass.getBytes());
+				superclassName = superclass.getSuperclassName();
+			}
+		}
+		return WeaverState.toHex(digest.digest());
+	}
+
+	private static void updateDigest(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
 	
 	/**
 	 * Modified version of original OTRE API.
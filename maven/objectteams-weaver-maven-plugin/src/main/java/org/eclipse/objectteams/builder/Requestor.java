@@ -51,4 +51,22 @@ public class Requestor {
 			outStream.write(classBytes);
 		}		
 	}
+
+	/**
+	 * Callback for the {@link BuildTimeWeaver} during incremental weaving:
+	 * is the transformed class from a previous invocation still available?
+	 * @param className class name in binary form ('/'-separated).
+	 */
+	public boolean isPresent(String className) {
+		return new File(outDir+File.separator+className).exists();
+	}
+
+	/**
+	 * Callback for the {@link BuildTimeWeaver} during incremental weaving:
+	 * a class that has been transformed by a previous invocation is no longer affected by weaving.
+	 * @param className class name in binary form ('/'-separated).
+	 */
+	public void remove(String className) {
+		new File(outDir+File.separator+className).delete();
+	}
 }
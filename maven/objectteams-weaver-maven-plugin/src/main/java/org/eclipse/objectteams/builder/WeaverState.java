@@ -0,0 +1,128 @@
+/**
+ * This file is part of "Object Teams Development Tooling"-Software.
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	Eclipse Foundation - Initial API and implementation.
+ */
+package org.eclipse.objectteams.builder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent state of the {@link BuildTimeWeaver} enabling incremental weaving.
+ * <p>
+ * The state records a digest of the <em>team set</em>, i.e., the configuration plus the bytes of all scanned
+ * teams and roles, because any change in there can change the weaving of any base class.
+ * Additionally, for each base class the digest of its inputs (its own class file and those of its superclasses)
+ * is recorded, together with the information whether weaving changed the class.
+ * A class needs to be woven again if its inputs or the team set changed.
+ * </p>
+ */
+class WeaverState {
+
+	private static final String HEADER = "# OT/J build-time weaver state, version 1";
+	private static final String TEAM_SET_KEY = "#teams=";
+
+	/** Recorded information about one class file. */
+	static class Entry {
+		final String inputDigest;
+		final boolean isWoven;
+		Entry(String inputDigest, boolean isWoven) {
+			this.inputDigest = inputDigest;
+			this.isWoven = isWoven;
+		}
+	}
+
+	String teamSetDigest;
+	Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Read the state from the given file.
+	 * @return the state, or an empty state if the file doesn't exist or cannot be read
+	 */
+	static WeaverState read(File file, ILogger logger) {
+		WeaverState state = new WeaverState();
+		if (!file.exists())
+			return state;
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			if (!HEADER.equals(reader.readLine()))
+				return state;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(TEAM_SET_KEY)) {
+					state.teamSetDigest = line.substring(TEAM_SET_KEY.length());
+					continue;
+				}
+				// classFileName=digest|woven
+				int eq = line.lastIndexOf('=');
+				int bar = line.lastIndexOf('|');
+				if (eq != -1 && bar > eq)
+					state.entries.put(line.substring(0, eq),
+							new Entry(line.substring(eq+1, bar), Boolean.parseBoolean(line.substring(bar+1))));
+			}
+		} catch (IOException e) {
+			logger.error("Failed to read weaver state "+file+": "+e.getMessage());
+			state.entries.clear();
+		}
+		return state;
+	}
+
+	/** Write this state to the given file. */
+	void write(File file) throws IOException {
+		File parent = file.getParentFile();
+		if (parent != null && !parent.exists())
+			parent.mkdirs();
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.append(HEADER).append('\n');
+			writer.append(TEAM_SET_KEY).append(this.teamSetDigest).append('\n');
+			for (Map.Entry<String, Entry> entry : new TreeMap<>(this.entries).entrySet())
+				writer.append(entry.getKey()).append('=').append(entry.getValue().inputDigest)
+					.append('|').append(String.valueOf(entry.getValue().isWoven)).append('\n');
+		}
+	}
+
+	/** Answer the names of all class files recorded as woven. */
+	Set<String> getWovenClassFiles() {
+		Set<String> result = new HashSet<>();
+		for (Map.Entry<String, Entry> entry : this.entries.entrySet())
+			if (entry.getValue().isWoven)
+				result.add(entry.getKey());
+		return result;
+	}
+
+	static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); // mandatory algorithm
+		}
+	}
+
+	static String toHex(byte[] digest) {
+		StringBuilder buf = new StringBuilder(digest.length*2);
+		for (byte b : digest)
+			buf.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		return buf.toString();
+	}
+}
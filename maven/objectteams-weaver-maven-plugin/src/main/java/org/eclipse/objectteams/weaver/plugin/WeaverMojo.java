@@ -16,8 +16,11 @@
  */
 package org.eclipse.objectteams.weaver.plugin;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -27,6 +30,8 @@ import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -52,7 +57,15 @@ import org.eclipse.objectteams.builder.Requestor;
  * <li>{@link #teamClasses}
  * <li>{@link #activeTeamClasses} 
  * <li>{@link #mainClass}
+ * <li>{@link #wovenClassDirectory}
+ * <li>{@link #threads}
+ * <li>{@link #incremental}
+ * <li>{@link #weavingScheme}
  * </ul>
+ * With weaving scheme OTRE only reading, digesting and writing class files use {@link #threads},
+ * the OTRE transforms one class at a time, because it keeps its state in static fields.
+ * With weaving scheme OTDRE the classes are woven by the ahead-of-time weaver of the OTDRE
+ * in a separate JVM, see {@link #weaveAheadOfTime(File)}. This weaving is neither parallel nor incremental.
  */
 @Mojo(name="weave",defaultPhase=LifecyclePhase.PROCESS_CLASSES)
 public class WeaverMojo extends AbstractMojo
@@ -63,12 +76,23 @@ public class WeaverMojo extends AbstractMojo
 
 	private static final String MISSING_MAIN_CLASS_NAME_ERROR =
 			"Missing main class name. A main class is mandatory when activeTeamClasses are given";
+	private static final String MISSING_TEAM_CLASSES_ERROR =
+			"Missing team classes. Team classes are mandatory for weaving scheme OTRE";
+
+	private static final String WEAVING_SCHEME_OTDRE = "OTDRE"; //$NON-NLS-1$
+	private static final String OT_GROUP_ID = "org.eclipse.objectteams"; //$NON-NLS-1$
+	private static final String ASM_GROUP_ID = "org.ow2.asm"; //$NON-NLS-1$
+	private static final String[] ASM_ARTIFACT_IDS = { "asm", "asm-tree", "asm-commons", "asm-util", "asm-analysis" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	private static final String AOT_WEAVER_CLASS = "org.eclipse.objectteams.otredyn.transformer.aot.AheadOfTimeWeaver"; //$NON-NLS-1$
 
 
 	// ======== Parameters for configuration via pom.xml: =========
 	
-	/** List of all team classes to weave. */
-	@Parameter(required=true)
+	/**
+	 * List of all team classes to weave, required for weaving scheme OTRE.
+	 * With weaving scheme OTDRE all teams found in the project's output directory are woven.
+	 */
+	@Parameter
 	protected String[] teamClasses;
 
 	/**
@@ -91,6 +115,46 @@ public class WeaverMojo extends AbstractMojo
 	@Parameter(defaultValue="target/woven-classes")
     protected File wovenClassDirectory;
 
+	/**
+	 * Number of threads for reading, digesting and writing class files, 0 means: one per available processor.
+	 * Transformation by the OTRE is performed one class at a time.
+	 */
+	@Parameter(defaultValue="0")
+	protected int threads;
+
+	/**
+	 * Whether only classes affected by changes since the previous invocation should be woven.
+	 * Any change in the configuration or in a team or role causes all classes to be woven.
+	 */
+	@Parameter(defaultValue="true")
+	protected boolean incremental;
+
+	/**
+	 * Where the weaver records its state for incremental weaving.
+	 */
+	@Parameter(defaultValue="${project.build.directory}/objectteams-weaver.state")
+	protected File stateFile;
+
+	/**
+	 * Weaving scheme for which the classes should be woven: "OTRE" or "OTDRE",
+	 * must match the weaving scheme used for compiling.
+	 * Parameters {@link #threads} and {@link #incremental} apply to the OTRE only.
+	 */
+	@Parameter(defaultValue="OTRE")
+	protected String weavingScheme;
+
+	/** Version of the OTDRE (artifact <code>objectteams-otdre</code>) performing ahead-of-time weaving. */
+	@Parameter(defaultValue="1.4.2")
+	protected String otdreVersion;
+
+	/** Version of the OT/J runtime (artifact <code>objectteams-runtime</code>) used with the OTDRE. */
+	@Parameter(defaultValue="2.8.2")
+	protected String otdreRuntimeVersion;
+
+	/** Version of ASM used by the OTDRE. */
+	@Parameter(defaultValue="9.8")
+	protected String asmVersion;
+
 	// ====== Parameters not meant for client configuration, simply access project context: =====
 	
 	@Parameter(defaultValue="${project}")
@@ -114,24 +178,17 @@ public class WeaverMojo extends AbstractMojo
 			wovenClassDirectory.mkdirs();
 
 		try {
-			ILogger logger = new ILogger() {
-				@Override public void info(String msg)  { getLog().info(msg); }
-				@Override public void debug(String msg) { getLog().debug(msg); }
-				@Override public void error(String msg) { getLog().error(msg); }
-			};
-			BuildTimeWeaver weaver = new BuildTimeWeaver(logger);
-
+			File configFile = null;
 			if (activeTeamClasses != null && activeTeamClasses.length != 0) {
 				if (mainClass == null) {
 					getLog().error(MISSING_MAIN_CLASS_NAME_ERROR);
 					throw new MojoFailureException(MISSING_MAIN_CLASS_NAME_ERROR);
 				}
-				File configFile = new File(wovenClassDirectory, OT_TEAMCONFIG_FILENAME);
+				configFile = new File(wovenClassDirectory, OT_TEAMCONFIG_FILENAME);
 				try (FileWriter fileWriter = new FileWriter(configFile)) {
 					for (String activeTeam : activeTeamClasses)
 						fileWriter.append(activeTeam+'\n');
 				}
-				System.setProperty(OT_TEAMCONFIG_PROPERTY, configFile.getAbsolutePath());
 			} else {
 				String configProperty = System.getProperty(OT_TEAMCONFIG_PROPERTY);
 				if (configProperty != null) {
@@ -139,13 +196,37 @@ public class WeaverMojo extends AbstractMojo
 				}
 			}
 
+			if (WEAVING_SCHEME_OTDRE.equalsIgnoreCase(weavingScheme)) {
+				weaveAheadOfTime(configFile);
+				return;
+			}
+
+			if (teamClasses == null || teamClasses.length == 0) {
+				getLog().error(MISSING_TEAM_CLASSES_ERROR);
+				throw new MojoFailureException(MISSING_TEAM_CLASSES_ERROR);
+			}
+			if (configFile != null)
+				System.setProperty(OT_TEAMCONFIG_PROPERTY, configFile.getAbsolutePath());
+
+			ILogger logger = new ILogger() {
+				@Override public void info(String msg)  { getLog().info(msg); }
+				@Override public void debug(String msg) { getLog().debug(msg); }
+				@Override public void error(String msg) { getLog().error(msg); }
+			};
+			BuildTimeWeaver weaver = new BuildTimeWeaver(logger);
+			weaver.setThreads(threads);
+			if (incremental)
+				weaver.setStateFile(stateFile);
+			else if (stateFile.exists())
+				stateFile.delete();
+
 			Requestor requestor = new Requestor(wovenClassDirectory.getAbsolutePath());
 
 			ClassLoader loader= getClassLoader();
 
 			weaver.weave(teamClasses, mainClass, loader, requestor);
 
-		} catch (MojoFailureException e) {
+		} catch (MojoFailureException | MojoExecutionException e) {
 			throw e;
 		} catch (Throwable e) {
         	throw new MojoExecutionException("Failed to weave classes", e);
@@ -170,6 +251,88 @@ public class WeaverMojo extends AbstractMojo
 	    return new URLClassLoader(urls.toArray(new URL[] {}));
     }
 
+    /**
+     * Weave all classes of the project's output directory using the ahead-of-time weaver of the OTDRE.
+     * The weaver runs in a separate JVM, because it must be invoked at most once per JVM,
+     * and because the OTDRE and its version of the OT/J runtime must not be mixed with the OTRE used by this plug-in.
+     * All classes and resources are written to {@link #wovenClassDirectory}, which can then be run without a java agent.
+     * @param configFile file listing the teams to activate at program start, or null
+     */
+    private void weaveAheadOfTime(File configFile)
+    		throws MojoExecutionException, MojoFailureException, DependencyResolutionRequiredException, IOException, InterruptedException
+    {
+    	String outputDirectory = mavenProject.getBuild().getOutputDirectory();
+    	List<String> command = new ArrayList<String>();
+    	command.add(System.getProperty("java.home")+File.separator+"bin"+File.separator+"java");
+    	if (configFile != null)
+    		command.add("-D"+OT_TEAMCONFIG_PROPERTY+"="+configFile.getAbsolutePath());
+    	command.add("-cp");
+    	command.add(toPath(resolveOTDRE()));
+    	command.add(AOT_WEAVER_CLASS);
+    	if (mainClass != null) {
+    		command.add("-main");
+    		command.add(mainClass);
+    	}
+    	List<String> libraries = new ArrayList<String>();
+	    for (Object object : mavenProject.getCompileClasspathElements())
+	    	if (!outputDirectory.equals(object))
+	    		libraries.add((String) object);
+	    for (Dependency dependency : mavenProject.getDependencies()) {
+	    	Artifact artifact = repoSystem.createDependencyArtifact(dependency);
+	    	libraries.add(new File(localRepository.getBasedir(), localRepository.pathOf(artifact)).getPath());
+	    }
+	    if (!libraries.isEmpty()) {
+	    	command.add("-lib");
+	    	command.add(toPath(libraries));
+	    }
+    	command.add("-out");
+    	command.add(wovenClassDirectory.getAbsolutePath());
+    	command.add(outputDirectory);
+
+    	getLog().info("==== Weaving ahead of time for the OTDRE ====");
+    	getLog().debug("WeaverMojo running "+command);
+    	Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    	try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+    		String line;
+    		while ((line = reader.readLine()) != null)
+    			getLog().info(line);
+    	}
+    	int exitCode = process.waitFor();
+    	if (exitCode != 0)
+    		throw new MojoFailureException("Ahead-of-time weaving failed with exit code "+exitCode);
+    }
+
+    /** Resolve the jar files of the OTDRE, the corresponding OT/J runtime and ASM. */
+    private List<String> resolveOTDRE() throws MojoExecutionException {
+    	List<Artifact> artifacts = new ArrayList<Artifact>();
+    	artifacts.add(repoSystem.createArtifact(OT_GROUP_ID, "objectteams-otdre", otdreVersion, "jar"));
+    	artifacts.add(repoSystem.createArtifact(OT_GROUP_ID, "objectteams-runtime", otdreRuntimeVersion, "jar"));
+    	for (String asmArtifactId : ASM_ARTIFACT_IDS)
+    		artifacts.add(repoSystem.createArtifact(ASM_GROUP_ID, asmArtifactId, asmVersion, "jar"));
+    	List<String> result = new ArrayList<String>();
+    	for (Artifact artifact : artifacts) {
+    		ArtifactResolutionRequest request = new ArtifactResolutionRequest();
+    		request.setArtifact(artifact);
+    		request.setLocalRepository(localRepository);
+    		request.setRemoteRepositories(mavenProject.getRemoteArtifactRepositories());
+    		ArtifactResolutionResult resolution = repoSystem.resolve(request);
+    		if (!resolution.isSuccess() || artifact.getFile() == null)
+    			throw new MojoExecutionException("Failed to resolve "+artifact);
+    		result.add(artifact.getFile().getAbsolutePath());
+    	}
+    	return result;
+    }
+
+    private static String toPath(List<String> files) {
+    	StringBuilder buf = new StringBuilder();
+    	for (String file : files) {
+    		if (buf.length() > 0)
+    			buf.append(File.pathSeparatorChar);
+    		buf.append(file);
+    	}
+    	return buf.toString();
+    }
+
     // ------------- currently unused: ---------------------
     
     /**
@@ -0,0 +1,237 @@
+/**
+ * This file is part of "Object Teams Development Tooling"-Software.
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	Eclipse Foundation - Initial API and implementation
+ */
+package org.eclipse.objectteams.builder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.core.compiler.batch.BatchCompiler;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectteams.Team;
+
+/**
+ * Tests for parallel and incremental weaving by the {@link BuildTimeWeaver}.
+ * <p>
+ * Since the OTRE keeps its state in static fields, each invocation of the weaver runs
+ * in a fresh class loader, like in a new Maven build.
+ * </p>
+ */
+public class BuildTimeWeaverTest {
+
+	static final int NUM_BASES = 12;
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File src;
+	private File classes;
+
+	/** Invokes the weaver inside the isolated class loader. */
+	public static class Driver {
+		/** Weave the team p.T and its bases, answer the names of all class files passed to the requestor. */
+		public static List<String> weave(File classes, File out, File stateFile, int threads) throws Exception {
+			final List<String> accepted = Collections.synchronizedList(new ArrayList<String>());
+			BuildTimeWeaver weaver = new BuildTimeWeaver(new ILogger() {
+				@Override public void info(String msg)  { /* quiet */ }
+				@Override public void debug(String msg) { /* quiet */ }
+				@Override public void error(String msg) { System.err.println(msg); }
+			});
+			weaver.setThreads(threads);
+			weaver.setStateFile(stateFile);
+			Requestor requestor = new Requestor(out.getAbsolutePath()) {
+				@Override
+				public void accept(String className, byte[] classBytes) throws IOException {
+					accepted.add(className);
+					super.accept(className, classBytes);
+				}
+			};
+			try (URLClassLoader loader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, Driver.class.getClassLoader())) {
+				weaver.weave(new String[] { "p.T" }, null, loader, requestor);
+			}
+			List<String> result = new ArrayList<>(accepted);
+			Collections.sort(result);
+			return result;
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		this.src = this.tmp.newFolder("src");
+		this.classes = this.tmp.newFolder("classes");
+		writeSource("p/Base.java",
+				"package p;\n" +
+				"public class Base {\n" +
+				"	public String name() { return \"base\"; }\n" +
+				"}\n");
+		StringBuilder team = new StringBuilder();
+		team.append("package p;\n");
+		team.append("public team class T {\n");
+		for (int i = 0; i < NUM_BASES; i++) {
+			writeSource("p/B"+i+".java",
+					"package p;\n" +
+					"public class B"+i+" extends Base {\n" +
+					"	public String m() { return \"B"+i+"\"; }\n" +
+					"}\n");
+			team.append("	protected class R"+i+" playedBy B"+i+" {\n");
+			team.append("		void log() { }\n");
+			team.append("		void log() <- after String m();\n");
+			team.append("	}\n");
+		}
+		team.append("}\n");
+		writeSource("p/T.java", team.toString());
+		writeSource("p/Unrelated.java",
+				"package p;\n" +
+				"public class Unrelated { }\n");
+		compile();
+	}
+
+	private void writeSource(String fileName, String contents) throws IOException {
+		File file = new File(this.src, fileName);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void compile() throws IOException {
+		String runtime = new File(Team.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getPath();
+		StringWriter err = new StringWriter();
+		boolean success = BatchCompiler.compile(
+				new String[] { "-1.7", "-nowarn", "-proc:none", "-cp", runtime, "-d", this.classes.getPath(), this.src.getPath() },
+				new PrintWriter(new StringWriter()), new PrintWriter(err), null);
+		assertTrue("compilation failed: "+err, success);
+	}
+
+	/** Run the weaver in a fresh class loader. */
+	@SuppressWarnings("unchecked")
+	private List<String> weave(File out, File stateFile, int threads) throws Exception {
+		List<URL> urls = new ArrayList<>();
+		String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+		for (String entry : classPath.split(File.pathSeparator))
+			urls.add(new File(entry).toURI().toURL());
+		try (URLClassLoader isolated = new URLClassLoader(urls.toArray(new URL[urls.size()]), null)) {
+			Class<?> driver = isolated.loadClass(Driver.class.getName());
+			return (List<String>) driver.getMethod("weave", File.class, File.class, File.class, int.class)
+					.invoke(null, this.classes, out, stateFile, threads);
+		}
+	}
+
+	private static List<String> bases(List<String> classFiles) {
+		List<String> result = new ArrayList<>();
+		for (String classFile : classFiles)
+			if (classFile.startsWith("p/B"))
+				result.add(classFile);
+		return result;
+	}
+
+	private static Map<String, byte[]> readAll(File dir) throws IOException {
+		Map<String, byte[]> result = new TreeMap<>();
+		readAll(dir, "", result);
+		return result;
+	}
+
+	private static void readAll(File dir, String prefix, Map<String, byte[]> result) throws IOException {
+		File[] files = dir.listFiles();
+		if (files == null)
+			return;
+		for (File file : files) {
+			if (file.isDirectory())
+				readAll(file, prefix+file.getName()+'/', result);
+			else
+				result.put(prefix+file.getName(), Files.readAllBytes(file.toPath()));
+		}
+	}
+
+	// weaving with several threads produces the same classes as weaving with one thread
+	@Test
+	public void testParallelOutputIdentical() throws Exception {
+		File sequentialOut = this.tmp.newFolder("out1");
+		File parallelOut = this.tmp.newFolder("out8");
+		List<String> sequential = weave(sequentialOut, null, 1);
+		List<String> parallel = weave(parallelOut, null, 8);
+		assertEquals(NUM_BASES, bases(sequential).size());
+		assertEquals(sequential, parallel);
+
+		Map<String, byte[]> expected = readAll(sequentialOut);
+		Map<String, byte[]> actual = readAll(parallelOut);
+		assertEquals(expected.keySet(), actual.keySet());
+		for (Map.Entry<String, byte[]> entry : expected.entrySet())
+			assertArrayEquals(entry.getKey(), entry.getValue(), actual.get(entry.getKey()));
+	}
+
+	// with a state file only those base classes are woven again, whose inputs have changed
+	@Test
+	public void testIncrementalSkip() throws Exception {
+		File out = this.tmp.newFolder("out");
+		File stateFile = new File(this.tmp.getRoot(), "weaver.state");
+
+		List<String> woven = weave(out, stateFile, 4);
+		assertEquals(NUM_BASES, bases(woven).size());
+		assertFalse(woven.contains("p/Unrelated.class"));
+		assertTrue(stateFile.exists());
+
+		// nothing changed:
+		woven = weave(out, stateFile, 4);
+		assertEquals("[]", bases(woven).toString());
+
+		// one base class changed:
+		writeSource("p/B3.java",
+				"package p;\n" +
+				"public class B3 extends Base {\n" +
+				"	public String m() { return \"changed\"; }\n" +
+				"}\n");
+		compile();
+		woven = weave(out, stateFile, 4);
+		assertEquals("[p/B3.class]", bases(woven).toString());
+
+		// woven output was deleted:
+		assertTrue(new File(out, "p/B5.class").delete());
+		woven = weave(out, stateFile, 4);
+		assertEquals("[p/B5.class]", bases(woven).toString());
+
+		// the common superclass changed:
+		writeSource("p/Base.java",
+				"package p;\n" +
+				"public class Base {\n" +
+				"	public String name() { return \"changed\"; }\n" +
+				"}\n");
+		compile();
+		woven = weave(out, stateFile, 4);
+		assertEquals(NUM_BASES, bases(woven).size());
+
+		// without a state file, all classes are woven:
+		woven = weave(out, null, 4);
+		assertEquals(NUM_BASES, bases(woven).size());
+	}
+}
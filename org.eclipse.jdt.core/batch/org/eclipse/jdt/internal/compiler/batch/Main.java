@@ -2742,6 +2742,20 @@ public void configure(String[] argv) {
 							CompilerOptions.WeavingScheme.OTDRE.toString());
 				    continue;
 				}
+				if (currentArg.equals("-ot.lifting:concurrent")) { //$NON-NLS-1$
+				    mode = DEFAULT;
+					this.options.put(
+							CompilerOptions.OPTION_ConcurrentLifting,
+							CompilerOptions.ENABLED);
+				    continue;
+				}
+				if (currentArg.equals("-ot.parsing:parallel")) { //$NON-NLS-1$
+				    mode = DEFAULT;
+					this.options.put(
+							CompilerOptions.OPTION_ParallelHierarchies,
+							CompilerOptions.ENABLED);
+				    continue;
+				}
 // SH}
 				// tolerated javac options - quietly filtered out
 				if (currentArg.startsWith("-X")) { //$NON-NLS-1$
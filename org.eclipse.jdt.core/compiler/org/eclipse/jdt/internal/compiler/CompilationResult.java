@@ -72,6 +72,8 @@ import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.jdt.internal.compiler.parser.RecoveryScannerData;
 import org.eclipse.jdt.internal.compiler.problem.DefaultProblem;
 import org.eclipse.jdt.internal.compiler.util.Util;
+import org.eclipse.objectteams.otdt.core.compiler.IOTConstants;
+import org.eclipse.objectteams.otdt.internal.core.compiler.util.TypeAnalyzer;
 
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public class CompilationResult {
@@ -140,6 +142,43 @@ public class CompilationResult {
 		}
 		return false;
 	}
+	// dependencies for the incremental builder, recorded before bindings are cleaned up.
+	// qualified type names of the form "p1/p2/T$R", role files referenced by their interface part:
+	public Set<String> superTeamNames = null;	// super teams and enclosing teams of tsuper roles
+	public Set<String> baseClassNames = null;	// base classes of all roles incl. inherited bindings
+	public String enclosingTeamName = null;		// team of a role file
+	public void recordOTDependencies(SourceTypeBinding type) {
+		if (type == null)
+			return;
+		if (type.isTeam() && !type.isRole()) {
+			ReferenceBinding superclass = type.superclass();
+			if (superclass != null && superclass.isTeam())
+				this.superTeamNames = addTypeName(this.superTeamNames, superclass);
+		}
+		if (type.isRole() && type.roleModel != null) {
+			ReferenceBinding baseclass = type.baseclass();
+			if (baseclass != null)
+				this.baseClassNames = addTypeName(this.baseClassNames, baseclass);
+			for (ReferenceBinding tsuperRole : type.roleModel.getTSuperRoleBindings())
+				if (tsuperRole.enclosingType() != null)
+					this.superTeamNames = addTypeName(this.superTeamNames, tsuperRole.enclosingType());
+		}
+	}
+	public void recordRoleFile(SourceTypeBinding roleFile) {
+		if (roleFile != null && roleFile.enclosingType() != null)
+			this.enclosingTeamName = typeName(roleFile.enclosingType());
+	}
+	private static Set<String> addTypeName(Set<String> names, ReferenceBinding type) {
+		if (TypeAnalyzer.isOrgObjectteamsTeam(type))
+			return names; // predefined, not compiled by the builder
+		if (names == null)
+			names = new HashSet<String>();
+		names.add(typeName(type));
+		return names;
+	}
+	private static String typeName(ReferenceBinding type) {
+		return new String(type.erasure().constantPoolName()).replace("$"+IOTConstants.OT_DELIM, "$"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
 // SH}
 
 	private static final int[] EMPTY_LINE_ENDS = Util.EMPTY_INT_ARRAY;
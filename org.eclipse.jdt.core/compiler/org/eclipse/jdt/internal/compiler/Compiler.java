@@ -624,6 +624,20 @@ public class Compiler implements ITypeRequestor, ProblemSeverities {
 		CompilationUnitDeclaration unit = null;
 		ProcessTaskManager processingTask = null;
 		try {
+//{ObjectTeams: parse methods of independent team hierarchies in parallel (opt-in),
+//				only when no subclass has customized the parser or the problem reporter:
+			if ((this.options.parallelHierarchies || Dependencies.PARALLEL_HIERARCHIES)
+					&& this.parser.getClass() == Parser.class
+					&& this.problemReporter.getClass() == ProblemReporter.class)
+			{
+				long parseStart = System.currentTimeMillis();
+				Dependencies.ensureMethodsParsedInParallel(this.unitsToProcess, startingIndex, this.totalUnits,
+						() -> new Parser(
+									new ProblemReporter(this.problemReporter.policy, this.options, this.problemReporter.problemFactory),
+									this.options.parseLiteralExpressionsAsConstants));
+				this.stats.parseTime += System.currentTimeMillis() - parseStart;
+			}
+// SH}
 			if (this.useSingleThread) {
 				// process all units (some more could be injected in the loop by the lookup environment)
 				for (int i = startingIndex; i < this.totalUnits; i++) {
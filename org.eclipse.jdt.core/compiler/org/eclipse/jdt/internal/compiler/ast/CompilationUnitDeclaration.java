@@ -207,12 +207,19 @@ public void cleanUp() {
 
 	this.compilationResult.recoveryScannerData = null; // recovery is already done
 
+//{ObjectTeams: remember the team of a role file for the incremental builder:
+	if (this.compilationResult.roleFileDepth > 0 && this.types != null && this.types.length > 0)
+		this.compilationResult.recordRoleFile(this.types[0].binding);
+// SH}
+
 	ClassFile[] classFiles = this.compilationResult.getClassFiles();
 	for (int i = 0, max = classFiles.length; i < max; i++) {
 		// clear the classFile back pointer to the bindings
 		ClassFile classFile = classFiles[i];
 //{ObjectTeams: should writeClassFile store the path of the class file written?
 		classFile.maybeRememberModel();
+		// last chance to see the bindings:
+		this.compilationResult.recordOTDependencies(classFile.referenceBinding);
 // SH}
 		// null out the classfile backpointer to a type binding
 		classFile.referenceBinding = null;
@@ -213,6 +213,14 @@ public static ClassFileReader read(String fileName, boolean fullyInitialize) thr
 	public byte[] getBytes() {
 		return this.reference;
 	}
+
+	/**
+	 * Create a reader for re-reading byte code, which needs only the constant pool and the methods.
+	 * Class attributes, notably all OT attributes, are not decoded.
+	 */
+	public static ClassFileReader forByteCode(byte[] classFileBytes, char[] fileName) throws ClassFormatException {
+		return new ClassFileReader(classFileBytes, fileName, false, false);
+	}
 // SH}
 
 /**
@@ -237,6 +245,11 @@ public ClassFileReader(byte classFileBytes[], char[] fileName) throws ClassForma
  * @exception ClassFormatException
  */
 public ClassFileReader(byte[] classFileBytes, char[] fileName, boolean fullyInitialize) throws ClassFormatException {
+//{ObjectTeams: delegate to new constructor:
+	this(classFileBytes, fileName, fullyInitialize, true);
+}
+private ClassFileReader(byte[] classFileBytes, char[] fileName, boolean fullyInitialize, boolean readClassAttributes) throws ClassFormatException {
+// SH}
 	// This method looks ugly but is actually quite simple, the constantPool is constructed
 	// in 3 passes.  All non-primitive constant pool members that usually refer to other members
 	// by index are tweaked to have their value in inst vars, this minor cost at read-time makes
@@ -394,6 +407,10 @@ public ClassFileReader(byte[] classFileBytes, char[] fileName, boolean fullyInit
 		// Read the attributes
 		int attributesCount = u2At(readOffset);
 		readOffset += 2;
+//{ObjectTeams: skip if not needed:
+		if (!readClassAttributes)
+			attributesCount = 0;
+// SH}
 
 		for (int i = 0; i < attributesCount; i++) {
 			int utf8Offset = this.constantPoolOffsets[u2At(readOffset)];
@@ -241,6 +241,12 @@ public class CompilerOptions {
 	public static final String OPTION_PureJavaOnly =
 		"org.eclipse.objectteams.otdt.compiler.option.pure_java"; //$NON-NLS-1$ // not for explicit configuration, set from project nature
 
+	public static final String OPTION_ConcurrentLifting =
+		"org.eclipse.objectteams.otdt.compiler.option.concurrent_lifting"; //$NON-NLS-1$
+
+	public static final String OPTION_ParallelHierarchies =
+		"org.eclipse.objectteams.otdt.compiler.option.parallel_hierarchies"; //$NON-NLS-1$
+
 	// === multi value options ===:
 
 	public static final String OPTION_WeavingScheme =
@@ -615,6 +621,10 @@ public class CompilerOptions {
 	public boolean isPureJava = false;
 	// which scheme should be used for code generation (esp. callin bindings)?
 	public WeavingScheme weavingScheme = WeavingScheme.OTRE;
+	// should lifting methods use a concurrent role cache with an unsynchronized lookup?
+	public boolean concurrentLifting = false;
+	// should methods of independent team hierarchies be parsed in parallel?
+	public boolean parallelHierarchies = false;
 // SH}
 
 	// === Support for Null Annotations: ===
@@ -1715,6 +1725,8 @@ public class CompilerOptions {
 		optionsMap.put(OPTION_AllowScopedKeywords, this.allowScopedKeywords? ENABLED : DISABLED);
 		optionsMap.put(OPTION_PureJavaOnly, this.isPureJava ? ENABLED : DISABLED);
 		optionsMap.put(OPTION_WeavingScheme, this.weavingScheme.name());
+		optionsMap.put(OPTION_ConcurrentLifting, this.concurrentLifting ? ENABLED : DISABLED);
+		optionsMap.put(OPTION_ParallelHierarchies, this.parallelHierarchies ? ENABLED : DISABLED);
 // SH}
 		optionsMap.put(OPTION_AnnotationBasedNullAnalysis, this.isAnnotationBasedNullAnalysisEnabled ? ENABLED : DISABLED);
 		optionsMap.put(OPTION_ReportNullSpecViolation, getSeverityString(NullSpecViolation));
@@ -2313,6 +2325,20 @@ public class CompilerOptions {
 		if ((optionValue = optionsMap.get(OPTION_Decapsulation)) != null) {
 			this.decapsulation = optionValue;
 		}
+		if ((optionValue = optionsMap.get(OPTION_ConcurrentLifting)) != null) {
+			if (ENABLED.equals(optionValue)) {
+				this.concurrentLifting = true;
+			} else if (DISABLED.equals(optionValue)) {
+				this.concurrentLifting = false;
+			}
+		}
+		if ((optionValue = optionsMap.get(OPTION_ParallelHierarchies)) != null) {
+			if (ENABLED.equals(optionValue)) {
+				this.parallelHierarchies = true;
+			} else if (DISABLED.equals(optionValue)) {
+				this.parallelHierarchies = false;
+			}
+		}
 		if ((optionValue = optionsMap.get(OPTION_WeavingScheme)) != null) {
 			try {
 				this.weavingScheme = WeavingScheme.valueOf(optionValue);
@@ -2711,6 +2737,8 @@ public class CompilerOptions {
 
 		buf.append("\n\t- allow scoped keywords : ").append(this.allowScopedKeywords ? ENABLED : DISABLED); //$NON-NLS-1$
 		buf.append("\n\t- pure java : ").append(this.isPureJava ? ENABLED : DISABLED); //$NON-NLS-1$
+		buf.append("\n\t- concurrent lifting : ").append(this.concurrentLifting ? ENABLED : DISABLED); //$NON-NLS-1$
+		buf.append("\n\t- parallel hierarchies : ").append(this.parallelHierarchies ? ENABLED : DISABLED); //$NON-NLS-1$
 // SH}
 		return buf.toString();
 	}
@@ -71,6 +71,7 @@ import org.eclipse.objectteams.otdt.internal.core.compiler.control.Dependencies;
 import org.eclipse.objectteams.otdt.internal.core.compiler.control.ITranslationStates;
 import org.eclipse.objectteams.otdt.internal.core.compiler.control.StateHelper;
 import org.eclipse.objectteams.otdt.internal.core.compiler.lookup.ITeamAnchor;
+import org.eclipse.objectteams.otdt.internal.core.compiler.model.ByteCodeCache;
 import org.eclipse.objectteams.otdt.internal.core.compiler.model.TeamModel;
 import org.eclipse.objectteams.otdt.internal.core.compiler.statemachine.transformer.RoleSplitter;
 import org.eclipse.objectteams.otdt.internal.core.compiler.statemachine.transformer.TeamMethodGenerator;
@@ -215,6 +216,14 @@ public class LookupEnvironment implements ProblemReasons, TypeConstants {
 			this.teamMethodGenerator = new TeamMethodGenerator(this.globalOptions.weavingScheme);
 		return this.teamMethodGenerator;
 	}
+	private ByteCodeCache byteCodeCache;
+	public ByteCodeCache getByteCodeCache() {
+		if (this.root != this)
+			return this.root.getByteCodeCache();
+		if (this.byteCodeCache == null)
+			this.byteCodeCache = new ByteCodeCache();
+		return this.byteCodeCache;
+	}
 // SH}
 /** Construct the root LookupEnvironment, corresponding to the UnNamedModule. */
 public LookupEnvironment(ITypeRequestor typeRequestor, CompilerOptions globalOptions, ProblemReporter problemReporter, INameEnvironment nameEnvironment) {
@@ -2547,6 +2556,7 @@ public void reset() {
 	// the code which created it.
 //{ObjectTeams: more state to release:
 	this.teamMethodGenerator = null;
+	this.byteCodeCache = null;
 // SH}
 }
 
@@ -492,7 +492,9 @@ public class ConstantPoolObjectMapper implements ClassFileConstants{
 					bestMethod = methods[i];
 					bestRank = rank;
 				} else if (CharOperation.equals(CallinImplementorDyn.OT_CALL_AFTER, methods[i].selector)
-						|| CharOperation.equals(CallinImplementorDyn.OT_CALL_BEFORE, methods[i].selector)) {
+						|| CharOperation.equals(CallinImplementorDyn.OT_CALL_BEFORE, methods[i].selector)
+						|| CharOperation.equals(CallinImplementorDyn.OT_CALL_AFTER_DIRECT, methods[i].selector)
+						|| CharOperation.equals(CallinImplementorDyn.OT_CALL_BEFORE_DIRECT, methods[i].selector)) {
 					// don't bother ranking these, because they're not linked via overriddenTSupers,
 					// But we need to verbatim translate super-calls in generated dispatch code
 					return methods[i];
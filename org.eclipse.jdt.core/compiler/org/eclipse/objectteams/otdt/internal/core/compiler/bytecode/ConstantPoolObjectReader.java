@@ -29,6 +29,7 @@
  */
 package org.eclipse.objectteams.otdt.internal.core.compiler.bytecode;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 import org.eclipse.jdt.core.compiler.CharOperation;
@@ -85,6 +86,10 @@ public class ConstantPoolObjectReader extends ClassFileStruct implements ClassFi
 	private LookupEnvironment _environment;
 	private TypeModel _srcModel;
 
+	// tables of bindings resolved from the constant pool, shared with all readers of the same bytes (see TypeModel):
+	private static final int ENTRIES = 0, SIGNATURES = 1, GENERIC_SIGNATURES = 2, TABLES = 3;
+	private Binding[][] _resolved;
+
 	/**
 	 * @param srcRole the source role being copied from
 	 * @param reference the ConstantPool Bytecode which should be read
@@ -95,6 +100,7 @@ public class ConstantPoolObjectReader extends ClassFileStruct implements ClassFi
 		super(reference, srcRole.getConstantPoolOffsets(), 0);
 		this._srcModel = srcRole;
         this._environment = environment;
+		this._resolved = this._srcModel.getResolvedConstantPools(this.reference, TABLES);
 	}
 
 	public ConstantPoolObjectReader(MethodModel model, TypeModel srcModel, LookupEnvironment environment)
@@ -102,11 +108,13 @@ public class ConstantPoolObjectReader extends ClassFileStruct implements ClassFi
 		super(model.getBytes(), model.getConstantPoolOffsets(), 0);
 		this._srcModel = srcModel;
 		this._environment = environment;
+		this._resolved = this._srcModel.getResolvedConstantPools(this.reference, TABLES);
 	}
 	public ConstantPoolObjectReader(byte[] bytes, int[] constantPoolOffsets, TypeModel srcModel, LookupEnvironment environment) {
 		super(bytes, constantPoolOffsets, 0);
 		this._srcModel = srcModel;
 		this._environment = environment;
+		this._resolved = this._srcModel.getResolvedConstantPools(this.reference, TABLES);
 	}
 
 	/**
@@ -137,10 +145,10 @@ public class ConstantPoolObjectReader extends ClassFileStruct implements ClassFi
 			case FloatTag : 				return new ConstantPoolObject(type, getFloat(ref));
 			case LongTag : 					return new ConstantPoolObject(type, getLong(ref));
 			case DoubleTag : 				return new ConstantPoolObject(type, getDouble(ref));
-			case ClassTag : 				return new ConstantPoolObject(type, decodeClassEntry(ref));
-			case FieldRefTag : 				return new ConstantPoolObject(type, getFieldRef(ref));
-			case MethodRefTag :	 			return new ConstantPoolObject(type, getMethodRef(ref));
-			case InterfaceMethodRefTag : 	return new ConstantPoolObject(type, getInterfaceMethodRef(ref));
+			case ClassTag : 				return new ConstantPoolObject(type, (TypeBinding) resolveEntry(ref, type));
+			case FieldRefTag : 				return new ConstantPoolObject(type, (FieldBinding) resolveEntry(ref, type));
+			case MethodRefTag :	 			return new ConstantPoolObject(type, (MethodBinding) resolveEntry(ref, type));
+			case InterfaceMethodRefTag : 	return new ConstantPoolObject(type, (MethodBinding) resolveEntry(ref, type));
 			case Utf8Tag : 				  	return new ConstantPoolObject(type, getUtf8(ref));
 			//case NameAndTypeTag : 		//...
 			default:
@@ -148,15 +156,52 @@ public class ConstantPoolObjectReader extends ClassFileStruct implements ClassFi
 		}
 	}
 
+	/**
+	 * Resolve a class, field or method entry.
+	 * Results are shared with all readers of the same source model, since sub teams
+	 * of one super team all copy from the same constant pools.
+	 */
+	private Binding resolveEntry(int ref, int type) {
+		Binding[] resolved = resolvedTable(ENTRIES);
+		Binding binding = resolved[ref];
+		if (binding == null) {
+			switch (type) {
+				case ClassTag :		binding = decodeClassEntry(ref); break;
+				case FieldRefTag :	binding = getFieldRef(ref); break;
+				case MethodRefTag :	binding = getMethodRef(ref); break;
+				default :			binding = getInterfaceMethodRef(ref);
+			}
+			resolved[ref] = binding; // null is not cached but retried next time
+		}
+		return binding;
+	}
+
+	private Binding[] resolvedTable(int kind) {
+		int size = this.constantPoolOffsets.length;
+		synchronized (this._resolved) {
+			Binding[] table = this._resolved[kind];
+			if (table == null)
+				table = this._resolved[kind] = new Binding[size];
+			else if (table.length < size) // offsets of an in-memory class file may cover only the used part
+				table = this._resolved[kind] = Arrays.copyOf(table, size);
+			return table;
+		}
+	}
+
     public TypeBinding getSignatureBinding(int ref, boolean useGenerics)
     {
+        Binding[] resolved = resolvedTable(useGenerics ? GENERIC_SIGNATURES : SIGNATURES);
+        if (resolved[ref] != null)
+        	return (TypeBinding) resolved[ref];
         char[] typeName = getUtf8(ref);
+        TypeBinding type;
         if (useGenerics)
-        	return this._environment.getTypeFromTypeSignature(
+        	type = this._environment.getTypeFromTypeSignature(
         				new SignatureWrapper(typeName), Binding.NO_TYPE_VARIABLES, this._srcModel.getBinding(), null, ITypeAnnotationWalker.EMPTY_ANNOTATION_WALKER); // no missing type info available
         else
-        	return this._environment.getTypeFromSignature(
+        	type = this._environment.getTypeFromSignature(
         				typeName, 0, typeName.length-1, false/*GENERIC*/, this._srcModel.getBinding(), null, ITypeAnnotationWalker.EMPTY_ANNOTATION_WALKER); // no missing type info available
+        return (TypeBinding) (resolved[ref] = type);
     }
 
 	private int getInteger(int index){
@@ -510,13 +555,17 @@ public class ConstantPoolObjectReader extends ClassFileStruct implements ClassFi
 			return AccPublic;
 		if (CharOperation.prefixEquals(IOTConstants.ADD_REMOVE_ROLE, name))
 			return AccPublic;
-		// The next two are not searched in order to avoid receiver type o.o.Team.
+		// The next four are not searched in order to avoid receiver type o.o.Team.
 		// We want the tsub to always try to invoke its direct super, which may
 		// have more callin bindings than where known to the original dispatch method.
 		if (CharOperation.equals(CallinImplementorDyn.OT_CALL_AFTER, name))
 			return AccPublic;
 		if (CharOperation.equals(CallinImplementorDyn.OT_CALL_BEFORE, name))
 			return AccPublic;
+		if (CharOperation.equals(CallinImplementorDyn.OT_CALL_AFTER_DIRECT, name))
+			return AccPublic;
+		if (CharOperation.equals(CallinImplementorDyn.OT_CALL_BEFORE_DIRECT, name))
+			return AccPublic;
 		if (CharOperation.equals(CalloutImplementorDyn.OT_ACCESS, name))
 			return AccPublic;
 		if (CharOperation.equals(CalloutImplementorDyn.OT_ACCESS_STATIC, name))
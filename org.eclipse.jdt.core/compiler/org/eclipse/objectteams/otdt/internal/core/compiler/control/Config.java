@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Stack;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -52,7 +53,9 @@ import org.eclipse.objectteams.otdt.core.exceptions.InternalCompilerError;
  * Threadsafety is obtained by storing one Config for each client
  * identified by Thread.currentThread() and the field 'client'.
  *
- * We don't use ThreadLocal, since we do cleanup manually using release().
+ * The stack of configs of each thread is held in a ThreadLocal and is accessed without locking,
+ * so that compilations in different threads (e.g., parallel builds of several projects) don't contend
+ * on this class. Entries are still removed explicitly using close() / removeConfig().
  */
 public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 
@@ -96,7 +99,8 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
     boolean sourceTypeRequired = false;
 
 
-	private int useCount = 0;
+	// a config may be shared by several threads (see getOrCreateMatchingConfig() and ProcessTaskManager):
+	private final AtomicInteger useCount = new AtomicInteger();
 	private long timestamp = System.currentTimeMillis();
 
     // end data
@@ -148,16 +152,14 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 
 	public static void addConfig(Config config)
 	{
-	    synchronized (_configs) {
-		    Stack<Config> configStack = _configs.get();
-		    if (configStack == null)
-		    {
-		        configStack = new Stack<Config>();
-		        _configs.set(configStack);
-		    }
-	        configStack.push(config);
-	        config.useCount++;
+	    Stack<Config> configStack = _configs.get();
+	    if (configStack == null)
+	    {
+	        configStack = new Stack<Config>();
+	        _configs.set(configStack);
 	    }
+	    configStack.push(config);
+	    config.useCount.incrementAndGet();
 	}
 
 	/**
@@ -174,27 +176,25 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 	 * @return a clone of the old config if existent.
 	 */
 	public static Config createOrResetConfig(Object client) {
-	    synchronized (_configs) {
-		    Stack<Config> configStack = _configs.get();
-		    if (configStack == null || configStack.empty()) {
-		        configStack = new Stack<Config>();
-		        _configs.set(configStack);
-
-		        Config config = new Config(client, (Parser)null, (LookupEnvironment)null);
-		    	configStack.push(config);
-		    	return null; // no old config
-		    } else {
-		        Config existing = configStack.peek();
-		    	Config clone = new Config(client, existing.parser, existing.lookupEnvironment);
-		    	clone.castRequired = existing.castRequired;
-		    	clone.loweringRequired = existing.loweringRequired;
-		    	clone.loweringPossible = existing.loweringPossible;
-		    	clone.client = new WeakReference<>(null);
-		    	existing.castRequired = null;
-		    	existing.loweringRequired = false;
-		    	existing.loweringPossible = false;
-		    	return clone;
-		    }
+	    Stack<Config> configStack = _configs.get();
+	    if (configStack == null || configStack.empty()) {
+	        configStack = new Stack<Config>();
+	        _configs.set(configStack);
+
+	        Config config = new Config(client, (Parser)null, (LookupEnvironment)null);
+	    	configStack.push(config);
+	    	return null; // no old config
+	    } else {
+	        Config existing = configStack.peek();
+	    	Config clone = new Config(client, existing.parser, existing.lookupEnvironment);
+	    	clone.castRequired = existing.castRequired;
+	    	clone.loweringRequired = existing.loweringRequired;
+	    	clone.loweringPossible = existing.loweringPossible;
+	    	clone.client = new WeakReference<>(null);
+	    	existing.castRequired = null;
+	    	existing.loweringRequired = false;
+	    	existing.loweringPossible = false;
+	    	return clone;
 	    }
 	}
 
@@ -205,14 +205,12 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 	 * @param storedConfig
 	 */
 	private static void restoreConfig(Config storedConfig) {
-	    synchronized (_configs) {
-		    Stack<Config> configStack = _configs.get();
-		    if (configStack != null) {
-		    	Config config = configStack.peek();
-		    	config.castRequired = storedConfig.castRequired;
-		    	config.loweringRequired = storedConfig.loweringRequired;
-		    	config.loweringPossible = storedConfig.loweringPossible;
-		    }
+	    Stack<Config> configStack = _configs.get();
+	    if (configStack != null) {
+	    	Config config = configStack.peek();
+	    	config.castRequired = storedConfig.castRequired;
+	    	config.loweringRequired = storedConfig.loweringRequired;
+	    	config.loweringPossible = storedConfig.loweringPossible;
 	    }
 	}
 
@@ -225,23 +223,21 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 
 	public static void removeConfig(Object client)
 	{
-    	synchronized (_configs) {
-    	    Stack<Config> configStack = _configs.get();
-    	    assert(configStack != null);
-    	    if (configStack != null)
-    	    {
-    	        Config config = configStack.pop(); // remove Config
-    		    assert(config != null);
-    		    if (--config.useCount > 0)
-    		    	return;
-    		    Object theClient = config.client.get();
-    	        if (theClient != client && theClient != null) // bad balance of addConfig and removeConfig calls
-    	        {
-    	            assert(false);
-    	            configStack.push(config); // be defensive, put it back
-    	        }
-    	    }
-    	}
+	    Stack<Config> configStack = _configs.get();
+	    assert(configStack != null);
+	    if (configStack != null)
+	    {
+	        Config config = configStack.pop(); // remove Config
+		    assert(config != null);
+		    if (config.useCount.decrementAndGet() > 0)
+		    	return;
+		    Object theClient = config.client.get();
+	        if (theClient != client && theClient != null) // bad balance of addConfig and removeConfig calls
+	        {
+	            assert(false);
+	            configStack.push(config); // be defensive, put it back
+	        }
+	    }
 	}
 
 	public static Config getConfig() {
@@ -253,38 +249,32 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 			InternalCompilerError.log("Dependencies has no _configs"); //$NON-NLS-1$
 			return null;
 		}
-    	synchronized (_configs) {
-    	    Stack<Config> configStack = _configs.get();
-			if (configStack == null || configStack.isEmpty()) {
-				if (logError)
-					InternalCompilerError.log("Dependencies not configured"); //$NON-NLS-1$
-				return null;
-			}
-    	    return configStack.peek();
-    	}
+	    Stack<Config> configStack = _configs.get();
+		if (configStack == null || configStack.isEmpty()) {
+			if (logError)
+				InternalCompilerError.log("Dependencies not configured"); //$NON-NLS-1$
+			return null;
+		}
+	    return configStack.peek();
 	}
 	/** get the current config or null if not configured. */
 	private static Config safeGetConfig() {
 		if (_configs == null)
 			return null;
-    	synchronized (_configs) {
-    	    Stack<Config> configStack = _configs.get();
-			if (configStack == null || configStack.isEmpty())
-				return null;
-    	    return configStack.peek();
-    	}
+	    Stack<Config> configStack = _configs.get();
+		if (configStack == null || configStack.isEmpty())
+			return null;
+	    return configStack.peek();
 	}
 
 	public static boolean hasConfig()
 	{
 		if (_configs == null)
 			return false;
-	    synchronized(_configs) {
-	        Stack<Config> configStack = _configs.get();
-	        if (configStack == null)
-	        	return false;
-	        return !configStack.isEmpty();
-	    }
+	    Stack<Config> configStack = _configs.get();
+	    if (configStack == null)
+	    	return false;
+	    return !configStack.isEmpty();
 	}
 
 	public static boolean hasConfig(Object client) {
@@ -297,7 +287,7 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 	static Config getOrCreateMatchingConfig(Object client, Parser parser, LookupEnvironment environment) {
 		Config config = safeGetConfig();
 		if (configMatchesRequest(config, client, parser, environment)) {
-			config.useCount++;
+			config.useCount.incrementAndGet();
 			// assume already present in configsByClient, too.
 			return config;
 		}
@@ -379,24 +369,22 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 
 	@Override
 	public void close() {
-    	synchronized (_configs) {
-    	    Stack<Config> configStack = _configs.get();
-    	    assert(configStack != null);
-    	    if (configStack != null)
-    	    {
-    	        Config config = configStack.pop(); // remove Config
-    		    assert(config != null);
-    		    if (--config.useCount > 0 && !configStack.contains(config)) {
-    	            configStack.push(config); // still used
-					return;
-				}
-    	        if (config != this) // bad balance of addConfig and removeConfig calls
-    	        {
-    	            assert(false);
-    	            configStack.push(config); // be defensive, put it back
-    	        }
-    	    }
-		}
+	    Stack<Config> configStack = _configs.get();
+	    assert(configStack != null);
+	    if (configStack != null)
+	    {
+	        Config config = configStack.pop(); // remove Config
+		    assert(config != null);
+		    if (config.useCount.decrementAndGet() > 0 && !configStack.contains(config)) {
+	            configStack.push(config); // still used
+				return;
+			}
+	        if (config != this) // bad balance of addConfig and removeConfig calls
+	        {
+	            assert(false);
+	            configStack.push(config); // be defensive, put it back
+	        }
+	    }
 	}
 
 	static boolean getVerifyMethods() {
@@ -491,12 +479,10 @@ public class Config implements ConfigHelper.IConfig, Comparable<Config> {
 	public static boolean hasLookupEnvironment() {
 		if (_configs == null)
 			return false;
-		synchronized(_configs) {
-			if (!hasConfig())
-				return false;
-			Config config = getConfig(false);
-			return (config != null) && (config.lookupEnvironment.get() != null);
-		}
+		if (!hasConfig())
+			return false;
+		Config config = getConfig(false);
+		return (config != null) && (config.lookupEnvironment.get() != null);
 	}
 	static boolean getBuildFieldsAndMethods() {
 		return getConfig().buildFieldsAndMethods;
@@ -22,7 +22,20 @@
 package org.eclipse.objectteams.otdt.internal.core.compiler.control;
 
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.internal.compiler.Compiler;
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
@@ -108,6 +121,32 @@ import org.eclipse.objectteams.otdt.internal.core.compiler.util.TypeAnalyzer;
  */
 public class Dependencies implements ITranslationStates {
 
+	/**
+	 * Default for parsing methods of independent team hierarchies in parallel
+	 * (see {@link #ensureMethodsParsedInParallel(CompilationUnitDeclaration[], int, int, Supplier)}),
+	 * which is otherwise enabled per compilation by {@link org.eclipse.jdt.internal.compiler.impl.CompilerOptions#parallelHierarchies}.
+	 * Enabled by <code>-Dot.compiler.parallelHierarchies=true</code>.
+	 */
+	public static final boolean PARALLEL_HIERARCHIES = Boolean.getBoolean("ot.compiler.parallelHierarchies"); //$NON-NLS-1$
+
+	// worker threads for ensureMethodsParsedInParallel(), shared by all compilations, idle threads terminate:
+	private static ThreadPoolExecutor parsingExecutor;
+
+	private static synchronized ExecutorService getParsingExecutor() {
+		if (parsingExecutor == null) {
+			int numThreads = Runtime.getRuntime().availableProcessors();
+			parsingExecutor = new ThreadPoolExecutor(numThreads, numThreads, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					runnable -> {
+						Thread thread = new Thread(runnable, "Compiler Parsing Task"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			parsingExecutor.allowCoreThreadTimeOut(true);
+		}
+		return parsingExecutor;
+	}
+
 	/**
      * Configure the Dependencies module for use by a specific client.
 	 * @param client  the object invoking setup
@@ -276,6 +315,181 @@ public class Dependencies implements ITranslationStates {
         return success;
 	}
 
+	/**
+	 * All roles and Teams contained in the given units are required to be in STATE_METHODS_PARSED.
+	 * Independent team hierarchies are translated concurrently.
+	 *
+	 * A team hierarchy comprises the unit of a team, the units of its role files and
+	 * the units of its super teams (if compiled from source); every other unit is a hierarchy by itself.
+	 * Each hierarchy is translated by one worker thread, using a parser of its own (from parserFactory)
+	 * and a Config of its own, otherwise like {@link #ensureState(CompilationUnitDeclaration, int)}.
+	 *
+	 * Only STATE_METHODS_PARSED is supported, because its translation never leaves the units of one hierarchy.
+	 * All later states resolve against the LookupEnvironment and the TypeSystem shared by all units,
+	 * and copy inheritance copies between hierarchies, so these states are translated sequentially.
+	 * Hierarchies with a unit that has not yet reached STATE_ROLES_LINKED are left for sequential translation, too.
+	 *
+	 * When used: by the Compiler before processing units one by one, if {@link org.eclipse.jdt.internal.compiler.impl.CompilerOptions#parallelHierarchies}
+	 * or {@link #PARALLEL_HIERARCHIES} is set.
+	 *
+	 * @param units    units to translate, may contain nulls
+	 * @param start    index of the first unit to translate
+	 * @param end      index after the last unit to translate
+	 * @param parserFactory creates one parser per worker thread, each with a problem reporter of its own
+	 */
+	public static void ensureMethodsParsedInParallel(CompilationUnitDeclaration[] units, int start, int end,
+			Supplier<Parser> parserFactory)
+	{
+		// union-find over all units reached from the given units:
+		Map<CompilationUnitDeclaration, CompilationUnitDeclaration> parents = new IdentityHashMap<>();
+		for (int i = start; i < end; i++)
+			if (units[i] != null)
+				linkHierarchy(units[i], units[i].types, parents);
+
+		Set<CompilationUnitDeclaration> blockedRoots = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (CompilationUnitDeclaration unit : parents.keySet())
+			if (!isReadyToParseMethods(unit))
+				blockedRoots.add(findHierarchy(unit, parents));
+
+		Map<CompilationUnitDeclaration, List<CompilationUnitDeclaration>> hierarchiesByRoot = new IdentityHashMap<>();
+		List<List<CompilationUnitDeclaration>> hierarchies = new ArrayList<>();
+		for (int i = start; i < end; i++) {
+			CompilationUnitDeclaration unit = units[i];
+			if (unit == null || unit.state.getState() >= STATE_METHODS_PARSED)
+				continue;
+			CompilationUnitDeclaration root = findHierarchy(unit, parents);
+			if (blockedRoots.contains(root))
+				continue;
+			List<CompilationUnitDeclaration> hierarchy = hierarchiesByRoot.get(root);
+			if (hierarchy == null) {
+				hierarchiesByRoot.put(root, hierarchy = new ArrayList<>());
+				hierarchies.add(hierarchy);
+			}
+			hierarchy.add(unit); // in the order of 'units', i.e., teams before their role files
+		}
+		if (hierarchies.size() < 2)
+			return; // nothing to gain, leave all to sequential translation
+
+		Config template = Config.getConfig();
+		LookupEnvironment environment = Config.getLookupEnvironment();
+		ThreadLocal<Parser> parsers = ThreadLocal.withInitial(parserFactory);
+		ExecutorService executor = getParsingExecutor();
+		Throwable caughtException = null;
+		boolean interrupted = false;
+		try {
+			List<Future<?>> futures = new ArrayList<>(hierarchies.size());
+			for (List<CompilationUnitDeclaration> hierarchy : hierarchies)
+				futures.add(executor.submit(() -> ensureMethodsParsed(hierarchy, template, parsers.get(), environment)));
+			// wait for all workers, even when interrupted, since sequential translation must not start before:
+			for (Future<?> future : futures) {
+				while (true) {
+					try {
+						future.get();
+						break;
+					} catch (InterruptedException e) {
+						interrupted = true;
+					} catch (ExecutionException e) {
+						if (caughtException == null)
+							caughtException = e.getCause();
+						break;
+					}
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+		if (caughtException instanceof RuntimeException)
+			throw (RuntimeException) caughtException;
+		if (caughtException instanceof Error)
+			throw (Error) caughtException;
+		if (caughtException != null)
+			throw new InternalCompilerError(caughtException.toString());
+	}
+
+	/* Worker of the above: translate one team hierarchy using its own Config. */
+	private static void ensureMethodsParsed(List<CompilationUnitDeclaration> hierarchy, Config template,
+			Parser parser, LookupEnvironment environment)
+	{
+		try (Config config = setup(Thread.currentThread(), parser, environment,
+									template.verifyMethods, template.analyzeCode, template.generateCode,
+									template.buildFieldsAndMethods, template.bundledCompleteTypeBindings,
+									template.strictDiet))
+		{
+			for (CompilationUnitDeclaration unit : hierarchy)
+				ensureState(unit, STATE_METHODS_PARSED);
+		}
+	}
+
+	/* Join the hierarchy of unit with the hierarchies of role files, enclosing teams and super teams of the given types. */
+	private static void linkHierarchy(CompilationUnitDeclaration unit, TypeDeclaration[] types,
+			Map<CompilationUnitDeclaration, CompilationUnitDeclaration> parents)
+	{
+		findHierarchy(unit, parents);
+		if (types == null)
+			return;
+		for (TypeDeclaration type : types) {
+			if (type.isRoleFile() && type.compilationUnit != null)
+				joinHierarchies(unit, type.compilationUnit, parents);
+			TypeDeclaration outermost = type;
+			while (outermost.enclosingType != null)
+				outermost = outermost.enclosingType;
+			if (outermost.scope != null)
+				joinHierarchies(unit, outermost.scope.referenceCompilationUnit(), parents);
+			if (type.isTeam() && type.binding != null && type.binding.superclass() != null) {
+				TypeBinding superTeam = type.binding.superclass().erasure();
+				if (superTeam instanceof SourceTypeBinding && ((SourceTypeBinding) superTeam).scope != null)
+					joinHierarchies(unit, ((SourceTypeBinding) superTeam).scope.referenceCompilationUnit(), parents);
+			}
+			linkHierarchy(unit, type.memberTypes, parents);
+		}
+	}
+
+	private static CompilationUnitDeclaration findHierarchy(CompilationUnitDeclaration unit,
+			Map<CompilationUnitDeclaration, CompilationUnitDeclaration> parents)
+	{
+		CompilationUnitDeclaration parent = parents.get(unit);
+		if (parent == null) {
+			parents.put(unit, unit);
+			return unit;
+		}
+		if (parent == unit)
+			return unit;
+		CompilationUnitDeclaration root = findHierarchy(parent, parents);
+		parents.put(unit, root);
+		return root;
+	}
+
+	private static void joinHierarchies(CompilationUnitDeclaration unit1, CompilationUnitDeclaration unit2,
+			Map<CompilationUnitDeclaration, CompilationUnitDeclaration> parents)
+	{
+		CompilationUnitDeclaration root1 = findHierarchy(unit1, parents);
+		CompilationUnitDeclaration root2 = findHierarchy(unit2, parents);
+		if (root1 != root2)
+			parents.put(root2, root1);
+	}
+
+	/* Parsing methods in a worker thread must not trigger any of the earlier states, which need the LookupEnvironment. */
+	private static boolean isReadyToParseMethods(CompilationUnitDeclaration unit) {
+		if (unit.state.getState() < STATE_ROLES_LINKED)
+			return false;
+		return typesReadyToParseMethods(unit.types);
+	}
+
+	private static boolean typesReadyToParseMethods(TypeDeclaration[] types) {
+		if (types == null)
+			return true;
+		for (TypeDeclaration type : types) {
+			if (type.isTeam() && type.getTeamModel().getState() < STATE_ROLES_LINKED)
+				return false;
+			if (type.isRole() && type.getRoleModel().getState() < STATE_ROLES_LINKED)
+				return false;
+			if (!typesReadyToParseMethods(type.memberTypes))
+				return false;
+		}
+		return true;
+	}
+
 	/* Core of above method without the recursion. */
 	private static Pair<Boolean,Success> establishUnitState(CompilationUnitDeclaration unit,
 			LookupEnvironment environment, int state, Success success, AccessRestriction accessRestriction)
@@ -128,6 +128,7 @@ public class Lifting extends SwitchOnBaseTypeGenerator
     private RoleModel _boundRootRoleModel = null;
     private AstGenerator _gen = null;
 	private long _sourceLevel;
+	private boolean _concurrentLifting;
 	public char[] variableName = MY_ROLE;
 
     // ==== GENERAL API: names of liftTo methods: ====
@@ -628,6 +629,30 @@ public class Lifting extends SwitchOnBaseTypeGenerator
 	            return myRole;
 	        }
         }
+
+        With option concurrent lifting (ONDEMAND instantiation only) the above is preceded by
+        an unsynchronized lookup in the (thread-safe) cache:
+
+        	if (base != null) {
+        		RootRole role = _OT$cache_OT$RootRole.get(base);
+        		if (role != null) {
+        			try {
+        				return (MyRole)role;
+        			} catch(ClassCastException classcastexception) {
+        				throw new WrongRoleException(MyTeam$MyRole.class, base, role);
+        			}
+        		}
+        	}
+
+        and within the synchronized block, the check for an existing role (which may have been created
+        concurrently) uses a single lookup:
+
+	            RootRole role = _OT$cache_OT$RootRole.get(base);
+	            if (role == null) {
+	                // create as above
+	            } else {
+	                try { myRole = (MyRole)role; } catch (...) { throw new WrongRoleException(...); }
+	            }
     */
 
     public static boolean isUnsafeLiftCall(TypeBinding exceptionType, ASTNode location) {
@@ -671,6 +696,7 @@ public class Lifting extends SwitchOnBaseTypeGenerator
         this._gen = new AstGenerator(typeDecl.sourceStart, typeDecl.sourceEnd);
         this._gen.replaceableEnclosingClass = teamTypeDeclaration.binding;
         this._sourceLevel= typeDecl.scope.compilerOptions().sourceLevel;
+        this._concurrentLifting= typeDecl.scope.compilerOptions().concurrentLifting;
 
         try {
 	        final ReferenceBinding teamBinding        = teamTypeDeclaration.binding;
@@ -804,8 +830,8 @@ public class Lifting extends SwitchOnBaseTypeGenerator
 															   this._gen);
 		}
 
-    	liftToMethodDeclaration.setStatements(
-        	new Statement[] {
+    	boolean isOndemand = RoleModel.getInstantiationPolicy(roleClassBinding).isOndemand();
+    	Statement synchronizedLifting =
 	        	this._gen.synchronizedStatement(createCacheFieldRef(), new Statement[] {
 
 	        		// MyRole myRole = null;
@@ -821,23 +847,71 @@ public class Lifting extends SwitchOnBaseTypeGenerator
 					// conditional generation (see below)
 					maybeCreateTeamMemberCheck(baseClassBinding),
 
-					(RoleModel.getInstantiationPolicy(roleClassBinding).isOndemand())
+					!isOndemand
+					? createCreationCascade(roleClassBinding, teamBinding, caseObjects, problemId)
+					: this._concurrentLifting
+					// RootRole role = _OT$team_param._OT$cache_OT$RootRole.get(base); if (role == null) ...
+					? createRoleLookupCheck(
+						roleClassBinding,
+						teamBinding,
+						caseObjects,
+						problemId)
 					// if(!_OT$team_param._OT$cache_OT$RootRole.containsKey(base))
-					? createRoleExistentCheck(
+					: createRoleExistentCheck(
 		                roleClassBinding,
 		                baseClassBinding,
 		                teamBinding,
 		                caseObjects,
-		                problemId)
-		            : createCreationCascade(roleClassBinding, teamBinding, caseObjects, problemId),
+		                problemId),
 
 					// return ...
 					createReturnStatement(roleClassBinding)
-	        	})
-        });
+	        	});
+    	if (isOndemand && this._concurrentLifting)
+    		liftToMethodDeclaration.setStatements(new Statement[] {
+    				createUnsynchronizedLookup(roleClassBinding, teamBinding),
+    				synchronizedLifting
+    		});
+    	else
+    		liftToMethodDeclaration.setStatements(new Statement[] { synchronizedLifting });
         return true;
     }
 
+    /** Fast path for option concurrent lifting: return an existing role without locking the cache. */
+    private IfStatement createUnsynchronizedLookup(ReferenceBinding returnType, ReferenceBinding teamType) {
+    	// try { return (MyRole)role; }
+    	// catch (ClassCastException ex) { throw new WrongRoleException ( ... ); }
+        TryStatement tryStatement = new TryStatement();
+        tryStatement.sourceStart = this._gen.sourceStart;
+        tryStatement.sourceEnd = this._gen.sourceEnd;
+        tryStatement.tryBlock = this._gen.block(new Statement[] {
+        	this._gen.returnStatement(
+        		this._gen.castExpression(
+        				this._gen.singleNameReference(ROLE),
+        				createRoleTypeReference(returnType, false/*classPart*/),
+        				CastExpression.DO_WRAP))
+        });
+        createCatchClassCastExceptionBlock(returnType, teamType, tryStatement);
+
+        // if (base != null) {
+        return this._gen.ifStatement(
+        		new EqualExpression(
+        				this._gen.singleNameReference(BASE),
+        				this._gen.nullLiteral(),
+        				OperatorIds.NOT_EQUAL),
+        		this._gen.block(new Statement[] {
+        			// RootRole role = _OT$team_param._OT$cache_OT$RootRole.get(base);
+        			createCacheLookupLocalDeclaration(),
+        			// if (role != null) try ...
+        			this._gen.ifStatement(
+        					new EqualExpression(
+        							this._gen.singleNameReference(ROLE),
+        							this._gen.nullLiteral(),
+        							OperatorIds.NOT_EQUAL),
+        					this._gen.block(new Statement[] { tryStatement }))
+        		}));
+    }
+
 	private IfStatement createSanityCheck() {
         // if
         return this._gen.ifStatement(
@@ -912,6 +986,40 @@ public class Lifting extends SwitchOnBaseTypeGenerator
 				createElseBlock(returnType, teamType));
     }
 
+    /**
+     * Variant of the role existence check for concurrent lifting,
+     * where a single lookup replaces <code>containsKey()</code> followed by <code>get()</code>.
+     */
+    private Block createRoleLookupCheck(
+            ReferenceBinding returnType,
+            ReferenceBinding teamType,
+            RoleModel[]      caseObjects,
+            int				 problemId)
+    {
+        // try { myRole = (MyRole)role }
+        // catch (ClassCastException ex) { throw new WrongRoleException ( ... ); }
+        TryStatement tryStatement = new TryStatement();
+        tryStatement.sourceStart = this._gen.sourceStart;
+        tryStatement.sourceEnd = this._gen.sourceEnd;
+        tryStatement.tryBlock = createTryCastBlock(returnType);
+        createCatchClassCastExceptionBlock(returnType, teamType, tryStatement);
+
+        return this._gen.block(new Statement[] {
+        		// RootRole role = _OT$team_param._OT$cache_OT$RootRole.get(base);
+        		createCacheLookupLocalDeclaration(),
+        		// if (role == null)
+        		this._gen.ifStatement(
+        				new EqualExpression(
+        						this._gen.singleNameReference(ROLE),
+        						this._gen.nullLiteral(),
+        						OperatorIds.EQUAL_EQUAL),
+        				// (then:)
+        				createCreationCascade(returnType, teamType, caseObjects, problemId),
+        				// (else: cast existing role)
+        				this._gen.block(new Statement[] { tryStatement }))
+        });
+    }
+
 	private UnaryExpression createRoleExistentCheck(
         ReferenceBinding baseType)
     {
@@ -46,6 +46,7 @@ import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions.WeavingScheme;
 import org.eclipse.jdt.internal.compiler.lookup.BaseTypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.Binding;
 import org.eclipse.jdt.internal.compiler.lookup.ClassScope;
 import org.eclipse.jdt.internal.compiler.lookup.MethodBinding;
 import org.eclipse.jdt.internal.compiler.lookup.ReferenceBinding;
@@ -53,6 +54,7 @@ import org.eclipse.jdt.internal.compiler.lookup.Scope;
 import org.eclipse.jdt.internal.compiler.lookup.SourceTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
+import org.eclipse.jdt.internal.compiler.lookup.TypeIds;
 import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
 import org.eclipse.jdt.internal.compiler.parser.Parser;
 import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
@@ -99,6 +101,9 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 	public static final char[] OT_CALL_BEFORE  = "_OT$callBefore".toCharArray(); //$NON-NLS-1$
 	public static final char[] OT_CALL_AFTER   = "_OT$callAfter".toCharArray(); //$NON-NLS-1$
 	public static final char[] OT_CALL_REPLACE = "_OT$callReplace".toCharArray(); //$NON-NLS-1$
+	// unboxed variants for base methods with only primitive parameters:
+	public static final char[] OT_CALL_BEFORE_DIRECT = "_OT$callBeforeDirect".toCharArray(); //$NON-NLS-1$
+	public static final char[] OT_CALL_AFTER_DIRECT  = "_OT$callAfterDirect".toCharArray(); //$NON-NLS-1$
 	// used for base calls:
 	public static final char[] OT_CALL_NEXT        = "_OT$callNext".toCharArray(); //$NON-NLS-1$
 	//  - both the team version (II[Object;) and the base version (I[Object;)
@@ -116,6 +121,7 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 	static final char[] RESULT		 	= "result".toCharArray(); //$NON-NLS-1$
 	static final String LOCAL_ROLE 		= "local$role$"; //$NON-NLS-1$
 	static final char[] _BASE$          = "_base$".toCharArray(); //$NON-NLS-1$
+	static final char[][] DIRECT_ARGS	= new char[][]{"_OT$arg0".toCharArray(), "_OT$arg1".toCharArray(), "_OT$arg2".toCharArray()}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
 	// for call next:
 	private static final char[] BASE_CALL_ARGS  = "baseCallArguments".toCharArray();   //$NON-NLS-1$
@@ -125,6 +131,10 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 	static final char[][] REPLACE_ARG_NAMES = new char[][]{_BASE$, TEAMS, INDEX, CALLIN_ID, BOUND_METHOD_ID, ARGUMENTS};
 	static final char[][] BEFORE_ARG_NAMES = new char[][]{_BASE$, CALLIN_ID, BOUND_METHOD_ID, ARGUMENTS};
 	static final char[][] AFTER_ARG_NAMES = new char[][]{_BASE$, CALLIN_ID, BOUND_METHOD_ID, ARGUMENTS, _OT_RESULT};
+	static final char[][] BEFORE_DIRECT_ARG_NAMES = new char[][]{_BASE$, CALLIN_ID, BOUND_METHOD_ID, DIRECT_ARGS[0], DIRECT_ARGS[1], DIRECT_ARGS[2]};
+	static final char[][] AFTER_DIRECT_ARG_NAMES = new char[][]{_BASE$, CALLIN_ID, BOUND_METHOD_ID, DIRECT_ARGS[0], DIRECT_ARGS[1], DIRECT_ARGS[2], _OT_RESULT};
+	// max number of base method parameters that can be passed via the direct protocol:
+	static final int MAX_DIRECT_ARGS = 3;
 
 	protected static final String OT_LOCAL = "_OT$local$"; //$NON-NLS-1$
 
@@ -316,18 +326,78 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 			}
 		}
 		if (beforeMappings.size() > 0)
-			generateDispatchMethod(OT_CALL_BEFORE,  false, false, beforeMappings, aTeam);
+			generateDispatchMethod(OT_CALL_BEFORE,  false, false, false, beforeMappings, aTeam);
 		if (afterMappings.size() > 0)
-			generateDispatchMethod(OT_CALL_AFTER,   false, true, afterMappings, aTeam);
+			generateDispatchMethod(OT_CALL_AFTER,   false, true, false, afterMappings, aTeam);
+		if ((beforeMappings.size() > 0 || afterMappings.size() > 0) && supportsDirectDispatch(aTeam)) {
+			// the direct before method also needs to know which after callins are eligible for direct dispatch:
+			List<CallinMappingDeclaration> beforeAndAfterMappings = new ArrayList<CallinMappingDeclaration>(beforeMappings);
+			beforeAndAfterMappings.addAll(afterMappings);
+			generateDispatchMethod(OT_CALL_BEFORE_DIRECT, false, false, true, beforeAndAfterMappings, aTeam);
+			if (afterMappings.size() > 0)
+				generateDispatchMethod(OT_CALL_AFTER_DIRECT, false, true, true, afterMappings, aTeam);
+		}
 		if (replaceMappings.size() > 0) {
-			generateDispatchMethod(OT_CALL_REPLACE, true,  false, replaceMappings, aTeam);
+			generateDispatchMethod(OT_CALL_REPLACE, true,  false, false, replaceMappings, aTeam);
 			generateCallNext(replaceMappings, aTeam);
 		}
 		if (!mappingsWithStaticBase.isEmpty())
 			generateCallOrigStatic(mappingsWithStaticBase, aTeam);
 	}
 
-	private void generateDispatchMethod(char[] methodName, final boolean isReplace, final boolean isAfter, final List<CallinMappingDeclaration> callinDecls, final TeamModel aTeam)
+	/** Is the runtime we are compiling against prepared for dispatching via OT_CALL_BEFORE_DIRECT/OT_CALL_AFTER_DIRECT? */
+	private boolean supportsDirectDispatch(TeamModel aTeam) {
+		TypeDeclaration teamDecl = aTeam.getAst();
+		if (teamDecl == null) return false;
+		TypeBinding iTeam = teamDecl.scope.getType(IOTConstants.ORG_OBJECTTEAMS_ITEAM, 3);
+		return iTeam instanceof ReferenceBinding
+				&& iTeam.isValidBinding()
+				&& ((ReferenceBinding) iTeam).getMethods(OT_CALL_BEFORE_DIRECT) != Binding.NO_METHODS;
+	}
+
+	/**
+	 * Can the given callin binding be dispatched for the given base method without boxing arguments and result?
+	 * This requires a before or after binding without parameter mappings to a non-static base method
+	 * with up to MAX_DIRECT_ARGS primitive parameters and a primitive or void return type.
+	 * Must match the base side, see AsmTypeHelper.isDirectDispatchCandidate() in OTDRE.
+	 */
+	static boolean canDispatchDirectly(CallinMappingDeclaration callinDecl, MethodSpec baseSpec) {
+		if (callinDecl.isReplaceCallin() || callinDecl.mappings != null)
+			return false;
+		MethodBinding baseMethod = baseSpec.resolvedMethod;
+		if (baseMethod == null || baseMethod.isStatic() || baseMethod.isConstructor() || baseSpec.isCallin())
+			return false;
+		TypeBinding[] baseParams = baseMethod.parameters;
+		if (baseParams.length > MAX_DIRECT_ARGS)
+			return false;
+		for (TypeBinding baseParam : baseParams)
+			if (!baseParam.isBaseType())
+				return false;
+		return baseMethod.returnType != null && baseMethod.returnType.isBaseType(); // includes void
+	}
+
+	/** Decode an argument or result of the direct protocol from its long representation (see Team._OT$callAllBindingsDirect()). */
+	static Expression decodeDirectValue(AstGenerator gen, char[] name, TypeBinding type) {
+		Expression value = gen.singleNameReference(name);
+		switch (type.id) {
+			case TypeIds.T_boolean:
+				return gen.equalExpression(value, gen.intLiteral(0), OperatorIds.NOT_EQUAL);				// _OT$argN != 0
+			case TypeIds.T_float:
+				return gen.messageSend(gen.qualifiedNameReference(TypeConstants.JAVA_LANG_FLOAT),				// Float.intBitsToFloat((int)_OT$argN)
+								"intBitsToFloat".toCharArray(), //$NON-NLS-1$
+								new Expression[] { gen.castExpression(value, gen.typeReference(TypeBinding.INT), CastExpression.RAW) });
+			case TypeIds.T_double:
+				return gen.messageSend(gen.qualifiedNameReference(TypeConstants.JAVA_LANG_DOUBLE),			// Double.longBitsToDouble(_OT$argN)
+								"longBitsToDouble".toCharArray(), //$NON-NLS-1$
+								new Expression[] { value });
+			case TypeIds.T_long:
+				return value;
+			default:
+				return gen.castExpression(value, gen.typeReference(type), CastExpression.RAW);				// (int)_OT$argN etc.
+		}
+	}
+
+	private void generateDispatchMethod(char[] methodName, final boolean isReplace, final boolean isAfter, final boolean isDirect, final List<CallinMappingDeclaration> callinDecls, final TeamModel aTeam)
 	{
 		// FIXME(SH): once we know that Team has empty implementations (and checked cases involving team inheritance)
 		// we probably want to avoid generating empty methods here.
@@ -341,11 +411,15 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 		// public void _OT$callBefore   (IBoundBase2 base, 							int boundMethodId, int callinId, 	Object[] args)
 		// public void _OT$callAfter	(IBoundBase2 base, 							int boundMethodId, int callinId, 	Object[] args, Object result)
 		// public void _OT$callReplace	(IBoundBase2 base, Team[] teams, int index, 	int boundMethodId, int[] callinIds, Object[] args)
+		// public boolean _OT$callBeforeDirect(IBoundBase2 base, 					int boundMethodId, int callinId, 	long arg0, long arg1, long arg2)
+		// public void _OT$callAfterDirect	(IBoundBase2 base, 						int boundMethodId, int callinId, 	long arg0, long arg1, long arg2, long result)
 		int length = 4;
 		if (isReplace)
 			length = 6;
 		else if (isAfter)
 			length = 5;
+		if (isDirect)
+			length += MAX_DIRECT_ARGS-1;
 		Argument[] arguments = new Argument[length];
 		int a = 0;
 		arguments[a++] 		= gen.argument(_BASE$, gen.qualifiedTypeReference(IOTConstants.ORG_OBJECTTEAMS_IBOUNDBASE2));
@@ -357,11 +431,24 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 			isReplace  	?	  gen.argument(CALLIN_ID, gen.createArrayTypeReference(TypeBinding.INT, 1))
 						:	  gen.argument(CALLIN_ID, gen.typeReference(TypeBinding.INT));
 		arguments[a++] 		= gen.argument(BOUND_METHOD_ID, gen.typeReference(TypeBinding.INT));
-		arguments[a++] 		= gen.argument(ARGUMENTS, gen.qualifiedArrayTypeReference(TypeConstants.JAVA_LANG_OBJECT, 1));
+		if (isDirect) {
+			for (char[] directArg : DIRECT_ARGS)
+				arguments[a++] = gen.argument(directArg, gen.typeReference(TypeBinding.LONG));
+		} else {
+			arguments[a++] 	= gen.argument(ARGUMENTS, gen.qualifiedArrayTypeReference(TypeConstants.JAVA_LANG_OBJECT, 1));
+		}
 		if (isAfter)
-			arguments[a++]	= gen.argument(_OT_RESULT, gen.qualifiedTypeReference(TypeConstants.JAVA_LANG_OBJECT));
+			arguments[a++]	= isDirect
+								? gen.argument(_OT_RESULT, gen.typeReference(TypeBinding.LONG))
+								: gen.argument(_OT_RESULT, gen.qualifiedTypeReference(TypeConstants.JAVA_LANG_OBJECT));
 
-		TypeReference returnTypeRef = isReplace ? gen.qualifiedTypeReference(TypeConstants.JAVA_LANG_OBJECT) : gen.typeReference(TypeBinding.VOID);
+		TypeReference returnTypeRef;
+		if (isReplace)
+			returnTypeRef = gen.qualifiedTypeReference(TypeConstants.JAVA_LANG_OBJECT);
+		else if (isDirect && !isAfter)
+			returnTypeRef = gen.typeReference(TypeBinding.BOOLEAN);
+		else
+			returnTypeRef = gen.typeReference(TypeBinding.VOID);
 
 		final MethodDeclaration callMethod = gen.method(teamDecl.compilationResult, AccPublic, returnTypeRef, methodName, arguments);
 		callMethod.isMappingWrapper = AbstractMethodDeclaration.WrapperKind.CALLIN;
@@ -423,9 +510,23 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 						statements.add(callinGen.caseStatement(callinGen.intLiteral(callinID)));				// case <baseMethod.callinId>:
 						handledCallinIds[callinID] = true;
 
+						if (isDirect) {
+							if (!canDispatchDirectly(callinDecl, baseSpec)) {
+								statements.add(isAfter
+										? callinGen.breakStatement()												//   break; // not reached
+										: callinGen.returnStatement(callinGen.booleanLiteral(false)));			//   return false; // needs boxed dispatch
+								continue;
+							}
+							if (!isAfter && callinDecl.callinModifier == TerminalTokens.TokenNameafter) {
+								statements.add(callinGen.breakStatement());										//   break; // handled in _OT$callAfterDirect
+								continue;
+							}
+						}
+
 						PredicateGenerator predGen = new PredicateGenerator(
 															callinDecl.binding._declaringRoleClass,
-															callinDecl.isReplaceCallin());
+															callinDecl.isReplaceCallin(),
+															isDirect && !isAfter);
 
 						TypeBinding baseReturn = baseSpec.resolvedType();
 						boolean isStaticRoleMethod = callinDecl.getRoleMethod().isStatic();
@@ -445,9 +546,15 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 								&& (callinDecl.mappings != null || callinDecl.predicate != null)
 								&& baseReturn != TypeBinding.VOID) {
 							resultName = RESULT;
-							callinDecl.resultVar = callinGen.localBaseVariable(RESULT, baseReturn,							//   BaseReturnType result = (BaseReturnType)_OT$result;
+							if (isDirect) {
+								// resultVar remains owned by the boxed variant, which also resolves any result references:
+								blockStatements.add(callinGen.localBaseVariable(RESULT, baseReturn,						//   BaseReturnType result = decode(_OT$result);
+													decodeDirectValue(callinGen, _OT_RESULT, baseReturn)));
+							} else {
+								callinDecl.resultVar = callinGen.localBaseVariable(RESULT, baseReturn,						//   BaseReturnType result = (BaseReturnType)_OT$result;
 													callinGen.createCastOrUnboxing(callinGen.singleNameReference(_OT_RESULT), baseReturn, true/*baseAccess*/));
-							blockStatements.add(callinDecl.resultVar);
+								blockStatements.add(callinDecl.resultVar);
+							}
 						}
 						// expose casted _base$ as "base":
 						blockStatements.add(callinGen.localVariable(IOTConstants.BASE,
@@ -519,10 +626,14 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 							TypeBinding[] baseParams = baseSpec.resolvedParameters();
 							for (int i=0; i<baseSpec.arguments.length; i++) {										//   BaseType baseArg = castAndOrUnbox(arguments[n]);
 								Argument baseArg = baseSpec.arguments[i];
-								Expression rawArg = callinGen.arrayReference(callinGen.singleNameReference(ARGUMENTS), i+baseArgOffset);
-								Expression init = rawArg;
-								if (!baseParams[i].isTypeVariable())
-									init = callinGen.createCastOrUnboxing(rawArg, baseParams[i], callinDecl.scope);
+								Expression init;
+								if (isDirect) {
+									init = decodeDirectValue(callinGen, DIRECT_ARGS[i], baseParams[i]);				//   BaseType baseArg = decode(_OT$argN);
+								} else {
+									init = callinGen.arrayReference(callinGen.singleNameReference(ARGUMENTS), i+baseArgOffset);
+									if (!baseParams[i].isTypeVariable())
+										init = callinGen.createCastOrUnboxing(init, baseParams[i], callinDecl.scope);
+								}
 								LocalDeclaration baseArgLocal = callinGen.localVariable(baseArg.name,
 																	callinGen.alienScopeTypeReference(baseArg.type, callinDecl.scope),
 																	init);
@@ -549,8 +660,9 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 							for (char[] argName : REPLACE_ARG_NAMES)
 								callArgs[idx++] = callinGen.singleNameReference(argName);									//    prepare: base, teams, boundMethodId, callinIds, index, arguments ...
 
-						// prepare parameter mappings:
-						callinDecl.traverse(new ReplaceResultReferenceVisitor(callinDecl), callinDecl.scope.classScope());
+						// prepare parameter mappings (direct dispatch has none):
+						if (!isDirect)
+							callinDecl.traverse(new ReplaceResultReferenceVisitor(callinDecl), callinDecl.scope.classScope());
 
 						boolean hasArgError = false;
 						for (int i=0; i<roleParams.length; i++) {
@@ -565,7 +677,12 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 								}
 							}
 							TypeReference localTypeRef = null;
-							if (callinDecl.mappings == null) {
+							if (isDirect) {
+								// ------------ unmapped primitive arguments --------------
+								TypeBinding baseArgType = baseSpec.resolvedParameters()[i];
+								arg = decodeDirectValue(callinGen, DIRECT_ARGS[i], baseArgType);							//    prepare: decode(_OT$argN)
+								localTypeRef = callinGen.baseclassReference(baseArgType);
+							} else if (callinDecl.mappings == null) {
 								// ------------ unmapped arguments --------------
 								arg = callinGen.arrayReference(callinGen.singleNameReference(ARGUMENTS), i+baseArgOffset);					//    prepare: somePreparation(arguments[i])
 								TypeBinding baseArgType = baseSpec.resolvedParameters()[i];
@@ -727,8 +844,8 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 						//		finally { _OT$setExecutingCallin(_OT$oldIsExecutingCallin); }
 						blockStatements.add(protectRoleMethodCall(messageSendStatements, roleMethodBinding, stepIntoGen));
 						statements.add(callinGen.block(blockStatements.toArray(new Statement[blockStatements.size()])));
-						// collectively report the problem(s)
-						if (canLiftingFail && callinDecl.rolesWithLiftingProblem != null)
+						// collectively report the problem(s) (once, i.e., not again for the direct variant)
+						if (canLiftingFail && !isDirect && callinDecl.rolesWithLiftingProblem != null)
 							for (Map.Entry<ReferenceBinding, Integer> entry : callinDecl.rolesWithLiftingProblem.entrySet())
 								callinDecl.scope.problemReporter().callinDespiteLiftingProblem(entry.getKey(), entry.getValue(), callinDecl);
 					}
@@ -759,6 +876,12 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 					char[]   selector;				char[][] argNames;
 					if (isReplace) {
 						selector = OT_CALL_REPLACE;	argNames = REPLACE_ARG_NAMES;
+					} else if (isDirect) {
+						if (isAfter) {
+							selector = OT_CALL_AFTER_DIRECT;	argNames = AFTER_DIRECT_ARG_NAMES;
+						} else {
+							selector = OT_CALL_BEFORE_DIRECT;	argNames = BEFORE_DIRECT_ARG_NAMES;
+						}
 					} else if (isAfter) {
 						selector = OT_CALL_AFTER;	argNames = AFTER_ARG_NAMES;
 					} else {
@@ -771,10 +894,13 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 					MessageSend superCall = aTeam.hasTSuperTeamMethod(selector)
 							? stepIntoGen.tsuperMessageSend(stepIntoGen.thisReference(), selector, superCallArgs)
 							: stepIntoGen.messageSend(stepIntoGen.superReference(), selector, superCallArgs);
-					if (isReplace)
-						statements.add(gen.returnStatement(superCall));											//    return super._OT$callReplace(..);
+					if (isReplace || (isDirect && !isAfter))
+						statements.add(gen.returnStatement(superCall));											//    return super._OT$callReplace/BeforeDirect(..);
 					else
 						statements.add(superCall);																//    super._OT$callBefore/After(..);
+				} else if (isDirect && !isAfter) {
+					statements.add(gen.caseStatement(null)); 													// default:
+					statements.add(gen.returnStatement(gen.booleanLiteral(false)));							//    return false; // unknown callin
 				}
 
 				Statement catchStatement1 = gen.emptyStatement();
@@ -833,14 +959,22 @@ public class CallinImplementorDyn extends MethodMappingImplementor {
 										stepOverGen.messageSend(stepOverGen.thisReference(),
 														IOTConstants.SET_EXECUTING_CALLIN,
 														new Expression[]{ stepOverGen.singleNameReference(CallinImplementor.OLD_IS_EXECUTING) }));
-				methodDecl.statements = new Statement[] {
-							flagVariable,
-							gen.tryStatement(
+				Statement tryStatement = gen.tryStatement(
 								tryStats.toArray(new Statement[tryStats.size()]),
 								// expected exception is ignored, do nothing (before/after) or proceed to callNext (replace)
 								exceptionArguments,
 								exceptionStatementss,
-								new Statement[] {resetFlag})
+								new Statement[] {resetFlag});
+				if (isDirect && !isAfter)
+					methodDecl.statements = new Statement[] {
+							flagVariable,
+							tryStatement,
+							gen.returnStatement(gen.booleanLiteral(true))											// return true; // also if vetoed
+						};
+				else
+					methodDecl.statements = new Statement[] {
+							flagVariable,
+							tryStatement
 						};
 				methodDecl.hasParsedStatements = true;
 				return true;
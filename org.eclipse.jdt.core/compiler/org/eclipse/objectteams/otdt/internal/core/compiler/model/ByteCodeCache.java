@@ -0,0 +1,136 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.internal.core.compiler.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.objectteams.otdt.internal.core.compiler.control.Config;
+
+/**
+ * Bounds the amount of class file bytes that {@link RoleModel}s and {@link MethodModel}s
+ * retain for copy inheritance.
+ * <p>
+ * Only bytes that can be re-read from a class file on disk are registered here.
+ * When the registered bytes exceed the capacity, the least recently used owners are asked
+ * to drop their bytes, which they will transparently re-read when needed again.
+ * The capacity in megabytes can be set using the system property {@value #CAPACITY_PROPERTY},
+ * which is read when a cache is created.
+ * </p><p>
+ * Owners are asked to evict their bytes outside the lock of this cache, so that an owner may call
+ * {@link #retain(Evictable, byte[])} without risking a deadlock, as long as it doesn't hold its own lock while doing so.
+ * As a consequence an owner may be evicted right after it has been used by another thread,
+ * which is harmless since evicted bytes are re-read on demand.
+ * </p><p>
+ * One instance is shared within a compilation, see <code>LookupEnvironment.getByteCodeCache()</code>.
+ * </p>
+ */
+public class ByteCodeCache {
+
+	public static final String CAPACITY_PROPERTY = "ot.compiler.bytecode.cache"; //$NON-NLS-1$
+
+	/** An owner of bytes that can be re-read from disk. */
+	public interface Evictable {
+		/** Drop all retained bytes, to be re-read on next access. */
+		void evictByteCode();
+	}
+
+	// in access order, i.e., least recently used first:
+	private final LinkedHashMap<Evictable, Integer> entries = new LinkedHashMap<Evictable, Integer>(64, 0.75f, true);
+	private long size = 0;
+	private final long capacity;
+
+	/** Create a cache with the capacity configured by the system property {@value #CAPACITY_PROPERTY} (default: 32 MB). */
+	public ByteCodeCache() {
+		this(Long.getLong(CAPACITY_PROPERTY, 32).longValue() * 1024 * 1024);
+	}
+
+	/** Create a cache with the given capacity in bytes. */
+	public ByteCodeCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Record that the given owner currently retains (and just used) the given bytes.
+	 * If the capacity is exceeded by this, the least recently used bytes are evicted.
+	 * If any owner fails to evict its bytes, it is nevertheless no longer registered,
+	 * the remaining owners are evicted, and the first failure is re-thrown.
+	 */
+	public void retain(Evictable owner, byte[] bytes) {
+		List<Evictable> victims = null;
+		synchronized (this) {
+			int length = bytes.length;
+			Integer previous = this.entries.put(owner, Integer.valueOf(length));
+			this.size += (previous == null) ? length : length - previous.intValue();
+			Iterator<Map.Entry<Evictable, Integer>> iterator = this.entries.entrySet().iterator();
+			while (this.size > this.capacity && iterator.hasNext()) {
+				Map.Entry<Evictable, Integer> entry = iterator.next();
+				if (entry.getKey() == owner)
+					break; // don't evict what is currently being used
+				this.size -= entry.getValue().intValue();
+				if (victims == null)
+					victims = new ArrayList<Evictable>();
+				victims.add(entry.getKey());
+				iterator.remove();
+			}
+		}
+		if (victims != null)
+			evict(victims);
+	}
+
+	private static void evict(List<Evictable> victims) {
+		RuntimeException failure = null;
+		for (Evictable victim : victims) {
+			try {
+				victim.evictByteCode();
+			} catch (RuntimeException e) {
+				if (failure == null)
+					failure = e;
+			}
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	/** Record that the given owner no longer retains any bytes. */
+	public synchronized void forget(Evictable owner) {
+		Integer previous = this.entries.remove(owner);
+		if (previous != null)
+			this.size -= previous.intValue();
+	}
+
+	/** Is the given owner currently registered as retaining bytes? */
+	public synchronized boolean isRetained(Evictable owner) {
+		return this.entries.containsKey(owner);
+	}
+
+	/** Answer the number of bytes currently registered. */
+	public synchronized long size() {
+		return this.size;
+	}
+
+	/** Answer the cache of the current compilation, or null if no compilation is configured. */
+	static ByteCodeCache current() {
+		if (Config.hasLookupEnvironment())
+			return Config.getLookupEnvironment().getByteCodeCache();
+		return null;
+	}
+}
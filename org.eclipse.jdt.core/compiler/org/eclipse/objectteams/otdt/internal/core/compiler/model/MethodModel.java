@@ -79,7 +79,7 @@ import org.eclipse.objectteams.otdt.internal.core.compiler.util.AstGenerator;
  *
  * @author stephan
  */
-public class MethodModel extends ModelElement {
+public class MethodModel extends ModelElement implements ByteCodeCache.Evictable {
 
 	public static final int AccIfcMethodModiferMASK = ExtraCompilerModifiers.AccVisibilityMASK|ClassFileConstants.AccStatic;
 
@@ -334,12 +334,15 @@ public class MethodModel extends ModelElement {
 	private int _structOffset = 0;
 	private int[] _constantPoolOffsets = null;
 	private ClassFile _classFile = null;
+	// bounds the memory used by _bytes once these can be re-read from the team's class file:
+	private ByteCodeCache _byteCodeCache = null;
+	private boolean _bytesEvicted = false;
 	private TypeBinding _returnType = null;
 
 	/**
 	 * Ensure we have bytes and constantPoolOffsets ready to use.
 	 */
-	private void setupByteCode(boolean bytesRequired) {
+	private synchronized void setupByteCode(boolean bytesRequired) {
 		if (this._bytes == null || this._constantPoolOffsets == null)
 		{
 			try {
@@ -347,8 +350,12 @@ public class MethodModel extends ModelElement {
 				assert binding.declaringClass.isTeam();
 
 				ClassFileReader reader = null;
-				if (this._bytes == null) {
-					if (this._classFile == null && this._decl != null) {
+				byte[] bytes = this._bytes;
+				if (bytes == null) {
+					if (this._byteCodeCache == null)
+						this._byteCodeCache = ByteCodeCache.current();
+					// after eviction read from disk, where _structOffset is freshly computed (see below):
+					if (this._classFile == null && this._decl != null && !this._bytesEvicted) {
 						char[] className = binding.declaringClass.constantPoolName();
 						this._classFile = (ClassFile) this._decl.compilationResult.compiledTypes.get(className);
 						if (this._classFile != null && !this._classFile.isForType(binding.declaringClass)) {
@@ -357,7 +364,7 @@ public class MethodModel extends ModelElement {
 					}
 					// here we made the best attempt to obtain a classfile, use it if possible:
 					if (this._classFile != null && this._classFile.isForType(this._binding.declaringClass)) {
-						this._bytes = this._classFile.getBytes();
+						this._bytes = bytes = this._classFile.getBytes();
 						this._structOffset += this._classFile.headerOffset; // structOffset did not yet include the headerOffset
 						int olen = this._classFile.constantPool.currentIndex;
 						System.arraycopy(this._classFile.constantPool.offsets, 0, this._constantPoolOffsets = new int[olen], 0, olen);
@@ -365,9 +372,9 @@ public class MethodModel extends ModelElement {
 						return;
 					}
 				}
-				if (this._bytes != null) {
+				if (bytes != null) {
 					// create a reader for in-memory bytes in order to recalculate constant pool offsets
-					reader = new ClassFileReader(this._bytes, RoleModel.NO_SOURCE_FILE); // STATE_BYTECODE_PREPARED
+					reader = ClassFileReader.forByteCode(bytes, RoleModel.NO_SOURCE_FILE); // STATE_BYTECODE_PREPARED
 				} else {
 	 				// Currently only team-ctors use a MethodModel for byte code retrieval.
 					// Use the stored file name for reading the byte code from disc:
@@ -378,7 +385,7 @@ public class MethodModel extends ModelElement {
 							throw new InternalCompilerError("No byte code available for "+new String(binding.readableName())); //$NON-NLS-1$
 						return;
 					}
-					this._bytes = reader.getBytes();
+					this._bytes = bytes = reader.getBytes();
 				}
 				this._classFile = null; // don't use any more
 				// now we have both a reader and bytes
@@ -403,21 +410,47 @@ public class MethodModel extends ModelElement {
 		}
 
 	}
-	public int[] getConstantPoolOffsets() {
+	public synchronized int[] getConstantPoolOffsets() {
 		setupByteCode(true);
 		return this._constantPoolOffsets;
 	}
 	public byte[] getBytes() {
-		if (this._bytes == null)
-			setupByteCode(true);
-		return this._bytes;
+		byte[] bytes;
+		synchronized (this) {
+			if (this._bytes == null)
+				setupByteCode(true);
+			bytes = this._bytes;
+		}
+		// register outside our lock, because the cache may ask other models to evict their bytes:
+		if (bytes != null && this._byteCodeCache != null && canReadBytes())
+			this._byteCodeCache.retain(this, bytes);
+		return bytes;
 	}
-	public boolean hasBytes() {
+	public synchronized boolean hasBytes() {
 		if (this._bytes == null)
 			setupByteCode(false);
 		return this._bytes != null;
 	}
-	public int getStructOffset() {
+	/** Can the bytes be re-read from the class file of the declaring team? */
+	private boolean canReadBytes() {
+		if (this._classFile != null || this._binding == null || !this._binding.declaringClass.isTeam())
+			return false;
+		TeamModel teamModel = this._binding.declaringClass.getTeamModel();
+		return teamModel != null && teamModel._classFilePath != null;
+	}
+	/**
+	 * Drop the byte code of this method's team, which has been written to disk,
+	 * and will be re-read by {@link #setupByteCode(boolean)} when needed again.
+	 */
+	@Override
+	public synchronized void evictByteCode() {
+		if (!canReadBytes())
+			return;
+		this._bytes = null;
+		this._constantPoolOffsets = null;
+		this._bytesEvicted = true;
+	}
+	public synchronized int getStructOffset() {
 		return this._structOffset;
 	}
 	/**
@@ -425,7 +458,7 @@ public class MethodModel extends ModelElement {
 	 * @param structOffset
 	 * @param constantPoolOffsets
 	 */
-	public void recordByteCode(byte[] bytes, int structOffset, int[] constantPoolOffsets) {
+	public synchronized void recordByteCode(byte[] bytes, int structOffset, int[] constantPoolOffsets) {
 		this._bytes = bytes;
 		this._structOffset = structOffset;
 		int olen = constantPoolOffsets.length;
@@ -437,7 +470,7 @@ public class MethodModel extends ModelElement {
 	 * @param classFile
 	 * @param structOffset
 	 */
-	public void recordByteCode(ClassFile classFile, int structOffset) {
+	public synchronized void recordByteCode(ClassFile classFile, int structOffset) {
 		this._classFile = classFile;
 		int[] offsets = classFile.constantPool.offsets;
 		int olen = classFile.constantPool.currentIndex; // copy only used indices. ConstantPoolObjectReader.getNonWideConstantIterator() depends on the correct number.
@@ -102,7 +102,7 @@ import org.eclipse.objectteams.otdt.internal.core.compiler.util.TypeAnalyzer;
  * @author stephan
  * @version $Id: RoleModel.java 23416 2010-02-03 19:59:31Z stephan $
  */
-public class RoleModel extends TypeModel
+public class RoleModel extends TypeModel implements ByteCodeCache.Evictable
 {
 	// Flag constants for tagBits:
 	// is parameterized type instantiated via tsuper-link?
@@ -122,11 +122,14 @@ public class RoleModel extends TypeModel
 	/** Temporarily store the ClassFile to initialize offsets later. */
     private ClassFile _classFile = null;
 
-    /** The full byte code of this class. */
+    /** The full byte code of this class, may be evicted once a class file has been written (see {@link ByteCodeCache}). */
     private byte[] _classByteCode = null;
 
     private int    _headerOffset = 0;
 
+    /** Bounds the memory used by _classByteCode, set when bytes are first retrieved within a compilation. */
+    private ByteCodeCache _byteCodeCache = null;
+
     /** Offsets into the constant pool */
     private int[]  _constantPoolOffsets = null;
 
@@ -399,14 +402,23 @@ public class RoleModel extends TypeModel
     /** Get the byte code of this role class.
      *  Must be registered with (maybe)recordByteCode
      */
-    public synchronized byte[] getByteCode ()
+    public byte[] getByteCode ()
     {
-        if (this._classByteCode == null) {
+        byte[] byteCode = retrieveByteCode();
+        // register outside our lock, because the cache may ask other models to evict their bytes:
+        if (byteCode != null && this._byteCodeCache != null && this._classFilePath != null) // can be re-read from disk
+        	this._byteCodeCache.retain(this, byteCode);
+        return byteCode;
+    }
+
+    private synchronized byte[] retrieveByteCode() {
+        byte[] byteCode = this._classByteCode;
+        if (byteCode == null) {
         	if (this._classFile == null && this._ast != null)
         		this._classFile = this._ast.compilationResult.findClassFile(this._binding);
             if (this._classFile != null) // nullified once a class file is re-used for a different type
             {
-            	this._classByteCode = this._classFile.getBytes();
+            	byteCode = this._classFile.getBytes();
             	this._headerOffset = this._classFile.headerOffset;
             } else {
             	// restore bytes from class file on disk:
@@ -417,16 +429,19 @@ public class RoleModel extends TypeModel
 	        				return null;
 	            		throw new InternalCompilerError("Class file was not yet written to disk"); //$NON-NLS-1$
 	            	}
-                	this._classByteCode = reader.getBytes();
+                	byteCode = reader.getBytes();
                 	this._headerOffset = reader.getHeaderOffset();
                 	this._constantPoolOffsets = reader.getConstantPoolOffsets();
 				} catch (Exception e) {
 					throw new InternalCompilerError("cannot retrieve generated class file: "+e); //$NON-NLS-1$
             	}
             }
+            this._classByteCode = byteCode;
+            if (this._byteCodeCache == null)
+            	this._byteCodeCache = ByteCodeCache.current();
         }
-        assert(this._classByteCode != null);
-        return this._classByteCode;
+        assert(byteCode != null);
+        return byteCode;
     }
 
     /** Get the byte code offsets of this role's constant pool.
@@ -434,9 +449,10 @@ public class RoleModel extends TypeModel
      */
     public int[] getConstantPoolOffsets()
     {
-        if (this._constantPoolOffsets == null)
-            restoreCPOffsets();
-        return this._constantPoolOffsets;
+        int[] offsets = this._constantPoolOffsets;
+        if (offsets == null)
+            offsets = restoreCPOffsets();
+        return offsets;
     }
 
     /** Get the offset where in the byte code 'method' start.
@@ -458,20 +474,41 @@ public class RoleModel extends TypeModel
     }
 
     @Override
-    public synchronized void setClassFilePath(String classFilePath) {
-       	super.setClassFilePath(classFilePath);
-       	this._classFile = null; // don't use any more but retrieve using the class file path
+    public void setClassFilePath(String classFilePath) {
+    	byte[] byteCode;
+    	synchronized (this) {
+    		super.setClassFilePath(classFilePath);
+    		this._classFile = null; // don't use any more but retrieve using the class file path
+    		byteCode = this._classByteCode;
+    	}
+       	if (this._byteCodeCache != null && byteCode != null) // from now on these bytes can be evicted
+       		this._byteCodeCache.retain(this, byteCode);
        	if (isTeam())
        		getTeamModelOfThis().setClassFilePath(classFilePath);
     }
     /**
      *  Currently unusable, since bytecode may be needed any time again!
+     *  See {@link #evictByteCode()} for a safe way to release memory.
      */
     public synchronized void forgetByteCode() {
         this._methodByteCodeOffsets = new HashMap<MethodBinding, Integer>();
         this._classFile           = null;
         this._classByteCode       = null;
         this._constantPoolOffsets = null;
+        if (this._byteCodeCache != null)
+        	this._byteCodeCache.forget(this);
+    }
+
+    /**
+     * Drop the byte code of this role, which has been written to disk, and will be re-read by
+     * {@link #getByteCode()} when needed again. Method offsets and header offset stay valid.
+     */
+    @Override
+    public synchronized void evictByteCode() {
+        if (this._classFilePath == null)
+            return; // cannot restore
+        this._classByteCode       = null;
+        this._constantPoolOffsets = null;
     }
 
     private synchronized void recordClassFile(MethodBinding method, ClassFile file, int offset)
@@ -485,14 +522,17 @@ public class RoleModel extends TypeModel
         this._classFile = file;
     }
 
-    private void restoreCPOffsets() {
+    private int[] restoreCPOffsets() {
         try {
             byte[] code = getByteCode();
+            if (this._constantPoolOffsets != null)
+                return this._constantPoolOffsets; // set while re-reading the class file
             if (code != null) {
                 ClassFileReader reader
-                    = new ClassFileReader(code, NO_SOURCE_FILE); // not recording OT-attributes
-                this._constantPoolOffsets = reader.getConstantPoolOffsets();
+                    = ClassFileReader.forByteCode(code, NO_SOURCE_FILE); // not recording OT-attributes
+                return this._constantPoolOffsets = reader.getConstantPoolOffsets();
             }
+            return null;
         } catch (ClassFormatException ex) {
             throw new InternalCompilerError(ex.toString());
         }
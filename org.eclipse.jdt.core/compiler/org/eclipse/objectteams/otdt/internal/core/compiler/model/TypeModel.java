@@ -21,11 +21,17 @@
  **********************************************************************/
 package org.eclipse.objectteams.otdt.internal.core.compiler.model;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
 
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
@@ -476,10 +482,67 @@ public class TypeModel extends ModelElement {
 				setState(ITranslationStates.STATE_LATE_ATTRIBUTES_EVALUATED);
 		}
 	}
+	// ====  bindings resolved from the constant pool of the class file, shared by all ConstantPoolObjectReaders ====
+
+	/** Identifies the contents of a class file by its length and two checksums. */
+	private static final class ClassFileStamp {
+		final int length;
+		final long checksum;
+		ClassFileStamp(byte[] classBytes) {
+			CRC32 crc = new CRC32();
+			crc.update(classBytes, 0, classBytes.length);
+			Adler32 adler = new Adler32();
+			adler.update(classBytes, 0, classBytes.length);
+			this.length = classBytes.length;
+			this.checksum = crc.getValue() << 32 | adler.getValue();
+		}
+		@Override
+		public int hashCode() {
+			return (int) (this.checksum ^ this.checksum >>> 32) + this.length;
+		}
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ClassFileStamp))
+				return false;
+			ClassFileStamp other = (ClassFileStamp) obj;
+			return this.length == other.length && this.checksum == other.checksum;
+		}
+	}
+
+	// keyed by the contents of the bytes being read, so tables survive when bytes are evicted and re-read (see ByteCodeCache):
+	private Map<ClassFileStamp, Binding[][]> _resolvedConstantPools = null;
+	// stamps of the byte arrays seen so far (arrays use identity), weak so that evicted bytes can be collected:
+	private Map<byte[], ClassFileStamp> _classFileStamps = null;
+
+	/**
+	 * Answer the tables of bindings that have already been resolved from the constant pool of the given bytes,
+	 * which should be a class file of this type.
+	 * Keying by the contents of the bytes ensures that readers of different class files never share resolved entries,
+	 * even if bytes of another class are read on behalf of this model, whereas bytes re-read from the same class file
+	 * find the tables of their previous incarnation. Tables are kept as long as this model.
+	 * Tables are allocated by the caller, unresolved entries are null.
+	 * @param classBytes bytes being read
+	 * @param tableCount number of tables to answer
+	 */
+	public synchronized Binding[][] getResolvedConstantPools(byte[] classBytes, int tableCount) {
+		if (this._resolvedConstantPools == null) {
+			this._resolvedConstantPools = new HashMap<ClassFileStamp, Binding[][]>();
+			this._classFileStamps = new WeakHashMap<byte[], ClassFileStamp>();
+		}
+		ClassFileStamp stamp = this._classFileStamps.get(classBytes);
+		if (stamp == null)
+			this._classFileStamps.put(classBytes, stamp = new ClassFileStamp(classBytes));
+		Binding[][] tables = this._resolvedConstantPools.get(stamp);
+		if (tables == null)
+			this._resolvedConstantPools.put(stamp, tables = new Binding[tableCount][]);
+		return tables;
+	}
+
 	// ====  allow to re-read bytes from the written class file ====
 	// See comment in ClassFile (near field "generatingModel").
 
-	protected String _classFilePath = null;
+	// volatile: read without locking when deciding whether bytes can be evicted (see ByteCodeCache).
+	protected volatile String _classFilePath = null;
 
 	/** Store different elements accessed by this class, which require special treatment:
 	 *  methods and base-classes requiring decapsulation.
@@ -499,7 +562,8 @@ public class TypeModel extends ModelElement {
 			FileNotFoundException fileNotFoundException = null;
 			for (int i=0; i<5; i++) { // make <= 5 attempts thus waiting <= 500 ms
 				try {
-					return ClassFileReader.read(this._classFilePath); // not recording attributes
+					File file = new File(this._classFilePath);
+					return ClassFileReader.forByteCode(Util.getFileByteContent(file), file.getAbsolutePath().toCharArray()); // not recording attributes
 				} catch (FileNotFoundException ex) {
 					fileNotFoundException = ex;
 					try {
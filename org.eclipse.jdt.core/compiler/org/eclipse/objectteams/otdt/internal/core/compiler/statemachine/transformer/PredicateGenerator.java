@@ -95,11 +95,19 @@ public class PredicateGenerator extends SwitchOnBaseTypeGenerator
 
 	private boolean _processingReplace = false;
 
+	/** Signal a veto by "return true;" as required by OTDRE's _OT$callBeforeDirect. */
+	private boolean _vetoReturnsTrue = false;
+
 	public PredicateGenerator(ReferenceBinding role, boolean processingReplace) {
 		this._currentRole= role;
 		this._processingReplace = processingReplace;
 	}
 
+	public PredicateGenerator(ReferenceBinding role, boolean processingReplace, boolean vetoReturnsTrue) {
+		this(role, processingReplace);
+		this._vetoReturnsTrue = vetoReturnsTrue;
+	}
+
 	// ============== Base Predicates ================
 
 	/**
@@ -352,7 +360,8 @@ public class PredicateGenerator extends SwitchOnBaseTypeGenerator
 		return result;
 	}
 	/* Generate the statement by which evaluation to false is signaled,
-	 * either an exception (for replace bindings) or a simple return (before, after).
+	 * either an exception (for replace bindings) or a simple return (before, after),
+	 * which in the case of _OT$callBeforeDirect returns true.
 	 * target: target instance (role or base) or null for static settings
 	 */
 	private Statement genVetoStatement(AstGenerator gen, Expression target) {
@@ -367,7 +376,7 @@ public class PredicateGenerator extends SwitchOnBaseTypeGenerator
 				)
 			);
 		else
-			return gen.returnStatement(null);
+			return gen.returnStatement(this._vetoReturnsTrue ? gen.booleanLiteral(true) : null);
 	}
 
 	private boolean isBindingPredicateName(char[] name) {
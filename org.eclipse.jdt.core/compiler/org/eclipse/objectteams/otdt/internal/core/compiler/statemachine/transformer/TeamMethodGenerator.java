@@ -23,6 +23,7 @@ import static org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants.AccP
 import static org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants.AccProtected;
 import static org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants.AccPublic;
 import static org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants.AccSynchronized;
+import static org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants.AccVolatile;
 import static org.eclipse.jdt.internal.compiler.lookup.ExtraCompilerModifiers.AccVisibilityMASK;
 import static org.eclipse.objectteams.otdt.internal.core.compiler.mappings.CallinImplementorDyn.*;
 
@@ -85,7 +86,7 @@ import org.eclipse.objectteams.otdt.internal.core.compiler.util.AstGenerator;
  * @since 1.4.0
  */
 public class TeamMethodGenerator {
-	static final char[][] JAVA_LANG_WEAKHASHMAP = new char[][] {"java".toCharArray(), "util".toCharArray(), "WeakHashMap".toCharArray()};  //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	static final char[][] ORG_OBJECTTEAMS_CONCURRENTWEAKIDENTITYMAP = new char[][] {"org".toCharArray(), "objectteams".toCharArray(), "ConcurrentWeakIdentityMap".toCharArray()};  //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	static final char[][] JAVA_LANG_THREAD 		= new char[][] {"java".toCharArray(), "lang".toCharArray(), "Thread".toCharArray()}; 	   //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	static final char[][] JAVA_LANG_THREADLOCAL = new char[][] {"java".toCharArray(), "lang".toCharArray(), "ThreadLocal".toCharArray()};  //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
@@ -215,7 +216,7 @@ public class TeamMethodGenerator {
     	new MethodDescriptor("internalIsActiveSpecificallyFor", 	"(Ljava/lang/Thread;)Z",Type.THREAD,	Type.BOOLEAN,	AccPublic),
     	new MethodDescriptor("_OT$setExecutingCallin",				"(Z)Z",					Type.BOOLEAN,	Type.BOOLEAN,	AccPublic),
     	new MethodDescriptor("_OT$activateForAllThreads",          	"()V", 					Type.NONE, 		Type.NONE,		AccPrivate),
-    	new MethodDescriptor("_OT$saveActivationState",				"()I",					Type.NONE,		Type.INT, 		AccPublic|AccSynchronized),
+    	new MethodDescriptor("_OT$saveActivationState",				"()I",					Type.NONE,		Type.INT, 		AccPublic),
     	new MethodDescriptor("_OT$restoreActivationState",			"(I)V",					Type.INT,		Type.NONE,		AccPublic),
 		new MethodDescriptor("doRegistration", 						"()V", 					Type.NONE, 		Type.NONE,		AccPrivate),
 		new MethodDescriptor("doUnregistration", 					"()V", 					Type.NONE, 		Type.NONE,		AccPrivate),
@@ -426,11 +427,16 @@ public class TeamMethodGenerator {
 	/** create field ASTs. */
     @SuppressWarnings("nls")
 	void addFields(TypeDeclaration teamDecl, AstGenerator gen) {
-		// private WeakHashMap<Thread, Boolean> _OT$activatedThreads = new WeakHashMap<Thread, Boolean>();
+		// private ConcurrentWeakIdentityMap<Thread, Boolean> _OT$activatedThreads = new ConcurrentWeakIdentityMap<Thread, Boolean>();
     	addPrivateField(teamDecl, gen,
-    			weakHashMapTypeReference(gen),
+    			activatedThreadsMapTypeReference(gen),
     			"_OT$activatedThreads".toCharArray(),
-    			gen.allocation(weakHashMapTypeReference(gen), null));
+    			gen.allocation(activatedThreadsMapTypeReference(gen), null));
+		// private ConcurrentWeakIdentityMap<Thread, Boolean> _OT$deactivatedThreads = new ConcurrentWeakIdentityMap<Thread, Boolean>();
+    	addPrivateField(teamDecl, gen,
+    			activatedThreadsMapTypeReference(gen),
+    			"_OT$deactivatedThreads".toCharArray(),
+    			gen.allocation(activatedThreadsMapTypeReference(gen), null));
 
     	// private Object _OT$registrationLock= new Object();
     	addPrivateField(teamDecl, gen,
@@ -438,8 +444,8 @@ public class TeamMethodGenerator {
     			"_OT$registrationLock".toCharArray(),
     			gen.allocation(gen.qualifiedTypeReference(TypeConstants.JAVA_LANG_OBJECT), null));
 
-    	// private boolean _OT$lazyGlobalActiveFlag = false;
-    	addPrivateField(teamDecl, gen,
+    	// private volatile boolean _OT$lazyGlobalActiveFlag = false;
+    	addPrivateField(teamDecl, gen, AccVolatile,
     			gen.baseTypeReference(TypeConstants.BOOLEAN),
     			"_OT$lazyGlobalActiveFlag".toCharArray(),
     			gen.booleanLiteral(false));
@@ -450,14 +456,14 @@ public class TeamMethodGenerator {
     			"_OT$isExecutingCallin".toCharArray(),
     			gen.allocation(threadLocalOfBooleanReference(gen), Expression.NO_EXPRESSIONS));
 
-    	// private  int _OT$registrationState = _OT$UNREGISTERED;
-    	addPrivateField(teamDecl, gen,
+    	// private volatile int _OT$registrationState = _OT$UNREGISTERED;
+    	addPrivateField(teamDecl, gen, AccVolatile,
     			gen.baseTypeReference(TypeConstants.INT),
     			"_OT$registrationState".toCharArray(),
     			gen.intLiteral(0));
 
-    	// private boolean _OT$globalActive = false;
-    	addPrivateField(teamDecl, gen,
+    	// private volatile boolean _OT$globalActive = false;
+    	addPrivateField(teamDecl, gen, AccVolatile,
     			gen.baseTypeReference(TypeConstants.BOOLEAN),
     			"_OT$globalActive".toCharArray(),
     			gen.booleanLiteral(false));
@@ -492,15 +498,18 @@ public class TeamMethodGenerator {
 	}
 
 	void addPrivateField(TypeDeclaration teamDecl, AstGenerator gen, TypeReference type, char[] name, Expression init) {
-    	FieldDeclaration field = gen.field(AccPrivate, type, name, init);
+		addPrivateField(teamDecl, gen, 0, type, name, init);
+	}
+	void addPrivateField(TypeDeclaration teamDecl, AstGenerator gen, int extraModifiers, TypeReference type, char[] name, Expression init) {
+    	FieldDeclaration field = gen.field(AccPrivate|extraModifiers, type, name, init);
     	boolean teamHasProblems = teamDecl.ignoreFurtherInvestigation;
     	AstEdit.addField(teamDecl, field, !teamHasProblems, false, false);
     	if (!teamHasProblems)
     		field.binding.modifiers |= ExtraCompilerModifiers.AccLocallyUsed;
     }
-	QualifiedTypeReference weakHashMapTypeReference(AstGenerator gen) {
+	QualifiedTypeReference activatedThreadsMapTypeReference(AstGenerator gen) {
 		return gen.parameterizedQualifiedTypeReference(
-				JAVA_LANG_WEAKHASHMAP,
+				ORG_OBJECTTEAMS_CONCURRENTWEAKIDENTITYMAP,
 				new TypeReference[]{
 					gen.qualifiedTypeReference(JAVA_LANG_THREAD),
 					gen.qualifiedTypeReference(TypeConstants.JAVA_LANG_BOOLEAN)
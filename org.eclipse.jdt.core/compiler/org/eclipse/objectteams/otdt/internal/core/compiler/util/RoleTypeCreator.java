@@ -64,8 +64,8 @@ public class RoleTypeCreator implements TagBits {
 
     // when wrapping types in a method signature, don't search the exact role
     // (signature weakening!)
-    // TODO (Threads) move this field to Dependencies.Config!
-    static boolean doingSignatures = false;
+    // per thread, because independent compilations may run concurrently (a Config may be shared between threads):
+    private static final ThreadLocal<Boolean> doingSignatures = ThreadLocal.withInitial(() -> Boolean.FALSE);
 
 	/** Simulate map() HOF over all arguments of a type for recursive wrapping. */
 	public interface TypeArgumentUpdater {
@@ -639,7 +639,7 @@ public class RoleTypeCreator implements TagBits {
 			return;
 		if ((method.otBits & IOTConstants.HasWrappedSignature) != 0) // no double wrapping
 			return;
-	    doingSignatures = true;
+	    doingSignatures.set(Boolean.TRUE);
 	    method.otBits |= IOTConstants.HasWrappedSignature;
 	    ReferenceBinding site = method.declaringClass;
 	    assert !(site instanceof BinaryTypeBinding);
@@ -696,7 +696,7 @@ public class RoleTypeCreator implements TagBits {
 	        if (argument != null && argument.binding != null)
 	        	argument.binding.type = parameters[i];
 	    }
-	    doingSignatures = false;
+	    doingSignatures.set(Boolean.FALSE);
 	}
 	private static void checkArrayLoweringForReturn(MethodBinding method, BlockScope scope) {
 		int dimensions = method.returnType.dimensions();
@@ -744,7 +744,7 @@ public class RoleTypeCreator implements TagBits {
 	{
 		if ((method.otBits & IOTConstants.HasWrappedSignature) != 0) // no double wrapping
 			return;
-	    doingSignatures = true;
+	    doingSignatures.set(Boolean.TRUE);
 	    try {
 	    	method.otBits |= IOTConstants.HasWrappedSignature;
 		    ReferenceBinding site = method.declaringClass;
@@ -775,7 +775,7 @@ public class RoleTypeCreator implements TagBits {
 		        parameters[i] = maybeWrapUnqualifiedRoleType(parameters[i], site);
 		    }
 	    } finally {
-	    	doingSignatures = false;
+	    	doingSignatures.set(Boolean.FALSE);
 	    }
 	}
 
@@ -1467,7 +1467,7 @@ public class RoleTypeCreator implements TagBits {
 	    ReferenceBinding site)
 	{
 	    if ((site != null) &&
-	        !doingSignatures)
+	        !doingSignatures.get().booleanValue())
 	    {
 	    	ReferenceBinding teamBinding = TeamModel.findEnclosingTeamContainingRole(site, role);
 	    	if (teamBinding == null){
@@ -1450,6 +1450,28 @@ public final class JavaCore extends Plugin {
 	 * @since 3.10 OT 2.3
 	 */
 	public static final String COMPILER_OPT_WEAVING_SCHEME = OTDT_PLUGIN_ID + ".compiler.option.weaving_scheme"; //$NON-NLS-1$
+
+	/**
+	 * Compiler option ID: Generate lifting methods that look up existing roles without locking the role cache.
+	 * <dl>
+	 * <dt>Option id:</dt><dd><code>"org.eclipse.objectteams.otdt.compiler.option.concurrent_lifting"</code></dd>
+	 * <dt>Possible values:</dt><dd><code>{ "enabled", "disabled" }</code></dd>
+	 * <dt>Default:</dt><dd><code>"disabled"</code></dd>
+	 * </dl>
+	 * @since 3.10 OT 2.8
+	 */
+	public static final String COMPILER_OPT_CONCURRENT_LIFTING = OTDT_PLUGIN_ID + ".compiler.option.concurrent_lifting"; //$NON-NLS-1$
+
+	/**
+	 * Compiler option ID: Parse method bodies of independent team hierarchies in parallel.
+	 * <dl>
+	 * <dt>Option id:</dt><dd><code>"org.eclipse.objectteams.otdt.compiler.option.parallel_hierarchies"</code></dd>
+	 * <dt>Possible values:</dt><dd><code>{ "enabled", "disabled" }</code></dd>
+	 * <dt>Default:</dt><dd><code>"disabled"</code></dd>
+	 * </dl>
+	 * @since 3.10 OT 2.8
+	 */
+	public static final String COMPILER_OPT_PARALLEL_HIERARCHIES = OTDT_PLUGIN_ID + ".compiler.option.parallel_hierarchies"; //$NON-NLS-1$
 // SH}
 
 	/**
@@ -34,6 +34,7 @@ import org.eclipse.jdt.internal.core.JavaModelManager;
 import org.eclipse.jdt.internal.core.PackageFragment;
 import org.eclipse.jdt.internal.core.util.Messages;
 import org.eclipse.jdt.internal.core.util.Util;
+import org.eclipse.objectteams.otdt.internal.core.builder.OTDependencies;
 
 import java.io.*;
 import java.util.*;
@@ -208,6 +209,9 @@ public void acceptResult(CompilationResult result) {
 		if (result.hasAnnotations && this.filesWithAnnotations != null) // only initialized if an annotation processor is attached
 			this.filesWithAnnotations.add(compilationUnit);
 
+//{ObjectTeams: record dependencies specific to teams and roles:
+		this.newState.recordOTDependencies(typeLocator, OTDependencies.create(result));
+// SH}
 		this.compiler.lookupEnvironment.releaseClassFiles(classFiles);
 		finishedWith(typeLocator, result, compilationUnit.getMainTypeName(), definedTypeNames, duplicateTypeNames);
 		this.notifier.compiled(compilationUnit);
@@ -425,11 +425,17 @@ private SimpleLookupTable findDeltas() {
 
 	Object[] keyTable = this.binaryLocationsPerProject.keyTable;
 	Object[] valueTable = this.binaryLocationsPerProject.valueTable;
+//{ObjectTeams: sub teams copy byte code from super teams in other projects, so need to see non-structural changes, too:
+	boolean hasBinarySuperTeams = this.lastState.hasBinarySuperTeams();
+// SH}
 	nextProject : for (int i = 0, l = keyTable.length; i < l; i++) {
 		IProject p = (IProject) keyTable[i];
 		if (p != null && p != this.currentProject) {
 			State s = getLastState(p);
 			if (!this.lastState.wasStructurallyChanged(p, s)) { // see if we can skip its delta
+//{ObjectTeams: see OTJIncrementalImageBuilder.findAffectedSourceFiles() for how such deltas are handled
+			  if (!hasBinarySuperTeams || s.wasNoopBuild()) {
+// SH}
 				if (s.wasNoopBuild())
 					continue nextProject; // project has no source folders and can be skipped
 				ClasspathLocation[] classFoldersAndJars = (ClasspathLocation[]) valueTable[i];
@@ -441,6 +447,9 @@ private SimpleLookupTable findDeltas() {
 						canSkip = false;
 				}
 				if (canSkip) continue nextProject; // project has no structural changes in its output folders
+//{ObjectTeams:
+			  }
+// SH}
 			}
 
 			this.notifier.subTask(Messages.bind(Messages.build_readingDelta, p.getName()));
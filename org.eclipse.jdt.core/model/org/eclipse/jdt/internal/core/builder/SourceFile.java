@@ -123,7 +123,9 @@ public boolean ignoreOptionalProblems() {
 public String getExternalAnnotationPath(String qualifiedTypeName) {
 	return this.sourceLocation.externalAnnotationPath;
 }
-String typeLocator() {
+//{ObjectTeams: make public (was default) for OTJIncrementalImageBuilder
+public String typeLocator() {
+// SH}
 	return this.resource.getProjectRelativePath().toString();
 }
 
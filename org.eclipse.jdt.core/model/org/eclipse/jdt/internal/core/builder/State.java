@@ -53,6 +53,7 @@ import org.eclipse.jdt.internal.compiler.env.IUpdatableModule.UpdateKind;
 import org.eclipse.jdt.internal.compiler.util.SimpleLookupTable;
 import org.eclipse.jdt.internal.compiler.util.Util;
 import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.objectteams.otdt.internal.core.builder.OTDependencies;
 
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class State {
@@ -67,6 +68,9 @@ public ClasspathLocation[] testBinaryLocations;
 Map<String, ReferenceCollection> references;
 // keyed by qualified type name "p1/p2/A", value is the project relative path which defines this type "src1/p1/p2/A.java"
 public Map<String, String> typeLocators;
+//{ObjectTeams: keyed by the project relative path of a source file defining teams or roles:
+Map<String, OTDependencies> otDependencies;
+// SH}
 
 int buildNumber;
 long lastStructuralBuildTime;
@@ -78,7 +82,9 @@ private long previousStructuralBuildTime;
 private StringSet structurallyChangedTypes;
 public static int MaxStructurallyChangedTypes = 100; // keep track of ? structurally changed types, otherwise consider all to be changed
 
-public static final byte VERSION = 0x0024;
+//{ObjectTeams: incremented for otDependencies
+public static final byte VERSION = 0x0025;
+// SH}
 
 static final byte SOURCE_FOLDER = 1;
 static final byte BINARY_FOLDER = 2;
@@ -100,6 +106,9 @@ protected State(JavaBuilder javaBuilder) {
 	this.testBinaryLocations = javaBuilder.testNameEnvironment.binaryLocations;
 	this.references = new LinkedHashMap<>(7);
 	this.typeLocators = new LinkedHashMap<>(7);
+//{ObjectTeams:
+	this.otDependencies = new LinkedHashMap<>(7);
+// SH}
 
 	this.buildNumber = 0; // indicates a full build
 	this.lastStructuralBuildTime = computeStructuralBuildTime(javaBuilder.lastState == null ? 0 : javaBuilder.lastState.lastStructuralBuildTime);
@@ -123,6 +132,9 @@ void copyFrom(State lastState) {
 
 	this.references = new LinkedHashMap<>(lastState.references);
 	this.typeLocators = new LinkedHashMap<>(lastState.typeLocators);
+//{ObjectTeams:
+	this.otDependencies = new LinkedHashMap<>(lastState.otDependencies);
+// SH}
 }
 public char[][] getDefinedTypeNamesFor(String typeLocator) {
 	Object c = this.references.get(typeLocator);
@@ -196,6 +208,28 @@ void record(String typeLocator, char[][][] qualifiedRefs, char[][] simpleRefs, c
 	}
 }
 
+//{ObjectTeams: OT/J specific dependencies:
+void recordOTDependencies(String typeLocator, OTDependencies dependencies) {
+	if (dependencies == null)
+		this.otDependencies.remove(typeLocator);
+	else
+		this.otDependencies.put(typeLocator, dependencies);
+}
+
+public Map<String, OTDependencies> getOTDependencies() {
+	return this.otDependencies;
+}
+
+/** Does any team of this project copy byte code from a super team that is not defined in this project? */
+boolean hasBinarySuperTeams() {
+	for (OTDependencies dependencies : this.otDependencies.values())
+		for (String superTeam : dependencies.superTeams)
+			if (OTDependencies.findLocator(this.typeLocators, superTeam) == null)
+				return true;
+	return false;
+}
+// SH}
+
 void recordLocatorForType(String qualifiedTypeName, String typeLocator) {
 	this.knownPackageNames = null;
 	// in the common case, the qualifiedTypeName is a substring of the typeLocator so share the char[] by using String.substring()
@@ -214,6 +248,9 @@ void recordStructuralDependency(IProject prereqProject, State prereqState) {
 void removeLocator(String typeLocatorToRemove) {
 	this.knownPackageNames = null;
 	this.references.remove(typeLocatorToRemove);
+//{ObjectTeams:
+	this.otDependencies.remove(typeLocatorToRemove);
+// SH}
 	this.typeLocators.values().removeIf(v -> typeLocatorToRemove.equals(v));
 }
 
@@ -326,6 +363,14 @@ static State read(IProject project, DataInputStream in) throws IOException, Core
 		}
 		newState.references.put(typeLocator, collection);
 	}
+//{ObjectTeams: OT/J specific dependencies:
+	length = in.readInt();
+	newState.otDependencies = new LinkedHashMap<>((int) (length / 0.75 + 1));
+	for (int i = 0; i < length; i++) {
+		String typeLocator = internedTypeLocators[in.readInt()];
+		newState.otDependencies.put(typeLocator, OTDependencies.read(in));
+	}
+// SH}
 	if (JavaBuilder.DEBUG)
 		System.out.println("Successfully read state for " + newState.javaProjectName); //$NON-NLS-1$
 	return newState;
@@ -465,6 +510,9 @@ void tagAsStructurallyChanged() {
 	this.lastStructuralBuildTime = computeStructuralBuildTime(this.previousStructuralBuildTime);
 }
 
+//{ObjectTeams: also used by OTJIncrementalImageBuilder
+public
+// SH}
 boolean wasStructurallyChanged(IProject prereqProject, State prereqState) {
 	if (prereqState != null) {
 		Object o = this.structuralBuildTimes.get(prereqProject.getName());
@@ -708,6 +756,24 @@ void write(DataOutputStream out) throws IOException {
 		if (JavaBuilder.DEBUG && length != 0)
 			System.out.println("references table is inconsistent"); //$NON-NLS-1$
 	}
+//{ObjectTeams:
+/*
+ * OT/J specific dependencies
+ * int		interned locator id
+ * OTDependencies
+*/
+	out.writeInt(length = this.otDependencies.size());
+	if (length > 0) {
+		for (Entry<String, OTDependencies> entry : this.otDependencies.entrySet()) {
+			length--;
+			Integer index = (Integer) internedTypeLocators.get(entry.getKey());
+			out.writeInt(index.intValue());
+			entry.getValue().write(out);
+		}
+		if (JavaBuilder.DEBUG && length != 0)
+			System.out.println("otDependencies table is inconsistent"); //$NON-NLS-1$
+	}
+// SH}
 }
 
 private void writeSourceLocations(DataOutputStream out, ClasspathMultiDirectory[] srcLocations) throws IOException {
@@ -0,0 +1,160 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.internal.core.builder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.objectteams.otdt.core.compiler.IOTConstants;
+
+/**
+ * OT/J specific dependencies of one source file, as recorded in the builder's <code>State</code>.
+ * <p>
+ * These are collected by the compiler (see <code>CompilationResult.recordOTDependencies()</code>)
+ * and complement the name based references of a <code>ReferenceCollection</code> with edges
+ * that need special treatment during incremental builds:
+ * <ul>
+ * <li>super teams: a sub team copies byte code from the roles of its super teams (incl. tsuper roles
+ * of nested teams), so it must be recompiled whenever the byte code of a super team changes.</li>
+ * <li>base classes: playedBy, callin/callout bindings and lifting of a team depend on the structure
+ * of the bound base classes, including base classes bound by inherited roles.</li>
+ * <li>enclosing team: a role file must always be compiled together with its team.</li>
+ * </ul>
+ * All types are stored as qualified type names "p1/p2/T$R", which are resolved to type locators
+ * only when needed (see {@link #findLocator(Map, String)}).
+ * Types of prerequisite projects have no type locator, these are matched against the names
+ * of changed class files instead (see {@link #dependsOnBinary(String[], Set)}).
+ * </p>
+ */
+public class OTDependencies {
+
+	private static final String[] NO_NAMES = new String[0];
+
+	public final String[] superTeams;
+	public final String[] baseClasses;
+	public final String enclosingTeam; // null if not a role file
+
+	public OTDependencies(String[] superTeams, String[] baseClasses, String enclosingTeam) {
+		this.superTeams = superTeams;
+		this.baseClasses = baseClasses;
+		this.enclosingTeam = enclosingTeam;
+	}
+
+	/**
+	 * Answer the OT/J dependencies recorded in the given compilation result.
+	 * @return the dependencies or null if the compilation unit has no such dependencies.
+	 */
+	public static OTDependencies create(CompilationResult result) {
+		if (result.superTeamNames == null && result.baseClassNames == null && result.enclosingTeamName == null)
+			return null;
+		return new OTDependencies(toArray(result.superTeamNames), toArray(result.baseClassNames), result.enclosingTeamName);
+	}
+
+	private static String[] toArray(Set<String> names) {
+		return names == null ? NO_NAMES : names.toArray(new String[names.size()]);
+	}
+
+	/**
+	 * Find the type locator of the source file that defines the given type,
+	 * which may be the file of an enclosing type.
+	 * @return the type locator or null if the type is not defined in this project.
+	 */
+	public static String findLocator(Map<String, String> typeLocators, String qualifiedTypeName) {
+		String name = qualifiedTypeName;
+		while (true) {
+			String typeLocator = typeLocators.get(name);
+			if (typeLocator != null)
+				return typeLocator;
+			int dollar = name.lastIndexOf('$');
+			if (dollar == -1)
+				return null;
+			name = name.substring(0, dollar);
+		}
+	}
+
+	/**
+	 * Does any of the given type names resolve to one of the given type locators?
+	 * Types defined in the same source file (ownLocator) are not considered.
+	 */
+	public static boolean dependsOn(Map<String, String> typeLocators, String[] typeNames, Set<String> locators, String ownLocator) {
+		for (String typeName : typeNames) {
+			String typeLocator = findLocator(typeLocators, typeName);
+			if (typeLocator != null && !typeLocator.equals(ownLocator) && locators.contains(typeLocator))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Does any of the given type names denote one of the given types of a prerequisite project,
+	 * or a type nested therein (e.g., a role of a super team)?
+	 * @param binaryTypeNames qualified names of changed class files, normalized using {@link #binaryTypeName(String)}
+	 */
+	public static boolean dependsOnBinary(String[] typeNames, Set<String> binaryTypeNames) {
+		if (binaryTypeNames.isEmpty())
+			return false;
+		for (String typeName : typeNames) {
+			for (String binaryTypeName : binaryTypeNames) {
+				if (binaryTypeName.startsWith(typeName)
+						&& (binaryTypeName.length() == typeName.length() || binaryTypeName.charAt(typeName.length()) == '$'))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/** Answer the qualified type name for the given class file path "p1/p2/T$__OT__R", as used in recorded dependencies. */
+	public static String binaryTypeName(String classFilePath) {
+		return classFilePath.replace("$"+IOTConstants.OT_DELIM, "$"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public static OTDependencies read(DataInputStream in) throws IOException {
+		String[] superTeams = readNames(in);
+		String[] baseClasses = readNames(in);
+		String enclosingTeam = in.readBoolean() ? in.readUTF() : null;
+		return new OTDependencies(superTeams, baseClasses, enclosingTeam);
+	}
+
+	private static String[] readNames(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == 0)
+			return NO_NAMES;
+		String[] names = new String[length];
+		for (int i = 0; i < length; i++)
+			names[i] = in.readUTF();
+		return names;
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		writeNames(this.superTeams, out);
+		writeNames(this.baseClasses, out);
+		out.writeBoolean(this.enclosingTeam != null);
+		if (this.enclosingTeam != null)
+			out.writeUTF(this.enclosingTeam);
+	}
+
+	private static void writeNames(String[] names, DataOutputStream out) throws IOException {
+		out.writeInt(names.length);
+		for (String name : names)
+			out.writeUTF(name);
+	}
+}
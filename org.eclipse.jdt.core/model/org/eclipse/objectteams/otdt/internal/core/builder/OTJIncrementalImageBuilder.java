@@ -18,10 +18,24 @@
  **********************************************************************/
 package org.eclipse.objectteams.otdt.internal.core.builder;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.internal.compiler.ClassFile;
+import org.eclipse.jdt.internal.compiler.util.Util;
+import org.eclipse.jdt.internal.core.builder.ClasspathLocation;
 import org.eclipse.jdt.internal.core.builder.IncrementalImageBuilder;
 import org.eclipse.jdt.internal.core.builder.JavaBuilder;
 import org.eclipse.jdt.internal.core.builder.SourceFile;
+import org.eclipse.jdt.internal.core.builder.StringSet;
 
 /**
  * Specialize the IncrementalImageBuilder to include teams of role files in
@@ -37,25 +51,164 @@ public class OTJIncrementalImageBuilder extends IncrementalImageBuilder {
 		super(javaBuilder);
 	}
 
+	// type locators of source files whose class files changed / changed structurally during the last compile loop:
+	private Set<String> changedLocators = new HashSet<>();
+	private Set<String> structurallyChangedLocators = new HashSet<>();
+	private boolean hasChangedBytes;
+	private boolean hasStructuralChange;
+
+	// qualified names "p1/p2/T$R" of class files of prerequisite projects that changed / changed structurally:
+	private Set<String> changedBinaryTypes = new HashSet<>();
+	private Set<String> structurallyChangedBinaryTypes = new HashSet<>();
+
+	@Override
+	protected void resetCollections() {
+		super.resetCollections();
+		this.changedLocators.clear();
+		this.structurallyChangedLocators.clear();
+		this.changedBinaryTypes.clear();
+		this.structurallyChangedBinaryTypes.clear();
+	}
+
+	// false while inspecting the output folder of a prerequisite project without structural changes:
+	private boolean prereqStructurallyChanged = true;
+
+	@Override
+	protected boolean findAffectedSourceFiles(IResourceDelta delta, ClasspathLocation[] classFoldersAndJars, IProject prereqProject) {
+		// JavaBuilder.findDeltas() passes output folders of projects without structural changes only if we have super teams there:
+		this.prereqStructurallyChanged = this.javaBuilder.lastState.wasStructurallyChanged(prereqProject, this.javaBuilder.getLastState(prereqProject));
+		try {
+			return super.findAffectedSourceFiles(delta, classFoldersAndJars, prereqProject);
+		} finally {
+			this.prereqStructurallyChanged = true;
+		}
+	}
+
+	/**
+	 * Also record class files of prerequisite projects whose contents changed non-structurally,
+	 * which are relevant for sub teams copying byte code from a super team in another project.
+	 */
+	@Override
+	protected void findAffectedSourceFiles(IResourceDelta binaryDelta, int segmentCount, StringSet structurallyChangedTypes) {
+		IResource resource = binaryDelta.getResource();
+		if (resource.getType() == IResource.FILE && Util.isClassFileName(resource.getName())) {
+			String typePath = resource.getFullPath().removeFirstSegments(segmentCount).removeFileExtension().toString();
+			String typeName = OTDependencies.binaryTypeName(typePath);
+			switch (binaryDelta.getKind()) {
+				case IResourceDelta.ADDED :
+				case IResourceDelta.REMOVED :
+					this.changedBinaryTypes.add(typeName);
+					this.structurallyChangedBinaryTypes.add(typeName);
+					break;
+				case IResourceDelta.CHANGED :
+					if ((binaryDelta.getFlags() & IResourceDelta.CONTENT) == 0)
+						break;
+					this.changedBinaryTypes.add(typeName);
+					if (this.prereqStructurallyChanged
+							&& (structurallyChangedTypes == null || structurallyChangedTypes.includes(typePath)))
+						this.structurallyChangedBinaryTypes.add(typeName);
+			}
+			if (!this.prereqStructurallyChanged)
+				return; // no name based dependents, only super teams are of interest here
+		}
+		super.findAffectedSourceFiles(binaryDelta, segmentCount, structurallyChangedTypes);
+	}
+
+	@Override
+	protected void writeClassFileContents(ClassFile classfile, IFile file, String qualifiedFileName, boolean isTopLevelType, SourceFile compilationUnit)
+			throws CoreException
+	{
+		this.hasChangedBytes = !file.exists();
+		this.hasStructuralChange = false;
+		super.writeClassFileContents(classfile, file, qualifiedFileName, isTopLevelType, compilationUnit);
+		if (this.hasChangedBytes || this.hasStructuralChange)
+			this.changedLocators.add(compilationUnit.typeLocator());
+		if (this.hasStructuralChange)
+			this.structurallyChangedLocators.add(compilationUnit.typeLocator());
+	}
+
+	@Override
+	protected boolean writeClassFileCheck(IFile file, String fileName, byte[] newBytes) throws CoreException {
+		boolean changed = super.writeClassFileCheck(file, fileName, newBytes);
+		this.hasChangedBytes |= changed;
+		return changed;
+	}
+
+	@Override
+	protected void addDependentsOf(IPath path, boolean isStructuralChange) {
+		super.addDependentsOf(path, isStructuralChange);
+		this.hasStructuralChange |= isStructuralChange;
+	}
+
 	/**
-	 * For each affected source file, guess whether it could be a role
-	 * file and include its team in the compilation process.
+	 * In addition to the name based dependencies add
+	 * <ul>
+	 * <li>sub teams of teams whose byte code has changed (copy inheritance),</li>
+	 * <li>teams whose roles are bound to a base class that has changed structurally,</li>
+	 * <li>both of the above also for super teams and base classes from prerequisite projects,</li>
+	 * <li>the enclosing team of each role file to be compiled.</li>
+	 * </ul>
 	 */
 	@Override
 	protected void addAffectedSourceFiles() {
 		super.addAffectedSourceFiles();
-		if (this.sourceFiles != null) {
-			SourceFile[] oldSources = new SourceFile[this.sourceFiles.size()];
-			this.sourceFiles.toArray(oldSources); // copy, because list might be extended.
-			for (int i=0; i<oldSources.length; i++) {
-				checkAddTeamFile(oldSources[i]);
+		if (this.sourceFiles == null)
+			return;
+		Map<String, String> typeLocators = this.newState.typeLocators;
+		if (!this.changedLocators.isEmpty() || !this.changedBinaryTypes.isEmpty()) {
+			for (Entry<String, OTDependencies> entry : this.newState.getOTDependencies().entrySet()) {
+				String typeLocator = entry.getKey();
+				OTDependencies dependencies = entry.getValue();
+				if (OTDependencies.dependsOn(typeLocators, dependencies.superTeams, this.changedLocators, typeLocator)
+						|| OTDependencies.dependsOn(typeLocators, dependencies.baseClasses, this.structurallyChangedLocators, typeLocator)
+						|| OTDependencies.dependsOnBinary(dependencies.superTeams, this.changedBinaryTypes)
+						|| OTDependencies.dependsOnBinary(dependencies.baseClasses, this.structurallyChangedBinaryTypes))
+					addDependentSourceFile(typeLocator);
+			}
+		}
+		SourceFile[] oldSources = new SourceFile[this.sourceFiles.size()];
+		this.sourceFiles.toArray(oldSources); // copy, because list might be extended.
+		for (int i=0; i<oldSources.length; i++) {
+			addTeamFiles(oldSources[i]);
+		}
+	}
+
+	private void addDependentSourceFile(String typeLocator) {
+		SourceFile sourceFile = findSourceFile(this.javaBuilder.getProject().getFile(typeLocator), true);
+		if (sourceFile == null || this.sourceFiles.contains(sourceFile))
+			return;
+		if (this.compiledAllAtOnce && this.previousSourceFiles != null && this.previousSourceFiles.contains(sourceFile))
+			return; // compiled together with the changed types
+		if (JavaBuilder.DEBUG)
+			System.out.println("  adding dependent team " + typeLocator); //$NON-NLS-1$
+		this.sourceFiles.add(sourceFile);
+	}
+
+	/** Add the team of the given file if it is a role file, and so on for nested team packages. */
+	private void addTeamFiles(SourceFile file) {
+		Map<String, OTDependencies> allDependencies = this.newState.getOTDependencies();
+		while (true) {
+			OTDependencies dependencies = allDependencies.get(file.typeLocator());
+			if (dependencies == null) {
+				checkAddTeamFile(file); // nothing recorded (e.g., new file), guess
+				return;
 			}
+			if (dependencies.enclosingTeam == null)
+				return;
+			String teamLocator = OTDependencies.findLocator(this.newState.typeLocators, dependencies.enclosingTeam);
+			if (teamLocator == null)
+				return;
+			SourceFile teamFile = findSourceFile(this.javaBuilder.getProject().getFile(teamLocator), true);
+			if (teamFile == null || !this.sourceFiles.add(teamFile))
+				return;
+			if (JavaBuilder.DEBUG)
+				System.out.println("Adding team file: "+teamLocator); //$NON-NLS-1$
+			file = teamFile;
 		}
 	}
 
 	private void checkAddTeamFile(SourceFile file) {
 		IPath path = file.getPath();
-		// TODO (SH): should we try more than one level?
 		IPath teamPath = path.removeLastSegments(1).addFileExtension("java"); //$NON-NLS-1$
 		if (!teamPath.isEmpty()) {
 			SourceFile teamFile = this.javaBuilder.findSourceByPath(teamPath);
@@ -29,11 +29,11 @@ package org.eclipse.objectteams.otdt.debug.internal.breakpoints;
  */
 public interface IOOTBreakPoints 
 {
-  int LINE_TeamConstructor = 63;
-  int LINE_ConfinedGetTeam = 94;
-  int LINE_ActivateMethod = 166;
-  int LINE_DeactivateMethod = 197;
-  int LINE_ImplicitActivateMethod = 244;
-  int LINE_ImplicitDeactivateMethod = 279;
-  int LINE_FinalizeMethod = 494;
+  int LINE_TeamConstructor = 65;
+  int LINE_ConfinedGetTeam = 96;
+  int LINE_ActivateMethod = 182;
+  int LINE_DeactivateMethod = 225;
+  int LINE_ImplicitActivateMethod = 271;
+  int LINE_ImplicitDeactivateMethod = 314;
+  int LINE_FinalizeMethod = 539;
 }
@@ -39,6 +39,7 @@ import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
@@ -113,6 +114,7 @@ public class CompilerConfigurationBlock extends OptionsConfigurationBlock {
 	private static final Key PREF_PB_UNUSED_PARAMMAP = getJDTCoreKey(OTDTPlugin.OT_COMPILER_UNUSED_PARAMMAP);
 
 	private static final Key PREF_WEAVING_SCHEME = getJDTCoreKey(OTDTPlugin.OT_COMPILER_WEAVING_SCHEME);
+	private static final Key PREF_CONCURRENT_LIFTING = getJDTCoreKey(OTDTPlugin.OT_COMPILER_CONCURRENT_LIFTING);
 
 	// values
 	private static final String ERROR= JavaCore.ERROR;
@@ -120,8 +122,8 @@ public class CompilerConfigurationBlock extends OptionsConfigurationBlock {
 	private static final String INFO= JavaCore.INFO;
 	private static final String IGNORE= JavaCore.IGNORE;
 
-//	private static final String ENABLED= JavaCore.ENABLED;
-//	private static final String DISABLED= JavaCore.DISABLED;
+	private static final String ENABLED= JavaCore.ENABLED;
+	private static final String DISABLED= JavaCore.DISABLED;
 	
 	private static final String SETTINGS_SECTION_NAME = "OTJCompilerConfigurationBlock"; //$NON-NLS-1$
 	
@@ -130,6 +132,7 @@ public class CompilerConfigurationBlock extends OptionsConfigurationBlock {
 	private PreferenceTree fFilteredPrefTree;
 	private PixelConverter fPixelConverter;
 	private Combo fWeavingSchemeComboBox;
+	private Button fConcurrentLiftingCheckBox;
 	
 	public CompilerConfigurationBlock(IStatusChangeListener context, IProject project, IWorkbenchPreferenceContainer container) {
 		super(context, project, getKeys(), container);
@@ -157,7 +160,8 @@ public class CompilerConfigurationBlock extends OptionsConfigurationBlock {
 				PREF_PB_OVERRIDE_FINAL_ROLE,
 				PREF_PB_EXCEPTION_IN_GUARD,
 				PREF_PB_AMBIGUOUS_LOWERING,
-				PREF_WEAVING_SCHEME
+				PREF_WEAVING_SCHEME,
+				PREF_CONCURRENT_LIFTING
 			};
 	}
 	
@@ -201,6 +205,9 @@ public class CompilerConfigurationBlock extends OptionsConfigurationBlock {
 		if (fWeavingSchemeComboBox != null && !fWeavingSchemeComboBox.isDisposed()) {
 			fWeavingSchemeComboBox.setEnabled(enable);
 		}
+		if (fConcurrentLiftingCheckBox != null && !fConcurrentLiftingCheckBox.isDisposed()) {
+			fConcurrentLiftingCheckBox.setEnabled(enable);
+		}
 	}
 	
 
@@ -222,6 +229,10 @@ public class CompilerConfigurationBlock extends OptionsConfigurationBlock {
 								OTPreferencesMessages.OTCompilerConfigurationBlock_weaving_otdre_label },
 				indentStep*2);
 
+		fConcurrentLiftingCheckBox = addCheckBox(topComposite, OTPreferencesMessages.OTCompilerConfigurationBlock_concurrent_lifting_label, PREF_CONCURRENT_LIFTING,
+				new String[] { ENABLED, DISABLED },
+				indentStep*2);
+
 		String[] errorWarningIgnore= new String[] { ERROR, WARNING, INFO, IGNORE };
 		
 		String[] errorWarningIgnoreLabels= new String[] {
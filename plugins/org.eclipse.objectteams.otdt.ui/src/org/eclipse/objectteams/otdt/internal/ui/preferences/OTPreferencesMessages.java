@@ -51,6 +51,7 @@ public class OTPreferencesMessages {
 	public static String OTCompilerConfigurationBlock_weaving_label;
 	public static String OTCompilerConfigurationBlock_weaving_otre_label;
 	public static String OTCompilerConfigurationBlock_weaving_otdre_label;
+	public static String OTCompilerConfigurationBlock_concurrent_lifting_label;
 	
 	public static String OTCompilerConfigurationBlock_common_description;
 	public static String OTCompilerProblemConfiguration_otjld_ref_description;
@@ -240,6 +240,16 @@ public class OTDTPlugin extends Plugin
 	 * @category CompilerOptionID
 	 */
 	public static final String OT_COMPILER_WEAVING_SCHEME = PLUGIN_ID + ".compiler.option.weaving_scheme";
+
+	/**
+	 * Compiler option ID: Should lifting methods look up existing roles without locking the role cache?
+	 * <dl>
+	 * <dt>Possible values:</dt><dd><code>{ "enabled", "disabled" }</code></dd>
+	 * <dt>Default:</dt><dd><code>"disabled"</code></dd>
+	 * </dl>
+	 * @category CompilerOptionID
+	 */
+	public static final String OT_COMPILER_CONCURRENT_LIFTING = PLUGIN_ID + ".compiler.option.concurrent_lifting";
 	
     private static OTDTPlugin _singleton = null;
 
@@ -388,6 +388,7 @@ public class AspectBinding {
 		long time = 0;
 		if (Util.PROFILE) time= System.nanoTime();
 		ClassScanner scanner = new ClassScanner();
+		ScanResultCache cache = ScanResultCache.forBundle(bundle);
 		for (TeamBinding team : getAllTeamBindings()) {
 			if (team.hasScannedBases) { // not a surprise for members of equivalentSet or classes already processed by weave()
 				if (!team.hasScannedRoles) { // weave() only scans bases, not roles!
@@ -399,7 +400,7 @@ public class AspectBinding {
 			team.hasScannedBases = true;
 			team.hasScannedRoles = true;
 			try {
-				String teamName = scanner.readOTAttributes(bundle, team.teamName, transformer);
+				String teamName = scanner.readTeamAttributes(bundle, team.teamName, transformer, cache);
 				Collection<String> baseClassNames = scanner.getCollectedBaseClassNames();
 				if (team.baseClassNames.isEmpty()) {
 					for (TeamBinding equivalent : team.equivalenceSet)
@@ -410,6 +411,8 @@ public class AspectBinding {
 				log(e, "Failed to scan team class "+team.teamName);
 			}
 		}
+		if (cache != null)
+			cache.save();
 		this.hasScannedTeams = true;
 		if (Util.PROFILE) Util.profile(time, ProfileKind.Scan, bundle.getSymbolicName());
 		return this.allBaseClassNames;
@@ -33,6 +33,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.objectteams.internal.osgi.weaving.ScanResultCache.ScanResult;
 import org.eclipse.objectteams.otre.util.CallinBindingManager;
 import org.osgi.framework.Bundle;
 
@@ -83,20 +84,48 @@ public class ClassScanner
 			transformer.readOTAttributes(className, inputStream, classFile.getFile(), loader);
 		}
 		Collection<String> currentBaseNames = transformer.fetchAdaptedBases(); // destructive read
-		if (currentBaseNames != null) {
-			// store per team:
-			ArrayList<String> basesPerTeam = this.baseClassNamesByTeam.get(className);
-			if (basesPerTeam == null) {
-				basesPerTeam = new ArrayList<String>();
-				this.baseClassNamesByTeam.put(className, basesPerTeam);
+		if (currentBaseNames != null)
+			recordBaseClassNames(className, currentBaseNames);
+		readMemberTypeAttributes(bundle, className, transformer);
+		return className;
+	}
+
+	/**
+	 * Read all OT byte code attributes for the specified team and its roles, see {@link #readOTAttributes},
+	 * unless the result of a previous scan of this team can be found in the given cache.
+	 *
+	 * @param cache results of previous scans, or null
+	 * @return the real class name
+	 */
+	String readTeamAttributes(Bundle bundle, String teamName, DelegatingTransformer transformer, @Nullable ScanResultCache cache)
+			throws ClassFormatError, IOException, ClassNotFoundException
+	{
+		if (cache != null) {
+			ScanResult result = cache.get(teamName);
+			if (result != null) {
+				if (!result.baseClassNames.isEmpty())
+					recordBaseClassNames(result.className, result.baseClassNames);
+				return result.className;
 			}
-			basesPerTeam.addAll(currentBaseNames);
-			// accumulated store:
-			allBaseClassNames.addAll(currentBaseNames);
 		}
-		readMemberTypeAttributes(bundle, className, transformer);
+		int start = this.allBaseClassNames.size();
+		String className = readOTAttributes(bundle, teamName, transformer);
+		if (cache != null)
+			cache.put(teamName, className, this.allBaseClassNames.subList(start, this.allBaseClassNames.size()));
 		return className;
 	}
+
+	private void recordBaseClassNames(String className, Collection<String> baseClassNames) {
+		// store per team:
+		ArrayList<String> basesPerTeam = this.baseClassNamesByTeam.get(className);
+		if (basesPerTeam == null) {
+			basesPerTeam = new ArrayList<String>();
+			this.baseClassNamesByTeam.put(className, basesPerTeam);
+		}
+		basesPerTeam.addAll(baseClassNames);
+		// accumulated store:
+		allBaseClassNames.addAll(baseClassNames);
+	}
 	
 	/** 
 	 * Get the names of the base classes adapted by the given team and 
@@ -140,6 +140,16 @@ public abstract class DelegatingTransformer {
 				throw e;
 			}
 		}
+
+		@Override
+		public void redefine(ClassDefinition[] definitions) throws ClassNotFoundException, UnmodifiableClassException {
+			// on failure the caller falls back to redefining classes one by one, reporting details per class
+			long start = System.nanoTime();
+			reflectivelyInvoke(definitions);
+			if (Util.PROFILE) Util.profile(start, ProfileKind.RedefineClasses, definitions.length+" classes");
+			for (ClassDefinition definition : definitions)
+				DebugHooks.afterRedefineClasses(definition.getDefinitionClass().getName());
+		}
 		
 		static void reflectivelyInvoke(ClassDefinition[] definitions) throws ClassNotFoundException, ClassFormatError, UnmodifiableClassException {
 			try {
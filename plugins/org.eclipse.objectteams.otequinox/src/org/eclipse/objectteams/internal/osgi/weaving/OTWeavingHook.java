@@ -22,8 +22,6 @@ import static org.eclipse.objectteams.otequinox.Constants.TRANSFORMER_PLUGIN_ID;
 import static org.eclipse.objectteams.otequinox.Constants.ORG_OBJECTTEAMS_TEAM;
 import static org.eclipse.objectteams.otequinox.TransformerPlugin.log;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.lang.instrument.IllegalClassFormatException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -50,6 +48,8 @@ import org.eclipse.objectteams.internal.osgi.weaving.Util.ProfileKind;
 import org.eclipse.objectteams.internal.osgi.weaving.DelegatingTransformer.OTAgentNotInstalled;
 import org.eclipse.objectteams.otequinox.Constants;
 import org.eclipse.objectteams.otequinox.TransformerPlugin;
+import org.eclipse.objectteams.otredyn.bytecode.asm.ClassHierarchyCache;
+import org.eclipse.objectteams.otredyn.bytecode.asm.ClassHierarchyCache.ClassInfo;
 import org.eclipse.objectteams.runtime.IReweavingTask;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -122,7 +122,7 @@ public class OTWeavingHook implements WeavingHook, WovenClassListener {
 	// for installing a lifting participant:
 	private static final String LIFTING_PARTICIPANT_FIELD = "_OT$liftingParticipant";
 
-	enum WeavingReason { None, Aspect, Base, Thread, Special }
+	public enum WeavingReason { None, Aspect, Base, Thread, Special }
 	
 	private ASMByteCodeAnalyzer byteCodeAnalyzer = new ASMByteCodeAnalyzer();
 
@@ -142,6 +142,9 @@ public class OTWeavingHook implements WeavingHook, WovenClassListener {
 	private List<WaitingTeamRecord> deferredTeams = new ArrayList<>();
 
 
+	/** Persistent weaving decisions for classes of unaffected bundles, if enabled. */
+	private volatile @Nullable WeavingDecisionIndex decisionIndex;
+
 	private @Nullable AspectPermissionManager permissionManager;
 
 	/** A registered lifting participant is directly handled by us. */
@@ -152,6 +155,17 @@ public class OTWeavingHook implements WeavingHook, WovenClassListener {
 	public void activate(BundleContext bundleContext, @Nullable ServiceReference<IExtensionRegistry> serviceReference) throws OTAgentNotInstalled {
 		loadAspectBindingRegistry(bundleContext, serviceReference);
 		TransformerPlugin.initialize(bundleContext, this.aspectBindingRegistry, this.permissionManager);
+		if (WeavingDecisionIndex.ENABLED)
+			this.decisionIndex = WeavingDecisionIndex.open(bundleContext); // only now that aspect bindings are known
+	}
+
+	/** Call-back when the OT/Equinox bundle is stopped. */
+	public void deactivate(BundleContext bundleContext) {
+		WeavingDecisionIndex index = this.decisionIndex;
+		if (index != null) {
+			this.decisionIndex = null;
+			index.save(bundleContext);
+		}
 	}
 
 	// ====== Aspect Bindings & Permissions: ======
@@ -272,7 +286,7 @@ public class OTWeavingHook implements WeavingHook, WovenClassListener {
 			}
 
 			byte[] bytes = wovenClass.getBytes();
-			WeavingReason reason = requiresWeaving(bundleWiring, className, bytes, true, EnumSet.allOf(WeavingReason.class));
+			WeavingReason reason = getWeavingReason(bundleWiring, bundleName, className, bytes);
 			if (reason != WeavingReason.None) {
 				// do whatever is needed *before* loading this class:
 				boolean allAspectsAreDenied = triggerBaseTripWires(bundleName, wovenClass);
@@ -341,6 +355,26 @@ public class OTWeavingHook implements WeavingHook, WovenClassListener {
 		return false;
 	}
 
+	/** Answer whether and why the given class needs weaving, consulting the {@link WeavingDecisionIndex}, if enabled. */
+	private WeavingReason getWeavingReason(BundleWiring bundleWiring, String bundleName, String className, byte[] bytes) {
+		WeavingDecisionIndex index = this.decisionIndex;
+		if (index == null)
+			return requiresWeaving(bundleWiring, className, bytes, true, EnumSet.allOf(WeavingReason.class));
+		if (!aspectBindingRegistry.isBoundBaseClass(className)) { // may be recorded by a team woven in this session
+			WeavingReason reason = index.get(bundleName, className);
+			if (reason != null)
+				return reason;
+		}
+		WeavingReason reason = requiresWeaving(bundleWiring, className, bytes, true, EnumSet.allOf(WeavingReason.class));
+		if (reason == WeavingReason.None || reason == WeavingReason.Thread) {
+			// only for bundles not involved in any aspect binding the decision depends on nothing but the class file:
+			if (aspectBindingRegistry.getAdaptedBasePlugins(bundleWiring.getBundle()) == null
+					&& !aspectBindingRegistry.isAdaptedBasePlugin(bundleName))
+				index.put(bundleName, className, reason);
+		}
+		return reason;
+	}
+
 	WeavingReason requiresWeaving(BundleWiring bundleWiring, String className, byte @Nullable[] bytes,
 			boolean considerSupers, EnumSet<WeavingReason> considerReasons) {
 		
@@ -419,24 +453,12 @@ public class OTWeavingHook implements WeavingHook, WovenClassListener {
 					return true;					
 			}
 			// attempt recursion to superclass (not superInterfaces atm):
-			ClassInformation classInfo = null;
-			if (bytes != null) {
-				classInfo = this.byteCodeAnalyzer.getClassInformation(bytes, className);
-			} else {
-				if (resourceLoader == null)
-					return false; // no chance to analyse (happens with fragments)
-				try (InputStream is = resourceLoader.getResourceAsStream(className.replace('.', '/')+".class")) {
-					if (is != null)
-						classInfo = this.byteCodeAnalyzer.getClassInformation(is, className);
-				} catch (IOException e) {
-					return false;
-				}
-			}
+			ClassInfo classInfo = getClassInfo(className, bytes, resourceLoader);
 			if (searchSupers && classInfo != null && !classInfo.isInterface()) {
 				// TODO(performance): check common prefix to recognize when crossing the plugin-boundary?
 				String superClassName = classInfo.getSuperClassName();
 				if (superClassName != null)
-					return isAdaptedBaseClass(aspectBindings, superClassName, searchSupers, null, resourceLoader);
+					return isAdaptedBaseClass(aspectBindings, superClassName.replace('/', '.'), searchSupers, null, resourceLoader);
 			}
 			return false;
 		} finally {
@@ -562,33 +584,31 @@ public class OTWeavingHook implements WeavingHook, WovenClassListener {
 				return false;
 			break;
 		default:
-			ClassInformation classInfo = null;
-			if (bytes != null) {
-				classInfo = this.byteCodeAnalyzer.getClassInformation(bytes, className);
-			} else {
-				if (resourceLoader == null)
-					return false; // happens for fragments
-				try (InputStream is = resourceLoader.getResourceAsStream(className.replace('.', '/')+".class")) {
-					if (is != null) {
-						classInfo = this.byteCodeAnalyzer.getClassInformation(is, className);
-					}
-				} catch (IOException e) {
-					return false;
-				}
-			}
+			ClassInfo classInfo = getClassInfo(className, bytes, resourceLoader);
 			if (classInfo != null && !classInfo.isInterface()) {
 				String superClassName = classInfo.getSuperClassName();
-				if ("java.lang.Thread".equals(superClassName))
+				if ("java/lang/Thread".equals(superClassName))
 					return true; // ensure TeamActivation will weave the calls to TeamThreadManager
-				String[] superInterfaceNames = classInfo.getSuperInterfaceNames();
-				if (superInterfaceNames != null)
-					for (int i = 0; i < superInterfaceNames.length; i++) {
-						if ("java.lang.Runnable".equals(superInterfaceNames[i]))
-							return true; // ensure TeamActivation will weave the calls to TeamThreadManager
-					}
+				for (String superInterfaceName : classInfo.getSuperInterfaceNames()) {
+					if ("java/lang/Runnable".equals(superInterfaceName))
+						return true; // ensure TeamActivation will weave the calls to TeamThreadManager
+				}
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * Answer the supertypes of the given class (dot-separated name), analyzing the given bytes if available,
+	 * else the class file found via the given resource loader. Results are shared via the {@link ClassHierarchyCache}.
+	 */
+	private @Nullable ClassInfo getClassInfo(String className, byte @Nullable[] bytes, @Nullable ClassLoader resourceLoader) {
+		if (resourceLoader == null) // happens for fragments
+			return bytes != null ? ClassHierarchyCache.analyze(bytes) : null;
+		String internalName = className.replace('.', '/');
+		if (bytes != null)
+			return ClassHierarchyCache.getClassInfo(internalName, resourceLoader, bytes);
+		return ClassHierarchyCache.getClassInfo(internalName, resourceLoader);
+	}
+
 }
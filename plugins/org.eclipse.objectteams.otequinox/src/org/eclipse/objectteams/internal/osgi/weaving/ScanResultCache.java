@@ -0,0 +1,169 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.internal.osgi.weaving;
+
+import static org.eclipse.objectteams.otequinox.TransformerPlugin.log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.objectteams.otequinox.TransformerPlugin;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Results of {@link ClassScanner#readTeamAttributes} for the teams of one aspect bundle,
+ * persisted in the data area of the OT/Equinox bundle so they can be reused in the next launch.
+ * Enabled by <code>-Dotequinox.scan.cache=true</code>.
+ * <p>
+ * One file per aspect bundle records the real class name and all adapted base classes per team.
+ * The file is stamped with version and modification stamp of the aspect bundle and discarded if either differs.
+ * It is written under a temporary name and then renamed, so an interrupted save never leaves incomplete base class lists.
+ * Since changes of class files in bundles installed from a directory (development mode)
+ * don't change the modification stamp, the cache is not enabled by default.
+ * </p><p>
+ * Only used with the OTDRE: the OTRE additionally collects callin bindings while scanning,
+ * which are needed later for weaving, so scanning cannot be skipped there.
+ * </p>
+ */
+@NonNullByDefault
+public class ScanResultCache {
+
+	static final boolean ENABLED = Boolean.getBoolean("otequinox.scan.cache");
+
+	private static final String DIRECTORY = "scanResults";
+
+	/** Result of scanning one team. */
+	public static class ScanResult {
+		public final String className;
+		public final List<String> baseClassNames;
+		ScanResult(String className, List<String> baseClassNames) {
+			this.className = className;
+			this.baseClassNames = baseClassNames;
+		}
+	}
+
+	private final File file;
+	private final String stamp;
+	private final Map<String, ScanResult> resultsByTeam = new HashMap<>();
+	private boolean isModified;
+
+	private ScanResultCache(File file, String stamp) {
+		this.file = file;
+		this.stamp = stamp;
+	}
+
+	/** Answer the cache for the given aspect bundle, or null if the cache is not enabled or not applicable. */
+	static @Nullable ScanResultCache forBundle(Bundle aspectBundle) {
+		if (!ENABLED || OTWeavingHook.DEFAULT_WEAVING_SCHEME != OTWeavingHook.WeavingScheme.OTDRE)
+			return null;
+		BundleContext context = TransformerPlugin.getBundle().getBundleContext();
+		File dir = context != null ? context.getDataFile(DIRECTORY) : null;
+		if (dir == null)
+			return null; // file system not supported
+		return open(dir, aspectBundle);
+	}
+
+	/** Answer the cache for the given aspect bundle, stored in the given directory. */
+	public static ScanResultCache open(File dir, Bundle aspectBundle) {
+		ScanResultCache cache = new ScanResultCache(new File(dir, aspectBundle.getSymbolicName()+".txt"),
+				"# "+aspectBundle.getVersion()+'|'+aspectBundle.getLastModified());
+		if (cache.file.exists())
+			cache.read();
+		return cache;
+	}
+
+	private void read() {
+		try (BufferedReader reader = new BufferedReader(new FileReader(this.file))) {
+			if (!this.stamp.equals(reader.readLine())) {
+				log(IStatus.INFO, "Discarding outdated scan results "+this.file.getName());
+				return;
+			}
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// teamName=className|base1,base2,...
+				int eq = line.indexOf('=');
+				int bar = line.indexOf('|', eq);
+				if (eq == -1 || bar == -1)
+					continue;
+				List<String> baseClassNames = new ArrayList<>();
+				StringTokenizer tokens = new StringTokenizer(line.substring(bar+1), ",");
+				while (tokens.hasMoreTokens())
+					baseClassNames.add(tokens.nextToken());
+				this.resultsByTeam.put(line.substring(0, eq), new ScanResult(line.substring(eq+1, bar), baseClassNames));
+			}
+		} catch (IOException e) {
+			log(e, "Failed to read scan results "+this.file);
+			this.resultsByTeam.clear();
+		}
+	}
+
+	/** Answer the recorded result of scanning the given team, or null. */
+	public @Nullable ScanResult get(String teamName) {
+		return this.resultsByTeam.get(teamName);
+	}
+
+	/** Record the result of scanning the given team. */
+	public void put(String teamName, String className, Collection<String> baseClassNames) {
+		this.resultsByTeam.put(teamName, new ScanResult(className, new ArrayList<>(baseClassNames)));
+		this.isModified = true;
+	}
+
+	/** Write all results to the file, if any new results have been recorded. */
+	public void save() {
+		if (!this.isModified)
+			return;
+		File dir = this.file.getParentFile();
+		if (dir != null && !dir.exists())
+			dir.mkdirs();
+		File temp = new File(this.file.getPath()+".tmp");
+		try {
+			try (FileWriter writer = new FileWriter(temp, false)) {
+				writer.append(this.stamp).append('\n');
+				for (Map.Entry<String, ScanResult> entry : this.resultsByTeam.entrySet()) {
+					writer.append(entry.getKey()).append('=').append(entry.getValue().className).append('|');
+					String sep = "";
+					for (String baseClassName : entry.getValue().baseClassNames) {
+						writer.append(sep).append(baseClassName);
+						sep = ",";
+					}
+					writer.append('\n');
+				}
+			}
+			Files.move(temp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			this.isModified = false;
+		} catch (IOException e) {
+			temp.delete();
+			log(e, "Failed to persist scan results "+this.file);
+		}
+	}
+}
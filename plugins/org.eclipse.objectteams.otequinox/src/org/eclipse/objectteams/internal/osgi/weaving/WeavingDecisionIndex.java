@@ -0,0 +1,275 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.internal.osgi.weaving;
+
+import static org.eclipse.objectteams.otequinox.TransformerPlugin.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.objectteams.internal.osgi.weaving.OTWeavingHook.WeavingReason;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+
+/**
+ * Persistent index of weaving decisions for classes of bundles that neither are aspect bundles
+ * nor are adapted by any aspect binding, enabled by <code>-Dotequinox.weaving.index=true</code>.
+ * <p>
+ * For such classes {@link OTWeavingHook#requiresWeaving} can only answer {@link WeavingReason#None}
+ * or {@link WeavingReason#Thread}, but finding this answer requires analyzing the class file.
+ * The index maps a 64 bit hash of bundle symbolic name and class name to the decision.
+ * In subsequent launches the decision is usually found by a single probe into an open addressing
+ * hash table, which is memory mapped from the file <code>weavingDecisions.idx</code>
+ * in the data area of the OT/Equinox bundle.
+ * </p><p>
+ * Decisions made during a session are collected in memory and written together with all
+ * previous entries when the OT/Equinox bundle is stopped. The new file only replaces the previous one
+ * once it has been written completely, so a crash during save loses only the decisions of that session.
+ * The file is only used if its fingerprint
+ * (symbolic names, versions and modification stamps of all installed bundles, plus relevant options)
+ * matches. If any bundle is updated, unresolved or uninstalled during a session,
+ * the index is disabled for the remainder of that session.
+ * </p><p>
+ * Since changes of class files in bundles installed from a directory (development mode)
+ * are not reflected in the fingerprint, the index is not enabled by default.
+ * </p>
+ */
+@NonNullByDefault
+public class WeavingDecisionIndex implements BundleListener {
+
+	static final boolean ENABLED = Boolean.getBoolean("otequinox.weaving.index");
+
+	private static final String FILE_NAME = "weavingDecisions.idx";
+	private static final String PENDING_SUFFIX = ".new";
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private static final int MAGIC = 0x4F545749; // "OTWI"
+	private static final int FORMAT_VERSION = 1;
+	private static final int DIGEST_SIZE = 20; // SHA-1
+	private static final int HEADER_SIZE = 4 + 4 + DIGEST_SIZE + 4;
+
+	// each slot of the table holds the hash of a class (low bits cleared) or'ed with the decision:
+	private static final long DECISION_MASK = 0x3;
+	private static final long NONE = 1;
+	private static final long THREAD = 2;
+
+	private final File file;
+	private final byte[] fingerprint;
+	private final @Nullable LongBuffer table; // read-only, accessed only by absolute get
+	private final Map<Long, WeavingReason> added = new ConcurrentHashMap<>();
+	private volatile boolean isValid = true;
+
+	private WeavingDecisionIndex(File file, byte[] fingerprint, @Nullable LongBuffer table) {
+		this.file = file;
+		this.fingerprint = fingerprint;
+		this.table = table;
+	}
+
+	/** Open the index stored in the data area of the given bundle context, answer null if that's not possible. */
+	static @Nullable WeavingDecisionIndex open(BundleContext context) {
+		File file = context.getDataFile(FILE_NAME);
+		if (file == null)
+			return null; // file system not supported
+		return open(context, file);
+	}
+
+	/** Open the index stored in the given file, answer null if that's not possible. */
+	public static @Nullable WeavingDecisionIndex open(BundleContext context, File file) {
+		try {
+			File pending = new File(file.getPath()+PENDING_SUFFIX);
+			if (pending.exists()) // written during the previous session, while the old file was still mapped
+				Files.move(pending.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			byte[] fingerprint = fingerprint(context);
+			WeavingDecisionIndex index = new WeavingDecisionIndex(file, fingerprint, file.exists() ? readTable(file, fingerprint) : null);
+			context.addBundleListener(index);
+			return index;
+		} catch (IOException | NoSuchAlgorithmException e) {
+			log(e, "Cannot use weaving decision index "+file);
+			return null;
+		}
+	}
+
+	private static @Nullable LongBuffer readTable(File file, byte[] fingerprint) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			long size = channel.size();
+			if (size < HEADER_SIZE)
+				return null;
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size); // mapping stays valid after close
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION)
+				return null;
+			byte[] storedFingerprint = new byte[DIGEST_SIZE];
+			buffer.get(storedFingerprint);
+			if (!Arrays.equals(fingerprint, storedFingerprint)) {
+				log(IStatus.INFO, "Discarding outdated weaving decision index");
+				return null;
+			}
+			int capacity = buffer.getInt();
+			if (Integer.bitCount(capacity) != 1 || size != HEADER_SIZE + 8L * capacity)
+				return null; // incomplete write
+			return buffer.slice().asLongBuffer();
+		}
+	}
+
+	/** Answer the recorded decision for the given class or null if none has been recorded. */
+	public @Nullable WeavingReason get(String bundleName, String className) {
+		if (!this.isValid)
+			return null;
+		long key = key(bundleName, className);
+		LongBuffer table = this.table;
+		if (table != null) {
+			int mask = table.capacity() - 1;
+			int i = index(key, mask);
+			for (int probes = 0; probes <= mask; probes++, i = (i + 1) & mask) {
+				long slot = table.get(i);
+				if (slot == 0)
+					break;
+				if ((slot & ~DECISION_MASK) == key)
+					return (slot & DECISION_MASK) == THREAD ? WeavingReason.Thread : WeavingReason.None;
+			}
+		}
+		return this.added.get(key);
+	}
+
+	/**
+	 * Record a decision for the given class.
+	 * @param reason either {@link WeavingReason#None} or {@link WeavingReason#Thread}
+	 */
+	public void put(String bundleName, String className, WeavingReason reason) {
+		if (this.isValid)
+			this.added.putIfAbsent(key(bundleName, className), reason);
+	}
+
+	/** Write all decisions of this and previous sessions, to be used in the next session. */
+	public void save(BundleContext context) {
+		context.removeBundleListener(this);
+		if (!this.isValid || this.added.isEmpty())
+			return;
+		LongBuffer table = this.table;
+		int count = this.added.size();
+		if (table != null)
+			for (int i = 0; i < table.capacity(); i++)
+				if (table.get(i) != 0)
+					count++;
+		int capacity = Integer.highestOneBit(Math.max(count, 8) * 2 - 1) * 2; // keep load factor at or below 0.5
+		long[] newTable = new long[capacity];
+		if (table != null)
+			for (int i = 0; i < table.capacity(); i++)
+				insert(newTable, table.get(i));
+		for (Map.Entry<Long, WeavingReason> entry : this.added.entrySet())
+			insert(newTable, entry.getKey() | (entry.getValue() == WeavingReason.Thread ? THREAD : NONE));
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 * capacity);
+		buffer.putInt(MAGIC).putInt(FORMAT_VERSION).put(this.fingerprint).putInt(capacity);
+		buffer.asLongBuffer().put(newTable);
+		buffer.rewind();
+		// cannot replace the file while it is mapped (on some platforms), so defer until the next session:
+		File pending = new File(this.file.getPath()+PENDING_SUFFIX);
+		File temp = new File(pending.getPath()+TEMP_SUFFIX);
+		try {
+			try (RandomAccessFile raf = new RandomAccessFile(temp, "rw"); FileChannel channel = raf.getChannel()) {
+				channel.truncate(0);
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+			}
+			Files.move(temp.toPath(), pending.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log(e, "Failed to write weaving decision index "+pending);
+		}
+	}
+
+	private static void insert(long[] table, long slot) {
+		if (slot == 0)
+			return;
+		int mask = table.length - 1;
+		long key = slot & ~DECISION_MASK;
+		for (int i = index(key, mask); ; i = (i + 1) & mask) {
+			if (table[i] == 0) {
+				table[i] = slot;
+				return;
+			}
+			if ((table[i] & ~DECISION_MASK) == key)
+				return; // keep the existing decision
+		}
+	}
+
+	private static int index(long key, int mask) {
+		return (int) (key >>> 32 ^ key >>> 2) & mask;
+	}
+
+	/** 64 bit hash of the given names (FNV-1a with a final mixing step), with the decision bits cleared, never 0. */
+	static long key(String bundleName, String className) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < bundleName.length(); i++)
+			h = (h ^ bundleName.charAt(i)) * 0x100000001b3L;
+		h = (h ^ '/') * 0x100000001b3L;
+		for (int i = 0; i < className.length(); i++)
+			h = (h ^ className.charAt(i)) * 0x100000001b3L;
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		h &= ~DECISION_MASK;
+		return h != 0 ? h : DECISION_MASK + 1;
+	}
+
+	private static byte[] fingerprint(BundleContext context) throws NoSuchAlgorithmException {
+		StringBuilder buf = new StringBuilder();
+		buf.append(FORMAT_VERSION);
+		for (String option : new String[] { "otequinox.weave.thread", "otequinox.baseClassChecks" })
+			buf.append('|').append(option).append('=').append(System.getProperty(option));
+		for (Bundle bundle : context.getBundles())
+			buf.append('\n').append(bundle.getSymbolicName()).append('|').append(bundle.getVersion())
+				.append('|').append(bundle.getLastModified());
+		return MessageDigest.getInstance("SHA-1").digest(buf.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void bundleChanged(@Nullable BundleEvent event) {
+		if (event == null)
+			return;
+		switch (event.getType()) {
+		case BundleEvent.UPDATED:
+		case BundleEvent.UNRESOLVED:
+		case BundleEvent.UNINSTALLED:
+			if (this.isValid) {
+				this.isValid = false;
+				log(IStatus.INFO, "Weaving decision index disabled due to change of bundle "+event.getBundle().getSymbolicName());
+			}
+			break;
+		default:
+			break;
+		}
+	}
+}
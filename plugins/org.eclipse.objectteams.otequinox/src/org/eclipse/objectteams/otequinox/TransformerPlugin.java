@@ -146,6 +146,7 @@ public class TransformerPlugin implements BundleActivator, IAspectRegistry {
 
 	private static List<IStatus> pendingLogEntries = new ArrayList<>();
 	private static @Nullable URL agentURL; // null signals an error
+	private @Nullable OTWeavingHook weavingHook;
 	
 
 	/*
@@ -160,6 +161,7 @@ public class TransformerPlugin implements BundleActivator, IAspectRegistry {
 			
 			// register our weaving service:
 			final OTWeavingHook otWeavingHook = new OTWeavingHook();
+			this.weavingHook = otWeavingHook;
 			final ServiceRegistration<?> registration = bundleContext.registerService(new String[] { WeavingHook.class.getName(), WovenClassListener.class.getName() },
 					otWeavingHook, null);
 			
@@ -270,6 +272,9 @@ public class TransformerPlugin implements BundleActivator, IAspectRegistry {
 	 * @see org.osgi.framework.BundleActivator#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(@Nullable BundleContext bundleContext) throws Exception {
+		OTWeavingHook otWeavingHook = this.weavingHook;
+		if (otWeavingHook != null && bundleContext != null)
+			otWeavingHook.deactivate(bundleContext);
 		plugin = null;
 	}
 
@@ -250,7 +250,7 @@ public abstract class AbstractBoundClass implements IBoundClass {
 		completedAccessTasks = new IdentityHashMap<Member, WeavingTask>();
 		methods = new HashMap<String, Method>();
 		fields = new HashMap<String, Field>();
-		subclasses = new IdentityHashMap<AbstractBoundClass, Object>();
+		subclasses = Collections.synchronizedMap(new IdentityHashMap<AbstractBoundClass, Object>());
 		
 		// don't fetch a anonymous subclass for a anonymous subclass
 		if (!name.equals(ClassRepository.ANONYMOUS_SUBCLASS_NAME)) {
@@ -667,8 +667,10 @@ public abstract class AbstractBoundClass implements IBoundClass {
 	 * including the anonymous subclass
 	 * @return
 	 */
-	private Collection<AbstractBoundClass> getSubclasses() {
-		return new ArrayList<AbstractBoundClass>(subclasses.keySet());
+	protected Collection<AbstractBoundClass> getSubclasses() {
+		synchronized (subclasses) {
+			return new ArrayList<AbstractBoundClass>(subclasses.keySet());
+		}
 	}
 
 	/**
@@ -726,7 +728,7 @@ public abstract class AbstractBoundClass implements IBoundClass {
 					}
 					prepareTeamActivation();
 					prepareLiftingParticipant();
-					endTransformation(definedClass);
+					endLoadTimeTransformation(definedClass);
 				}
 		
 				// collect other classes for which new tasks are recorded, to flush those tasks in bulk at the end
@@ -973,17 +975,25 @@ public abstract class AbstractBoundClass implements IBoundClass {
 	@Override
 	public synchronized void startTransaction() {
 		this.transactionCount ++;
+		RedefinitionBatch.begin();
 	}
 
 	@Override
-	public synchronized void commitTransaction(@Nullable Class<?> definedClass) {
-		--this.transactionCount;
-		if (this.transactionCount == 0 && this.isLoaded) {
-			try {
-				handleTaskList(definedClass);
-			} catch (IllegalClassFormatException e) {
-				e.printStackTrace(); // we're called from TeamManager, which can neither log nor handle exceptions
+	public void commitTransaction(@Nullable Class<?> definedClass) {
+		try {
+			synchronized (this) {
+				--this.transactionCount;
+				if (this.transactionCount == 0 && this.isLoaded) {
+					try {
+						handleTaskList(definedClass);
+					} catch (IllegalClassFormatException e) {
+						e.printStackTrace(); // we're called from TeamManager, which can neither log nor handle exceptions
+					}
+				}
 			}
+		} finally {
+			// redefine all classes woven during the outermost transaction of this thread (no locks held):
+			RedefinitionBatch.end();
 		}
 	}
 	
@@ -1141,7 +1151,7 @@ public abstract class AbstractBoundClass implements IBoundClass {
 				.getJoinpointId(getMethodIdentifier(method));
 		int boundMethodId = method.getGlobalId(this);
 
-		moveCodeToCallOrig(method, boundMethodId, false);
+		moveCodeToCallOrig(method, boundMethodId, -1, false);
 		createDispatchCodeInOrgMethod(method, joinpointId, boundMethodId);
 	}
 
@@ -1180,7 +1190,7 @@ public abstract class AbstractBoundClass implements IBoundClass {
 				createSuperCallInCallOrig(boundMethodId);
 			else
 				// can't weave into the declaring class, add an override here:
-				createCallAllBindingsCallInOrgMethod(method, boundMethodId, needToAddMethod);
+				createCallAllBindingsCallInOrgMethod(method, boundMethodId, -1, needToAddMethod);
 		} else {
 			createDispatchCodeInCallAllBindings(joinpointId, boundMethodId);
 		}
@@ -1211,9 +1221,9 @@ public abstract class AbstractBoundClass implements IBoundClass {
 				.getJoinpointId(getMethodIdentifier(method));
 		int boundMethodId = method.getGlobalId(this);
 		if (task.doAllTransformations()) {
-			moveCodeToCallOrig(method, boundMethodId, task.requiresBaseSuperCall());
+			moveCodeToCallOrig(method, boundMethodId, joinpointId, task.requiresBaseSuperCall());
 			createDispatchCodeInCallAllBindings(joinpointId, boundMethodId);
-			createCallAllBindingsCallInOrgMethod(method, boundMethodId, false);
+			createCallAllBindingsCallInOrgMethod(method, boundMethodId, joinpointId, false);
 		} else {
 			createDispatchCodeInCallAllBindings(joinpointId, joinpointId);
 		}
@@ -1228,8 +1238,8 @@ public abstract class AbstractBoundClass implements IBoundClass {
 		prepareForFirstTransformation();
 		Method method = getMethod(task);
 		int boundMethodId = method.getGlobalId(this);
-		moveCodeToCallOrig(method, boundMethodId, false);
-		createCallAllBindingsCallInOrgMethod(method, boundMethodId, false);
+		moveCodeToCallOrig(method, boundMethodId, -1, false);
+		createCallAllBindingsCallInOrgMethod(method, boundMethodId, -1, false);
 
 	}
 
@@ -1247,6 +1257,14 @@ public abstract class AbstractBoundClass implements IBoundClass {
 
 	protected abstract void endTransformation(Class<?> definedClass) throws IllegalClassFormatException;
 
+	/**
+	 * Finish the transformation of a class that is loaded while no weaving tasks are pending for it.
+	 * Subclasses may answer the result of this transformation from a cache.
+	 */
+	protected void endLoadTimeTransformation(Class<?> definedClass) throws IllegalClassFormatException {
+		endTransformation(definedClass);
+	}
+
 	protected abstract void superTransformation(Class<?> definedClass) throws IllegalClassFormatException;
 
 	protected abstract void prepareAsPossibleBaseClass();
@@ -1258,12 +1276,12 @@ public abstract class AbstractBoundClass implements IBoundClass {
 	protected abstract void createSuperCallInCallOrig(int boundMethodId);
 
 	protected abstract void createCallAllBindingsCallInOrgMethod(
-			Method boundMethod, int joinpointId, boolean needToAddMethod);
+			Method boundMethod, int boundMethodId, int joinpointId, boolean needToAddMethod);
 
 	protected abstract void createDispatchCodeInCallAllBindings(
 			int joinpointId, int boundMethodId);
 
-	protected abstract void moveCodeToCallOrig(Method boundMethod, int boundMethodId, boolean baseSuperRequired);
+	protected abstract void moveCodeToCallOrig(Method boundMethod, int boundMethodId, int joinpointId, boolean baseSuperRequired);
 
 	protected abstract void prepareForFirstTransformation();
 
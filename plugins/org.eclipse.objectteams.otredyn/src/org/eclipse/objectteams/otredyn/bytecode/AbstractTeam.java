@@ -89,7 +89,7 @@ public abstract class AbstractTeam extends AbstractBoundClass implements IBoundT
 	/** Answer known tsub-versions of the given role. */
 	private List<String> getTSubRoles(String simpleRoleName) {
 		List<String> result = new ArrayList<String>();
-		for (AbstractBoundClass subTeam : this.subclasses.keySet()) {
+		for (AbstractBoundClass subTeam : getSubclasses()) {
 			if (!subTeam.isAnonymous())
 				result.add(subTeam.getName()+'$'+simpleRoleName);
 		}
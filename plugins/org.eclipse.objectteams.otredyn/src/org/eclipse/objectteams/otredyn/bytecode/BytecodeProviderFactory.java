@@ -26,11 +26,8 @@ package org.eclipse.objectteams.otredyn.bytecode;
  * @author Oliver Frank
  */
 public class BytecodeProviderFactory {
-	private static IBytecodeProvider instance;
-	public static synchronized IBytecodeProvider getBytecodeProvider() {
-		if (instance == null) {
-			instance = new InMemoryBytecodeProvider();
-		}
+	private static final IBytecodeProvider instance = new InMemoryBytecodeProvider();
+	public static IBytecodeProvider getBytecodeProvider() {
 		return instance;
 	}
 }
@@ -18,9 +18,12 @@
  **********************************************************************/
 package org.eclipse.objectteams.otredyn.bytecode;
 
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.objectteams.otredyn.bytecode.asm.AsmBoundClass;
@@ -37,7 +40,10 @@ import org.eclipse.objectteams.otredyn.runtime.TeamManager;
  * @author Oliver Frank
  */
 public abstract class ClassRepository implements IClassRepository {
+	// assigned before TeamManager.setup() to answer re-entrant requests from the initializing thread:
 	private static ClassRepository instance;
+	// published after TeamManager.setup() to answer requests from all threads without locking:
+	private static volatile ClassRepository initializedInstance;
 
 	private static ThreadLocal<Class<?>> classBeingRedefined = new ThreadLocal<>();
 
@@ -64,18 +70,28 @@ public abstract class ClassRepository implements IClassRepository {
 	 * Returns a singleton instance of the ClassRepository.
 	 * @return
 	 */
-	public static synchronized ClassRepository getInstance() {
-		if (instance == null) {
-			instance = new AsmClassRepository();
-			TeamManager.setup(instance);
+	public static ClassRepository getInstance() {
+		ClassRepository repo = initializedInstance;
+		if (repo != null)
+			return repo;
+		synchronized (ClassRepository.class) {
+			if (instance == null) {
+				instance = new AsmClassRepository();
+				TeamManager.setup(instance);
+				initializedInstance = instance;
+			}
+			return instance;
 		}
-		
-		return instance;
 	}
 	
 	protected static final String ANONYMOUS_SUBCLASS_NAME = "AnonymousSubclass";
 	
-	private Map<String, AbstractTeam> boundClassMap = new HashMap<String, AbstractTeam>();
+	/*
+	 * Each bound class is created by the first thread requesting its id, other threads requesting
+	 * the same id wait on the future, while requests for different ids proceed in parallel.
+	 */
+	private ConcurrentMap<String, FutureTask<AbstractTeam>> boundClassMap = new ConcurrentHashMap<String, FutureTask<AbstractTeam>>();
+	// synchronization: all accesses are protected using the map itself as the monitor.
 	private Map<AbstractBoundClass, AbstractBoundClass> anonymousSubclassMap = new IdentityHashMap<AbstractBoundClass, AbstractBoundClass>();
 	
 	/**
@@ -90,14 +106,8 @@ public abstract class ClassRepository implements IClassRepository {
 	 * @param id a globally unique identifier for the class 
 	 * @return
 	 */
-	public synchronized AbstractBoundClass getBoundClass(@NonNull String className, String id, ClassLoader loader) {
-		AbstractTeam clazz = boundClassMap.get(id);
-		if (clazz == null) {
-			clazz = createClass(className, id, BytecodeProviderFactory.getBytecodeProvider(), loader);
-			boundClassMap.put(id, clazz);
-		}
-		
-		return clazz;
+	public AbstractBoundClass getBoundClass(@NonNull String className, String id, ClassLoader loader) {
+		return getOrCreateClass(className, id, BytecodeProviderFactory.getBytecodeProvider(), loader);
 	}
 
 	/**
@@ -105,8 +115,9 @@ public abstract class ClassRepository implements IClassRepository {
 	 * but don't create a new bound class if none has been registered before.
 	 * @param id a globally unique identifier for the class 
 	 */
-	public synchronized AbstractBoundClass peekBoundClass(String id) {
-		return boundClassMap.get(id);
+	public AbstractBoundClass peekBoundClass(String id) {
+		FutureTask<AbstractTeam> future = boundClassMap.get(id);
+		return future != null ? await(id, future) : null;
 	}
 
 	/**
@@ -124,26 +135,65 @@ public abstract class ClassRepository implements IClassRepository {
 	 * @param isHCR true if invoked during hot code replace, in which case transformation must restart using the new bytes
 	 * @return
 	 */
-	public synchronized AbstractBoundClass getBoundClass(@NonNull String className, String id, byte[] classBytes, ClassLoader loader, boolean isHCR) 
+	public AbstractBoundClass getBoundClass(@NonNull String className, String id, byte[] classBytes, ClassLoader loader, boolean isHCR) 
 	{
-		AbstractTeam clazz = boundClassMap.get(id);
 		// set the bytecode in the BytecodeProvider
 		IBytecodeProvider bytecodeProvider = BytecodeProviderFactory.getBytecodeProvider();
 		bytecodeProvider.setBytecode(id, classBytes);
-		if (clazz == null) {
-			clazz = createClass(className, id, bytecodeProvider, loader);
-		} else if (isHCR) {
-			clazz.setBytecode(classBytes);
-			clazz.restartTransformation();
+		FutureTask<AbstractTeam> future = boundClassMap.get(id);
+		AbstractTeam clazz;
+		if (future == null) {
+			clazz = getOrCreateClass(className, id, bytecodeProvider, loader);
+		} else {
+			clazz = await(id, future);
+			if (isHCR) {
+				clazz.setBytecode(classBytes);
+				clazz.restartTransformation();
+			}
 		}
-		
-		boundClassMap.put(id, clazz);
 
 		clazz.setLoaded();
 		
 		return clazz;
 	}
 
+	private AbstractTeam getOrCreateClass(final @NonNull String className, final String id, final IBytecodeProvider bytecodeProvider, final ClassLoader loader) {
+		FutureTask<AbstractTeam> future = boundClassMap.get(id);
+		if (future == null) {
+			FutureTask<AbstractTeam> newFuture = new FutureTask<AbstractTeam>(() -> createClass(className, id, bytecodeProvider, loader));
+			future = boundClassMap.putIfAbsent(id, newFuture);
+			if (future == null) {
+				future = newFuture;
+				newFuture.run(); // create in the current thread, without holding any lock
+			}
+		}
+		return await(id, future);
+	}
+
+	private AbstractTeam await(String id, FutureTask<AbstractTeam> future) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					interrupted = true; // creation is short, don't give up
+				} catch (ExecutionException e) {
+					boundClassMap.remove(id, future); // let the next request try again
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					if (cause instanceof Error)
+						throw (Error) cause;
+					throw new RuntimeException(cause);
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
 	/**
 	 * This method links a class with its superclass.
 	 * It checks if the superclass was already loaded.
@@ -161,7 +211,10 @@ public abstract class ClassRepository implements IClassRepository {
 			linkClassWithSuperclass(superclass); // reduce deadlock-prone need for on-demand parsing (with lock)
 		}
 
-		AbstractBoundClass anonymousSubclass = anonymousSubclassMap.get(superclass);
+		AbstractBoundClass anonymousSubclass;
+		synchronized (anonymousSubclassMap) {
+			anonymousSubclass = anonymousSubclassMap.get(superclass);
+		}
 		
 		//Is there an anonmous subclass, that corresponds with this class
 		if (anonymousSubclass != null) {
@@ -170,13 +223,18 @@ public abstract class ClassRepository implements IClassRepository {
 															      ANONYMOUS_SUBCLASS_NAME, 
 															      BytecodeProviderFactory.getBytecodeProvider(),
 															      clazz.getClassLoader());
-			superclass.removeSubclass(anonymousSubclass);
-			superclass.addSubclass(newAnonymousSubclass);
-			superclass.addSubclass(clazz);
 			newAnonymousSubclass.mergeTasks(anonymousSubclass);
+			// no locks held while merging tasks, but only one of several concurrently loaded subclasses replaces the anonymous subclass:
+			synchronized (anonymousSubclassMap) {
+				if (anonymousSubclassMap.get(superclass) == anonymousSubclass) {
+					anonymousSubclassMap.put(superclass, newAnonymousSubclass);
+					superclass.removeSubclass(anonymousSubclass);
+					superclass.addSubclass(newAnonymousSubclass);
+				}
+			}
+			superclass.addSubclass(clazz);
 			clazz.mergeTasks(anonymousSubclass);
 			anonymousSubclass.performWiringTasks(superclass, clazz);
-			anonymousSubclassMap.put(superclass, newAnonymousSubclass);
 		}
 	}
 
@@ -210,16 +268,18 @@ public abstract class ClassRepository implements IClassRepository {
 	 */
 	protected AbstractBoundClass getAnonymousSubclass(
 			AbstractBoundClass abstractBoundClass) {
-		AbstractBoundClass anonymousSubclass = anonymousSubclassMap.get(abstractBoundClass);
-		if (anonymousSubclass == null) {
-			anonymousSubclass = createClass(ANONYMOUS_SUBCLASS_NAME, 
-										    ANONYMOUS_SUBCLASS_NAME, 
-										    BytecodeProviderFactory.getBytecodeProvider(),
-										    abstractBoundClass.getClassLoader());
-			anonymousSubclass.setSuperClassName(abstractBoundClass.getName());
-			anonymousSubclassMap.put((AbstractTeam) abstractBoundClass, anonymousSubclass);
+		synchronized (anonymousSubclassMap) {
+			AbstractBoundClass anonymousSubclass = anonymousSubclassMap.get(abstractBoundClass);
+			if (anonymousSubclass == null) {
+				anonymousSubclass = createClass(ANONYMOUS_SUBCLASS_NAME, 
+											    ANONYMOUS_SUBCLASS_NAME, 
+											    BytecodeProviderFactory.getBytecodeProvider(),
+											    abstractBoundClass.getClassLoader());
+				anonymousSubclass.setSuperClassName(abstractBoundClass.getName());
+				anonymousSubclassMap.put((AbstractTeam) abstractBoundClass, anonymousSubclass);
+			}
+			return anonymousSubclass;
 		}
-		return anonymousSubclass;
 	}
 	
 	/**
@@ -17,6 +17,7 @@
  **********************************************************************/
 package org.eclipse.objectteams.otredyn.bytecode;
 
+import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.UnmodifiableClassException;
 
 /**
@@ -33,4 +34,25 @@ public interface IRedefineStrategy {
 	 * @throws UnmodifiableClassException it is impossible to redefine the class
 	 */
 	public void redefine(Class<?> clazz, byte[] bytecode) throws ClassNotFoundException, UnmodifiableClassException;
+
+	/**
+	 * Redefines several classes at runtime, see {@link RedefinitionBatch}.
+	 * Implementations should redefine all classes in one step, the default implementation
+	 * redefines the classes one by one.
+	 * @param definitions existing classes with their new bytecode
+	 * @throws ClassNotFoundException a class was not loaded yet
+	 * @throws UnmodifiableClassException it is impossible to redefine a class
+	 */
+	default void redefine(ClassDefinition[] definitions) throws ClassNotFoundException, UnmodifiableClassException {
+		for (ClassDefinition definition : definitions)
+			redefine(definition.getDefinitionClass(), definition.getDefinitionClassFile());
+	}
+
+	/**
+	 * Answer whether this strategy is used for weaving ahead of time, where classes are never loaded,
+	 * so instead of redefining a class its new bytecode is only kept in the {@link IBytecodeProvider}.
+	 */
+	default boolean isOffline() {
+		return false;
+	}
 }
@@ -17,8 +17,8 @@
  **********************************************************************/
 package org.eclipse.objectteams.otredyn.bytecode;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is an implementaion of IBytecodeProvider
@@ -27,7 +27,7 @@ import java.util.Map;
  */
 public class InMemoryBytecodeProvider implements IBytecodeProvider {
 
-	private Map<String, byte[]> bytecodeMap = new HashMap<String, byte[]>();
+	private Map<String, byte[]> bytecodeMap = new ConcurrentHashMap<String, byte[]>();
 	
 	/**
 	 * Returns the bytecode of a class with the given id.
@@ -47,6 +47,9 @@ public class InMemoryBytecodeProvider implements IBytecodeProvider {
 	 * @param bytecode
 	 */
 	public void setBytecode(String className, byte[] bytecode) {
-		bytecodeMap.put(className, bytecode);
+		if (bytecode == null)
+			bytecodeMap.remove(className);
+		else
+			bytecodeMap.put(className, bytecode);
 	}
 }
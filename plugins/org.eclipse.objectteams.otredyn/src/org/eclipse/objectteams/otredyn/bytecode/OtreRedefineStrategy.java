@@ -43,4 +43,17 @@ public class OtreRedefineStrategy implements IRedefineStrategy {
 		}
 	}
 
+	@Override
+	public void redefine(ClassDefinition[] definitions) throws ClassNotFoundException, UnmodifiableClassException {
+		try {
+			otreAgent.getInstrumentation().redefineClasses(definitions);
+			for (ClassDefinition definition : definitions)
+				DebugHooks.afterRedefineClasses(definition.getDefinitionClass().getName());
+		} catch (ClassFormatError cfe) {
+			System.err.println("OTDRE: Error redifining "+definitions.length+" classes");
+			cfe.printStackTrace();
+			throw cfe;
+		}
+	}
+
 }
@@ -0,0 +1,128 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.bytecode;
+
+import java.lang.instrument.ClassDefinition;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.objectteams.otredyn.runtime.RuntimeMetrics;
+
+/**
+ * Collects class redefinitions that are requested while a transaction
+ * ({@link AbstractBoundClass#startTransaction()}) is open on the current thread.
+ * <p>
+ * When the outermost transaction of the thread is committed, all collected class definitions
+ * are passed to a single invocation of {@link IRedefineStrategy#redefine(ClassDefinition[])},
+ * so activating a team that adapts many loaded base classes causes one redefinition
+ * (and one safepoint) instead of one per class.
+ * </p><p>
+ * If redefinition of the batch fails, classes are redefined one by one, and the failure
+ * of each individual class is reported to its {@link IFailureHandler}.
+ * </p>
+ */
+public class RedefinitionBatch {
+
+	/** Callback for a class, whose deferred redefinition failed. */
+	public interface IFailureHandler {
+		void redefinitionFailed(Throwable t);
+	}
+
+	private static class Pending {
+		final ClassDefinition definition;
+		final IFailureHandler failureHandler;
+
+		Pending(ClassDefinition definition, IFailureHandler failureHandler) {
+			this.definition = definition;
+			this.failureHandler = failureHandler;
+		}
+	}
+
+	private static final ThreadLocal<RedefinitionBatch> currentBatch = new ThreadLocal<RedefinitionBatch>();
+
+	private int depth;
+	// when a class is woven several times during a batch, only the latest bytecode is retained:
+	private final Map<Class<?>, Pending> pending = new LinkedHashMap<Class<?>, Pending>();
+
+	/** Called when a transaction is started on the current thread. */
+	public static void begin() {
+		RedefinitionBatch batch = currentBatch.get();
+		if (batch == null)
+			currentBatch.set(batch = new RedefinitionBatch());
+		batch.depth++;
+	}
+
+	/** Called when a transaction is committed on the current thread, flushes the batch when the outermost transaction ends. */
+	public static void end() {
+		RedefinitionBatch batch = currentBatch.get();
+		if (batch == null)
+			return;
+		if (--batch.depth <= 0) {
+			// redefinition may trigger transformers which in turn start transactions, those should see a fresh batch:
+			currentBatch.remove();
+			batch.flush();
+		}
+	}
+
+	/**
+	 * Schedule redefinition of the given class for the end of the current batch, if any.
+	 * @param clazz the existing class
+	 * @param bytecode the new bytecode for this class
+	 * @param failureHandler will be notified if redefinition fails later
+	 * @return true if redefinition has been deferred, false if no transaction is open on the current thread,
+	 * 	in which case the caller should redefine immediately.
+	 */
+	public static boolean defer(Class<?> clazz, byte[] bytecode, IFailureHandler failureHandler) {
+		RedefinitionBatch batch = currentBatch.get();
+		if (batch == null || batch.depth <= 0)
+			return false;
+		batch.pending.put(clazz, new Pending(new ClassDefinition(clazz, bytecode), failureHandler));
+		return true;
+	}
+
+	private void flush() {
+		if (this.pending.isEmpty())
+			return;
+		IRedefineStrategy strategy = RedefineStrategyFactory.getRedefineStrategy();
+		if (this.pending.size() > 1) {
+			ClassDefinition[] definitions = new ClassDefinition[this.pending.size()];
+			int i = 0;
+			for (Pending p : this.pending.values())
+				definitions[i++] = p.definition;
+			try {
+				long start = RuntimeMetrics.ENABLED ? System.nanoTime() : 0L;
+				strategy.redefine(definitions);
+				if (RuntimeMetrics.ENABLED)
+					RuntimeMetrics.classesRedefined(definitions.length, System.nanoTime()-start);
+				return;
+			} catch (Throwable t) {
+				// redefinition of a batch is all-or-nothing, retry individually to isolate the failing class
+			}
+		}
+		for (Pending p : this.pending.values()) {
+			try {
+				long start = RuntimeMetrics.ENABLED ? System.nanoTime() : 0L;
+				strategy.redefine(p.definition.getDefinitionClass(), p.definition.getDefinitionClassFile());
+				if (RuntimeMetrics.ENABLED)
+					RuntimeMetrics.classesRedefined(1, System.nanoTime()-start);
+			} catch (Throwable t) {
+				p.failureHandler.redefinitionFailed(t);
+			}
+		}
+	}
+}
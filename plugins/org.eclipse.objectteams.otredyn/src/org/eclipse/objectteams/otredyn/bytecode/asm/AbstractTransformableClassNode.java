@@ -17,12 +17,17 @@
  **********************************************************************/
 package org.eclipse.objectteams.otredyn.bytecode.asm;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
 
 import org.eclipse.objectteams.otredyn.bytecode.AbstractBoundClass;
 import org.eclipse.objectteams.otredyn.bytecode.Method;
 import org.eclipse.objectteams.otredyn.transformer.names.ClassNames;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
@@ -56,6 +61,9 @@ public abstract class AbstractTransformableClassNode extends ClassNode {
 	
 	static final boolean IS_DEBUG = System.getProperty("ot.debug") != null;
 
+	// methods that are (potentially) modified by transform():
+	private final Set<MethodNode> modifiedMethods = Collections.newSetFromMap(new IdentityHashMap<MethodNode, Boolean>());
+
 	public AbstractTransformableClassNode() {
 		super(ASM_API);
 	}
@@ -175,7 +183,8 @@ public abstract class AbstractTransformableClassNode extends ClassNode {
 	}
 
 	/**
-	 * Returns a {@link MethodNode} for a given {@link Method} instance
+	 * Returns a {@link MethodNode} for a given {@link Method} instance.
+	 * The method is marked as modified (see {@link #markAsModified(MethodNode)}).
 	 * @param method
 	 * @return the {@link MethodNode} or null if there is no such method
 	 */
@@ -184,6 +193,7 @@ public abstract class AbstractTransformableClassNode extends ClassNode {
 		for (MethodNode methodNode : methodList) {
 			if (methodNode.name.compareTo(method.getName()) == 0
 					&& methodNode.desc.compareTo(method.getSignature()) == 0) {
+				markAsModified(methodNode);
 				return methodNode;
 			}
 		}
@@ -191,6 +201,41 @@ public abstract class AbstractTransformableClassNode extends ClassNode {
 		return null;
 	}
 
+	/**
+	 * Record that the given method is modified by {@link #transform()}.
+	 * Methods obtained via {@link #getMethod(Method)} are marked automatically,
+	 * subclasses modifying other methods must mark these explicitly.
+	 */
+	protected void markAsModified(MethodNode method) {
+		this.modifiedMethods.add(method);
+	}
+
+	/**
+	 * Answer a visitor for re-reading the original class into the given writer,
+	 * which replaces all methods modified by {@link #transform()} by their transformed version.
+	 * All other methods are passed directly to the writer, allowing ASM to copy them
+	 * unchanged, including their stack map frames, so frames are computed only for modified methods.
+	 * <p>Only applicable if {@link #transform()} changed nothing besides the content of existing methods.</p>
+	 */
+	ClassVisitor getMergingVisitor(ClassVisitor writer) {
+		return new ClassVisitor(ASM_API, writer) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+				for (MethodNode method : AbstractTransformableClassNode.this.modifiedMethods)
+					if (method.name.equals(name) && method.desc.equals(desc))
+						return null; // replaced in visitEnd()
+				return super.visitMethod(access, name, desc, signature, exceptions);
+			}
+			@Override
+			public void visitEnd() {
+				for (MethodNode method : AbstractTransformableClassNode.this.methods)
+					if (AbstractTransformableClassNode.this.modifiedMethods.contains(method))
+						method.accept(this.cv);
+				super.visitEnd();
+			}
+		};
+	}
+
 	/**
 	 * This method could be used to generate debug outputs in the generated code in the form: <br>
 	 * <code>
@@ -457,6 +502,12 @@ public abstract class AbstractTransformableClassNode extends ClassNode {
 		}
 		return -1;
 	}
+
+	/** Can invokedynamic be used in this class, i.e., is its class file version at least 51 (Java 7)? */
+	protected boolean supportsInvokeDynamic() {
+		return (this.version & 0xFFFF) >= Opcodes.V1_7;
+	}
+
 	/**
 	 * In this method, concrete Implementations of this class
 	 * can manipulate the bytecode
@@ -20,6 +20,7 @@ package org.eclipse.objectteams.otredyn.bytecode.asm;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 
@@ -88,4 +89,83 @@ class AsmTypeHelper {
 		String desc = Type.getMethodDescriptor(Type.getObjectType(className), new Type[] {type});
 		return new MethodInsnNode(Opcodes.INVOKESTATIC, className, "valueOf", desc, false);
 	}
+
+	/** Maximum number of parameters of a base method that can use the direct (unboxed) dispatch protocol. */
+	static final int MAX_DIRECT_ARGS = 3;
+
+	/**
+	 * Can a method with the given descriptor use the direct dispatch protocol,
+	 * i.e., does it have at most {@link #MAX_DIRECT_ARGS} parameters, all of primitive types,
+	 * and a primitive or void return type?
+	 */
+	public static boolean isDirectDispatchCandidate(String desc) {
+		Type[] args = Type.getArgumentTypes(desc);
+		if (args.length > MAX_DIRECT_ARGS)
+			return false;
+		for (Type arg : args)
+			if (!isPrimitive(arg))
+				return false;
+		Type returnType = Type.getReturnType(desc);
+		return returnType.getSort() == Type.VOID || isPrimitive(returnType);
+	}
+
+	private static boolean isPrimitive(Type type) {
+		return type.getSort() >= Type.BOOLEAN && type.getSort() <= Type.DOUBLE;
+	}
+
+	/**
+	 * Encode the signature of a direct dispatch candidate as expected by Team._OT$callAllBindingsDirect():
+	 * the sort of the return type (bits 0-3), number of arguments (bits 4-7), sort of each argument (4 bits each from bit 8).
+	 */
+	public static int getDirectDispatchShape(String desc) {
+		Type[] args = Type.getArgumentTypes(desc);
+		int shape = Type.getReturnType(desc).getSort() | (args.length << 4);
+		for (int i = 0; i < args.length; i++)
+			shape |= args[i].getSort() << (8 + 4*i);
+		return shape;
+	}
+
+	/** Convert a value of the given primitive type on the stack into its long encoding. */
+	public static InsnList getEncodeToLongInstructions(Type type) {
+		InsnList instructions = new InsnList();
+		switch (type.getSort()) {
+		case Type.VOID:
+			instructions.add(new InsnNode(Opcodes.LCONST_0));
+			break;
+		case Type.FLOAT:
+			instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Float", "floatToRawIntBits", "(F)I", false));
+			instructions.add(new InsnNode(Opcodes.I2L));
+			break;
+		case Type.LONG:
+			break;
+		case Type.DOUBLE:
+			instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Double", "doubleToRawLongBits", "(D)J", false));
+			break;
+		default:
+			instructions.add(new InsnNode(Opcodes.I2L));
+		}
+		return instructions;
+	}
+
+	/** Convert a long encoded value on the stack back into the given primitive type. */
+	public static InsnList getDecodeFromLongInstructions(Type type) {
+		InsnList instructions = new InsnList();
+		switch (type.getSort()) {
+		case Type.VOID:
+			instructions.add(new InsnNode(Opcodes.POP2));
+			break;
+		case Type.FLOAT:
+			instructions.add(new InsnNode(Opcodes.L2I));
+			instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false));
+			break;
+		case Type.LONG:
+			break;
+		case Type.DOUBLE:
+			instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false));
+			break;
+		default:
+			instructions.add(new InsnNode(Opcodes.L2I));
+		}
+		return instructions;
+	}
 }
@@ -31,7 +31,9 @@ import org.eclipse.objectteams.otredyn.bytecode.Field;
 import org.eclipse.objectteams.otredyn.bytecode.IBytecodeProvider;
 import org.eclipse.objectteams.otredyn.bytecode.Method;
 import org.eclipse.objectteams.otredyn.bytecode.RedefineStrategyFactory;
+import org.eclipse.objectteams.otredyn.bytecode.RedefinitionBatch;
 import org.eclipse.objectteams.otredyn.bytecode.asm.verify.OTCheckClassAdapter;
+import org.eclipse.objectteams.otredyn.runtime.RuntimeMetrics;
 import org.eclipse.objectteams.otredyn.runtime.TeamManager;
 import org.eclipse.objectteams.otredyn.transformer.jplis.ObjectTeamsTransformer;
 import org.eclipse.objectteams.otredyn.transformer.names.ClassNames;
@@ -50,12 +52,18 @@ import org.objectweb.asm.Type;
 class AsmWritableBoundClass extends AsmBoundClass {
 	private static boolean dumping = false;
 	private static boolean verifying = false;
+	private static boolean indyDispatch = false;
+	private static boolean keepingFrames = false;
 
     static {
         if(System.getProperty("ot.dump")!=null)
             dumping = true;
         if (System.getProperty("objectteams.otdre.verify") != null)
         	verifying = true;
+        if (System.getProperty("ot.dispatch.indy") != null)
+        	indyDispatch = true;
+        if (System.getProperty("ot.weaving.keepframes") != null)
+        	keepingFrames = true;
     }
     
 	private ClassWriter writer;
@@ -177,7 +185,12 @@ class AsmWritableBoundClass extends AsmBoundClass {
 					reader.accept(node, ClassReader.SKIP_FRAMES);
 					if (node.transform()) {
 						writer = getClassWriter();
-						node.accept(writer);
+						if (keepingFrames) {
+							// copy untouched methods including their frames, compute frames only for modified methods:
+							reader.accept(node.getMergingVisitor(writer), 0);
+						} else {
+							node.accept(writer);
+						}
 						byte[] bytes = writer.toByteArray();
 						setBytecode(bytes);
 						if (verifying) {
@@ -223,6 +236,63 @@ class AsmWritableBoundClass extends AsmBoundClass {
 		}
 	}
 
+	/**
+	 * Executes the pending load-time transformations, unless the result of the same transformations
+	 * of the same bytes is found in the {@link WovenClassCache}.
+	 */
+	@Override
+	protected void endLoadTimeTransformation(Class<?> definedClass) throws IllegalClassFormatException {
+		WovenClassCache cache = WovenClassCache.getInstance();
+		String transformation = cache != null ? describeLoadTimeTransformation() : null;
+		if (cache == null || transformation == null) {
+			endTransformation(definedClass);
+			return;
+		}
+		byte[] key = cache.computeKey(transformation, allocateAndGetBytecode());
+		byte[] bytes = cache.get(key);
+		if (bytes == null) {
+			endTransformation(definedClass);
+			cache.put(key, getBytecode());
+			return;
+		}
+		try {
+			setBytecode(bytes);
+			dump();
+			releaseBytecode();
+		} finally {
+			reader = null;
+			writer = null;
+			multiAdapter = null;
+			nodes = null;
+			isTransformationActive = false;
+			isFirstTransformation = false;
+		}
+	}
+
+	/**
+	 * Describe all inputs of the current load-time transformation besides the bytes of this class,
+	 * or answer <code>null</code> if the transformation depends on state that cannot be cached.
+	 */
+	private @Nullable String describeLoadTimeTransformation() {
+		if (!this.isFirstTransformation || this.multiAdapter == null || this.nodes == null)
+			return null;
+		// activating global teams happens only once per JVM, lifting participants are configured per class loader:
+		if (this.multiAdapter.hasVisitor(AddGlobalTeamActivationAdapter.class)
+				|| this.multiAdapter.hasVisitor(LiftingParticipantAdapter.class))
+			return null;
+		for (AbstractTransformableClassNode node : this.nodes)
+			if (!(node instanceof CreateSuperCallAdapter))
+				return null;
+		StringBuilder buf = new StringBuilder();
+		buf.append(getName());
+		if (!isInterface())
+			buf.append('|').append(isSuperWeavable(true));
+		buf.append('|').append(getInternalWeavableSuperClassName(false));
+		buf.append('|').append(getInternalWeavableSuperClassName(true));
+		buf.append('|').append(this.nodes.size());
+		return buf.toString();
+	}
+
 	private void scheduleRetry(final Class<?> definedClass) {
 		final Runnable previousTask = TeamManager.pendingTasks.get();
 		TeamManager.pendingTasks.set(new Runnable() {
@@ -280,13 +350,17 @@ class AsmWritableBoundClass extends AsmBoundClass {
 
 	/**
 	 * Moves the code of the original method to callOrig or callOrigStatic.
+	 * If invokedynamic dispatch is enabled (<code>-Dot.dispatch.indy</code>) and a joinpoint id is given,
+	 * a copy of the original code is kept in the original method, to be guarded by
+	 * {@link CreateCallAllBindingsCallInOrgMethod}.
 	 * @see MoveCodeToCallOrigAdapter
 	 */
 	@Override
-	protected void moveCodeToCallOrig(Method boundMethod, int boundMethodId, boolean baseSuperRequired) {
+	protected void moveCodeToCallOrig(Method boundMethod, int boundMethodId, int joinpointId, boolean baseSuperRequired) {
 		if (boundMethod.getName().equals("<init>")) return; // don't move constructor code
 		assert (isTransformationActive) : "No transformation active";
-		nodes.add(new MoveCodeToCallOrigAdapter(this, boundMethod, boundMethodId, baseSuperRequired, this.weavingContext));
+		nodes.add(new MoveCodeToCallOrigAdapter(this, boundMethod, boundMethodId, baseSuperRequired,
+				useIndyGuard(boundMethod, joinpointId), this.weavingContext));
 	}
 	
 	/**
@@ -307,7 +381,7 @@ class AsmWritableBoundClass extends AsmBoundClass {
 	 */
 	@Override
 	protected void createCallAllBindingsCallInOrgMethod(Method boundMethod,
-			int boundMethodId, boolean needToAddMethod) {
+			int boundMethodId, int joinpointId, boolean needToAddMethod) {
 		assert (isTransformationActive) : "No transformation active";
 		if (needToAddMethod) {
 			String desc = boundMethod.getSignature();
@@ -317,7 +391,12 @@ class AsmWritableBoundClass extends AsmBoundClass {
 			nodes.add(new CreateSpecificSuperCallInCallOrigAdapter(this, getInternalSuperClassName(), boundMethod, boundMethodId));
 		}
 		nodes.add(new CreateCallAllBindingsCallInOrgMethod(boundMethod,
-				boundMethodId));
+				boundMethodId, joinpointId, useIndyGuard(boundMethod, joinpointId)));
+	}
+
+	/** Should the original code of boundMethod be kept and guarded by an invokedynamic checking the teams of joinpointId? */
+	private boolean useIndyGuard(Method boundMethod, int joinpointId) {
+		return indyDispatch && joinpointId != -1 && !boundMethod.isStatic() && !boundMethod.getName().equals("<init>");
 	}
 
 	@Override
@@ -386,11 +465,22 @@ class AsmWritableBoundClass extends AsmBoundClass {
 	 * @throws ClassNotFoundException may signal missing OTEquinoxAgent
 	 */
 	private void redefine(Class<?> definedClass) throws ClassNotFoundException {
+		if (RedefineStrategyFactory.getRedefineStrategy().isOffline())
+			return; // weaving ahead of time: nothing loaded, the new bytecode is kept by the bytecode provider
 		try {
 			Class<?> clazz = definedClass != null ? definedClass : this.loader.loadClass(this.getName()); // boot classes may have null classloader, can't be redefined anyway?
 			byte[] bytecode = allocateAndGetBytecode();
 			dump(bytecode, "redef");
+			if (RedefinitionBatch.defer(clazz, bytecode, new RedefinitionBatch.IFailureHandler() {
+					public void redefinitionFailed(Throwable t) {
+						scheduleRetry(clazz);
+					}
+				}))
+				return; // will be redefined together with other classes at the end of the current transaction
+			long start = RuntimeMetrics.ENABLED ? System.nanoTime() : 0L;
 			RedefineStrategyFactory.getRedefineStrategy().redefine(clazz, bytecode);
+			if (RuntimeMetrics.ENABLED)
+				RuntimeMetrics.classesRedefined(1, System.nanoTime()-start);
 		} catch (ClassNotFoundException cnfe) {
 			throw cnfe;
 		} catch (Throwable t) {
@@ -421,6 +511,8 @@ class AsmWritableBoundClass extends AsmBoundClass {
 		
 		// the methods callOrigStatic and accessStatic have to already exist to call it in a concrete team
 		if (!isInterface()) {
+			// unboxed variant of callOrig, only ever invoked for methods declared in this very class:
+			addEmptyMethod(ConstantMembers.callOrigDirect, Opcodes.ACC_PUBLIC, null, null, null, true);
 			addEmptyMethod(getCallOrigStatic(), Opcodes.ACC_PUBLIC + Opcodes.ACC_STATIC, null, null, null, false);
 			addEmptyMethod(ConstantMembers.accessStatic, Opcodes.ACC_PUBLIC + Opcodes.ACC_STATIC, null, null, null, false);
 		}
@@ -457,13 +549,16 @@ class AsmWritableBoundClass extends AsmBoundClass {
 
 	@Override
 	protected void prepareLiftingParticipant() {
-		if (isTeam() && LiftingParticipantAdapter.isLiftingParticipantConfigured(this.loader)) {
-			multiAdapter.addVisitor(new LiftingParticipantAdapter(this.writer));
+		if (!isTeam())
+			return;
+		boolean callParticipant = LiftingParticipantAdapter.isLiftingParticipantConfigured(this.loader);
+		if (callParticipant || RuntimeMetrics.ENABLED) {
+			multiAdapter.addVisitor(new LiftingParticipantAdapter(this.writer, callParticipant));
 		}
 	}
 
 	/**
-	 * Prepares the methods callAllBindings and callOrig with an empty
+	 * Prepares the methods callAllBindings, callOrig and callOrigDirect with an empty
 	 * switch statement
 	 */
 	@Override
@@ -471,6 +566,7 @@ class AsmWritableBoundClass extends AsmBoundClass {
 		if (!isTransformed && !isInterface()) {
 			nodes.add(new CreateSwitchAdapter(ConstantMembers.callOrig, getInternalWeavableSuperClassName(false)));
 			nodes.add(new CreateSwitchForCallAllBindingsNode());
+			nodes.add(new CreateSwitchForCallOrigDirectNode());
 			nodes.add(new CreateAddRemoveRoleMethod());
 			isTransformed = true;
 
@@ -485,7 +581,7 @@ class AsmWritableBoundClass extends AsmBoundClass {
 	 * (likely on behalf of a different sub class).
 	 */
 	protected void propagateCallinInfraToSubclasses() {
-		for (AbstractBoundClass sub : subclasses.keySet()) {
+		for (AbstractBoundClass sub : getSubclasses()) {
 			if (sub instanceof AsmWritableBoundClass) {
 				AsmWritableBoundClass writableSub = (AsmWritableBoundClass) sub;
 				if (!writableSub.hierarchyIsCallinAffected) {
@@ -604,7 +700,7 @@ class AsmWritableBoundClass extends AsmBoundClass {
 		buf.append(indent).append("    parsed=").append(parsed).append('\n');
 		buf.append(indent).append("    isUnweavable=").append(isUnweavable).append('\n');
 		buf.append(indent).append("    subclasses=\n");
-		for (AbstractBoundClass sub : subclasses.keySet())
+		for (AbstractBoundClass sub : getSubclasses())
 			sub.toDebugString(buf, indent+"        ");
 		buf.append(indent).append("]\n");
 	}
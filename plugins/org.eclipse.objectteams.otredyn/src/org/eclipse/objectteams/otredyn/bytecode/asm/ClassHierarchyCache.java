@@ -0,0 +1,218 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.bytecode.asm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Process-wide cache of the direct supertypes of classes, as needed for computing stack map frames
+ * ({@link LoaderAwareClassWriter#getCommonSuperClass(String, String)}) and for deciding whether
+ * a class needs weaving (OT/Equinox).
+ * <p>
+ * Entries are keyed by class loader and internal (slash-separated) class name. Class loaders are
+ * referenced weakly, entries of collected class loaders are eventually removed by the size-bounded
+ * LRU eviction. The maximum number of entries is configured by the system property
+ * <code>ot.hierarchy.cache.size</code> (default: 20000).
+ * </p><p>
+ * Classes are analyzed from their class file resource, without loading the class,
+ * because loading from within the transformer would by-pass weaving.
+ * </p>
+ */
+public class ClassHierarchyCache {
+
+	private static final int MAX_SIZE = Math.max(Integer.getInteger("ot.hierarchy.cache.size", 20000), 16);
+	private static final int SEGMENT_COUNT = 16; // power of two
+	private static final int SEGMENT_MASK = SEGMENT_COUNT - 1;
+
+	// stands for the bootstrap class loader:
+	private static final Object BOOT_LOADER = new Object();
+
+	/** Supertype information of one class, all names in internal (slash-separated) form. */
+	public static class ClassInfo {
+		private final int access;
+		private final @Nullable String superClassName;
+		private final String[] superInterfaceNames;
+
+		ClassInfo(ClassReader reader) {
+			this.access = reader.getAccess();
+			this.superClassName = reader.getSuperName();
+			this.superInterfaceNames = reader.getInterfaces();
+		}
+
+		ClassInfo(Class<?> clazz) {
+			this.access = clazz.getModifiers();
+			Class<?> superclass = clazz.getSuperclass();
+			if (superclass != null)
+				this.superClassName = superclass.getName().replace('.', '/');
+			else // as in class files:
+				this.superClassName = clazz.isInterface() ? "java/lang/Object" : null;
+			Class<?>[] interfaces = clazz.getInterfaces();
+			this.superInterfaceNames = new String[interfaces.length];
+			for (int i = 0; i < interfaces.length; i++)
+				this.superInterfaceNames[i] = interfaces[i].getName().replace('.', '/');
+		}
+
+		public boolean isInterface() {
+			return (this.access & Opcodes.ACC_INTERFACE) != 0;
+		}
+
+		/** Answer the internal name of the superclass, or <code>null</code> for <code>java.lang.Object</code>. */
+		public @Nullable String getSuperClassName() {
+			return this.superClassName;
+		}
+
+		/** Answer the internal names of all direct superinterfaces, must not be modified by clients. */
+		public String[] getSuperInterfaceNames() {
+			return this.superInterfaceNames;
+		}
+	}
+
+	private static class Key extends WeakReference<Object> {
+		final String className;
+		final int hash;
+		Key(@Nullable ClassLoader loader, String className) {
+			super(loader != null ? loader : BOOT_LOADER);
+			this.className = className;
+			this.hash = System.identityHashCode(get()) * 31 + className.hashCode();
+		}
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			Object loader = get();
+			return loader != null && loader == other.get() && this.className.equals(other.className);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Segment extends LinkedHashMap<Key, ClassInfo> {
+		Segment() {
+			super(64, 0.75f, true/*accessOrder*/);
+		}
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, ClassInfo> eldest) {
+			return size() > MAX_SIZE / SEGMENT_COUNT;
+		}
+	}
+
+	// synchronization: each segment is protected using the segment itself as the monitor.
+	private static final Segment[] segments = new Segment[SEGMENT_COUNT];
+	static {
+		for (int i = 0; i < SEGMENT_COUNT; i++)
+			segments[i] = new Segment();
+	}
+
+	private static Segment segmentFor(Key key) {
+		int h = key.hash;
+		return segments[(h ^ (h >>> 16)) & SEGMENT_MASK];
+	}
+
+	private ClassHierarchyCache() {}
+
+	/**
+	 * Answer the supertype information of the given class as visible to the given class loader,
+	 * reading the class file resource if the class has not been analyzed before.
+	 * @param className internal name of the class
+	 * @param loader used only as a resource loader, <code>null</code> for the bootstrap class loader
+	 * @return the information or <code>null</code> if no class file has been found
+	 */
+	public static @Nullable ClassInfo getClassInfo(String className, @Nullable ClassLoader loader) {
+		Key key = new Key(loader, className);
+		ClassInfo info = get(key);
+		if (info != null)
+			return info;
+		String resourceName = className+".class";
+		try (InputStream stream = loader != null ? loader.getResourceAsStream(resourceName) : ClassLoader.getSystemResourceAsStream(resourceName)) {
+			if (stream == null)
+				return null;
+			info = new ClassInfo(new ClassReader(stream));
+		} catch (IOException e) {
+			return null;
+		}
+		return put(key, info);
+	}
+
+	/**
+	 * Answer the supertype information of the given class as visible to the given class loader,
+	 * analyzing the given bytes if the class has not been analyzed before.
+	 * @param className internal name of the class
+	 * @param loader the defining class loader, <code>null</code> for the bootstrap class loader
+	 * @param classBytes the class file of the class
+	 */
+	public static ClassInfo getClassInfo(String className, @Nullable ClassLoader loader, byte[] classBytes) {
+		Key key = new Key(loader, className);
+		ClassInfo info = get(key);
+		if (info != null)
+			return info;
+		return put(key, new ClassInfo(new ClassReader(classBytes)));
+	}
+
+	/** Analyze the given class file without caching the result. */
+	public static ClassInfo analyze(byte[] classBytes) {
+		return new ClassInfo(new ClassReader(classBytes));
+	}
+
+	/**
+	 * Answer the supertype information of the given class as visible to the given class loader,
+	 * or as a last resort by loading the class, if no class file resource can be found.
+	 * Note that loading a class from within the transformer by-passes weaving of that class.
+	 * @param className internal name of the class
+	 * @param loader the class loader to use
+	 */
+	public static @Nullable ClassInfo getOrLoadClassInfo(String className, ClassLoader loader) {
+		ClassInfo info = getClassInfo(className, loader);
+		if (info != null)
+			return info;
+		try {
+			Class<?> clazz = loader.loadClass(className.replace('/', '.'));
+			return put(new Key(loader, className), new ClassInfo(clazz));
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	private static @Nullable ClassInfo get(Key key) {
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.get(key);
+		}
+	}
+
+	private static ClassInfo put(Key key, ClassInfo info) {
+		Segment segment = segmentFor(key);
+		synchronized (segment) {
+			ClassInfo existing = segment.putIfAbsent(key, info);
+			return existing != null ? existing : info;
+		}
+	}
+}
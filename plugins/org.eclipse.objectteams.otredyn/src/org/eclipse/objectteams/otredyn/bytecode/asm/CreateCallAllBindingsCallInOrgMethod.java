@@ -21,12 +21,16 @@ import org.eclipse.objectteams.otredyn.bytecode.Method;
 import org.eclipse.objectteams.otredyn.transformer.names.ClassNames;
 import org.eclipse.objectteams.otredyn.transformer.names.ConstantMembers;
 import org.eclipse.objectteams.otredyn.util.SMAPConstants;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
 import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.TryCatchBlockNode;
@@ -40,6 +44,28 @@ import org.objectweb.asm.tree.VarInsnNode;
  * Object[] args = {args1, ..., argsn};<br/>
  * this.callAllBindings(boundMethodId, args);
  * </code>
+ * If a joinpoint id is given and the method qualifies for the direct dispatch protocol
+ * (see {@link AsmTypeHelper#isDirectDispatchCandidate(String)}) the above is preceded
+ * by a fast path that avoids boxing:<br/>
+ * <code>
+ * if (this.getClass() == ThisClass.class) {<br/>
+ * &nbsp;&nbsp;Object[] teamsAndCallinIds = TeamManager.getTeamsAndCallinIds(joinpointId);<br/>
+ * &nbsp;&nbsp;if (teamsAndCallinIds == null)<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;return decode(this._OT$callOrigDirect(boundMethodId, shape, encode(arg1), ...));<br/>
+ * &nbsp;&nbsp;return decode(Team._OT$callAllBindingsDirect(this, teamsAndCallinIds, boundMethodId, shape, encode(arg1), ...));<br/>
+ * }
+ * </code><br/>
+ * The fast path is restricted to receivers of exactly this class, since subclasses may dispatch
+ * to different joinpoints via their own callAllBindings.<br/><br/>
+ * If requested (invokedynamic dispatch) the original code of the method has been kept by
+ * {@link MoveCodeToCallOrigAdapter}, and all of the above is guarded as follows:<br/>
+ * <code>
+ * if (!invokedynamic _OT$hasTeams() [joinpointId] &amp;&amp; this.getClass() == ThisClass.class) {<br/>
+ * &nbsp;&nbsp;original code<br/>
+ * }
+ * </code><br/>
+ * The invokedynamic is linked to a constant call site in <code>JoinpointCallSites</code>, which is relinked
+ * when teams are registered for or unregistered from the joinpoint.
  * @author Oliver Frank
  */
 public class CreateCallAllBindingsCallInOrgMethod extends
@@ -47,11 +73,21 @@ public class CreateCallAllBindingsCallInOrgMethod extends
 
 	private Method orgMethod;
 	private int boundMethodId;
+	private int joinpointId;
+	private boolean guardOriginalCode;
 
+	/**
+	 * @param orgMethod the method to transform
+	 * @param boundMethodId id of orgMethod in this class
+	 * @param joinpointId joinpoint of orgMethod in this class, or -1 if no direct dispatch should be generated
+	 * @param guardOriginalCode whether the original code has been kept, to be guarded by an invokedynamic
+	 */
 	public CreateCallAllBindingsCallInOrgMethod(Method orgMethod,
-			int boundMethodId) {
+			int boundMethodId, int joinpointId, boolean guardOriginalCode) {
 		this.orgMethod = orgMethod;
 		this.boundMethodId = boundMethodId;
+		this.joinpointId = joinpointId;
+		this.guardOriginalCode = guardOriginalCode;
 	}
 
 	@Override
@@ -65,6 +101,10 @@ public class CreateCallAllBindingsCallInOrgMethod extends
 		LabelNode start = new LabelNode();
 		newInstructions.add(start);
 		Type[] args = Type.getArgumentTypes(method.desc);
+		InsnList originalCode = null;
+		LabelNode original = new LabelNode();
+		int originalMaxStack = method.maxStack;
+		int originalMaxLocals = method.maxLocals;
 
 		{
 			if (orgMethod.getName().equals("<init>")) {
@@ -88,8 +128,17 @@ public class CreateCallAllBindingsCallInOrgMethod extends
 					startLine = 1;
 				else if (startLine > 1)
 					startLine--;
-				method.instructions.clear();
+				if (this.guardOriginalCode && supportsInvokeDynamic()) {
+					originalCode = new InsnList();
+					originalCode.add(method.instructions); // this wipes method.instructions
+				} else {
+					method.instructions.clear();
+				}
 				addLineNumber(newInstructions, startLine);
+				if (originalCode != null)
+					generateIndyGuard(newInstructions, original);
+				if (canDispatchDirectly(method))
+					generateDirectDispatch(method, args, newInstructions);
 				generateInvocation(method, args, null, newInstructions);
 			}
 		}
@@ -97,6 +146,12 @@ public class CreateCallAllBindingsCallInOrgMethod extends
 		// catch and unwrap SneakyException:
 		addCatchSneakyException(method, start);
 
+		if (originalCode != null) {
+			// original code goes behind the catch block, so it's not affected by the above try-catch:
+			method.instructions.add(original);
+			method.instructions.add(originalCode);
+		}
+
 		int localSlots = 0;
 		int maxArgSize = 1;
 		for (Type type : args) {
@@ -106,7 +161,13 @@ public class CreateCallAllBindingsCallInOrgMethod extends
 				maxArgSize = 2;
 		}
 		method.maxStack = args.length > 0 ? 5+maxArgSize : 3;
+		if (canDispatchDirectly(method))
+			method.maxStack = 2*AsmTypeHelper.MAX_DIRECT_ARGS+5; // this, teamsAndCallinIds, two ints and three longs (+1 while encoding)
 		method.maxLocals = localSlots+1;
+		if (originalCode != null) {
+			method.maxStack = Math.max(method.maxStack, originalMaxStack);
+			method.maxLocals = Math.max(method.maxLocals, originalMaxLocals);
+		}
 		
 		return true;
 	}
@@ -142,6 +203,93 @@ public class CreateCallAllBindingsCallInOrgMethod extends
 		}
 	}
 
+	/** Jump to original if no team is registered for the joinpoint and the receiver is exactly of this class. */
+	private void generateIndyGuard(InsnList instructions, LabelNode original) {
+		LabelNode dispatch = new LabelNode();
+		Handle bootstrap = new Handle(Opcodes.H_INVOKESTATIC, ClassNames.JOINPOINT_CALL_SITES_SLASH,
+				ConstantMembers.joinpointCallSiteBootstrap.getName(), ConstantMembers.joinpointCallSiteBootstrap.getSignature(), false);
+		instructions.add(new InvokeDynamicInsnNode(ConstantMembers.hasTeams.getName(), ConstantMembers.hasTeams.getSignature(),
+				bootstrap, Integer.valueOf(this.joinpointId)));
+		instructions.add(new JumpInsnNode(Opcodes.IFNE, dispatch));
+		instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+		instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, ClassNames.OBJECT_SLASH, "getClass", "()Ljava/lang/Class;", false));
+		instructions.add(new LdcInsnNode(Type.getObjectType(this.name)));
+		instructions.add(new JumpInsnNode(Opcodes.IF_ACMPEQ, original));
+		instructions.add(dispatch);
+	}
+
+	private boolean canDispatchDirectly(MethodNode method) {
+		if (this.joinpointId == -1 || (method.access & Opcodes.ACC_STATIC) != 0 || method.name.equals("<init>"))
+			return false;
+		if (!AsmTypeHelper.isDirectDispatchCandidate(method.desc))
+			return false;
+		// only if MoveCodeToCallOrigAdapter has moved the code to callOrigDirect:
+		MethodNode callOrigDirect = getMethod(ConstantMembers.callOrigDirect);
+		return callOrigDirect != null && (callOrigDirect.access & Opcodes.ACC_ABSTRACT) == 0;
+	}
+
+	private void generateDirectDispatch(MethodNode method, Type[] args, InsnList instructions) {
+		Type returnType = Type.getReturnType(method.desc);
+		LabelNode generic = new LabelNode();
+		LabelNode dispatch = new LabelNode();
+
+		// if (this.getClass() == ThisClass.class) {
+		instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+		instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, ClassNames.OBJECT_SLASH, "getClass", "()Ljava/lang/Class;", false));
+		instructions.add(new LdcInsnNode(Type.getObjectType(this.name)));
+		instructions.add(new JumpInsnNode(Opcodes.IF_ACMPNE, generic));
+
+		//   Object[] teamsAndCallinIds = TeamManager.getTeamsAndCallinIds(joinpointId);
+		instructions.add(createLoadIntConstant(this.joinpointId));
+		instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC,
+				ClassNames.TEAM_MANAGER_SLASH, ConstantMembers.getTeamsAndCallinIds.getName(),
+				ConstantMembers.getTeamsAndCallinIds.getSignature(), false));
+		instructions.add(new InsnNode(Opcodes.DUP));
+		instructions.add(new JumpInsnNode(Opcodes.IFNONNULL, dispatch));
+
+		//   if (teamsAndCallinIds == null) return decode(this._OT$callOrigDirect(boundMethodId, shape, encode(arg1), ...));
+		instructions.add(new InsnNode(Opcodes.POP));
+		instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+		instructions.add(createLoadIntConstant(this.boundMethodId));
+		instructions.add(createLoadIntConstant(AsmTypeHelper.getDirectDispatchShape(method.desc)));
+		addEncodedArguments(instructions, args);
+		addLineNumber(instructions, SMAPConstants.STEP_INTO_LINENUMBER);
+		instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, this.name,
+				ConstantMembers.callOrigDirect.getName(), ConstantMembers.callOrigDirect.getSignature(), false));
+		addLineNumber(instructions, SMAPConstants.STEP_OVER_LINENUMBER);
+		instructions.add(AsmTypeHelper.getDecodeFromLongInstructions(returnType));
+		instructions.add(new InsnNode(returnType.getOpcode(Opcodes.IRETURN)));
+
+		//   return decode(Team._OT$callAllBindingsDirect(this, teamsAndCallinIds, boundMethodId, shape, encode(arg1), ...));
+		instructions.add(dispatch);
+		instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+		instructions.add(new InsnNode(Opcodes.SWAP));
+		instructions.add(createLoadIntConstant(this.boundMethodId));
+		instructions.add(createLoadIntConstant(AsmTypeHelper.getDirectDispatchShape(method.desc)));
+		addEncodedArguments(instructions, args);
+		addLineNumber(instructions, SMAPConstants.STEP_INTO_LINENUMBER);
+		instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, ClassNames.TEAM_SLASH,
+				ConstantMembers.callAllBindingsDirect.getName(), ConstantMembers.callAllBindingsDirect.getSignature(), false));
+		addLineNumber(instructions, SMAPConstants.STEP_OVER_LINENUMBER);
+		instructions.add(AsmTypeHelper.getDecodeFromLongInstructions(returnType));
+		instructions.add(new InsnNode(returnType.getOpcode(Opcodes.IRETURN)));
+		// }
+		instructions.add(generic);
+	}
+
+	/** Push all arguments encoded as longs, padded with zeros to the fixed arity of the direct protocol. */
+	private void addEncodedArguments(InsnList instructions, Type[] args) {
+		for (int i=0, slot=1; i < AsmTypeHelper.MAX_DIRECT_ARGS; i++) {
+			if (i < args.length) {
+				instructions.add(new VarInsnNode(args[i].getOpcode(Opcodes.ILOAD), slot));
+				instructions.add(AsmTypeHelper.getEncodeToLongInstructions(args[i]));
+				slot += args[i].getSize();
+			} else {
+				instructions.add(new InsnNode(Opcodes.LCONST_0));
+			}
+		}
+	}
+
 	void addCatchSneakyException(MethodNode method, LabelNode start) {
 		method.tryCatchBlocks.add(getCatchBlock(method.instructions, start, orgMethod));
 	}
@@ -178,10 +326,13 @@ public class CreateCallAllBindingsCallInOrgMethod extends
 		case Type.BYTE:
 		case Type.INT:
 		case Type.SHORT:
-		case Type.LONG:
 			instructions.add(new InsnNode(Opcodes.ICONST_0));
 			instructions.add(new InsnNode(Opcodes.IRETURN));
 			break;
+		case Type.LONG:
+			instructions.add(new InsnNode(Opcodes.LCONST_0));
+			instructions.add(new InsnNode(Opcodes.LRETURN));
+			break;
 		case Type.DOUBLE:
 			instructions.add(new InsnNode(Opcodes.DCONST_0));
 			instructions.add(new InsnNode(Opcodes.DRETURN));
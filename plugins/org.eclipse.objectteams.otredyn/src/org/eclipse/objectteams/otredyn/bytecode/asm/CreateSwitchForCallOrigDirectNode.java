@@ -0,0 +1,63 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.bytecode.asm;
+
+import org.eclipse.objectteams.otredyn.transformer.names.ConstantMembers;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Initially prepares the method _OT$callOrigDirect as follows: <br/><br/>
+ * <code>
+ * switch (boundMethodId) {<br/>
+ * default:<br/>
+ *     throw new org.objectteams.NoSuchMethodError(boundMethodId, "ThisClass", "direct base call");<br/>
+ * }<br/>
+ * </code>
+ * Cases are added by {@link MoveCodeToCallOrigAdapter} for base methods
+ * that use the direct dispatch protocol.
+ * Since callOrigDirect is only invoked for base methods declared in this very class,
+ * reaching the default case signals inconsistent weaving.
+ */
+public class CreateSwitchForCallOrigDirectNode extends CreateSwitchAdapter {
+
+	public CreateSwitchForCallOrigDirectNode() {
+		super(ConstantMembers.callOrigDirect);
+	}
+
+	@Override
+	protected void addInstructionForDefaultLabel(MethodNode method) {
+		method.instructions.add(new TypeInsnNode(Opcodes.NEW, "org/objectteams/NoSuchMethodError"));
+		method.instructions.add(new InsnNode(Opcodes.DUP));
+		method.instructions.add(new VarInsnNode(Opcodes.ILOAD, getFirstArgIndex())); // boundMethodId
+		method.instructions.add(new LdcInsnNode(this.name.replace('/', '.')));	 // current class
+		method.instructions.add(new LdcInsnNode("direct base call"));			 // access reason
+		method.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, "org/objectteams/NoSuchMethodError", "<init>", "(ILjava/lang/String;Ljava/lang/String;)V", false));
+		method.instructions.add(new InsnNode(Opcodes.ATHROW));
+	}
+
+	@Override
+	protected int getMaxStack() {
+		return 5;
+	}
+}
@@ -23,6 +23,7 @@ import static org.objectweb.asm.Opcodes.*;
 
 import java.lang.reflect.Field;
 
+import org.eclipse.objectteams.otredyn.runtime.RuntimeMetrics;
 import org.objectteams.Team;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Label;
@@ -32,6 +33,7 @@ import org.objectweb.asm.commons.InstructionAdapter;
 
 /**
  * If a lifting participant has been configured, insert the code to invoke it.
+ * If {@link RuntimeMetrics} are enabled, insert probes counting invocations of lift methods and role creations.
  * @since 2.3.1
  */
 public class LiftingParticipantAdapter extends ClassVisitor {
@@ -45,8 +47,23 @@ public class LiftingParticipantAdapter extends ClassVisitor {
 	private static final String CREATE_ROLE_METHOD = "createRole";
 	private static final String CREATE_ROLE_DESC = "(L"+ITEAM_SLASH+";L"+OBJECT_SLASH+";Ljava/lang/String;)L"+OBJECT_SLASH+";";
 
+	private static final String LIFTING_CALL_METHOD = "liftingCall";
+	private static final String ROLE_CREATED_METHOD = "roleCreatedByLifting";
+
+	private final boolean callParticipant;
+
 	public LiftingParticipantAdapter(ClassVisitor cv) {
+		this(cv, true);
+	}
+
+	/**
+	 * @param cv the class visitor to delegate to
+	 * @param callParticipant whether to insert invocations of the configured lifting participant,
+	 * 	otherwise only probes for {@link RuntimeMetrics} are inserted
+	 */
+	public LiftingParticipantAdapter(ClassVisitor cv, boolean callParticipant) {
 		super(ASM_API, cv);
+		this.callParticipant = callParticipant;
 	}
 	
 	public static synchronized boolean isLiftingParticipantConfigured(ClassLoader loader) {
@@ -100,9 +117,19 @@ public class LiftingParticipantAdapter extends ClassVisitor {
 			return new InstructionAdapter(this.api, methodVisitor) {
 				private Label done = null;
 				@Override
+				public void visitCode() {
+					super.visitCode();
+					if (RuntimeMetrics.ENABLED)
+						invokestatic(RUNTIME_METRICS_SLASH, LIFTING_CALL_METHOD, "()V", false);
+				}
+				@Override
 				public void visitTypeInsn(int opcode, String type) {
-					if (isRelevantAllocation(opcode, type))
-						insertParticipantSequence(type);
+					if (isRelevantAllocation(opcode, type)) {
+						if (RuntimeMetrics.ENABLED)
+							invokestatic(RUNTIME_METRICS_SLASH, ROLE_CREATED_METHOD, "()V", false);
+						if (callParticipant)
+							insertParticipantSequence(type);
+					}
 					super.visitTypeInsn(opcode, type);
 				}
 				boolean isRelevantAllocation(int opcode, String type) {
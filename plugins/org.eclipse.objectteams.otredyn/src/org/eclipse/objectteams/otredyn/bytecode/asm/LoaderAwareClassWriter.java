@@ -19,35 +19,28 @@ package org.eclipse.objectteams.otredyn.bytecode.asm;
 
 import static org.eclipse.objectteams.otredyn.transformer.names.ClassNames.OBJECT_SLASH;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
-import org.eclipse.objectteams.otredyn.bytecode.asm.ASMByteCodeAnalyzer.ClassInformation;
+import org.eclipse.objectteams.otredyn.bytecode.asm.ClassHierarchyCache.ClassInfo;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
 
 /**
  * Variant of its superclass which strictly avoids the use of Class.forName(),
  * because that would by-pass our transformer, when invoked from within the transformer!
+ * Supertypes are looked up in the {@link ClassHierarchyCache} shared by all writers.
  */
 public class LoaderAwareClassWriter extends ClassWriter {
 
 	// Only use as a resource loader!
 	private ClassLoader loader;
-	private ASMByteCodeAnalyzer analyzer; // hopefully caching loaded classes per class-being-written is sufficient for performance
-	private Map<String, ClassInformation> knownClasses = new HashMap<String, ASMByteCodeAnalyzer.ClassInformation>();
 	
 	public LoaderAwareClassWriter(ClassReader reader, int computeFrames, ClassLoader loader) {
 		super(reader, computeFrames);
 		this.loader = loader;
-		this.analyzer = new ASMByteCodeAnalyzer(false);
 	}
 	
 	@Override
@@ -58,19 +51,13 @@ public class LoaderAwareClassWriter extends ClassWriter {
 		if (type1.equals(OBJECT_SLASH) || type2.equals(OBJECT_SLASH))
 			return OBJECT_SLASH;
 		
-		ClassInformation ci1;
-		ClassInformation ci2;
-		// need to load class bytes:
-		try {
-			ci1 = findClassInfo(type1);
-			if (ci1 == null)
-				return OBJECT_SLASH;
-			ci2 = findClassInfo(type2);
-			if (ci2 == null)
-				return OBJECT_SLASH;
-		} catch (Exception e) {
-		    throw new RuntimeException(e);
-		}
+		// need class bytes (unless cached):
+		ClassInfo ci1 = findClassInfo(type1);
+		if (ci1 == null)
+			return OBJECT_SLASH;
+		ClassInfo ci2 = findClassInfo(type2);
+		if (ci2 == null)
+			return OBJECT_SLASH;
 
         // do a breadth-first search: each iteration adds just one more level of super types,
 		// but strictly prefer common super class over super interface.
@@ -114,34 +101,16 @@ public class LoaderAwareClassWriter extends ClassWriter {
         }
 	}
 
-	private ClassInformation findClassInfo(String type) throws MalformedURLException, IOException {
-		String className = type+".class";
-		try (InputStream stream = this.loader.getResourceAsStream(className)) {
-			if (stream != null)
-				return this.analyzer.getClassInformation(stream, type); 
-		}
-		/* FIXME: if we had a map package -> module, we could do like this: 
-		if (className.startsWith("com/sun/jdi")) {
-			try (InputStream stream2 = new URL("jrt:/jdk.jdi/"+className).openStream()) {
-				return this.analyzer.getClassInformation(stream2, type);
-			}
-		}
-		*/
-		return this.analyzer.getClassInformation(type, this.loader);
+	private ClassInfo findClassInfo(String type) {
+		/* FIXME: if we had a map package -> module, we could read "jrt:/jdk.jdi/"+className for classes like com/sun/jdi/*
+		 * instead of loading the class when no resource is found. */
+		return ClassHierarchyCache.getOrLoadClassInfo(type, this.loader);
 	}
 
 	private List<String> getDirectSupersLayer(List<String> types, boolean classes) {
 		List<String> result = new ArrayList<String>();
 		for (String type : types) {
-			ClassInformation ci = this.knownClasses.get(type);
-			if (ci == null) {
-				try (InputStream s = this.loader.getResourceAsStream(type+".class")) {
-					ci = this.analyzer.getClassInformation(s, type);
-		        } catch (Exception e) {
-		            throw new RuntimeException(e.toString());
-				}
-				this.knownClasses.put(type, ci);
-			}
+			ClassInfo ci = ClassHierarchyCache.getClassInfo(type, this.loader);
 			if (ci != null) {
 				if (classes)
 					addSuperClass(result, ci);
@@ -152,13 +121,13 @@ public class LoaderAwareClassWriter extends ClassWriter {
 		return result;
 	}
 
-	private void addSuperClass(List<String> result, ClassInformation ci) {
+	private void addSuperClass(List<String> result, ClassInfo ci) {
 		String superClass = ci.getSuperClassName();
 		if (superClass != null && !superClass.equals(OBJECT_SLASH)) // avoid prematurely answering j.l.Object
 			result.add(superClass);
 	}
 
-	private void addSuperInterfaces(List<String> result, ClassInformation ci) {
+	private void addSuperInterfaces(List<String> result, ClassInfo ci) {
 		for (String ifc : ci.getSuperInterfaceNames())
 			result.add(ifc);
 	}
@@ -18,8 +18,10 @@
 package org.eclipse.objectteams.otredyn.bytecode.asm;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import org.eclipse.objectteams.otredyn.bytecode.AbstractBoundClass;
 import org.eclipse.objectteams.otredyn.bytecode.Method;
@@ -43,11 +45,22 @@ import org.objectweb.asm.tree.VarInsnNode;
 
 /**
  * This class moves the code of a method to callOrig. 
+ * <p>
+ * Methods that qualify for the direct dispatch protocol (see {@link AsmTypeHelper#isDirectDispatchCandidate(String)})
+ * are moved to callOrigDirect instead, where arguments and result are passed encoded as longs.
+ * For those methods callOrig receives a case that unboxes the arguments and delegates to callOrigDirect.
+ * </p><p>
+ * If requested (invokedynamic dispatch), a copy of the original code is left in the original method,
+ * to be executed while no team is registered for the method's joinpoint
+ * (see {@link CreateCallAllBindingsCallInOrgMethod}).
+ * </p>
  * @author Oliver Frank
  */
 public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 
 	private static final String BOUND_METHOD_ID = "_OT$boundMethodId";
+	// slot of the first encoded argument in callOrigDirect(int boundMethodId, int shape, long arg0, long arg1, long arg2):
+	private static final int DIRECT_FIRST_ARG_SLOT = 3;
 
 	private Method method;
 	private int boundMethodId;
@@ -57,9 +70,13 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 	private boolean superIsWeavable = true;
 	private boolean baseSuperRequired;
 	private AbstractBoundClass superclass;
+	private boolean isDirect;
+	private boolean keepOriginalCode;
 	
-	public MoveCodeToCallOrigAdapter(AsmWritableBoundClass clazz, Method method, int boundMethodId, boolean baseSuperRequired, IWeavingContext weavingContext) {
+	public MoveCodeToCallOrigAdapter(AsmWritableBoundClass clazz, Method method, int boundMethodId, boolean baseSuperRequired,
+			boolean keepOriginalCode, IWeavingContext weavingContext) {
 		this.method = method;
+		this.keepOriginalCode = keepOriginalCode;
 		this.boundMethodId = boundMethodId;
 		if (method.isStatic()) {
 			firstArgIndex = 0;
@@ -68,6 +85,7 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 		} else {
 			firstArgIndex = 1;
 			callOrig = ConstantMembers.callOrig;
+			isDirect = AsmTypeHelper.isDirectDispatchCandidate(method.getSignature());
 		}
 		if (weavingContext != null)
 			superIsWeavable = weavingContext.isWeavable(clazz.getSuperClassName(), false, false);
@@ -81,8 +99,14 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 		if ((orgMethod.access & Opcodes.ACC_ABSTRACT) != 0) return false;
 		
 		MethodNode callOrig = getMethod(this.callOrig);
+		MethodNode callOrigDirect = this.isDirect ? getMethod(ConstantMembers.callOrigDirect) : null;
+		// target method receiving the original code:
+		MethodNode target = callOrigDirect != null ? callOrigDirect : callOrig;
 		
 		Type returnType = Type.getReturnType(orgMethod.desc);
+		
+		// copy before any of the following modifications:
+		MethodNode orgCopy = this.keepOriginalCode && supportsInvokeDynamic() ? copyCode(orgMethod) : null;
 				
 		InsnList newInstructions = new InsnList();
 		
@@ -100,10 +124,14 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 		// move boundMethodId to a higher slot, to make lower slots available for original locals
 		newInstructions.add(new VarInsnNode(Opcodes.ILOAD, boundMethodIdSlot));
 		boundMethodIdSlot = orgMethod.maxLocals+1;
-		addLocal(callOrig, BOUND_METHOD_ID, "I", boundMethodIdSlot, start, end, false);
+		if (callOrigDirect != null) // don't overwrite any encoded argument before it has been read
+			boundMethodIdSlot = Math.max(boundMethodIdSlot, DIRECT_FIRST_ARG_SLOT+2*AsmTypeHelper.MAX_DIRECT_ARGS);
+		addLocal(target, BOUND_METHOD_ID, "I", boundMethodIdSlot, start, end, false);
 		newInstructions.add(new VarInsnNode(Opcodes.ISTORE, boundMethodIdSlot));
 
-		if (args.length > 0) {
+		if (callOrigDirect != null) {
+			decodeDirectArguments(newInstructions, args, orgMethod.localVariables, start, end, callOrigDirect);
+		} else if (args.length > 0) {
 			
 			newInstructions.add(new VarInsnNode(Opcodes.ALOAD, firstArgIndex + argOffset + 1));
 			
@@ -134,31 +162,68 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 
 		InsnList orgInstructions = orgMethod.instructions;
 
-		if (superIsWeavable)
-			adjustSuperCalls(orgInstructions, orgMethod.name, orgMethod.desc, args, returnType, boundMethodIdSlot);
+		if (superIsWeavable) {
+			final int slot = boundMethodIdSlot;
+			// callOrigDirect returns an encoded long, not j.l.Object:
+			adjustSuperCalls(orgInstructions, orgMethod.name, orgMethod.desc, callOrigDirect == null, new IBoundMethodIdInsnProvider() {
+				@Override public AbstractInsnNode getLoadBoundMethodIdInsn(MethodInsnNode methodInsn) {
+					return new VarInsnNode(Opcodes.ILOAD, slot);
+				}
+			});
+		}
 		
-		// replace return of the original method with areturn and box the result value if needed
-		replaceReturn(orgInstructions, returnType);
+		if (callOrigDirect != null) {
+			// replace return of the original method with lreturn of the encoded result value
+			replaceReturnWithEncodedResult(orgInstructions, returnType);
+		} else {
+			// replace return of the original method with areturn and box the result value if needed
+			replaceReturn(orgInstructions, returnType);
+		}
 		
 		newInstructions.add(orgInstructions); // this wipes orgInstructions
-		addLineNumber(orgMethod.instructions, line);
-		addReturn(orgMethod.instructions,Type.getReturnType(orgMethod.desc)); // restores minimal code
+		if (orgCopy != null) {
+			if (superIsWeavable)
+				adjustSuperCalls(orgCopy.instructions, orgMethod.name, orgMethod.desc, false, new IBoundMethodIdInsnProvider() {
+					@Override public AbstractInsnNode getLoadBoundMethodIdInsn(MethodInsnNode methodInsn) {
+						return createLoadIntConstant(boundMethodId);
+					}
+				});
+			orgMethod.instructions.add(orgCopy.instructions); // original code remains to be guarded
+		} else {
+			addLineNumber(orgMethod.instructions, line);
+			addReturn(orgMethod.instructions,Type.getReturnType(orgMethod.desc)); // restores minimal code
+		}
 		if (orgMethod.tryCatchBlocks != null) {
-			addTryCatchBlocks(orgMethod, callOrig);
+			addTryCatchBlocks(orgMethod, target);
 			orgMethod.tryCatchBlocks.clear();
+			if (orgCopy != null)
+				orgMethod.tryCatchBlocks.addAll(orgCopy.tryCatchBlocks);
 		}
 		if (orgMethod.localVariables != null) {
 			orgMethod.localVariables.clear();
+			if (orgCopy != null)
+				orgMethod.localVariables.addAll(orgCopy.localVariables);
 		}
 		newInstructions.add(end);
 		
-		addNewLabelToSwitch(callOrig.instructions, newInstructions, boundMethodId);
+		addNewLabelToSwitch(target.instructions, newInstructions, boundMethodId);
+		if (callOrigDirect != null)
+			addNewLabelToSwitch(callOrig.instructions, delegateToCallOrigDirect(orgMethod.desc, args, returnType), boundMethodId);
 		
 		if (this.baseSuperRequired && !superName.equals(ClassNames.OBJECT_SLASH) && !method.isStatic()) {
 			newInstructions = superOrigCall(method, args);
 			addNewLabelToSwitch(callOrig.instructions, newInstructions, boundMethodId+1);
 		}
 
+		if (callOrigDirect != null) {
+			// boundMethodId plus up to three longs are on the stack while decoding the arguments
+			callOrigDirect.maxStack = Math.max(Math.max(callOrigDirect.maxStack, orgMethod.maxStack), 2*AsmTypeHelper.MAX_DIRECT_ARGS+1);
+			callOrigDirect.maxLocals = Math.max(callOrigDirect.maxLocals, boundMethodIdSlot+1);
+			// this, boundMethodId, shape, three longs and the args array with index while unboxing
+			callOrig.maxStack = Math.max(callOrig.maxStack, 2*AsmTypeHelper.MAX_DIRECT_ARGS+5);
+			return true;
+		}
+
 		// a minimum stacksize of 3 is needed to box the arguments
 		callOrig.maxStack = Math.max(Math.max(callOrig.maxStack, orgMethod.maxStack), 3);
 		
@@ -170,6 +235,92 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 		return true;
 	}
 
+	/** Answer a method node holding a copy of the code of orgMethod including try-catch blocks and local variables. */
+	private MethodNode copyCode(MethodNode orgMethod) {
+		Map<LabelNode, LabelNode> labels = new HashMap<LabelNode, LabelNode>();
+		for (AbstractInsnNode insn = orgMethod.instructions.getFirst(); insn != null; insn = insn.getNext())
+			if (insn instanceof LabelNode)
+				labels.put((LabelNode) insn, new LabelNode());
+		MethodNode copy = new MethodNode(AsmBoundClass.ASM_API, orgMethod.access, orgMethod.name, orgMethod.desc, orgMethod.signature, null);
+		for (AbstractInsnNode insn = orgMethod.instructions.getFirst(); insn != null; insn = insn.getNext())
+			copy.instructions.add(insn.clone(labels));
+		if (orgMethod.tryCatchBlocks != null)
+			for (TryCatchBlockNode block : orgMethod.tryCatchBlocks)
+				copy.tryCatchBlocks.add(new TryCatchBlockNode(labels.get(block.start), labels.get(block.end),
+						labels.get(block.handler), block.type));
+		if (orgMethod.localVariables != null)
+			for (LocalVariableNode local : orgMethod.localVariables)
+				copy.localVariables.add(new LocalVariableNode(local.name, local.desc, local.signature,
+						labels.get(local.start), labels.get(local.end), local.index));
+		return copy;
+	}
+
+	/**
+	 * Load the long encoded arguments of callOrigDirect(int,int,long,long,long) and store them
+	 * decoded into the slots expected by the original code.
+	 * All values are first pushed to the stack, because target slots overlap with the arguments of callOrigDirect.
+	 */
+	private void decodeDirectArguments(InsnList instructions, Type[] args, List<LocalVariableNode> origLocals,
+			LabelNode start, LabelNode end, MethodNode callOrigDirect)
+	{
+		for (int i = 0; i < args.length; i++) {
+			instructions.add(new VarInsnNode(Opcodes.LLOAD, DIRECT_FIRST_ARG_SLOT + 2*i));
+			instructions.add(AsmTypeHelper.getDecodeFromLongInstructions(args[i]));
+		}
+		int[] slots = new int[args.length];
+		for (int i = 0, slot = firstArgIndex; i < args.length; slot += args[i++].getSize())
+			slots[i] = slot;
+		for (int i = args.length-1; i >= 0; i--) {
+			instructions.add(new VarInsnNode(args[i].getOpcode(Opcodes.ISTORE), slots[i]));
+			int origLocalIdx = i+firstArgIndex;
+			if (origLocals != null && origLocalIdx < origLocals.size())
+				addLocal(callOrigDirect, origLocals.get(origLocalIdx).name, args[i].getDescriptor(), slots[i], start, end, false);
+		}
+	}
+
+	/** Replace all return statements of the original code with returning the long encoded result value. */
+	private void replaceReturnWithEncodedResult(InsnList instructions, Type returnType) {
+		int returnOpcode = returnType.getOpcode(Opcodes.IRETURN);
+		ListIterator<AbstractInsnNode> orgMethodIter = instructions.iterator();
+		while (orgMethodIter.hasNext()) {
+			AbstractInsnNode orgMethodNode = orgMethodIter.next();
+			if (orgMethodNode.getOpcode() == returnOpcode) {
+				instructions.insertBefore(orgMethodNode, AsmTypeHelper.getEncodeToLongInstructions(returnType));
+				instructions.set(orgMethodNode, new InsnNode(Opcodes.LRETURN));
+			}
+		}
+	}
+
+	/**
+	 * Create the case for callOrig(int,Object[]) of a method that has been moved to callOrigDirect:
+	 * <code>return box(callOrigDirect(boundMethodId, shape, encode(unbox(args[0])), ...));</code>
+	 */
+	private InsnList delegateToCallOrigDirect(String desc, Type[] args, Type returnType) {
+		InsnList instructions = new InsnList();
+		instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+		instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+		instructions.add(createLoadIntConstant(AsmTypeHelper.getDirectDispatchShape(desc)));
+		for (int i = 0; i < AsmTypeHelper.MAX_DIRECT_ARGS; i++) {
+			if (i < args.length) {
+				instructions.add(new VarInsnNode(Opcodes.ALOAD, 2));
+				instructions.add(createLoadIntConstant(i));
+				instructions.add(new InsnNode(Opcodes.AALOAD));
+				String objectType = AsmTypeHelper.getBoxingType(args[i]);
+				instructions.add(new TypeInsnNode(Opcodes.CHECKCAST, objectType));
+				instructions.add(AsmTypeHelper.getUnboxingInstructionForType(args[i], objectType));
+				instructions.add(AsmTypeHelper.getEncodeToLongInstructions(args[i]));
+			} else {
+				instructions.add(new InsnNode(Opcodes.LCONST_0));
+			}
+		}
+		instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, this.name, ConstantMembers.callOrigDirect.getName(),
+				ConstantMembers.callOrigDirect.getSignature(), false));
+		instructions.add(AsmTypeHelper.getDecodeFromLongInstructions(returnType));
+		instructions.add(AsmTypeHelper.getBoxingInstructionForType(returnType));
+		instructions.add(new InsnNode(Opcodes.ARETURN));
+		return instructions;
+	}
+
 	private void addTryCatchBlocks(MethodNode orgMethod, MethodNode callOrig) {
 		if (callOrig.tryCatchBlocks == null)
 			callOrig.tryCatchBlocks = new ArrayList<TryCatchBlockNode>();
@@ -216,7 +367,7 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 
 	/** To avoid infinite recursion, calls super.m(a1, a2) must be translated to super.callOrig(boundMethodId, new Object[] {a1, a2}). */
 	private void adjustSuperCalls(InsnList instructions, String selector, String descriptor, 
-			Type[] args, Type returnType, final int boundMethodIdSlot) {
+			boolean returnsJLObject, IBoundMethodIdInsnProvider insnProvider) {
 
 		// search:
 		List<MethodInsnNode> toReplace = new ArrayList<MethodInsnNode>();
@@ -231,10 +382,6 @@ public class MoveCodeToCallOrigAdapter extends AbstractTransformableClassNode {
 		if (toReplace.isEmpty())
 			return;
 		// replace:
-		replaceSuperCallsWithCallToCallOrig(instructions, toReplace, true, superclass, new IBoundMethodIdInsnProvider() {
-			@Override public AbstractInsnNode getLoadBoundMethodIdInsn(MethodInsnNode methodInsn) {
-				return new VarInsnNode(Opcodes.ILOAD, boundMethodIdSlot);
-			}
-		});
+		replaceSuperCallsWithCallToCallOrig(instructions, toReplace, returnsJLObject, superclass, insnProvider);
 	}
 }
@@ -53,6 +53,14 @@ class MultiClassAdapter extends ClassVisitor {
 	public boolean hasVisitors() {
 		return this.toplevelVisitor != null || !this.visitors.isEmpty();
 	}
+
+	/** Answer whether a visitor of the given type has been added. */
+	public boolean hasVisitor(Class<? extends ClassVisitor> visitorClass) {
+		for (ClassVisitor visitor : visitors)
+			if (visitorClass.isInstance(visitor))
+				return true;
+		return false;
+	}
 	
 	@Override
 	public void visit(int version, int access, String name, String signature,
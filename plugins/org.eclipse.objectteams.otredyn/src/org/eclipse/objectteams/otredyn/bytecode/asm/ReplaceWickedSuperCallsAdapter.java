@@ -126,6 +126,7 @@ public class ReplaceWickedSuperCallsAdapter extends AbstractTransformableClassNo
 
 		for (Map.Entry<MethodNode,List<MethodInsnNode>> toWeave : instructionsToWeave.entrySet()) {
 			MethodNode enclosingMethod = toWeave.getKey();
+			markAsModified(enclosingMethod);
 			InsnList instructions = enclosingMethod.instructions;
 			List<MethodInsnNode> superCallsToReplace = toWeave.getValue();
 			Type returnType = Type.getReturnType(enclosingMethod.desc);
@@ -37,21 +37,24 @@ public class WeavableRegionReader {
 	/**	Marker for comment lines in the "weavable" file. */    
 	private final static String COMMENT_MARKER = "#";
 	 
-	private static List<String> weavablePrefixes = null;
+	private static volatile List<String> weavablePrefixes = null;
 
 	public static boolean isWeavable(String className) {
-		ensureInitialized();
-		if (weavablePrefixes.isEmpty())
+		List<String> prefixes = weavablePrefixes;
+		if (prefixes == null)
+			prefixes = ensureInitialized();
+		if (prefixes.isEmpty())
 			return true; // not filtering
-		for (String prefix: weavablePrefixes)
+		for (String prefix: prefixes)
 			if (className.startsWith(prefix))
 				return true;
 		return false;
 	}
 	
-	private static synchronized void ensureInitialized() {
+	private static synchronized List<String> ensureInitialized() {
 		if (weavablePrefixes == null)
 			weavablePrefixes = readWeavablePrefixes();
+		return weavablePrefixes;
 	}
 	
 	/**
@@ -0,0 +1,293 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.bytecode.asm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Persistent cache of the bytecode produced by load-time weaving, enabled by
+ * <code>-Dot.weaving.cache=&lt;directory&gt;</code>.
+ * <p>
+ * Only the preparation performed when a class is loaded while no weaving tasks are pending for it
+ * is cached (see {@link AsmWritableBoundClass#endLoadTimeTransformation(Class)}).
+ * That result depends only on the original bytes, the weavability of the superclass and the configuration
+ * of the OTDRE, whereas weaving of callin and decapsulation bindings embeds joinpoint ids, which are
+ * assigned anew in each JVM and can therefore never be reused.
+ * </p><p>
+ * The cache consists of two files in the given directory:
+ * <dl>
+ * <dt><code>woven.idx</code></dt>
+ * <dd>a header with a fingerprint of the OTDRE, followed by fixed size entries
+ * (key, offset, length, checksum). The file is memory mapped once when the cache is opened.</dd>
+ * <dt><code>woven.dat</code></dt>
+ * <dd>the woven class files, appended one after the other.</dd>
+ * </dl>
+ * Both files are only ever appended to while holding a file lock, so several JVMs may share the same directory.
+ * When the fingerprint of the OTDRE doesn't match, both files are discarded.
+ * A JVM whose files have thus been reset by another JVM stops storing into the cache.
+ * Each key is the SHA-1 digest of the original class file together with a description of the transformation.
+ * </p><p>
+ * Note, that stack map frames are computed with respect to the class hierarchy visible at the time of weaving:
+ * if a library changes incompatibly without changing the classes woven against it, the cache directory should be deleted.
+ * </p>
+ */
+public class WovenClassCache {
+
+	private static final String CACHE_DIR = System.getProperty("ot.weaving.cache");
+
+	private static final String INDEX_FILE = "woven.idx";
+	private static final String DATA_FILE = "woven.dat";
+
+	private static final int MAGIC = 0x4F54574B; // "OTWK"
+	private static final int FORMAT_VERSION = 1;
+	private static final int DIGEST_SIZE = 20; // SHA-1
+	private static final int HEADER_SIZE = 4 + 4 + DIGEST_SIZE;
+	private static final int ENTRY_SIZE = DIGEST_SIZE + 8 + 4 + 4;
+
+	private static @Nullable WovenClassCache instance = CACHE_DIR != null ? open(new File(CACHE_DIR)) : null;
+
+	/** Answer the cache of this JVM, or <code>null</code> if caching is not enabled (or has failed). */
+	public static @Nullable WovenClassCache getInstance() {
+		return instance;
+	}
+
+	private static class Key {
+		final byte[] digest;
+		final int hash;
+		Key(byte[] digest) {
+			this.digest = digest;
+			this.hash = Arrays.hashCode(digest);
+		}
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && Arrays.equals(this.digest, ((Key) obj).digest);
+		}
+	}
+
+	private static class Entry {
+		final long offset;
+		final int length;
+		final int checksum;
+		Entry(long offset, int length, int checksum) {
+			this.offset = offset;
+			this.length = length;
+			this.checksum = checksum;
+		}
+	}
+
+	private final FileChannel index;
+	private final FileChannel data;
+	private final byte[] fingerprint;
+	// synchronization: all accesses are protected using this as the monitor.
+	private final Map<Key, Entry> entries = new HashMap<>();
+	private boolean isReset;
+
+	private WovenClassCache(FileChannel index, FileChannel data, byte[] fingerprint) {
+		this.index = index;
+		this.data = data;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Open the cache in the given directory, answer <code>null</code> if that is not possible.
+	 * Normally the cache is opened only once per JVM, see {@link #getInstance()}.
+	 */
+	@SuppressWarnings("resource") // channels are kept open for the lifetime of the JVM
+	public static @Nullable WovenClassCache open(File dir) {
+		try {
+			if (!dir.isDirectory() && !dir.mkdirs())
+				throw new IOException("Cannot create directory "+dir);
+			FileChannel index = new RandomAccessFile(new File(dir, INDEX_FILE), "rw").getChannel();
+			FileChannel data = new RandomAccessFile(new File(dir, DATA_FILE), "rw").getChannel();
+			WovenClassCache cache = new WovenClassCache(index, data, fingerprint());
+			FileLock lock = index.lock();
+			try {
+				cache.readIndex();
+			} finally {
+				lock.release();
+			}
+			return cache;
+		} catch (IOException | NoSuchAlgorithmException e) {
+			new IOException("OTDRE: cannot use weaving cache at "+dir, e).printStackTrace();
+			return null;
+		}
+	}
+
+	/** Read all entries from the index file, or reset both files if they stem from a different OTDRE. */
+	private void readIndex() throws IOException {
+		long size = this.index.size();
+		if (size >= HEADER_SIZE) {
+			MappedByteBuffer buffer = this.index.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (hasCurrentHeader(buffer)) {
+				long dataSize = this.data.size();
+				while (buffer.remaining() >= ENTRY_SIZE) {
+					byte[] digest = new byte[DIGEST_SIZE];
+					buffer.get(digest);
+					Entry entry = new Entry(buffer.getLong(), buffer.getInt(), buffer.getInt());
+					if (entry.offset + entry.length <= dataSize) // else: incomplete write
+						this.entries.put(new Key(digest), entry);
+				}
+				return;
+			}
+		}
+		this.index.truncate(0);
+		this.data.truncate(0);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(FORMAT_VERSION).put(this.fingerprint);
+		header.flip();
+		writeFully(this.index, header, 0);
+	}
+
+	/** Answer whether the given header has been written by a JVM with the same fingerprint as this one. */
+	private boolean hasCurrentHeader(ByteBuffer header) {
+		if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION)
+			return false;
+		byte[] storedFingerprint = new byte[DIGEST_SIZE];
+		header.get(storedFingerprint);
+		return Arrays.equals(this.fingerprint, storedFingerprint);
+	}
+
+	/**
+	 * Compute the key for caching the result of the given transformation of the given class file.
+	 * @param transformation description of all inputs of the transformation besides the bytes of the class
+	 * @param classBytes original bytes of the class
+	 */
+	public byte[] computeKey(String transformation, byte[] classBytes) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			digest.update(transformation.getBytes(StandardCharsets.UTF_8));
+			digest.update(classBytes);
+			return digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); // checked during open()
+		}
+	}
+
+	/** Answer the woven bytes previously stored for the given key, or <code>null</code>. */
+	public synchronized byte[] get(byte[] key) {
+		Entry entry = this.entries.get(new Key(key));
+		if (entry == null)
+			return null;
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+			while (buffer.hasRemaining()) {
+				if (this.data.read(buffer, entry.offset + buffer.position()) < 0)
+					return null;
+			}
+			byte[] bytes = buffer.array();
+			if (checksum(bytes) != entry.checksum)
+				return null;
+			return bytes;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/** Store the woven bytes for the given key, unless an entry already exists. */
+	public synchronized void put(byte[] key, byte[] wovenBytes) {
+		Key k = new Key(key);
+		if (this.isReset || this.entries.containsKey(k))
+			return;
+		try {
+			FileLock lock = this.index.lock();
+			try {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				while (header.hasRemaining()) {
+					if (this.index.read(header, header.position()) < 0)
+						break;
+				}
+				header.flip();
+				if (!hasCurrentHeader(header)) {
+					// a JVM with different options has reset the files, don't mix our entries into its cache:
+					this.isReset = true;
+					return;
+				}
+				long offset = this.data.size();
+				writeFully(this.data, ByteBuffer.wrap(wovenBytes), offset);
+				Entry entry = new Entry(offset, wovenBytes.length, checksum(wovenBytes));
+				ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+				buffer.put(key).putLong(entry.offset).putInt(entry.length).putInt(entry.checksum);
+				buffer.flip();
+				// overwrite any partial entry left by a JVM that crashed while appending:
+				long indexEnd = HEADER_SIZE + (this.index.size() - HEADER_SIZE) / ENTRY_SIZE * ENTRY_SIZE;
+				writeFully(this.index, buffer, indexEnd);
+				this.entries.put(k, entry);
+			} finally {
+				lock.release();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining())
+			position += channel.write(buffer, position);
+	}
+
+	private static int checksum(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Fingerprint of the OTDRE and of those configuration options that influence load-time weaving.
+	 * The OTDRE is identified by the location, size and time stamp of its code source.
+	 */
+	private static byte[] fingerprint() throws NoSuchAlgorithmException {
+		StringBuilder buf = new StringBuilder();
+		buf.append(AsmBoundClass.ASM_API);
+		CodeSource codeSource = WovenClassCache.class.getProtectionDomain().getCodeSource();
+		URL location = codeSource != null ? codeSource.getLocation() : null;
+		if (location != null) {
+			buf.append('|').append(location);
+			if ("file".equals(location.getProtocol())) {
+				File file = new File(location.getPath());
+				buf.append('|').append(file.length()).append('|').append(file.lastModified());
+			}
+		}
+		buf.append('|').append(System.getProperty("ot.implicit.team.activation"));
+		// presence of these flags is checked in AsmWritableBoundClass:
+		buf.append('|').append(System.getProperty("ot.dispatch.indy") != null);
+		buf.append('|').append(System.getProperty("ot.weaving.keepframes") != null);
+		return MessageDigest.getInstance("SHA-1").digest(buf.toString().getBytes(StandardCharsets.UTF_8));
+	}
+}
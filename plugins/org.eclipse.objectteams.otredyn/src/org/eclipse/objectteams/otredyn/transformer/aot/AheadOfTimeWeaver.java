@@ -0,0 +1,437 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.transformer.aot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.objectteams.otredyn.bytecode.AbstractBoundClass;
+import org.eclipse.objectteams.otredyn.bytecode.AbstractTeam;
+import org.eclipse.objectteams.otredyn.bytecode.ClassRepository;
+import org.eclipse.objectteams.otredyn.bytecode.IRedefineStrategy;
+import org.eclipse.objectteams.otredyn.bytecode.RedefineStrategyFactory;
+import org.eclipse.objectteams.otredyn.bytecode.asm.ClassHierarchyCache;
+import org.eclipse.objectteams.otredyn.runtime.AheadOfTimeBindings;
+import org.eclipse.objectteams.otredyn.runtime.ClassIdentifierProviderFactory;
+import org.eclipse.objectteams.otredyn.runtime.IBinding;
+import org.eclipse.objectteams.otredyn.runtime.IBoundClass;
+import org.eclipse.objectteams.otredyn.runtime.IMember;
+import org.eclipse.objectteams.otredyn.runtime.IMethod;
+import org.eclipse.objectteams.otredyn.runtime.TeamManager;
+import org.eclipse.objectteams.otredyn.transformer.jplis.ObjectTeamsTransformer;
+
+/**
+ * Weaves all classes of an application ahead of time, so that the application can be run
+ * without the OTDRE agent and without ASM, only requiring the OT/J runtime (<code>org.eclipse.objectteams.runtime</code>).
+ * <p>
+ * All class files of the input (directories and jars) are passed through the same transformations
+ * as performed during load-time weaving, in the following order:
+ * <ol>
+ * <li>all teams, superclasses first,</li>
+ * <li>all bindings of all teams are applied as if each team were activated before any base class is loaded,
+ * 		recording joinpoint ids and member ids in {@link AheadOfTimeBindings},</li>
+ * <li>all other classes, superclasses first (starting with the main class, if specified).</li>
+ * </ol>
+ * Weaving that would require redefinition of an already transformed class is applied to its bytes instead.
+ * The result is written to a directory or jar file, together with the recorded bindings as resource
+ * {@value AheadOfTimeBindings#RESOURCE_NAME}.
+ * </p><p>
+ * At runtime teams of the woven application can be activated and deactivated as usual.
+ * Callin bindings of teams that are not part of the input are ignored, since they have not been woven
+ * (reported on first activation of such a team).
+ * Global activation of teams as configured by <code>-Dot.teamconfig</code> can be woven into the main class
+ * by passing that property to the weaver, along with option <code>-main</code>.
+ * </p>
+ */
+public class AheadOfTimeWeaver {
+
+	private static final String USAGE =
+			"Usage: AheadOfTimeWeaver [-main <main class>] [-lib <path>] -out <directory or jar> <path>...\n"
+			+ "  <path>  directories and jars containing the classes to weave\n"
+			+ "  -lib    directories and jars needed for weaving, but not woven themselves\n"
+			+ "  -main   qualified name of the main class, to be woven first\n"
+			+ "  -out    where to write the woven classes, a jar if the name ends with .jar";
+
+	/** Doesn't redefine any classes, the woven bytes are fetched from the bytecode provider at the end. */
+	private static class OfflineRedefineStrategy implements IRedefineStrategy {
+		@Override
+		public void redefine(Class<?> clazz, byte[] bytecode) {
+			// nop
+		}
+		@Override
+		public boolean isOffline() {
+			return true;
+		}
+	}
+
+	/** One callin binding of a team, with the joinpoints it has been woven into. */
+	private static class CallinRecord {
+		final AheadOfTimeBindings.TeamBindings team;
+		final int callinId;
+		final Set<Integer> joinpointIds = new HashSet<>();
+		CallinRecord(AheadOfTimeBindings.TeamBindings team, int callinId) {
+			this.team = team;
+			this.callinId = callinId;
+		}
+	}
+
+	private final List<File> inputs;
+	private final List<File> libraries;
+	private @Nullable String mainClass;
+
+	// contents of the inputs, first occurrence wins like on a classpath:
+	private final Map<String, byte[]> classFiles = new LinkedHashMap<>(); // key is the internal class name
+	private final Map<String, byte[]> resources = new LinkedHashMap<>(); // key is the entry name
+	private final Set<String> unweavable = new HashSet<>();
+
+	/**
+	 * @param inputs directories and jars containing the classes to weave
+	 * @param libraries directories and jars needed for weaving, but not woven themselves
+	 */
+	public AheadOfTimeWeaver(List<File> inputs, List<File> libraries) {
+		this.inputs = inputs;
+		this.libraries = libraries;
+	}
+
+	/** Set the qualified name of the main class, which is woven first among all classes that are not teams. */
+	public void setMainClass(@Nullable String mainClass) {
+		this.mainClass = mainClass;
+	}
+
+	/**
+	 * Weave all classes of the inputs and write the result to the given directory or jar file.
+	 * Must be invoked at most once per JVM, which must not run the OTDRE agent.
+	 */
+	public void weave(File output) throws IOException, IllegalClassFormatException {
+		for (File input : this.inputs)
+			read(input);
+		RedefineStrategyFactory.setRedefineStrategy(new OfflineRedefineStrategy());
+
+		List<URL> urls = new ArrayList<>();
+		for (File file : this.inputs)
+			urls.add(file.toURI().toURL());
+		for (File file : this.libraries)
+			urls.add(file.toURI().toURL());
+		try (URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), AheadOfTimeWeaver.class.getClassLoader())) {
+			ObjectTeamsTransformer transformer = new ObjectTeamsTransformer();
+			ClassRepository repository = ClassRepository.getInstance();
+			List<String> classNames = superclassesFirst();
+
+			// 1. teams:
+			List<String> teamNames = new ArrayList<>();
+			for (String className : classNames) {
+				if (isTeam(repository, loader, className)) {
+					teamNames.add(className);
+					transform(transformer, loader, className);
+				}
+			}
+			// 2. bindings of all teams:
+			AheadOfTimeBindings bindings = new AheadOfTimeBindings();
+			List<CallinRecord> callins = new ArrayList<>();
+			for (String teamName : teamNames)
+				applyBindings(repository, loader, teamName, bindings, callins);
+			// 3. all other classes:
+			String main = this.mainClass;
+			if (main != null)
+				transform(transformer, loader, main.replace('.', '/'));
+			for (String className : classNames)
+				transform(transformer, loader, className); // no-op for classes transformed before
+
+			// joinpoints of subclasses are known only now:
+			for (CallinRecord callin : callins) {
+				Set<Integer> joinpointIds = new TreeSet<>();
+				for (Integer joinpointId : callin.joinpointIds)
+					for (int id : TeamManager.getJoinpointIdsIncludingSubJoinpoints(joinpointId))
+						joinpointIds.add(id);
+				int[] ids = new int[joinpointIds.size()];
+				int i = 0;
+				for (Integer id : joinpointIds)
+					ids[i++] = id;
+				callin.team.addCallin(callin.callinId, ids);
+			}
+			bindings.setJoinpointCount(TeamManager.getJoinpointCount());
+
+			write(output, repository, bindings);
+		}
+	}
+
+	private boolean isTeam(ClassRepository repository, ClassLoader loader, String className) {
+		if (!ObjectTeamsTransformer.isWeavable(className))
+			return false;
+		try {
+			return repository.getBoundClass(className.replace('/', '.'), className, loader).isTeam();
+		} catch (LinkageError e) {
+			// e.g., marker classes of the compiler, which are never loaded
+			System.err.println("OTDRE: Not weaving class "+className+": "+e.getMessage());
+			this.unweavable.add(className);
+			return false;
+		}
+	}
+
+	private void transform(ObjectTeamsTransformer transformer, ClassLoader loader, String className) throws IllegalClassFormatException {
+		byte[] bytes = this.classFiles.get(className);
+		if (bytes != null && !this.unweavable.contains(className))
+			transformer.transform(loader, className, className, null, bytes);
+	}
+
+	/**
+	 * Apply all bindings of the given team to their base classes,
+	 * mimicking {@link TeamManager#handleTeamLoaded(Class)} and {@link TeamManager#prepareTeamActivation(Class)}.
+	 */
+	private void applyBindings(ClassRepository repository, ClassLoader loader, String teamName,
+			AheadOfTimeBindings bindings, List<CallinRecord> callins)
+	{
+		AbstractTeam team = repository.getTeam(teamName.replace('/', '.'), teamName, loader);
+		AheadOfTimeBindings.TeamBindings teamBindings = bindings.addTeam(teamName.replace('/', '.'), team.getHighestAccessId());
+		Set<IBoundClass> baseClasses = new HashSet<>();
+		try {
+			for (IBinding binding : team.getBindings()) {
+				// as in TeamManager: use the declaring base class for static callins
+				String boundClassName = (binding.getType() == IBinding.BindingType.CALLIN_BINDING
+											&& (binding.getBaseFlags() & IBinding.STATIC_BASE) != 0)
+										? binding.getDeclaringBaseClassName() : binding.getBoundClass();
+				IBoundClass boundClass = repository.getBoundClass(boundClassName.replace('/', '.'), boundClassName.replace('.', '/'), loader);
+				if (!this.classFiles.containsKey(boundClassName.replace('.', '/')))
+					System.err.println("OTDRE: Base class "+boundClassName+" bound by team "+teamName+" is not woven");
+				if (baseClasses.add(boundClass))
+					boundClass.startTransaction();
+				switch (binding.getType()) {
+				case CALLIN_BINDING:
+					CallinRecord callin = new CallinRecord(teamBindings, binding.getPerTeamId());
+					applyCallinBinding(repository, binding, boundClass, callin);
+					callins.add(callin);
+					break;
+				case FIELD_ACCESS:
+				case METHOD_ACCESS:
+					IMember member = binding.getType() == IBinding.BindingType.FIELD_ACCESS
+							? boundClass.getField(binding.getMemberName(), binding.getMemberSignature())
+							: boundClass.getMethod(binding.getMemberName(), binding.getMemberSignature(), 0/*flags*/, false/*covariantReturn*/);
+					teamBindings.addAccess(binding.getPerTeamId(), member.getGlobalId(boundClass));
+					boundClass.handleAddingOfBinding(binding);
+					break;
+				case ROLE_BASE_BINDING:
+					boundClass.handleAddingOfBinding(binding);
+					break;
+				}
+			}
+		} finally {
+			for (IBoundClass base : baseClasses)
+				base.commitTransaction(null);
+		}
+	}
+
+	private void applyCallinBinding(ClassRepository repository, IBinding binding, IBoundClass boundClass, CallinRecord callin) {
+		IMethod method = boundClass.getMethod(binding.getMemberName(), binding.getMemberSignature(), binding.getBaseFlags(), binding.isHandleCovariantReturn());
+		callin.joinpointIds.add(TeamManager.getJoinpointId(boundClass.getMethodIdentifier(method)));
+		boundClass.handleAddingOfBinding(binding);
+		for (IBoundClass tsubBase : boundClass.getTSubsOfThis(repository, ClassIdentifierProviderFactory.getClassIdentifierProvider()))
+			applyCallinBinding(repository, binding, tsubBase, callin);
+	}
+
+	/** Answer the names of all classes of the inputs, ordered such that superclasses precede their subclasses. */
+	private List<String> superclassesFirst() {
+		List<String> result = new ArrayList<>(this.classFiles.size());
+		Set<String> visited = new HashSet<>();
+		for (String className : new TreeSet<>(this.classFiles.keySet()))
+			addSuperclassesFirst(className, visited, result);
+		return result;
+	}
+
+	private void addSuperclassesFirst(String className, Set<String> visited, List<String> result) {
+		// iterative, to cope with deep hierarchies:
+		List<String> chain = new ArrayList<>();
+		String current = className;
+		while (current != null && this.classFiles.containsKey(current) && visited.add(current)) {
+			chain.add(current);
+			try {
+				current = ClassHierarchyCache.analyze(this.classFiles.get(current)).getSuperClassName();
+			} catch (RuntimeException e) {
+				current = null; // not a valid class file, will be reported during transformation
+			}
+		}
+		for (int i = chain.size()-1; i >= 0; i--)
+			result.add(chain.get(i));
+	}
+
+	// ==== Input / Output ====
+
+	private void read(File input) throws IOException {
+		if (input.isDirectory()) {
+			Path root = input.toPath();
+			try (Stream<Path> paths = Files.walk(root)) {
+				for (Path path : (Iterable<Path>) paths::iterator) {
+					if (Files.isRegularFile(path))
+						add(root.relativize(path).toString().replace(File.separatorChar, '/'), Files.readAllBytes(path));
+				}
+			}
+		} else if (input.isFile()) {
+			try (JarFile jar = new JarFile(input)) {
+				Enumeration<JarEntry> entries = jar.entries();
+				while (entries.hasMoreElements()) {
+					JarEntry entry = entries.nextElement();
+					if (!entry.isDirectory()) {
+						try (InputStream stream = jar.getInputStream(entry)) {
+							add(entry.getName(), readAll(stream));
+						}
+					}
+				}
+			}
+		} else {
+			throw new IOException("No such file or directory: "+input);
+		}
+	}
+
+	private void add(String entryName, byte[] bytes) {
+		if (entryName.endsWith(".class") && !entryName.startsWith("META-INF/")) {
+			this.classFiles.putIfAbsent(entryName.substring(0, entryName.length()-".class".length()), bytes);
+		} else {
+			String upper = entryName.toUpperCase();
+			if (upper.startsWith("META-INF/")
+					&& (upper.endsWith(".SF") || upper.endsWith(".RSA") || upper.endsWith(".DSA") || upper.endsWith(".EC")))
+				return; // signatures no longer match after weaving
+			if (entryName.equals(AheadOfTimeBindings.RESOURCE_NAME))
+				return; // from a previous run
+			this.resources.putIfAbsent(entryName, bytes);
+		}
+	}
+
+	private static byte[] readAll(InputStream stream) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = stream.read(buffer)) != -1)
+			bytes.write(buffer, 0, n);
+		return bytes.toByteArray();
+	}
+
+	private void write(File output, ClassRepository repository, AheadOfTimeBindings bindings) throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		// keep the manifest in front, as expected by JarInputStream:
+		byte[] manifest = this.resources.remove(JarFile.MANIFEST_NAME);
+		if (manifest != null)
+			entries.put(JarFile.MANIFEST_NAME, manifest);
+		for (Map.Entry<String, byte[]> classFile : this.classFiles.entrySet()) {
+			byte[] bytes = classFile.getValue();
+			AbstractBoundClass clazz = repository.peekBoundClass(classFile.getKey());
+			if (clazz != null && clazz.isLoaded() && !this.unweavable.contains(classFile.getKey())) {
+				byte[] woven = clazz.getBytecode();
+				if (woven != null)
+					bytes = woven;
+			}
+			entries.put(classFile.getKey()+".class", bytes);
+		}
+		entries.putAll(this.resources);
+		ByteArrayOutputStream bindingsBytes = new ByteArrayOutputStream();
+		try (Writer writer = new OutputStreamWriter(bindingsBytes, StandardCharsets.UTF_8)) {
+			bindings.write(writer);
+		}
+		entries.put(AheadOfTimeBindings.RESOURCE_NAME, bindingsBytes.toByteArray());
+
+		if (output.getName().endsWith(".jar")) {
+			File parent = output.getAbsoluteFile().getParentFile();
+			if (parent != null)
+				parent.mkdirs();
+			try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(output))) {
+				Set<String> directories = new HashSet<>();
+				for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+					String name = entry.getKey();
+					for (int slash = name.indexOf('/'); slash != -1; slash = name.indexOf('/', slash+1))
+						if (directories.add(name.substring(0, slash+1)))
+							jar.putNextEntry(new JarEntry(name.substring(0, slash+1)));
+					jar.putNextEntry(new JarEntry(name));
+					jar.write(entry.getValue());
+				}
+			}
+		} else {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				File file = new File(output, entry.getKey().replace('/', File.separatorChar));
+				file.getParentFile().mkdirs();
+				try (OutputStream stream = new FileOutputStream(file)) {
+					stream.write(entry.getValue());
+				}
+			}
+		}
+	}
+
+	// ==== Command line ====
+
+	public static void main(String[] args) throws Exception {
+		List<File> inputs = new ArrayList<>();
+		List<File> libraries = new ArrayList<>();
+		String mainClass = null;
+		File output = null;
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			boolean hasValue = i+1 < args.length;
+			if ("-out".equals(arg) && hasValue)
+				output = new File(args[++i]);
+			else if ("-lib".equals(arg) && hasValue)
+				addPath(args[++i], libraries);
+			else if ("-main".equals(arg) && hasValue)
+				mainClass = args[++i];
+			else if (arg.startsWith("-"))
+				usage("Unknown option "+arg);
+			else
+				addPath(arg, inputs);
+		}
+		if (output == null || inputs.isEmpty())
+			usage(null);
+		AheadOfTimeWeaver weaver = new AheadOfTimeWeaver(inputs, libraries);
+		weaver.setMainClass(mainClass);
+		weaver.weave(output);
+	}
+
+	private static void addPath(String path, List<File> files) {
+		StringTokenizer tokens = new StringTokenizer(path, File.pathSeparator);
+		while (tokens.hasMoreTokens())
+			files.add(new File(tokens.nextToken()));
+	}
+
+	private static void usage(@Nullable String error) {
+		if (error != null)
+			System.err.println(error);
+		System.err.println(USAGE);
+		System.exit(1);
+	}
+}
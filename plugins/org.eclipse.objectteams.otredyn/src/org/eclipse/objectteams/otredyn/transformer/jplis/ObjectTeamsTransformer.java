@@ -24,13 +24,14 @@ import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.security.ProtectionDomain;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.objectteams.otredyn.bytecode.AbstractBoundClass;
 import org.eclipse.objectteams.otredyn.bytecode.ClassRepository;
 import org.eclipse.objectteams.otredyn.bytecode.asm.MarkAsStepOverAdapter;
 import org.eclipse.objectteams.otredyn.bytecode.asm.WeavableRegionReader;
+import org.eclipse.objectteams.otredyn.runtime.RuntimeMetrics;
 import org.eclipse.objectteams.otredyn.transformer.IWeavingContext;
 import org.eclipse.objectteams.runtime.IReweavingTask;
 
@@ -51,7 +52,7 @@ public class ObjectTeamsTransformer implements ClassFileTransformer {
 
 	private IWeavingContext weavingContext;
 	
-	private Set<@NonNull String> boundBaseClassNames = new HashSet<>();
+	private volatile Set<@NonNull String> boundBaseClassNames = ConcurrentHashMap.newKeySet();
 
 	public ObjectTeamsTransformer() {
 		this.weavingContext = new IWeavingContext() {
@@ -137,6 +138,7 @@ if (PWR_DEBUG) System.out.println("\tweave1");
 if (PWR_DEBUG) System.out.println("\tweave2");
 				return null;
 			}
+			long start = RuntimeMetrics.ENABLED ? System.nanoTime() : 0L;
 			try {
 				clazz.startTransaction();
 				clazz = classRepo.getBoundClass(
@@ -156,6 +158,8 @@ if (PWR_DEBUG) System.out.println("\tweave"+e);
 			} finally {
 				clazz.commitTransaction(classBeingRedefined);
 			}
+			if (RuntimeMetrics.ENABLED)
+				RuntimeMetrics.classWoven(sourceClassName, System.nanoTime()-start);
 		}
 if (PWR_DEBUG) System.out.println("\tweave3");
 		clazz.dump(classfileBuffer, "initial");
@@ -168,6 +172,8 @@ if (PWR_DEBUG) System.out.println("\tweave3");
 	}
 
 	public static boolean isWeavable(String className) {
+		if (RuntimeMetrics.ENABLED && isMetricsInfrastructure(className))
+			return false;
 		switch(className.charAt(0)) {
 		case 'o':
 			if (   className.startsWith("org/eclipse/objectteams/otre") // incl. otredyn
@@ -208,6 +214,21 @@ if (PWR_DEBUG) System.out.println("\tweave3");
 		}
 		return true;
 	}
+
+	/**
+	 * When {@link RuntimeMetrics} are enabled, the JDK's JMX and JFR infrastructure is used for publishing them,
+	 * woven classes of which could not access the OTDRE from their named modules.
+	 * This includes dynamic proxies in named modules (see case '$' in {@link #isWeavable(String)}).
+	 */
+	private static boolean isMetricsInfrastructure(String className) {
+		return className.contains("/$Proxy")
+				|| className.startsWith("sun/management")
+				|| className.startsWith("com/sun/jmx")
+				|| className.startsWith("com/sun/management")
+				|| className.startsWith("jdk/management")
+				|| className.startsWith("javax/management")
+				|| className.startsWith("jdk/internal/event"); // JFR events, instrumented by JFR itself
+	}
 	
 	/** Parse the bytecode of the given class, so we are able to answer {@link #fetchAdaptedBases()} afterwards. */
 	public void readOTAttributes(String className, String classId, InputStream inputStream, ClassLoader loader) throws ClassFormatError, IOException {		
@@ -246,7 +267,7 @@ if (PWR_DEBUG) System.out.println("\tweave3");
 		try {
 			return this.boundBaseClassNames;
 		} finally {
-			this.boundBaseClassNames = new HashSet<>();
+			this.boundBaseClassNames = ConcurrentHashMap.newKeySet();
 		}
 	}
 }
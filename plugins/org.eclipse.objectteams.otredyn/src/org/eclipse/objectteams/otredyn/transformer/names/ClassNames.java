@@ -20,6 +20,8 @@ package org.eclipse.objectteams.otredyn.transformer.names;
 import java.util.HashSet;
 import java.util.List;
 
+import org.eclipse.objectteams.otredyn.runtime.RuntimeMetrics;
+
 import org.objectteams.IBoundBase2;
 import org.objectteams.ILiftingParticipant;
 import org.objectteams.ITeam;
@@ -41,6 +43,8 @@ public abstract class ClassNames {
 	public final static String CLASS_SLASH = Class.class.getName().replace('.', '/');
 	public final static String I_BOUND_BASE_DOT = IBoundBase2.class.getName();
 	public final static String TEAM_MANAGER_SLASH = "org/eclipse/objectteams/otredyn/runtime/TeamManager"; // don't touch special class TeamManager, which is woven itself
+	public final static String JOINPOINT_CALL_SITES_SLASH = "org/eclipse/objectteams/otredyn/runtime/JoinpointCallSites";
+	public final static String RUNTIME_METRICS_SLASH = RuntimeMetrics.class.getName().replace('.', '/');
 	public final static String ITEAM_SLASH = ITeam.class.getName().replace('.', '/');
 	public final static String TEAM_SLASH = Team.class.getName().replace('.', '/');
 	public final static String LIST_SLASH = List.class.getName().replace('.', '/');
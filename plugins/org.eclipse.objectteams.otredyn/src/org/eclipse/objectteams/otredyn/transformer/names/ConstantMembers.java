@@ -42,6 +42,10 @@ public abstract class ConstantMembers {
 					new String[] { Types.INT,
 							Types.getAsArrayType(ClassNames.OBJECT_SLASH) }));
 
+	public static final Method callOrigDirect = new Method("_OT$callOrigDirect", Types
+			.getTypeStringForMethod(Types.LONG,
+					new String[] { Types.INT, Types.INT, Types.LONG, Types.LONG, Types.LONG }));
+
 	public static final Method callOrigStatic = new Method(
 			"_OT$callOrigStatic",
 			Types.getTypeStringForMethod(Types
@@ -79,6 +83,13 @@ public abstract class ConstantMembers {
 					Types.getAsArrayType(Types.INT), Types.INT,
 					Types.getAsArrayType(ClassNames.OBJECT_SLASH) }));
 
+	public static final Method callAllBindingsDirect = new Method(
+			"_OT$callAllBindingsDirect", Types.getTypeStringForMethod(Types.LONG, new String[] {
+					Types.getAsInternalType(ClassNames.I_BOUND_BASE_SLASH),
+					Types.getAsArrayType(ClassNames.OBJECT_SLASH), Types.INT, Types.INT,
+					Types.LONG, Types.LONG, Types.LONG }),
+			true, Opcodes.ACC_PUBLIC);
+
 	public static final Method access = new Method("_OT$access", Types
 			.getTypeStringForMethod(Types.getAsInternalType(ClassNames.OBJECT_SLASH),
 					new String[] { Types.INT, Types.INT,
@@ -95,6 +106,16 @@ public abstract class ConstantMembers {
 			.getTypeStringForMethod(Types.getAsArrayType(ClassNames.OBJECT_SLASH),
 					new String[] { Types.INT }));
 
+	// invokedynamic guard answering whether any team is registered for a joinpoint, and its bootstrap method in JoinpointCallSites:
+	public static final Method hasTeams = new Method("_OT$hasTeams", Types
+			.getTypeStringForMethod(Types.BOOLEAN, new String[0]));
+
+	public static final Method joinpointCallSiteBootstrap = new Method("bootstrap", Types
+			.getTypeStringForMethod("Ljava/lang/invoke/CallSite;",
+					new String[] { "Ljava/lang/invoke/MethodHandles$Lookup;",
+							"Ljava/lang/String;",
+							"Ljava/lang/invoke/MethodType;", Types.INT }));
+
 	public static final Method getMemberId = new Method("getMemberId", Types
 			.getTypeStringForMethod(Types.INT, new String[] { Types.INT,
 					Types.getAsInternalType(ClassNames.CLASS_SLASH) }));
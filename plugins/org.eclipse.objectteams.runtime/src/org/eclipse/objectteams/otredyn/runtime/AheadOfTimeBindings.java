@@ -0,0 +1,203 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.runtime;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+
+/**
+ * Ids of all joinpoints and decapsulated members of an application that has been woven ahead of time.
+ * <p>
+ * Woven code embeds joinpoint ids and member ids, which are assigned during weaving.
+ * When weaving ahead of time, these ids are recorded per team, so that at runtime the {@link TeamManager}
+ * can register and unregister teams without any weaver being present (see {@link TeamManager#handleTeamLoaded(Class)}).
+ * The bindings are read from the file given by the system property <code>ot.aot.bindings</code>,
+ * or else from the resource {@value #RESOURCE_NAME} as found by the system class loader.
+ * </p><p>
+ * The file format is line based:
+ * <pre>
+ * # OTDRE ahead-of-time bindings, version 1
+ * joinpoints &lt;number of joinpoints&gt;
+ * team &lt;qualified team name&gt; &lt;highest access id&gt;
+ * callin &lt;callin id&gt; &lt;joinpoint id&gt; ...
+ * access &lt;access id&gt; &lt;member id&gt;
+ * </pre>
+ * where <code>callin</code> and <code>access</code> lines belong to the preceding <code>team</code> line,
+ * and each callin lists the joinpoints of the bound base method plus those of all overriding methods.
+ * </p>
+ */
+public class AheadOfTimeBindings {
+
+	public static final String RESOURCE_NAME = "META-INF/objectteams/aot-bindings.txt";
+	private static final String FILE_PROPERTY = "ot.aot.bindings";
+
+	private static final String HEADER = "# OTDRE ahead-of-time bindings, version 1";
+	private static final String JOINPOINTS = "joinpoints";
+	private static final String TEAM = "team";
+	private static final String CALLIN = "callin";
+	private static final String ACCESS = "access";
+
+	/** The recorded ids of one team class. */
+	public static class TeamBindings {
+		final int highestAccessId;
+		// per callin binding: callin id followed by all joinpoint ids
+		final List<int[]> callins = new ArrayList<int[]>();
+		// pairs of access id and member id
+		final List<int[]> accesses = new ArrayList<int[]>();
+
+		TeamBindings(int highestAccessId) {
+			this.highestAccessId = highestAccessId;
+		}
+
+		/** Record a callin binding of this team affecting the given joinpoints. */
+		public void addCallin(int callinId, int[] joinpointIds) {
+			int[] entry = new int[joinpointIds.length+1];
+			entry[0] = callinId;
+			System.arraycopy(joinpointIds, 0, entry, 1, joinpointIds.length);
+			this.callins.add(entry);
+		}
+
+		/** Record a decapsulation binding of this team. */
+		public void addAccess(int accessId, int memberId) {
+			this.accesses.add(new int[] { accessId, memberId });
+		}
+	}
+
+	private int joinpointCount;
+	// key is the qualified (dot-separated) team name
+	private final Map<String, TeamBindings> teams = new HashMap<String, TeamBindings>();
+
+	/** Create empty bindings, to be filled during weaving. */
+	public AheadOfTimeBindings() {
+	}
+
+	/**
+	 * Read the bindings of the current application.
+	 * @return the bindings, or null if the application has not been woven ahead of time.
+	 */
+	static AheadOfTimeBindings load() {
+		String fileName = System.getProperty(FILE_PROPERTY);
+		try {
+			InputStream stream;
+			if (fileName != null) {
+				stream = new FileInputStream(new File(fileName));
+			} else {
+				URL url = ClassLoader.getSystemResource(RESOURCE_NAME);
+				if (url == null)
+					return null;
+				stream = url.openStream();
+			}
+			try {
+				return read(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+			} finally {
+				stream.close();
+			}
+		} catch (IOException e) {
+			System.err.println("OTDRE: Failed to read ahead-of-time bindings: "+e);
+			return null;
+		}
+	}
+
+	private static AheadOfTimeBindings read(BufferedReader reader) throws IOException {
+		if (!HEADER.equals(reader.readLine()))
+			throw new IOException("Unsupported format");
+		AheadOfTimeBindings bindings = new AheadOfTimeBindings();
+		TeamBindings current = null;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			StringTokenizer tokens = new StringTokenizer(line);
+			if (!tokens.hasMoreTokens())
+				continue;
+			String kind = tokens.nextToken();
+			if (JOINPOINTS.equals(kind)) {
+				bindings.joinpointCount = Integer.parseInt(tokens.nextToken());
+			} else if (TEAM.equals(kind)) {
+				String teamName = tokens.nextToken();
+				current = bindings.addTeam(teamName, Integer.parseInt(tokens.nextToken()));
+			} else if (current != null && (CALLIN.equals(kind) || ACCESS.equals(kind))) {
+				int[] ids = new int[tokens.countTokens()];
+				for (int i = 0; i < ids.length; i++)
+					ids[i] = Integer.parseInt(tokens.nextToken());
+				if (CALLIN.equals(kind))
+					current.callins.add(ids);
+				else if (ids.length == 2)
+					current.accesses.add(ids);
+			}
+		}
+		return bindings;
+	}
+
+	/** Write these bindings in the format expected by {@link #load()}. */
+	public void write(Writer writer) throws IOException {
+		writer.append(HEADER).append('\n');
+		writer.append(JOINPOINTS).append(' ').append(String.valueOf(this.joinpointCount)).append('\n');
+		for (Map.Entry<String, TeamBindings> entry : new TreeMap<String, TeamBindings>(this.teams).entrySet()) {
+			TeamBindings bindings = entry.getValue();
+			writer.append(TEAM).append(' ').append(entry.getKey())
+				.append(' ').append(String.valueOf(bindings.highestAccessId)).append('\n');
+			for (int[] callin : bindings.callins) {
+				writer.append(CALLIN);
+				for (int id : callin)
+					writer.append(' ').append(String.valueOf(id));
+				writer.append('\n');
+			}
+			for (int[] access : bindings.accesses)
+				writer.append(ACCESS).append(' ').append(String.valueOf(access[0]))
+					.append(' ').append(String.valueOf(access[1])).append('\n');
+		}
+		writer.flush();
+	}
+
+	/** Set the number of joinpoint ids that have been assigned during weaving. */
+	public void setJoinpointCount(int joinpointCount) {
+		this.joinpointCount = joinpointCount;
+	}
+
+	int getJoinpointCount() {
+		return this.joinpointCount;
+	}
+
+	/**
+	 * Add an entry for the given team class.
+	 * @param teamName qualified (dot-separated) name of the team
+	 * @param highestAccessId highest access id used by the team
+	 */
+	public TeamBindings addTeam(String teamName, int highestAccessId) {
+		TeamBindings bindings = new TeamBindings(highestAccessId);
+		this.teams.put(teamName, bindings);
+		return bindings;
+	}
+
+	/** Answer the entry for the given team class, or null if the team has not been woven ahead of time. */
+	TeamBindings getTeam(String teamName) {
+		return this.teams.get(teamName);
+	}
+}
@@ -0,0 +1,113 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.runtime;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A JFR event type defined at runtime, used by {@link RuntimeMetrics}.
+ * <p>
+ * Since this bundle must run on Java 8, the JFR API (<code>jdk.jfr.EventFactory</code>) is accessed reflectively.
+ * Fields with a name ending in "Time" are declared as time spans in nanoseconds.
+ * </p>
+ */
+class JfrEventType {
+
+	private static final String JFR = "jdk.jfr.";
+	private static final String TIMESPAN_SUFFIX = "Time";
+
+	private final Object factory;
+	private final Object eventType;
+	private final Method isEnabled;
+	private final Method newEvent;
+	private final Method shouldCommit;
+	private final Method set;
+	private final Method commit;
+
+	private JfrEventType(Object factory) throws ReflectiveOperationException {
+		this.factory = factory;
+		Class<?> factoryClass = jfrClass("EventFactory");
+		this.eventType = factoryClass.getMethod("getEventType").invoke(factory);
+		this.isEnabled = jfrClass("EventType").getMethod("isEnabled");
+		this.newEvent = factoryClass.getMethod("newEvent");
+		Class<?> eventClass = jfrClass("Event");
+		this.shouldCommit = eventClass.getMethod("shouldCommit");
+		this.set = eventClass.getMethod("set", int.class, Object.class);
+		this.commit = eventClass.getMethod("commit");
+	}
+
+	/**
+	 * Define and register a new event type in category "Object Teams".
+	 * @return the event type, or null if JFR is not available
+	 */
+	static JfrEventType define(String name, String label, String[] fieldNames, Class<?>[] fieldTypes) {
+		try {
+			Class<?> annotationElement = jfrClass("AnnotationElement");
+			Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+			List<Object> annotations = new ArrayList<Object>();
+			annotations.add(newAnnotation.newInstance(jfrClass("Name"), name));
+			annotations.add(newAnnotation.newInstance(jfrClass("Label"), label));
+			annotations.add(newAnnotation.newInstance(jfrClass("Category"), new String[] { "Object Teams" }));
+			annotations.add(newAnnotation.newInstance(jfrClass("StackTrace"), Boolean.FALSE));
+
+			Constructor<?> newField = jfrClass("ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+			List<Object> fields = new ArrayList<Object>();
+			for (int i = 0; i < fieldNames.length; i++) {
+				List<Object> fieldAnnotations = fieldNames[i].endsWith(TIMESPAN_SUFFIX)
+						? Collections.singletonList(newAnnotation.newInstance(jfrClass("Timespan"), "NANOSECONDS"))
+						: Collections.emptyList();
+				fields.add(newField.newInstance(fieldTypes[i], fieldNames[i], fieldAnnotations));
+			}
+			Object factory = jfrClass("EventFactory").getMethod("create", List.class, List.class)
+					.invoke(null, annotations, fields);
+			return new JfrEventType(factory);
+		} catch (ClassNotFoundException e) {
+			return null; // JFR not available
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			System.err.println("OTDRE: Failed to define JFR event "+name+": "+e);
+			return null;
+		}
+	}
+
+	private static Class<?> jfrClass(String simpleName) throws ClassNotFoundException {
+		return Class.forName(JFR+simpleName, false, ClassLoader.getSystemClassLoader());
+	}
+
+	/**
+	 * Commit one event with the given field values, if events of this type are currently recorded.
+	 * If no recording is enabled for this type, no event is allocated.
+	 */
+	void commit(Object... values) {
+		try {
+			if (!((Boolean) this.isEnabled.invoke(this.eventType)).booleanValue())
+				return;
+			Object event = this.newEvent.invoke(this.factory);
+			if (!((Boolean) this.shouldCommit.invoke(event)).booleanValue())
+				return;
+			for (int i = 0; i < values.length; i++)
+				this.set.invoke(event, i, values[i]);
+			this.commit.invoke(event);
+		} catch (ReflectiveOperationException e) {
+			// not expected after successful definition, ignore
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.runtime;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+
+/**
+ * Call sites used by base methods that are woven with an invokedynamic guard
+ * (enabled by <code>-Dot.dispatch.indy</code>).
+ * <p>
+ * For each joinpoint one {@link MutableCallSite} of type <code>()Z</code> is shared by all invokedynamic
+ * instructions of that joinpoint. Its target is a constant answering whether any team is registered
+ * for the joinpoint. As long as no team is registered the JIT sees a constant <code>false</code> and
+ * can compile the guarded base method down to its original code.
+ * </p><p>
+ * The {@link TeamManager} relinks the call site whenever the set of teams for a joinpoint
+ * changes between empty and non-empty. Filtering of teams that are not active for the current thread
+ * still happens in {@link TeamManager#getTeamsAndCallinIds(int)}.
+ * </p>
+ */
+public class JoinpointCallSites {
+
+	private static final MethodType HAS_TEAMS_TYPE = MethodType.methodType(boolean.class);
+
+	// indexed by joinpointId, null if no invokedynamic has been linked for the joinpoint.
+	// synchronization: all accesses are protected using the JoinpointCallSites class object as the monitor.
+	private static MutableCallSite[] callSites = new MutableCallSite[64];
+	private static boolean[] states = new boolean[64];
+
+	/**
+	 * Bootstrap method for the invokedynamic guard of a woven base method.
+	 * This method is intended to be called by the JVM when linking generated client code.
+	 * @param lookup unused
+	 * @param name unused
+	 * @param type must be <code>()Z</code>
+	 * @param joinpointId the joinpoint of the woven base method
+	 * @return the call site shared by all guards of the given joinpoint
+	 */
+	public static CallSite bootstrap(MethodHandles.Lookup lookup, String name, MethodType type, int joinpointId) {
+		if (!HAS_TEAMS_TYPE.equals(type))
+			throw new IllegalArgumentException("Unexpected type for joinpoint call site: "+type);
+		synchronized (JoinpointCallSites.class) {
+			ensureCapacity(joinpointId);
+			MutableCallSite site = callSites[joinpointId];
+			if (site == null) {
+				boolean hasTeams = TeamManager.hasTeams(joinpointId);
+				site = new MutableCallSite(MethodHandles.constant(boolean.class, hasTeams));
+				callSites[joinpointId] = site;
+				states[joinpointId] = hasTeams;
+			}
+			return site;
+		}
+	}
+
+	/**
+	 * Relink the call site of the given joinpoint (if any) to answer the given state.
+	 * Called by the {@link TeamManager} after the teams of a joinpoint have changed.
+	 */
+	static synchronized void update(int joinpointId, boolean hasTeams) {
+		if (joinpointId >= callSites.length)
+			return;
+		MutableCallSite site = callSites[joinpointId];
+		if (site == null || states[joinpointId] == hasTeams)
+			return;
+		site.setTarget(MethodHandles.constant(boolean.class, hasTeams));
+		states[joinpointId] = hasTeams;
+		// make the new target visible to threads already executing compiled code of the guarded methods:
+		MutableCallSite.syncAll(new MutableCallSite[] { site });
+	}
+
+	private static void ensureCapacity(int joinpointId) {
+		int len = callSites.length;
+		if (joinpointId < len)
+			return;
+		int newLen = Math.max(joinpointId+1, len*2);
+		System.arraycopy(callSites, 0, callSites = new MutableCallSite[newLen], 0, len);
+		System.arraycopy(states, 0, states = new boolean[newLen], 0, len);
+	}
+}
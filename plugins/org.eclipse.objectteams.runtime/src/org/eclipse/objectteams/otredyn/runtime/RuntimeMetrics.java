@@ -0,0 +1,256 @@
+/**********************************************************************
+ * This file is part of "Object Teams Dynamic Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otredyn.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
+
+import org.objectteams.ITeam;
+
+/**
+ * Counters and histograms describing the work of the OTDRE, enabled by <code>-Dot.metrics=true</code>.
+ * <p>
+ * When enabled, the metrics are published as the MXBean {@value #OBJECT_NAME} (see {@link RuntimeMetricsMXBean}),
+ * and each weaving and each redefinition is additionally reported as a JFR event
+ * (<code>org.eclipse.objectteams.ClassWoven</code>, <code>org.eclipse.objectteams.ClassesRedefined</code>),
+ * if the JVM supports JFR.
+ * Both are initialized asynchronously when this class is first used, so JFR events for classes woven during startup may be missing.
+ * </p><p>
+ * While enabled, the JMX and JFR infrastructure of the JDK is excluded from weaving (see <code>ObjectTeamsTransformer.isWeavable()</code>).
+ * </p><p>
+ * When disabled, all probes are guarded by the constant {@link #ENABLED}, so the JIT removes them entirely,
+ * and no probes are woven into lifting methods.
+ * </p>
+ */
+public class RuntimeMetrics {
+
+	/** Are metrics enabled? Callers must check this flag before invoking any of the probes below. */
+	public static final boolean ENABLED = Boolean.getBoolean("ot.metrics");
+
+	public static final String OBJECT_NAME = "org.eclipse.objectteams:type=RuntimeMetrics";
+
+	/**
+	 * A histogram with buckets of exponentially growing size:
+	 * bucket 0 counts the value 0, bucket <code>i</code> counts values in the range <code>[2^(i-1), 2^i)</code>.
+	 */
+	public static class Histogram {
+		private static final int BUCKETS = 32;
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder total = new LongAdder();
+		private final AtomicLong max = new AtomicLong();
+		private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+		Histogram() {
+			for (int i = 0; i < BUCKETS; i++)
+				this.buckets[i] = new LongAdder();
+		}
+
+		void record(long value) {
+			this.count.increment();
+			this.total.add(value);
+			if (value > this.max.get())
+				this.max.accumulateAndGet(value, Math::max);
+			this.buckets[Math.min(BUCKETS-1, 64-Long.numberOfLeadingZeros(value))].increment();
+		}
+
+		void reset() {
+			this.count.reset();
+			this.total.reset();
+			this.max.set(0);
+			for (LongAdder bucket : this.buckets)
+				bucket.reset();
+		}
+
+		/** Number of recorded values. */
+		public long getCount() {
+			return this.count.sum();
+		}
+
+		/** Sum of all recorded values. */
+		public long getTotal() {
+			return this.total.sum();
+		}
+
+		/** Largest recorded value. */
+		public long getMax() {
+			return this.max.get();
+		}
+
+		/** Number of recorded values per bucket. */
+		public long[] getBuckets() {
+			long[] result = new long[BUCKETS];
+			for (int i = 0; i < BUCKETS; i++)
+				result[i] = this.buckets[i].sum();
+			return result;
+		}
+	}
+
+	private static final LongAdder classesWoven = new LongAdder();
+	private static final Histogram weavingTime = new Histogram();
+	private static final LongAdder redefinedClasses = new LongAdder();
+	private static final Histogram redefinitionTime = new Histogram();
+	private static final LongAdder callinDispatches = new LongAdder();
+	private static final Histogram activeTeamsPerDispatch = new Histogram();
+	private static final LongAdder liftingCalls = new LongAdder();
+	private static final LongAdder rolesCreatedByLifting = new LongAdder();
+
+	// set during initialize(), events are not reported before:
+	private static volatile JfrEventType classWovenEvent;
+	private static volatile JfrEventType classesRedefinedEvent;
+
+	static {
+		if (ENABLED) {
+			// this class is typically initialized during weaving, so initialize JFR and JMX from a separate thread
+			// to avoid circular class loading while the current thread is still transforming a class:
+			Thread initialization = new Thread(RuntimeMetrics::initialize, "OTDRE metrics initialization");
+			initialization.setDaemon(true);
+			initialization.start();
+		}
+	}
+
+	private static void initialize() {
+		classWovenEvent = JfrEventType.define("org.eclipse.objectteams.ClassWoven", "Class Woven",
+				new String[] { "className", "weavingTime" }, new Class<?>[] { String.class, long.class });
+		classesRedefinedEvent = JfrEventType.define("org.eclipse.objectteams.ClassesRedefined", "Classes Redefined",
+				new String[] { "classCount", "redefinitionTime" }, new Class<?>[] { int.class, long.class });
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBeanImpl(), new ObjectName(OBJECT_NAME));
+		} catch (Exception | LinkageError e) {
+			// LinkageError: on Java 9+ woven classes of module java.management need --add-reads java.management=ALL-UNNAMED
+			System.err.println("OTDRE: Failed to register runtime metrics: "+e);
+		}
+	}
+
+	/**
+	 * Record that the given class has been transformed at load time.
+	 * @param className name of the woven class
+	 * @param nanos duration of the transformation
+	 */
+	public static void classWoven(String className, long nanos) {
+		classesWoven.increment();
+		weavingTime.record(nanos/1000);
+		JfrEventType event = classWovenEvent;
+		if (event != null)
+			event.commit(className, nanos);
+	}
+
+	/**
+	 * Record that already loaded classes have been redefined.
+	 * @param count number of classes that have been redefined in one go
+	 * @param nanos duration of the redefinition
+	 */
+	public static void classesRedefined(int count, long nanos) {
+		redefinedClasses.add(count);
+		redefinitionTime.record(nanos/1000);
+		JfrEventType event = classesRedefinedEvent;
+		if (event != null)
+			event.commit(count, nanos);
+	}
+
+	/** Record a dispatch as answered by {@link TeamManager#getTeamsAndCallinIds(int)}. */
+	static void callinDispatch(Object[] teamsAndCallinIds) {
+		if (teamsAndCallinIds == null)
+			return;
+		callinDispatches.increment();
+		activeTeamsPerDispatch.record(((ITeam[]) teamsAndCallinIds[0]).length);
+	}
+
+	/**
+	 * Record the invocation of a lifting method.
+	 * This method is intended to be called by generated client code.
+	 */
+	public static void liftingCall() {
+		liftingCalls.increment();
+	}
+
+	/**
+	 * Record that a lifting method did not find a role in its cache and is about to create a new role.
+	 * This method is intended to be called by generated client code.
+	 */
+	public static void roleCreatedByLifting() {
+		rolesCreatedByLifting.increment();
+	}
+
+	/** Published view of the metrics. */
+	public interface RuntimeMetricsMXBean {
+		/** Number of classes that have been transformed at load time. */
+		long getClassesWoven();
+		/** Duration of load-time transformations in microseconds. */
+		Histogram getWeavingTimeMicros();
+		/** Number of classes that have been redefined after loading (counting each redefinition). */
+		long getRedefinedClasses();
+		/** Duration of redefinitions in microseconds (one value per batch of redefined classes). */
+		Histogram getRedefinitionTimeMicros();
+		/** Number of joinpoints known to the runtime. */
+		int getJoinpoints();
+		/** Number of calls to woven base methods that were dispatched to at least one active team. */
+		long getCallinDispatches();
+		/** Number of active teams per dispatch. */
+		Histogram getActiveTeamsPerDispatch();
+		/** Number of invocations of lifting methods. */
+		long getLiftingCalls();
+		/** Number of roles created by lifting, i.e., the misses of the role caches. */
+		long getLiftingCacheMisses();
+		/** Number of invocations of lifting methods that answered an existing role (or null). */
+		long getLiftingCacheHits();
+		/** Number of roles per team that is currently registered for any joinpoint, keyed by class name and identity of the team. */
+		Map<String, Integer> getRoleCacheSizes();
+		/** Reset all counters and histograms. */
+		void reset();
+	}
+
+	private static class MXBeanImpl implements RuntimeMetricsMXBean {
+		@Override public long getClassesWoven()					{ return classesWoven.sum(); }
+		@Override public Histogram getWeavingTimeMicros()		{ return weavingTime; }
+		@Override public long getRedefinedClasses()				{ return redefinedClasses.sum(); }
+		@Override public Histogram getRedefinitionTimeMicros()	{ return redefinitionTime; }
+		@Override public int getJoinpoints()					{ return TeamManager.getJoinpointCount(); }
+		@Override public long getCallinDispatches()				{ return callinDispatches.sum(); }
+		@Override public Histogram getActiveTeamsPerDispatch()	{ return activeTeamsPerDispatch; }
+		@Override public long getLiftingCalls()					{ return liftingCalls.sum(); }
+		@Override public long getLiftingCacheMisses()			{ return rolesCreatedByLifting.sum(); }
+		@Override public long getLiftingCacheHits()				{ return Math.max(0, liftingCalls.sum() - rolesCreatedByLifting.sum()); }
+
+		@Override
+		public Map<String, Integer> getRoleCacheSizes() {
+			Map<String, Integer> result = new TreeMap<String, Integer>();
+			for (ITeam registered : TeamManager.getRegisteredTeams())
+				result.put(registered.getClass().getName()+'@'+Integer.toHexString(System.identityHashCode(registered)),
+						registered.getAllRoles().length);
+			return result;
+		}
+
+		@Override
+		public void reset() {
+			classesWoven.reset();
+			weavingTime.reset();
+			redefinedClasses.reset();
+			redefinitionTime.reset();
+			callinDispatches.reset();
+			activeTeamsPerDispatch.reset();
+			liftingCalls.reset();
+			rolesCreatedByLifting.reset();
+		}
+	}
+}
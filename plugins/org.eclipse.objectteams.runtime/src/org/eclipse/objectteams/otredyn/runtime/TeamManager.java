@@ -19,15 +19,19 @@
 package org.eclipse.objectteams.otredyn.runtime;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.objectteams.ITeam;
 import org.objectteams.ITeamManager;
 import org.objectteams.Team;
+import org.objectteams.TeamThreadManager;
 
 /**
  * This class administrates the the active teams and their
@@ -42,17 +46,124 @@ import org.objectteams.Team;
 public class TeamManager implements ITeamManager {
 
 	//	void handleTeamStateChange(ITeam t, TeamStateChange stateChange) ;
-	private static List<List<ITeam>> _teams = new ArrayList<List<ITeam>>();
-	private static List<List<Integer>> _callinIds = new ArrayList<List<Integer>>();
+
+	/**
+	 * Immutable snapshot of the teams registered for one joinpoint, plus their callin ids.
+	 * Both arrays have the same length and must never be modified after publication.
+	 */
+	static final class JoinpointTeams {
+		static final JoinpointTeams EMPTY = new JoinpointTeams(new ITeam[0], new int[0]);
+
+		final ITeam[] teams;
+		final int[] callinIds;
+		/** Pre-built result of {@link TeamManager#getTeamsAndCallinIds(int)} for the case that all teams are active. */
+		final Object[] teamsAndCallinIds;
+
+		JoinpointTeams(ITeam[] teams, int[] callinIds) {
+			this.teams = teams;
+			this.callinIds = callinIds;
+			this.teamsAndCallinIds = new Object[] { teams, callinIds };
+		}
+
+		int indexOf(ITeam t, int start) {
+			for (int i = start; i < this.teams.length; i++)
+				if (this.teams[i] == t)
+					return i;
+			return -1;
+		}
+
+		/** Answer a new snapshot with the given team and callin id prepended. */
+		JoinpointTeams prepend(ITeam t, int callinId) {
+			int len = this.teams.length;
+			ITeam[] newTeams = new ITeam[len+1];
+			int[] newIds = new int[len+1];
+			newTeams[0] = t;
+			newIds[0] = callinId;
+			System.arraycopy(this.teams, 0, newTeams, 1, len);
+			System.arraycopy(this.callinIds, 0, newIds, 1, len);
+			return new JoinpointTeams(newTeams, newIds);
+		}
+
+		/** Answer a snapshot without any entries for the given team (may be this if t is not contained). */
+		JoinpointTeams without(ITeam t) {
+			int len = this.teams.length;
+			ITeam[] newTeams = new ITeam[len];
+			int[] newIds = new int[len];
+			int count = 0;
+			for (int i = 0; i < len; i++) {
+				if (this.teams[i] != t) {
+					newTeams[count] = this.teams[i];
+					newIds[count++] = this.callinIds[i];
+				}
+			}
+			if (count == len)
+				return this;
+			if (count == 0)
+				return EMPTY;
+			System.arraycopy(newTeams, 0, newTeams = new ITeam[count], 0, count);
+			System.arraycopy(newIds, 0, newIds = new int[count], 0, count);
+			return new JoinpointTeams(newTeams, newIds);
+		}
+	}
+
+	/**
+	 * Per-thread cache of the results of {@link TeamManager#getTeamsAndCallinIds(int)}, indexed by joinpointId.
+	 * An entry is valid while the joinpoint's snapshot is unchanged (identity)
+	 * and while the activation epoch of {@link TeamThreadManager} is unchanged.
+	 */
+	static final class DispatchCache {
+		JoinpointTeams[] snapshots = new JoinpointTeams[0];
+		long[] epochs = new long[0];
+		Object[][] results = new Object[0][];
+
+		void put(int joinpointId, JoinpointTeams snapshot, long epoch, Object[] result) {
+			int oldLen = this.snapshots.length;
+			if (joinpointId >= oldLen) {
+				int len = Math.max(joinpointId+1, oldLen*2);
+				System.arraycopy(this.snapshots, 0, this.snapshots = new JoinpointTeams[len], 0, oldLen);
+				System.arraycopy(this.epochs, 0, this.epochs = new long[len], 0, oldLen);
+				System.arraycopy(this.results, 0, this.results = new Object[len][], 0, oldLen);
+			}
+			this.snapshots[joinpointId] = snapshot;
+			this.epochs[joinpointId] = epoch;
+			this.results[joinpointId] = result;
+		}
+	}
+	private static final ThreadLocal<DispatchCache> _dispatchCache = new ThreadLocal<DispatchCache>() {
+		@Override
+		protected DispatchCache initialValue() {
+			return new DispatchCache();
+		}
+	};
+
+	// indexed by joinpointId; the array is replaced (copy-on-write) when growing, individual slots are replaced when teams change:
+	private static volatile AtomicReferenceArray<JoinpointTeams> _joinpointTeams = new AtomicReferenceArray<JoinpointTeams>(64);
 	private static Map<String, Integer> joinpointMap = new HashMap<String, Integer>();
 	// key: Team class, value: list of global memberIds, indexed by local accessId, id of null means "not mapped in this team (try super)"
+	// synchronization: all accesses to accessIdMap are protected using the TeamManager class object as the monitor.
 	private static Map<Class<?>, List<Integer>> accessIdMap = new HashMap<Class<?>, List<Integer>>();
+	// per team class a flattened view of accessIdMap including access ids inherited from super teams,
+	// valid as long as its epoch equals accessIdEpoch, which is incremented on every change of accessIdMap.
+	private static volatile int accessIdEpoch = 0;
+	private static final ClassValue<MemberIdsHolder> memberIdCache = new ClassValue<MemberIdsHolder>() {
+		@Override
+		protected MemberIdsHolder computeValue(Class<?> type) {
+			return new MemberIdsHolder();
+		}
+	};
 	private static int currentJoinpointId = 0;
 	// map all original joinpoints to their inherited versions in subclasses
 	private static Map<Integer,List<Integer>> joinpointToSubJoinpoints = new HashMap<Integer, List<Integer>>();
 	private static IClassRepository classRepository;
+	// only used when running without a weaver, see getAheadOfTimeBindings():
+	private static AheadOfTimeBindings aheadOfTimeBindings;
+	private static boolean aheadOfTimeBindingsLoaded;
+	// names of teams without ahead-of-time bindings, which have already been reported:
+	private static final Set<String> unwovenTeams = Collections.synchronizedSet(new HashSet<String>());
 	
-	// synchronization: fields _teams and _callinIds are protected using the TeamManager class object as the monitor
+	// synchronization: all updates of _joinpointTeams are protected using the TeamManager class object as the monitor,
+	// reading (from getTeamsAndCallinIds()) is lock-free, relying on immutable snapshots published via _joinpointTeams.
+	// Each update is followed by relinking the joinpoint's call site in JoinpointCallSites (if any).
 
 	public static void setup(IClassRepository repo) {
 		classRepository = repo;
@@ -66,28 +177,78 @@ public class TeamManager implements ITeamManager {
 	 * @return a two-element array or null if there are no active teams.
 	 * If non-null the first array element is an array (ITeam[]) of all active teams for the joinpoint,
 	 * and the second array element is an array (int[]) of corresponding callind IDs.
-	 * Both arrays have the same length and elements with equal index correspond between both sub-arrays. 
+	 * Both arrays have the same length and elements with equal index correspond between both sub-arrays.
+	 * The result may be shared between calls and threads, callers must not modify any of the arrays.
 	 */
-	public synchronized static Object[] getTeamsAndCallinIds(int joinpointId) {
-		List<ITeam> teams = _teams.get(joinpointId);
-		int size = teams.size();
-		if (size == 0)
+	public static Object[] getTeamsAndCallinIds(int joinpointId) {
+		JoinpointTeams snapshot = _joinpointTeams.get(joinpointId);
+		if (snapshot.teams.length == 0)
 			return null;
-		List<Integer> callinIds = _callinIds.get(joinpointId);
-		ITeam[] active = new ITeam[size];
-		int[] ids = new int[size];
-		int count = 0;
-		Thread th = Thread.currentThread();
-		for (int i = 0; i < active.length; i++) {
-			ITeam t = teams.get(i);
+		// read the epoch before querying any activation state:
+		long epoch = TeamThreadManager.getActivationEpoch();
+		DispatchCache cache = _dispatchCache.get();
+		Object[] result;
+		if (joinpointId < cache.snapshots.length
+				&& cache.snapshots[joinpointId] == snapshot
+				&& cache.epochs[joinpointId] == epoch) {
+			result = cache.results[joinpointId];
+		} else {
+			result = filterActiveTeams(snapshot, Thread.currentThread());
+			cache.put(joinpointId, snapshot, epoch, result);
+		}
+		if (RuntimeMetrics.ENABLED)
+			RuntimeMetrics.callinDispatch(result);
+		return result;
+	}
+
+	/**
+	 * Answer whether any team is registered for the given joinpoint, regardless of per-thread activation.
+	 * Used for linking the call sites of {@link JoinpointCallSites}.
+	 */
+	static boolean hasTeams(int joinpointId) {
+		return _joinpointTeams.get(joinpointId).teams.length > 0;
+	}
+
+	/**
+	 * Answer all teams that are currently registered for any joinpoint, regardless of per-thread activation.
+	 * Used for reporting {@link RuntimeMetrics}.
+	 */
+	static ITeam[] getRegisteredTeams() {
+		AtomicReferenceArray<JoinpointTeams> joinpointTeams = _joinpointTeams;
+		Set<ITeam> teams = Collections.newSetFromMap(new IdentityHashMap<ITeam, Boolean>());
+		for (int i = 0; i < joinpointTeams.length(); i++) {
+			JoinpointTeams snapshot = joinpointTeams.get(i);
+			if (snapshot != null)
+				Collections.addAll(teams, snapshot.teams);
+		}
+		return teams.toArray(new ITeam[teams.size()]);
+	}
+
+	private static Object[] filterActiveTeams(JoinpointTeams snapshot, Thread th) {
+		ITeam[] teams = snapshot.teams;
+		int size = teams.length;
+		int i = 0;
+		while (i < size && teams[i].isActive(th))
+			i++;
+		if (i == size)
+			return snapshot.teamsAndCallinIds; // all teams active, share the immutable snapshot
+		// at least one team is inactive, collect the active ones:
+		int[] callinIds = snapshot.callinIds;
+		ITeam[] active = new ITeam[size-1];
+		int[] ids = new int[size-1];
+		System.arraycopy(teams, 0, active, 0, i);
+		System.arraycopy(callinIds, 0, ids, 0, i);
+		int count = i;
+		for (i++; i < size; i++) {
+			ITeam t = teams[i];
 			if (t.isActive(th)) {
 				active[count] = t;
-				ids[count++] = callinIds.get(i);
+				ids[count++] = callinIds[i];
 			}
 		}
 		if (count == 0)
 			return null;
-		if (count != size) {
+		if (count != size-1) {
 			System.arraycopy(active, 0, active = new ITeam[count], 0, count);
 			System.arraycopy(ids, 0, ids = new int[count], 0, count);
 		}
@@ -104,13 +265,49 @@ public class TeamManager implements ITeamManager {
 	 * @return
 	 */
 	public static int getMemberId(int accessId, Class<? extends ITeam> teamClass) {
+		MemberIds memberIds = memberIdCache.get(teamClass).current;
+		if (memberIds == null || memberIds.epoch != accessIdEpoch || accessId >= memberIds.ids.length)
+			memberIds = resolveMemberIds(teamClass, accessId);
+		return accessId < memberIds.ids.length ? memberIds.ids[accessId] : -1;
+	}
+
+	/** Immutable snapshot of the member ids of one team class, indexed by access id, -1 for unknown access ids. */
+	private static final class MemberIds {
+		final int epoch;
+		final int[] ids;
+		MemberIds(int epoch, int[] ids) {
+			this.epoch = epoch;
+			this.ids = ids;
+		}
+	}
+
+	private static final class MemberIdsHolder {
+		volatile MemberIds current;
+	}
+
+	private static synchronized MemberIds resolveMemberIds(Class<? extends ITeam> teamClass, int accessId) {
+		int length = accessId + 1;
+		for (Class<?> current = teamClass; current != null && ITeam.class.isAssignableFrom(current); current = current.getSuperclass()) {
+			List<Integer> teamMap = accessIdMap.get(current);
+			if (teamMap != null)
+				length = Math.max(length, teamMap.size());
+		}
+		int[] ids = new int[length];
+		for (int i = 0; i < length; i++)
+			ids[i] = lookupMemberId(i, teamClass);
+		MemberIds memberIds = new MemberIds(accessIdEpoch, ids);
+		memberIdCache.get(teamClass).current = memberIds;
+		return memberIds;
+	}
+
+	private static int lookupMemberId(int accessId, Class<? extends ITeam> teamClass) {
 		List<Integer> teamMap = accessIdMap.get(teamClass);
 		Integer id = -1;
 		if (teamMap == null || accessId >= teamMap.size() || (id = teamMap.get(accessId)) == null) {
 			Class<?> superClass = teamClass.getSuperclass();
 			if (ITeam.class.isAssignableFrom(superClass)) {
 				@SuppressWarnings("unchecked") Class<? extends ITeam> superTeam = (Class<? extends ITeam>) superClass;
-				return getMemberId(accessId, superTeam);
+				return lookupMemberId(accessId, superTeam);
 			}
 			if (id == null)
 				return -1;
@@ -129,10 +326,15 @@ public class TeamManager implements ITeamManager {
 		Integer joinpointId = getExistingJoinpointId(joinpointIdentifier);
 		if (joinpointId == null) {
 			joinpointMap.put(joinpointIdentifier, currentJoinpointId);
-			List<ITeam> teams = new ArrayList<ITeam>();
-			_teams.add(teams);
-			List<Integer> callinIds = new ArrayList<Integer>();
-			_callinIds.add(callinIds);
+			AtomicReferenceArray<JoinpointTeams> joinpointTeams = _joinpointTeams;
+			int len = joinpointTeams.length();
+			if (currentJoinpointId == len) {
+				AtomicReferenceArray<JoinpointTeams> grown = new AtomicReferenceArray<JoinpointTeams>(len * 2);
+				for (int i = 0; i < len; i++)
+					grown.set(i, joinpointTeams.get(i));
+				_joinpointTeams = joinpointTeams = grown;
+			}
+			joinpointTeams.set(currentJoinpointId, JoinpointTeams.EMPTY);
 			return currentJoinpointId++;
 		}
 		return joinpointId;
@@ -158,26 +360,39 @@ public class TeamManager implements ITeamManager {
 	 * @param stateChange
 	 */
 	public void handleTeamStateChange(ITeam t, ITeamManager.TeamStateChange stateChange) {
+		if (classRepository == null) {
+			handleTeamStateChangeAheadOfTime(t, stateChange);
+			return;
+		}
 		IClassIdentifierProvider provider = ClassIdentifierProviderFactory.getClassIdentifierProvider();
 		Class<? extends ITeam> teamClass = t.getClass();
 		String teamId = provider.getClassIdentifier(teamClass);
 		IBoundTeam teem = classRepository.getTeam(teamClass.getName(), teamId, teamClass.getClassLoader());
 
-		for (IBinding binding : teem.getBindings()) {
-			// OTDRE cannot add methods into a sub base, hence we have to use the declaring base class for static methods:
-			// (see https://bugs.eclipse.org/435136#c1)
-			String boundClassName = ((binding.getBaseFlags() & IBinding.STATIC_BASE) != 0) ? 
-										binding.getDeclaringBaseClassName() : binding.getBoundClass();
-			String boundClassIdentifier = provider.getBoundClassIdentifier(teamClass, boundClassName);
-			// FIXME(SH): the following may need adaptation for OT/Equinox or other multi-classloader settings:
-			IBoundClass boundClass = classRepository.getBoundClass(boundClassName.replace('/', '.'), boundClassIdentifier, teamClass.getClassLoader());
-			switch (binding.getType()) {
-			case CALLIN_BINDING:
-				handleBindingForBase(t, stateChange, binding, boundClass, provider);
-				break;
-			default:
-				// no further action for *ACCESS bindings
+		// weave each base class only once, and redefine all affected base classes together when committing:
+		Set<IBoundClass> baseClasses = new HashSet<IBoundClass>();
+		try {
+			for (IBinding binding : teem.getBindings()) {
+				// OTDRE cannot add methods into a sub base, hence we have to use the declaring base class for static methods:
+				// (see https://bugs.eclipse.org/435136#c1)
+				String boundClassName = ((binding.getBaseFlags() & IBinding.STATIC_BASE) != 0) ? 
+											binding.getDeclaringBaseClassName() : binding.getBoundClass();
+				String boundClassIdentifier = provider.getBoundClassIdentifier(teamClass, boundClassName);
+				// FIXME(SH): the following may need adaptation for OT/Equinox or other multi-classloader settings:
+				IBoundClass boundClass = classRepository.getBoundClass(boundClassName.replace('/', '.'), boundClassIdentifier, teamClass.getClassLoader());
+				switch (binding.getType()) {
+				case CALLIN_BINDING:
+					if (baseClasses.add(boundClass))
+						boundClass.startTransaction();
+					handleBindingForBase(t, stateChange, binding, boundClass, provider);
+					break;
+				default:
+					// no further action for *ACCESS bindings
+				}
 			}
+		} finally {
+			for (IBoundClass base : baseClasses)
+				base.commitTransaction(null);
 		}
 	}
 
@@ -202,36 +417,108 @@ public class TeamManager implements ITeamManager {
 			changeTeamsForJoinpoint(t, binding.getPerTeamId(), id, stateChange);
 		}
 	}
-	private void collectSubJoinpoints(int joinpointId, Set<Integer> joinpointIds) {
+	private static void collectSubJoinpoints(int joinpointId, Set<Integer> joinpointIds) {
 		joinpointIds.add(joinpointId);
 		List<Integer> subJoinpoints = joinpointToSubJoinpoints.get(joinpointId);
 		if (subJoinpoints != null)
 			for (Integer subJoinpoint : subJoinpoints)
 				collectSubJoinpoints(subJoinpoint, joinpointIds);
 	}
+
+	/**
+	 * Answer the given joinpoint id plus the ids of all joinpoints that inherit its teams (see {@link #mergeJoinpoints}).
+	 * Intended for recording {@link AheadOfTimeBindings}.
+	 */
+	public static synchronized int[] getJoinpointIdsIncludingSubJoinpoints(int joinpointId) {
+		Set<Integer> joinpointIds = new HashSet<Integer>();
+		collectSubJoinpoints(joinpointId, joinpointIds);
+		int[] result = new int[joinpointIds.size()];
+		int i = 0;
+		for (Integer id : joinpointIds)
+			result[i++] = id;
+		return result;
+	}
+
+	/** Answer the number of joinpoint ids assigned so far. Intended for recording {@link AheadOfTimeBindings}. */
+	public static synchronized int getJoinpointCount() {
+		return currentJoinpointId;
+	}
+
+	/**
+	 * Answer the bindings recorded by weaving ahead of time, or null if not available.
+	 * On first access prepare the joinpoints and install this class as the team manager,
+	 * which is otherwise done by the weaver, see {@link #setup(IClassRepository)}.
+	 */
+	private static synchronized AheadOfTimeBindings getAheadOfTimeBindings() {
+		if (!aheadOfTimeBindingsLoaded) {
+			aheadOfTimeBindingsLoaded = true;
+			aheadOfTimeBindings = AheadOfTimeBindings.load();
+			if (aheadOfTimeBindings != null) {
+				int count = aheadOfTimeBindings.getJoinpointCount();
+				AtomicReferenceArray<JoinpointTeams> joinpointTeams = new AtomicReferenceArray<JoinpointTeams>(Math.max(count, 64));
+				for (int i = 0; i < count; i++)
+					joinpointTeams.set(i, JoinpointTeams.EMPTY);
+				_joinpointTeams = joinpointTeams;
+				currentJoinpointId = count;
+				try {
+					Team.registerTeamManager(new TeamManager());
+				} catch (IllegalStateException e) {
+					// already installed
+				}
+			}
+		}
+		return aheadOfTimeBindings;
+	}
+
+	/** Register or unregister a team using the joinpoints recorded when weaving ahead of time. */
+	private void handleTeamStateChangeAheadOfTime(ITeam t, ITeamManager.TeamStateChange stateChange) {
+		AheadOfTimeBindings bindings = getAheadOfTimeBindings();
+		AheadOfTimeBindings.TeamBindings teamBindings = bindings != null ? bindings.getTeam(t.getClass().getName()) : null;
+		if (teamBindings == null) {
+			String teamName = t.getClass().getName();
+			if (unwovenTeams.add(teamName))
+				System.err.println("OTDRE: Team "+teamName+" has not been woven ahead of time and no weaver is present,"
+						+ " its callin bindings are ignored (reported once per team)");
+			return;
+		}
+		for (int[] callin : teamBindings.callins)
+			for (int i = 1; i < callin.length; i++)
+				changeTeamsForJoinpoint(t, callin[0], callin[i], stateChange);
+	}
 	
 	/**
 	 * When a team is about to be activated propagate its bindings to all base classes,
 	 * but don't yet register any join points, we aren't activating yet. 
+	 * Without a weaver nothing needs to be prepared, since all bindings have been woven ahead of time.
 	 */
 	public static void prepareTeamActivation(Class<? extends ITeam> teamClass) {
+		if (classRepository == null)
+			return;
 		String teamName = teamClass.getName();
 		ClassLoader teamClassLoader = teamClass.getClassLoader();
 		IClassIdentifierProvider provider = ClassIdentifierProviderFactory.getClassIdentifierProvider();
 		String teamId = provider.getClassIdentifier(teamClass);
 		IBoundTeam teem = classRepository.getTeam(teamName, teamId, teamClassLoader);
 
-		for (IBinding binding : teem.getBindings()) {
-			String boundClassName = binding.getBoundClass();
-			String boundClassIdentifier = provider.getBoundClassIdentifier(teamClass, boundClassName);
-			// FIXME(SH): the following may need adaptation for OT/Equinox or other multi-classloader settings:
-			IBoundClass boundClass = classRepository.getBoundClass(boundClassName.replace('/', '.'), boundClassIdentifier, teamClass.getClassLoader());
-			switch (binding.getType()) {
-			case CALLIN_BINDING:
-				prepareBindingForBase(binding, boundClass, provider);
-				break;
-			default: // no further action for *ACCESS bindings
+		Set<IBoundClass> baseClasses = new HashSet<IBoundClass>();
+		try {
+			for (IBinding binding : teem.getBindings()) {
+				String boundClassName = binding.getBoundClass();
+				String boundClassIdentifier = provider.getBoundClassIdentifier(teamClass, boundClassName);
+				// FIXME(SH): the following may need adaptation for OT/Equinox or other multi-classloader settings:
+				IBoundClass boundClass = classRepository.getBoundClass(boundClassName.replace('/', '.'), boundClassIdentifier, teamClass.getClassLoader());
+				switch (binding.getType()) {
+				case CALLIN_BINDING:
+					if (baseClasses.add(boundClass))
+						boundClass.startTransaction();
+					prepareBindingForBase(binding, boundClass, provider);
+					break;
+				default: // no further action for *ACCESS bindings
+				}
 			}
+		} finally {
+			for (IBoundClass base : baseClasses)
+				base.commitTransaction(null);
 		}
 	}
 
@@ -242,10 +529,23 @@ public class TeamManager implements ITeamManager {
 	}
 
 	public static void handleTeamLoaded(Class<? extends ITeam> teamClass) {
+		if (classRepository == null) {
+			// no weaver present, class has been woven ahead of time?
+			AheadOfTimeBindings bindings = getAheadOfTimeBindings();
+			if (bindings != null && teamClass != null)
+				handleDecapsulationAheadOfTime(bindings, teamClass);
+			return;
+		}
 		if (teamClass != null)
 			handleDecapsulation(teamClass);
 		performPendingTask();
 	}
+	private static void handleDecapsulationAheadOfTime(AheadOfTimeBindings bindings, Class<? extends ITeam> teamClass) {
+		AheadOfTimeBindings.TeamBindings teamBindings = bindings.getTeam(teamClass.getName());
+		if (teamBindings != null)
+			for (int[] access : teamBindings.accesses)
+				addAccessIds(teamClass, teamBindings.highestAccessId, access[0], access[1]);
+	}
 	private static void handleDecapsulation(Class<? extends ITeam> teamClass) {
 		IClassIdentifierProvider provider = ClassIdentifierProviderFactory.getClassIdentifierProvider();
 		String teamId = provider.getClassIdentifier(teamClass);
@@ -275,7 +575,7 @@ public class TeamManager implements ITeamManager {
 				
 				int memberId = member.getGlobalId(boundClass);
 				synchronized (member) {
-					addAccessIds(teamClass, teem, binding.getPerTeamId(), memberId);
+					addAccessIds(teamClass, teem.getHighestAccessId(), binding.getPerTeamId(), memberId);
 				}
 				//$FALL-THROUGH$
 			case ROLE_BASE_BINDING:
@@ -292,15 +592,14 @@ public class TeamManager implements ITeamManager {
 	 * Stores the access ids of a team and the corresponding member ids,
 	 * where accessId is local to the team and the member id is globally unique.
 	 * @param teamClass
-	 * @param teem
+	 * @param highestAccessId
 	 * @param accessId
 	 * @param memberId
-	 * @param stateChange
 	 */
-	private static void addAccessIds(Class<? extends ITeam> teamClass, IBoundTeam teem, int accessId, int memberId) {
+	private static synchronized void addAccessIds(Class<? extends ITeam> teamClass, int highestAccessId, int accessId, int memberId) {
 		List<Integer> accessIds = accessIdMap.get(teamClass);
 		if (accessIds == null) {
-			int highestAccessId = teem.getHighestAccessId() + 1;
+			highestAccessId++;
 			accessIds = new ArrayList<Integer>(highestAccessId);
 			for (int i = 0; i <= highestAccessId; i++) {
 				accessIds.add(null);
@@ -308,6 +607,7 @@ public class TeamManager implements ITeamManager {
 			accessIdMap.put(teamClass, accessIds);
 		}
 		accessIds.set(accessId, memberId);
+		accessIdEpoch++; // invalidate all entries of memberIdCache
 	}
 
 	/**
@@ -318,25 +618,17 @@ public class TeamManager implements ITeamManager {
 	 * @param stateChange
 	 */
 	private synchronized static void changeTeamsForJoinpoint(ITeam t, int callinId, int joinpointId, TeamManager.TeamStateChange stateChange) {
+		JoinpointTeams current = _joinpointTeams.get(joinpointId);
 		switch (stateChange) {
 		case REGISTER:
-			List<ITeam> teams = _teams.get(joinpointId);
-			teams.add(0, t);
-			List<Integer> callinIds = _callinIds.get(joinpointId);
-			callinIds.add(0, callinId);
+			_joinpointTeams.set(joinpointId, current.prepend(t, callinId));
 			break;
 		case UNREGISTER:
-			teams = _teams.get(joinpointId);
-			callinIds = _callinIds.get(joinpointId);
-			int index = teams.indexOf(t);
-			while (index > -1) {
-				teams.remove(index);
-				callinIds.remove(index);
-				index = teams.indexOf(t);
-			}
+			_joinpointTeams.set(joinpointId, current.without(t));
 			break;
 		default: throw new RuntimeException("Unknown team state change: " + stateChange.name());
 		}
+		JoinpointCallSites.update(joinpointId, hasTeams(joinpointId));
 	}
 
 	/**
@@ -384,22 +676,19 @@ public class TeamManager implements ITeamManager {
 	}
 
 	private synchronized static void applyJoinpointMerge(Integer srcJoinpointId, int destJoinpointId) {
-		List<ITeam> teams = _teams.get(destJoinpointId);
-		List<Integer> callinIds = _callinIds.get(destJoinpointId);
-		List<ITeam> srcTeams = _teams.get(srcJoinpointId);
-		List<Integer> srcCallins = _callinIds.get(srcJoinpointId);
-		for (int s=0; s<srcTeams.size(); s++) {
-			int d = 0; // FIXME(SH): find insertion index based on activation priority!!
-			ITeam srcTeam = srcTeams.get(s);
-			Integer srcCallin = srcCallins.get(s);
-			int idx = teams.indexOf(srcTeam);
-			if (idx != -1 && idx < callinIds.size()) {
-				if (callinIds.get(idx) == srcCallin)
-					continue;
-			}
-			teams.add(d, srcTeam);
-			callinIds.add(0, srcCallin);
+		JoinpointTeams dest = _joinpointTeams.get(destJoinpointId);
+		JoinpointTeams src = _joinpointTeams.get(srcJoinpointId);
+		for (int s=0; s<src.teams.length; s++) {
+			// FIXME(SH): find insertion index based on activation priority!!
+			ITeam srcTeam = src.teams[s];
+			int srcCallin = src.callinIds[s];
+			int idx = dest.indexOf(srcTeam, 0);
+			if (idx != -1 && dest.callinIds[idx] == srcCallin)
+				continue;
+			dest = dest.prepend(srcTeam, srcCallin);
 		}
+		_joinpointTeams.set(destJoinpointId, dest);
+		JoinpointCallSites.update(destJoinpointId, dest.teams.length > 0);
 		// transitively pass the new information down the tree of subJoinpoints:
 		List<Integer> destDests = joinpointToSubJoinpoints.get(destJoinpointId);
 		if (destDests != null && !destDests.isEmpty())
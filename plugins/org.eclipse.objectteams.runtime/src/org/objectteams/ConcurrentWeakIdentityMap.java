@@ -0,0 +1,136 @@
+/**********************************************************************
+ * This file is part of the "Object Teams Runtime Environment"
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.objectteams;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Internal thread-safe map with weakly referenced keys that are compared by identity.
+ * Reading operations are lock-free, entries of collected keys are expunged during
+ * subsequent modifications.
+ * <p>
+ * This is a minimal replacement for a synchronized <code>WeakHashMap</code>,
+ * supporting only the operations needed by the runtime.
+ * It is public only, because fields of this type are also generated into teams
+ * that cannot extend {@link Team}, NOT API.
+ * </p>
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public final class ConcurrentWeakIdentityMap<K,V> {
+
+	/** Key as stored in the map: a weak reference that remembers the identity hash of its referent. */
+	private static final class WeakKey<K> extends WeakReference<K> {
+		private final int hash;
+
+		WeakKey(K referent, ReferenceQueue<? super K> queue) {
+			super(referent, queue);
+			this.hash = System.identityHashCode(referent);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this)
+				return true;
+			if (obj instanceof WeakKey) {
+				Object referent = get();
+				return referent != null && referent == ((WeakKey<?>) obj).get();
+			}
+			if (obj instanceof LookupKey)
+				return obj.equals(this);
+			return false;
+		}
+	}
+
+	/** Transient key for lookup, avoids creating (and enqueuing) a weak reference. */
+	private static final class LookupKey {
+		private final Object referent;
+
+		LookupKey(Object referent) {
+			this.referent = referent;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.referent);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof WeakKey && ((WeakKey<?>) obj).get() == this.referent;
+		}
+	}
+
+	private final ConcurrentHashMap<Object, V> map = new ConcurrentHashMap<Object, V>();
+	private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+
+	public @Nullable V get(Object key) {
+		return this.map.get(new LookupKey(key));
+	}
+
+	public boolean containsKey(Object key) {
+		return this.map.containsKey(new LookupKey(key));
+	}
+
+	public @Nullable V put(K key, V value) {
+		expungeStaleEntries();
+		return this.map.put(new WeakKey<K>(key, this.queue), value);
+	}
+
+	/** Atomically associate the given value with key unless a value is already associated. */
+	public @Nullable V putIfAbsent(K key, V value) {
+		expungeStaleEntries();
+		return this.map.putIfAbsent(new WeakKey<K>(key, this.queue), value);
+	}
+
+	public @Nullable V remove(Object key) {
+		expungeStaleEntries();
+		return this.map.remove(new LookupKey(key));
+	}
+
+	public boolean isEmpty() {
+		expungeStaleEntries();
+		return this.map.isEmpty();
+	}
+
+	public int size() {
+		expungeStaleEntries();
+		return this.map.size();
+	}
+
+	public void clear() {
+		expungeStaleEntries();
+		this.map.clear();
+	}
+
+	private void expungeStaleEntries() {
+		Reference<? extends K> ref;
+		while ((ref = this.queue.poll()) != null)
+			this.map.remove(ref); // a cleared WeakKey only equals itself
+	}
+}
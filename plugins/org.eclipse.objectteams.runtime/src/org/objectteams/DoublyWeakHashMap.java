@@ -17,19 +17,31 @@
  **********************************************************************/
 package org.objectteams;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * This class defines hash maps where both key and value are weak references.
- * It is implemented by delegating to a WeakHashMap and additionally
- * wrapping the value in a WeakReference.
+ * Like in a {@link java.util.WeakHashMap} keys are compared using {@link Object#equals(Object)}
+ * and {@link Object#hashCode()}, so a base class overriding these methods will share
+ * its roles among all equal base objects.
+ * <p>
+ * The map is thread-safe: reading operations ({@link #get(Object)}, {@link #containsKey(Object)})
+ * are lock-free, modifications lock one of several segments selected by the hash code of the key.
+ * </p><p>
+ * Entries of collected keys are expunged during subsequent operations on this map.
+ * Note, that both references must be weak, because a role references its base and
+ * a base object refers to its roles via its role set.
+ * </p>
  *
  * @author stephan
  * @since 0.7.0
@@ -38,23 +50,207 @@ import org.eclipse.jdt.annotation.Nullable;
  */
 public class DoublyWeakHashMap<K,V> implements Map<K,V> {
 
-	private WeakHashMap<K, WeakReference<V>> map;
+	private static final int SEGMENT_BITS = 4;
+	private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+	private static final int INITIAL_CAPACITY = 8; // per segment, must be a power of two
 
+	/**
+	 * An entry of the map: a weak reference to the key, remembering its hash code.
+	 * Entries are immutable, modifications of a bucket copy the affected prefix of its chain
+	 * (sharing the weak references to values), so that concurrent readers always see a consistent chain.
+	 */
+	private static final class WeakEntry<K,V> extends WeakReference<K> {
+		final int hash;
+		final WeakReference<V> value;
+		final @Nullable WeakEntry<K,V> next;
+
+		WeakEntry(K key, int hash, WeakReference<V> value, @Nullable WeakEntry<K,V> next, ReferenceQueue<? super K> queue) {
+			super(key, queue);
+			this.hash = hash;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+	/** One lock stripe of the map, modifications are synchronized on the segment. */
+	private static final class Segment<K,V> {
+		volatile @Nullable AtomicReferenceArray<WeakEntry<K,V>> table; // created on first put
+		volatile int count;
+
+		@Nullable V get(Object key, int hash) {
+			AtomicReferenceArray<WeakEntry<K,V>> tab = this.table;
+			if (tab == null)
+				return null;
+			for (WeakEntry<K,V> e = tab.get(indexFor(hash, tab.length())); e != null; e = e.next)
+				if (e.hash == hash && eq(key, e.get()))
+					return e.value.get();
+			return null;
+		}
+
+		synchronized void put(K key, int hash, V value, ReferenceQueue<? super K> queue) {
+			AtomicReferenceArray<WeakEntry<K,V>> tab = this.table;
+			if (tab == null) {
+				this.table = tab = new AtomicReferenceArray<WeakEntry<K,V>>(INITIAL_CAPACITY);
+			} else if (this.count >= tab.length() - (tab.length() >>> 2)) {
+				this.table = tab = rehash(tab, queue);
+			}
+			int index = indexFor(hash, tab.length());
+			WeakEntry<K,V> head = tab.get(index);
+			for (WeakEntry<K,V> e = head; e != null; e = e.next) {
+				K existing = e.get();
+				if (existing != null && e.hash == hash && eq(key, existing)) {
+					// keep the contained key, like WeakHashMap does:
+					tab.set(index, new WeakEntry<K,V>(existing, hash, new WeakReference<V>(value), unlink(head, e, queue), queue));
+					return;
+				}
+			}
+			tab.set(index, new WeakEntry<K,V>(key, hash, new WeakReference<V>(value), head, queue));
+			this.count++;
+		}
+
+		synchronized @Nullable V remove(Object key, int hash, ReferenceQueue<? super K> queue) {
+			AtomicReferenceArray<WeakEntry<K,V>> tab = this.table;
+			if (tab == null)
+				return null;
+			int index = indexFor(hash, tab.length());
+			WeakEntry<K,V> head = tab.get(index);
+			for (WeakEntry<K,V> e = head; e != null; e = e.next) {
+				if (e.hash == hash && eq(key, e.get())) {
+					tab.set(index, unlink(head, e, queue));
+					this.count--;
+					return e.value.get();
+				}
+			}
+			return null;
+		}
+
+		/** Remove the given (stale) entry, if it is still contained in this segment. */
+		synchronized void expunge(WeakEntry<K,V> entry, ReferenceQueue<? super K> queue) {
+			AtomicReferenceArray<WeakEntry<K,V>> tab = this.table;
+			if (tab == null)
+				return;
+			int index = indexFor(entry.hash, tab.length());
+			WeakEntry<K,V> head = tab.get(index);
+			for (WeakEntry<K,V> e = head; e != null; e = e.next) {
+				if (e == entry) {
+					tab.set(index, unlink(head, e, queue));
+					this.count--;
+					return;
+				}
+			}
+		}
+
+		synchronized void clear() {
+			this.table = null;
+			this.count = 0;
+		}
+
+		/** Answer a copy of the chain starting at head, that does not contain the given entry. */
+		private @Nullable WeakEntry<K,V> unlink(WeakEntry<K,V> head, WeakEntry<K,V> entry, ReferenceQueue<? super K> queue) {
+			WeakEntry<K,V> result = entry.next;
+			for (WeakEntry<K,V> e = head; e != entry; e = e.next) {
+				K key = e.get();
+				if (key != null && e.value.get() != null)
+					result = new WeakEntry<K,V>(key, e.hash, e.value, result, queue);
+				else
+					this.count--; // drop stale entry on the fly
+			}
+			return result;
+		}
+
+		private AtomicReferenceArray<WeakEntry<K,V>> rehash(AtomicReferenceArray<WeakEntry<K,V>> oldTab, ReferenceQueue<? super K> queue) {
+			int newLength = oldTab.length() << 1;
+			AtomicReferenceArray<WeakEntry<K,V>> newTab = new AtomicReferenceArray<WeakEntry<K,V>>(newLength);
+			int newCount = 0;
+			for (int i = 0; i < oldTab.length(); i++) {
+				for (WeakEntry<K,V> e = oldTab.get(i); e != null; e = e.next) {
+					K key = e.get();
+					if (key != null && e.value.get() != null) {
+						int index = indexFor(e.hash, newLength);
+						newTab.set(index, new WeakEntry<K,V>(key, e.hash, e.value, newTab.get(index), queue));
+						newCount++;
+					}
+				}
+			}
+			this.count = newCount;
+			return newTab;
+		}
+
+		void collect(@Nullable Collection<K> keys, @Nullable Collection<V> values) {
+			AtomicReferenceArray<WeakEntry<K,V>> tab = this.table;
+			if (tab == null)
+				return;
+			for (int i = 0; i < tab.length(); i++) {
+				for (WeakEntry<K,V> e = tab.get(i); e != null; e = e.next) {
+					K key = e.get();
+					V value = e.value.get();
+					if (key != null && value != null) {
+						if (keys != null)
+							keys.add(key);
+						if (values != null)
+							values.add(value);
+					}
+				}
+			}
+		}
+	}
+
+	private final Segment<K,V>[] segments;
+	private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+
+	@SuppressWarnings("unchecked")
 	public DoublyWeakHashMap() {
-		this.map = new WeakHashMap<K, WeakReference<V>>();
+		this.segments = (Segment<K,V>[]) new Segment<?,?>[SEGMENT_MASK + 1];
+		for (int i = 0; i < this.segments.length; i++)
+			this.segments[i] = new Segment<K,V>();
+	}
+
+	static int hash(@Nullable Object key) {
+		if (key == null)
+			return 0;
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/** Is the given key equal to the key of an entry, which may have been collected (null)? */
+	static boolean eq(@Nullable Object key, @Nullable Object entryKey) {
+		if (key == null || entryKey == null)
+			return false; // null keys are never contained
+		return key == entryKey || key.equals(entryKey);
+	}
+
+	static int indexFor(int hash, int length) {
+		return (hash >>> SEGMENT_BITS) & (length - 1);
+	}
+
+	private Segment<K,V> segmentFor(int hash) {
+		return this.segments[hash & SEGMENT_MASK];
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expungeStaleEntries() {
+		Reference<? extends K> ref;
+		while ((ref = this.queue.poll()) != null) {
+			WeakEntry<K,V> entry = (WeakEntry<K,V>) ref;
+			segmentFor(entry.hash).expunge(entry, this.queue);
+		}
 	}
 
 	public int size() {
-		return this.map.size();
+		expungeStaleEntries();
+		int size = 0;
+		for (Segment<K,V> segment : this.segments)
+			size += segment.count;
+		return size;
 	}
 
 	public boolean isEmpty() {
-		return this.map.isEmpty();
+		return size() == 0;
 	}
 
 	// used from hasRole() and lifting (duplicate role check)
 	public boolean containsKey(Object key) {
-		return this.map.containsKey(key);
+		return get(key) != null;
 	}
 
 	public boolean containsValue(Object value) {
@@ -63,43 +259,52 @@ public class DoublyWeakHashMap<K,V> implements Map<K,V> {
 
 	// used from getRole()
 	public @Nullable V get(Object key) {
-		WeakReference<V> valRef = this.map.get(key);
-		return valRef == null ? null : valRef.get();
+		expungeStaleEntries();
+		int hash = hash(key);
+		return segmentFor(hash).get(key, hash);
 	}
 
 	// used from migrateToBase() and lifting constructor
-	public synchronized V put(K key, V value) {
-		this.map.put(key, new WeakReference<V>(value));
+	public V put(K key, V value) {
+		expungeStaleEntries();
+		int hash = hash(key);
+		segmentFor(hash).put(key, hash, value, this.queue);
 		return value;
 	}
 
 	// used from unregisterRole(), migrateToBase()
-	public synchronized @Nullable V remove(Object key) {
-		WeakReference<V> value = this.map.remove(key);
-		return (value == null) ? null : value.get();
+	public @Nullable V remove(Object key) {
+		expungeStaleEntries();
+		int hash = hash(key);
+		return segmentFor(hash).remove(key, hash, this.queue);
 	}
 
 	public void putAll(Map<? extends K, ? extends V> t) {
-		for (Entry<? extends K, ? extends V> entry : t.entrySet())
-			this.map.put(entry.getKey(), new WeakReference<V>(entry.getValue()));
+		for (Map.Entry<? extends K, ? extends V> entry : t.entrySet())
+			put(entry.getKey(), entry.getValue());
 	}
 
 	public void clear() {
-		this.map.clear();
+		for (Segment<K,V> segment : this.segments)
+			segment.clear();
+		expungeStaleEntries();
 	}
 
+	/** Answer a snapshot of all keys whose values have not been collected. */
 	public Set<K> keySet() {
-		return this.map.keySet();
+		expungeStaleEntries();
+		Set<K> result = new HashSet<K>();
+		for (Segment<K,V> segment : this.segments)
+			segment.collect(result, null);
+		return result;
 	}
 
 	// used from getAllRoles() et al.
-	public synchronized Collection<V> values() {
-		ArrayList<V> result = new ArrayList<V>(this.map.size());
-		for (WeakReference<V> valRef : this.map.values()) {
-			V value = valRef.get();
-			if (value != null)
-				result.add(value);
-		}
+	public Collection<V> values() {
+		expungeStaleEntries();
+		ArrayList<V> result = new ArrayList<V>();
+		for (Segment<K,V> segment : this.segments)
+			segment.collect(null, result);
 		return result;
 	}
 
@@ -32,6 +32,28 @@ public interface IBoundBase2 {
 	 */
 	Object _OT$callOrig(int boundMethod_id, Object[] args);
 
+	/**
+	 * Call a bound base method identified by its ID, avoiding any boxing.
+	 * Only used for base methods with up to three parameters of primitive types
+	 * and a primitive or void return type.
+	 * <p>
+	 * The OTDRE generates an implementation into each bound base class that uses this protocol.
+	 * This default implementation, used by classes without such generated code,
+	 * boxes the arguments and delegates to {@link #_OT$callOrig(int, Object[])}.
+	 * </p>
+	 * @param boundMethod_id globally unique ID of a bound base method
+	 * @param shape          signature of the bound base method,
+	 *                       as described for {@link Team#_OT$callAllBindingsDirect(IBoundBase2, Object[], int, int, long, long, long)}
+	 * @param arg0           first argument encoded as a long, or 0
+	 * @param arg1           second argument encoded as a long, or 0
+	 * @param arg2           third argument encoded as a long, or 0
+	 * @return               result of the bound base method encoded as a long, 0 for void.
+	 * @see Team#_OT$callAllBindingsDirect(IBoundBase2, Object[], int, int, long, long, long)
+	 */
+	default long _OT$callOrigDirect(int boundMethod_id, int shape, long arg0, long arg1, long arg2) {
+		return Team.callOrigBoxed(this, boundMethod_id, shape, arg0, arg1, arg2);
+	}
+
 	/**
 	 * Provides access to fields and methods of a base class
 	 * that have package, protected or private visbility
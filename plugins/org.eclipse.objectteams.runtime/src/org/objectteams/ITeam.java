@@ -222,4 +222,23 @@ public interface ITeam {
 
 	/** NOT API, used from code generated by OTDRE */
 	public Object _OT$callNext(IBoundBase2 baze, ITeam[] teams, int idx, int[] callinIds, int boundMethodId, Object[] args, Object[] baseCallArgs, int baseCallFlags);
+
+	/**
+	 * NOT API, used from code generated by OTDRE.
+	 * Variant of before dispatch for base methods with only primitive parameters,
+	 * see {@link Team#_OT$callAllBindingsDirect(IBoundBase2, Object[], int, int, long, long, long)}.
+	 * @return false if the given callin is not handled via this protocol, in which case nothing has been executed.
+	 */
+	public default boolean _OT$callBeforeDirect(IBoundBase2 baze, int callinId, int boundMethodId, long arg0, long arg1, long arg2) {
+		return false;
+	}
+
+	/**
+	 * NOT API, used from code generated by OTDRE.
+	 * Variant of after dispatch for base methods with only primitive parameters,
+	 * see {@link Team#_OT$callAllBindingsDirect(IBoundBase2, Object[], int, int, long, long, long)}.
+	 */
+	public default void _OT$callAfterDirect(IBoundBase2 baze, int callinId, int boundMethodId, long arg0, long arg1, long arg2, long result) {
+		// nop; override with code from after callin bindings.
+	}
 }
\ No newline at end of file
@@ -48,6 +48,8 @@ public /* team */ class Team implements ITeam {
 	 *  Without <code>registrationLock</code> this situation could easily deadlock:
 	 *  Thread1: <pre>t.activate() -> Base._OT$addTeam()</pre>: owns t, waits for Base.
 	 *  Thread2: <pre>b.bm() (initial wrapper) -> t.isActive()</pre>: owns Base, waits for t.
+	 *  Querying the activation state (<code>isActive()</code>) requires no lock at all,
+	 *  and implicit activation acquires <code>registrationLock</code> only if the team is not yet registered.
 	 */
 
 	/**
@@ -108,9 +110,9 @@ public /* team */ class Team implements ITeam {
 
 	private static final int _OT$UNREGISTERED = 0;
 	private static final int _OT$REGISTERED = 1;
-	private  int _OT$registrationState = _OT$UNREGISTERED;
+	private volatile int _OT$registrationState = _OT$UNREGISTERED;
 
-	private boolean _OT$globalActive = false;
+	private volatile boolean _OT$globalActive = false;
 
 	private ThreadLocal<Integer> _OT$implicitActivationsPerThread = new ThreadLocal<Integer>() {
 		@Override
@@ -119,14 +121,23 @@ public /* team */ class Team implements ITeam {
 		}
 	};
 
-	private boolean _OT$lazyGlobalActiveFlag = false;
+	private volatile boolean _OT$lazyGlobalActiveFlag = false;
 
 	/**
 	 * <code>_OT$activatedThreads</code> contains all threads for which this team instance is active.
 	 * key		= activated thread
 	 * value 	= Boolean(true) for explicit activation | Boolean(false) for implicit activation.
+	 * Modifications are still guarded by <code>this</code> (except for implicit activation),
+	 * but queries ({@link #isActive(Thread)}) need no locking.
 	 */
-	private WeakHashMap<Thread, Boolean> _OT$activatedThreads = new WeakHashMap<Thread, Boolean>();
+	private ConcurrentWeakIdentityMap<Thread, Boolean> _OT$activatedThreads = new ConcurrentWeakIdentityMap<Thread, Boolean>();
+
+	/**
+	 * <code>_OT$deactivatedThreads</code> contains the threads for which a globally active team has been deactivated.
+	 * Only used with lazy thread tracking ({@link TeamThreadManager#isLazyThreadTracking()}),
+	 * where global activation is never converted to per-thread entries.
+	 */
+	private ConcurrentWeakIdentityMap<Thread, Boolean> _OT$deactivatedThreads = new ConcurrentWeakIdentityMap<Thread, Boolean>();
 
 	/** This lock is used to protect activate/deactivate methods <strong>including</strong>
 	 *  the calls to doRegistration/doUnregistration.
@@ -157,12 +168,17 @@ public /* team */ class Team implements ITeam {
 				if (thread.equals(ALL_THREADS)) {
 					_OT$globalActive = true;
 					_OT$lazyGlobalActiveFlag = true;
+					_OT$deactivatedThreads.clear();
 					TeamThreadManager.addGlobalActiveTeam(this);
 				} else { // activation only for 'thread':
 					// register 'thread' as active:
 					_OT$activatedThreads.put(thread, Boolean.TRUE);
+					_OT$deactivatedThreads.remove(thread);
 				}
 			} // release this before calling synchronized base class methods
+			if (!thread.equals(ALL_THREADS))
+				TeamThreadManager.registerThreadSpecificState(this, thread);
+			TeamThreadManager.activationChanged(thread);
 			doRegistration(); //$Debug(ActivateMethod)
 		}
 	}
@@ -174,17 +190,27 @@ public /* team */ class Team implements ITeam {
 		// acquire both locks to avoid incomplete execution:
 		synchronized (this._OT$registrationLock) {
 			boolean shouldUnregister= false;
+			Thread affectedThread = thread;
 			synchronized(this) {
 				if (thread.equals(ALL_THREADS)) {
 					_OT$globalActive = false;
 					TeamThreadManager.removeGlobalActiveTeam(this);
+					_OT$lazyGlobalActiveFlag = false;
 					// unregister all threads:
 					_OT$activatedThreads.clear();
+					_OT$deactivatedThreads.clear();
 					shouldUnregister= true;
 				} else { // deactivation only for 'thread':
 					if (_OT$lazyGlobalActiveFlag) {
-						// be eager now: activate for all (other) threads:
-						_OT$activateForAllThreads();
+						if (TeamThreadManager.isLazyThreadTracking()) {
+							// remain globally active, only record the exception:
+							_OT$deactivatedThreads.put(thread, Boolean.TRUE);
+						} else {
+							// be eager now: activate for all (other) threads:
+							_OT$activateForAllThreads();
+							_OT$lazyGlobalActiveFlag = false;
+							affectedThread = ALL_THREADS; // threads not known to the TeamThreadManager are no longer active
+						}
 					}
 					// deactivate for 'thread', no longer active:
 					_OT$activatedThreads.remove(thread);
@@ -192,8 +218,10 @@ public /* team */ class Team implements ITeam {
 						shouldUnregister= true;
 					}
 				}
-				_OT$lazyGlobalActiveFlag = false;
 			} // release this before calling synchronized base class methods
+			if (!affectedThread.equals(ALL_THREADS))
+				TeamThreadManager.registerThreadSpecificState(this, affectedThread);
+			TeamThreadManager.activationChanged(affectedThread);
 			if (shouldUnregister) 		//$Debug(DeactivateMethod)
 				doUnregistration();
 		}
@@ -204,9 +232,11 @@ public /* team */ class Team implements ITeam {
 			boolean shouldUnregister= false;
 			synchronized (this) {
 				_OT$activatedThreads.remove(thread);
+				_OT$deactivatedThreads.remove(thread);
 				if (!_OT$lazyGlobalActiveFlag  && _OT$activatedThreads.isEmpty())
 					shouldUnregister= true;
 			}
+			TeamThreadManager.activationChanged(thread);
 			if (shouldUnregister)
 				doUnregistration();
 		}
@@ -227,22 +257,20 @@ public /* team */ class Team implements ITeam {
 	 * Don't call it from client code.
 	 */
 	public void _OT$implicitlyActivate() {
-		synchronized (this._OT$registrationLock) {
-			boolean shouldRegister= false;
-			synchronized (this) {
-				// this method is used for debugging purpose (team monitor)
-				Thread currentThread = Thread.currentThread();
-				if (!_OT$activatedThreads.containsKey(currentThread)) {
-					// register 'thread' as active:
-					_OT$activatedThreads.put(currentThread, Boolean.FALSE);
-					shouldRegister= true;
+		// this method is used for debugging purpose (team monitor)
+		Thread currentThread = Thread.currentThread();
+		//	increment thread local implicit activation counter:
+		int implActCount = (_OT$implicitActivationsPerThread.get()).intValue();
+		_OT$implicitActivationsPerThread.set(Integer.valueOf(implActCount + 1 ));
+		// register 'thread' as active unless already active:
+		if (_OT$activatedThreads.putIfAbsent(currentThread, Boolean.FALSE) == null) {
+			TeamThreadManager.activationChanged(currentThread);
+			if (_OT$registrationState != _OT$REGISTERED) {
+				// need the lock only for actually registering:
+				synchronized (this._OT$registrationLock) {
+					doRegistration(); //$Debug(ImplicitActivateMethod)
 				}
-				//	increment thread local implicit activation counter:
-				int implActCount = (_OT$implicitActivationsPerThread.get()).intValue();
-				_OT$implicitActivationsPerThread.set(Integer.valueOf(implActCount + 1 ));
 			}
-			if (shouldRegister) //$Debug(ImplicitActivateMethod)
-				doRegistration();
 		}
 	}
 
@@ -253,29 +281,36 @@ public /* team */ class Team implements ITeam {
 	 * Don't call it from client code.
 	 */
 	public void _OT$implicitlyDeactivate() {
+		int implActCount = (_OT$implicitActivationsPerThread.get()).intValue();
+		if (implActCount != 1) {
+			// nested implicit activation, no change of activation state, hence no locking needed:
+			_OT$implicitActivationsPerThread.set(Integer.valueOf(implActCount - 1));
+			return;
+		}
 		synchronized (this._OT$registrationLock) {
 			boolean shouldUnregister= false;
+			boolean changed= false;
 			synchronized(this) {
 				// this method is used for debugging purpose (team monitor)
 				Thread currentThread = Thread.currentThread();
-				boolean explicitlyActivated = false;
-				if (_OT$activatedThreads.containsKey(currentThread)) {
-					explicitlyActivated = ((Boolean) _OT$activatedThreads.get(currentThread)).booleanValue();
-				}
+				Boolean activation = _OT$activatedThreads.get(currentThread);
+				boolean explicitlyActivated = activation != null && activation.booleanValue();
 				if (!explicitlyActivated
-						&& !_OT$lazyGlobalActiveFlag // no explicit activation overriding the implicit one
-						&& ((_OT$implicitActivationsPerThread.get()).intValue() == 1))  // this is the last implicit activation
+						&& !(_OT$lazyGlobalActiveFlag && !_OT$deactivatedThreads.containsKey(currentThread))) // no explicit activation overriding the implicit one
 				{
+					// this is the last implicit activation:
 					_OT$activatedThreads.remove(currentThread);
-					if (_OT$activatedThreads.isEmpty()) // there are not other threads for which this theam is active
+					changed= true;
+					if (!_OT$lazyGlobalActiveFlag && _OT$activatedThreads.isEmpty()) // there are not other threads for which this theam is active
 					{
 						shouldUnregister= true;
 					}
 				}
 				// decrement thread local implicit activaion counter:
-				int implActCount = (_OT$implicitActivationsPerThread.get()).intValue();
 				_OT$implicitActivationsPerThread.set(Integer.valueOf(implActCount - 1));
 			}
+			if (changed)
+				TeamThreadManager.activationChanged(Thread.currentThread());
 			if (shouldUnregister) //$Debug(ImplicitDeactivateMethod)
 				doUnregistration();
 		}
@@ -314,11 +349,12 @@ public /* team */ class Team implements ITeam {
 		if (thread.equals(ALL_THREADS)) {
 			return _OT$globalActive;
 		}
-		if (_OT$lazyGlobalActiveFlag) {
+		if (_OT$lazyGlobalActiveFlag
+				&& (_OT$deactivatedThreads.isEmpty() || !_OT$deactivatedThreads.containsKey(thread))) {
 				return true;
 		} else {
 			//if (!TeamThreadManager.getExistingThreads().contains(thread)) { // this thread is already finished!
-			if (!thread.isAlive()) { // this thread is already finished!
+			if (thread != Thread.currentThread() && !thread.isAlive()) { // this thread is already finished!
 				throw new IllegalThreadStateException("Called 'isActive(...)' for a thread which is no longer running!");
 			}
 			return _OT$activatedThreads.containsKey(thread);
@@ -333,15 +369,17 @@ public /* team */ class Team implements ITeam {
 	/**
 	 * {@inheritDoc}
 	 */
-	public synchronized int _OT$saveActivationState() {
+	public int _OT$saveActivationState() {
 		int old_state = _OT$INACTIVE;
-		if (_OT$lazyGlobalActiveFlag) {
+		if (_OT$lazyGlobalActiveFlag
+				&& (_OT$deactivatedThreads.isEmpty() || !_OT$deactivatedThreads.containsKey(Thread.currentThread()))) {
 			old_state = _OT$EXPLICIT_ACTIVE;
 		} else {
 			Thread current_thread = Thread.currentThread();
-			if (_OT$activatedThreads.containsKey(current_thread)) {
+			Boolean activation = _OT$activatedThreads.get(current_thread);
+			if (activation != null) {
 				old_state = _OT$IMPLICIT_ACTIVE;
-				if (((Boolean)_OT$activatedThreads.get(current_thread)).booleanValue()) {
+				if (activation.booleanValue()) {
 					old_state = _OT$EXPLICIT_ACTIVE;
 				}
 			}
@@ -360,7 +398,10 @@ public /* team */ class Team implements ITeam {
 				boolean explicit = (old_state == _OT$EXPLICIT_ACTIVE);
 				synchronized (this) {
 					_OT$activatedThreads.put(Thread.currentThread(), Boolean.valueOf(explicit));
+					_OT$deactivatedThreads.remove(Thread.currentThread());
 				}
+				TeamThreadManager.registerThreadSpecificState(this, Thread.currentThread());
+				TeamThreadManager.activationChanged(Thread.currentThread());
 				doRegistration();
 			}
 		}
@@ -385,6 +426,10 @@ public /* team */ class Team implements ITeam {
 			else
 				_OT$unregisterFromBases();
 			_OT$registrationState = _OT$UNREGISTERED;
+			// _OT$implicitlyActivate() doesn't acquire the registrationLock while the team is registered,
+			// so a thread may have been activated concurrently, re-register for it:
+			if (!_OT$activatedThreads.isEmpty())
+				doRegistration();
 		}
 	}
 
@@ -512,6 +557,7 @@ public /* team */ class Team implements ITeam {
 		this._OT$globalActive = in.readBoolean();
 		if (this._OT$globalActive) {
 			this._OT$lazyGlobalActiveFlag = true;
+			TeamThreadManager.activationChanged(ALL_THREADS);
 			this.doRegistration();
 		}
 	}
@@ -600,6 +646,85 @@ public /* team */ class Team implements ITeam {
 		}
 	}
 
+	/**
+	 * Allocation-free variant of {@link #_OT$callAllBindings(IBoundBase2, ITeam[], int, int[], int, Object[])},
+	 * called from code generated into base methods with up to three primitive parameters
+	 * and a primitive or void return type.
+	 * Arguments and result are passed encoded as longs: integral types and booleans are widened,
+	 * float and double are passed as their raw bits.
+	 * Each team is first asked to handle its callin via {@link ITeam#_OT$callBeforeDirect};
+	 * if it cannot (replace callins, teams compiled without support for this protocol),
+	 * dispatch continues from that team using the boxed protocol.
+	 *
+	 * @param baze the current base object
+	 * @param teamsAndCallinIds active teams and callin ids as answered by TeamManager.getTeamsAndCallinIds()
+	 * @param boundMethodId an unique id for a base method in the base class.
+	 * @param shape sort of the return type (bits 0-3), number of parameters (bits 4-7),
+	 *              and the sort of each parameter (4 bits each, starting at bit 8),
+	 *              where sorts are numbered as in <code>org.objectweb.asm.Type</code>.
+	 * @return encoded result
+	 */
+	public static long _OT$callAllBindingsDirect(IBoundBase2 baze, Object[] teamsAndCallinIds, int boundMethodId, int shape, long arg0, long arg1, long arg2)
+	{
+		return callNextDirect(baze, (ITeam[]) teamsAndCallinIds[0], 0, (int[]) teamsAndCallinIds[1], boundMethodId, shape, arg0, arg1, arg2);
+	}
+
+	private static long callNextDirect(IBoundBase2 baze, ITeam[] teams, int idx, int[] callinIds, int boundMethodId, int shape, long arg0, long arg1, long arg2)
+	{
+		if (idx == teams.length)
+			return baze._OT$callOrigDirect(boundMethodId, shape, arg0, arg1, arg2);
+		ITeam currentTeam = teams[idx];
+		if (!currentTeam._OT$callBeforeDirect(baze, callinIds[idx], boundMethodId, arg0, arg1, arg2)) {
+			// fall back to the boxed protocol for this and all subsequent teams:
+			Object[] args = boxDirectArguments(shape, arg0, arg1, arg2);
+			return unboxDirect(shape, currentTeam._OT$callAllBindings(baze, teams, idx, callinIds, boundMethodId, args));
+		}
+		long result = callNextDirect(baze, teams, idx+1, callinIds, boundMethodId, shape, arg0, arg1, arg2);
+		currentTeam._OT$callAfterDirect(baze, callinIds[idx], boundMethodId, arg0, arg1, arg2, result);
+		return result;
+	}
+
+	/** Implementation of {@link IBoundBase2#_OT$callOrigDirect(int, int, long, long, long)} using the boxed protocol. */
+	static long callOrigBoxed(IBoundBase2 baze, int boundMethodId, int shape, long arg0, long arg1, long arg2) {
+		return unboxDirect(shape, baze._OT$callOrig(boundMethodId, boxDirectArguments(shape, arg0, arg1, arg2)));
+	}
+
+	private static Object[] boxDirectArguments(int shape, long arg0, long arg1, long arg2) {
+		Object[] args = new Object[(shape >>> 4) & 0xF];
+		if (args.length > 0) args[0] = boxDirect(shape >>> 8, arg0);
+		if (args.length > 1) args[1] = boxDirect(shape >>> 12, arg1);
+		if (args.length > 2) args[2] = boxDirect(shape >>> 16, arg2);
+		return args;
+	}
+
+	private static Object boxDirect(int sort, long value) {
+		switch (sort & 0xF) {
+			case 1:  return Boolean.valueOf(value != 0);
+			case 2:  return Character.valueOf((char) value);
+			case 3:  return Byte.valueOf((byte) value);
+			case 4:  return Short.valueOf((short) value);
+			case 5:  return Integer.valueOf((int) value);
+			case 6:  return Float.valueOf(Float.intBitsToFloat((int) value));
+			case 7:  return Long.valueOf(value);
+			case 8:  return Double.valueOf(Double.longBitsToDouble(value));
+			default: return null;
+		}
+	}
+
+	private static long unboxDirect(int sort, Object value) {
+		switch (sort & 0xF) {
+			case 1:  return ((Boolean) value).booleanValue() ? 1 : 0;
+			case 2:  return ((Character) value).charValue();
+			case 3:  return ((Byte) value).byteValue();
+			case 4:  return ((Short) value).shortValue();
+			case 5:  return ((Integer) value).intValue();
+			case 6:  return Float.floatToRawIntBits(((Float) value).floatValue());
+			case 7:  return ((Long) value).longValue();
+			case 8:  return Double.doubleToRawLongBits(((Double) value).doubleValue());
+			default: return 0;
+		}
+	}
+
 	/**
 	 * Executes all before callins for a given callin id.
 	 * Must be overridden by a team, if the team gets before callins.
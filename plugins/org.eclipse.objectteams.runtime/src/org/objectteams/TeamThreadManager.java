@@ -17,8 +17,12 @@
  **********************************************************************/
 package org.objectteams;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -37,14 +41,100 @@ public class TeamThreadManager {
 	private static HashSet<ITeam> globalActiveTeams = new HashSet<ITeam>();
 	private static WeakHashMap<ITeam,Object> teamsWithActivationInheritance = new WeakHashMap<ITeam,Object>();
 	private static HashSet<Thread> existingThreads = new HashSet<Thread>();
+	private static volatile boolean hasTeamsWithActivationInheritance = false;
+
+	// workaround for application hang on Mac OS with Apple JVM:
+	private static final boolean IS_MAC = System.getProperty("os.name", "").startsWith("Mac");
+
+	// -------------------------------------------------------
+	// ---------- Modes for tracking threads -----------------
+	// -------------------------------------------------------
+	/**
+	 * EAGER: all threads are registered on start, deactivating a globally active team for one thread
+	 * 			eagerly activates that team for all other known threads.
+	 * LAZY:  no per-thread bookkeeping on thread start, teams represent global activation by a flag
+	 * 			plus the set of threads for which the team has been deactivated.
+	 * 			Only threads for which some team holds thread-specific activation state are remembered,
+	 * 			so that this state can be discarded when the thread ends.
+	 * 			Recommended for applications that start large numbers of (virtual) threads.
+	 */
+	private enum ThreadTrackingMode { EAGER, LAZY }
+	private static ThreadTrackingMode threadTrackingMode = ThreadTrackingMode.EAGER;
+	static {
+		String prop = System.getProperty("ot.thread.tracking");
+		for (ThreadTrackingMode mode : ThreadTrackingMode.values()) {
+			if (mode.name().equals(prop)) {
+				threadTrackingMode = mode;
+				break;
+			}
+		}
+	}
+
+	/*
+	 * Activation epochs: clients (like the OTDRE dispatch code) may cache information derived from
+	 * the activation state of teams, as long as the epoch answered by getActivationEpoch() is unchanged.
+	 * Changes affecting only the current thread increment the thread's own epoch,
+	 * all other changes increment the global epoch, thus invalidating the caches of all threads.
+	 */
+	private static final AtomicInteger globalActivationEpoch = new AtomicInteger();
+	private static final class ThreadActivationEpoch {
+		int value;
+	}
+	private static final ThreadLocal<ThreadActivationEpoch> threadActivationEpoch = new ThreadLocal<ThreadActivationEpoch>() {
+		@Override
+		protected ThreadActivationEpoch initialValue() {
+			return new ThreadActivationEpoch();
+		}
+	};
+
+	/**
+	 * Answer whether teams should represent global activation without per-thread entries,
+	 * because threads are not registered with this class.
+	 */
+	public static boolean isLazyThreadTracking() {
+		return threadTrackingMode == ThreadTrackingMode.LAZY;
+	}
+
+	/* LAZY: teams holding thread-specific activation state, per thread. */
+	private static final ConcurrentWeakIdentityMap<Thread, Set<ITeam>> teamsWithThreadSpecificState = new ConcurrentWeakIdentityMap<Thread, Set<ITeam>>();
+
+	/**
+	 * Signal that the given team has recorded activation state specific to the given thread.
+	 * With lazy thread tracking this state will be discarded when the thread ends.
+	 */
+	public static void registerThreadSpecificState(ITeam aTeam, Thread thread) {
+		if (threadTrackingMode != ThreadTrackingMode.LAZY)
+			return;
+		Set<ITeam> teams = teamsWithThreadSpecificState.get(thread);
+		if (teams == null) {
+			Set<ITeam> newTeams = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<ITeam, Boolean>()));
+			teams = teamsWithThreadSpecificState.putIfAbsent(thread, newTeams);
+			if (teams == null)
+				teams = newTeams;
+		}
+		teams.add(aTeam);
+	}
 
 	public static boolean newThreadStarted(boolean isMain, Thread parent) {
 		Thread currentThread = Thread.currentThread();
+		if (threadTrackingMode == ThreadTrackingMode.LAZY) {
+			// global activation needs no per-thread entries, only pass inheritable activation from parent to child:
+			if (parent != null && hasTeamsWithActivationInheritance) {
+				ITeam[] inheritableTeams;
+				synchronized (TeamThreadManager.class) {
+					inheritableTeams = teamsWithActivationInheritance.keySet().toArray(new ITeam[teamsWithActivationInheritance.size()]);
+				}
+				for (ITeam t : inheritableTeams)
+					if (t.internalIsActiveSpecificallyFor(parent))
+						t.activate(currentThread);
+			}
+			return true; // threadEnded() discards thread-specific activation state, if any
+		}
 		// already registered?
 		if (existingThreads.contains(currentThread))
 			return false;
 		// workaround for application hang on Mac OS with Apple JVM:
-		if (System.getProperty("os.name").startsWith("Mac"))
+		if (IS_MAC)
 			if (currentThread.getName().equals("AWT-Shutdown"))
 				return false;
 
@@ -90,6 +180,19 @@ public class TeamThreadManager {
 	}
 
 	public static void threadEnded() {
+		if (threadTrackingMode == ThreadTrackingMode.LAZY) {
+			Thread currentThread = Thread.currentThread();
+			Set<ITeam> teams = teamsWithThreadSpecificState.remove(currentThread);
+			if (teams != null) {
+				ITeam[] teamsToDeactivate;
+				synchronized (teams) {
+					teamsToDeactivate = teams.toArray(new ITeam[teams.size()]);
+				}
+				for (ITeam t : teamsToDeactivate)
+					t.deactivateForEndedThread(currentThread);
+			}
+			return;
+		}
 		ITeam[] teamsToDeactivate = internalThreadEnded();
 		// + remove per thread activation:
 		for (ITeam t : teamsToDeactivate)
@@ -110,14 +213,37 @@ public class TeamThreadManager {
 		globalActiveTeams.remove(t);
 	}
 
+	/**
+	 * Signal that the activation state of some team has changed for the given thread.
+	 * Must be called <em>after</em> the change has been performed.
+	 * @param thread the affected thread, or {@link Team#ALL_THREADS}.
+	 */
+	public static void activationChanged(Thread thread) {
+		if (thread == Thread.currentThread())
+			threadActivationEpoch.get().value++;
+		else
+			globalActivationEpoch.incrementAndGet();
+	}
+
+	/**
+	 * Answer a value that changes whenever the activation state of any team may have changed
+	 * as seen from the current thread.
+	 * Must be read <em>before</em> querying the activation state that is to be cached.
+	 */
+	public static long getActivationEpoch() {
+		return ((long)globalActivationEpoch.get() << 32) | (threadActivationEpoch.get().value & 0xFFFFFFFFL);
+	}
+
 	public static HashSet<Thread> getExistingThreads() {
 		return existingThreads;
 	}
-	public static void registerTeamForActivationInheritance(ITeam aTeam) {
+	public synchronized static void registerTeamForActivationInheritance(ITeam aTeam) {
 		teamsWithActivationInheritance.put(aTeam,token);
+		hasTeamsWithActivationInheritance = true;
 	}
-	public static void unRegisterTeamForActivationInheritance(ITeam aTeam) {
+	public synchronized static void unRegisterTeamForActivationInheritance(ITeam aTeam) {
 		teamsWithActivationInheritance.remove(aTeam);
+		hasTeamsWithActivationInheritance = !teamsWithActivationInheritance.isEmpty();
 	}
 
 }
@@ -22,9 +22,19 @@
  **********************************************************************/
 package org.eclipse.objectteams.otdt.test.builder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
 import junit.framework.Test;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
@@ -32,6 +42,10 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.compiler.CategorizedProblem;
 import org.eclipse.jdt.core.tests.builder.Problem;
 import org.eclipse.jdt.core.tests.util.Util;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.builder.JavaBuilder;
+import org.eclipse.jdt.internal.core.builder.State;
+import org.eclipse.objectteams.otdt.internal.core.builder.OTDependencies;
 import static org.eclipse.objectteams.otdt.tests.ClasspathUtil.getOTREPath;
 
 /**
@@ -925,4 +939,276 @@ public class IncrementalTests extends OTBuilderTests {
 		expectingNoProblems();
 	}
 
+	/*
+	 * Only the body of a role method in the super team is modified,
+	 * the sub team must be recompiled since it contains a copy of that method.
+	 */
+	public void testModifySuperTeamRoleMethodBody() throws Exception {
+		System.out.println("***** testModifySuperTeamRoleMethodBody() *****");
+		IPath projectPath = env.addProject("Project", "1.5");
+		env.addExternalJars(projectPath, Util.getJavaClassLibs());
+		env.addExternalJar(projectPath, getOTREPath(this.weavingScheme));
+
+		// remove old package fragment root so that names don't collide
+		env.removePackageFragmentRoot(projectPath, "");
+
+		IPath root = env.addPackageFragmentRoot(projectPath, "src");
+		env.setOutputFolder(projectPath, "bin");
+
+		env.addClass(root, "p", "AA",
+			"package p;	\n"+
+			"public team class AA {	\n"+
+			"   protected class R {\n" +
+			"       protected String bar() { return \"before-edit\"; }\n"+
+			"}}");
+
+		env.addClass(root, "p", "AB",
+			"package p;	\n"+
+			"public team class AB extends AA {\n"+
+			"   protected class R {\n"+
+			"       protected String other() { return \"other\"; }\n"+
+			"   }\n"+
+			"}");
+
+		fullBuild(projectPath);
+		expectingNoProblems();
+		assertTrue(classFileContains("Project", "p", "AB$__OT__R.class", "before-edit"));
+
+		/* Change the body of R.bar() only */
+		env.addClass(root, "p", "AA",
+			"package p;	\n"+
+			"public team class AA {	\n"+
+			"   protected class R {\n" +
+			"       protected String bar() { return \"after-edit\"; }\n"+
+			"}}");
+
+		/* build must recompile AB, which has no name based dependency on the changed method. */
+		incrementalBuild(projectPath);
+		expectingNoProblems();
+		assertTrue("sub team not recompiled", classFileContains("Project", "p", "AB$__OT__R.class", "after-edit"));
+	}
+
+	/*
+	 * A base class changes structurally,
+	 * a sub team that inherits the playedBy binding from its super team must be recompiled.
+	 */
+	public void testModifyBaseOfInheritedPlayedBy() throws Exception {
+		System.out.println("***** testModifyBaseOfInheritedPlayedBy() *****");
+		IPath projectPath = env.addProject("Project", "1.5");
+		env.addExternalJars(projectPath, Util.getJavaClassLibs());
+		env.addExternalJar(projectPath, getOTREPath(this.weavingScheme));
+
+		// remove old package fragment root so that names don't collide
+		env.removePackageFragmentRoot(projectPath, "");
+
+		IPath root = env.addPackageFragmentRoot(projectPath, "src");
+		env.setOutputFolder(projectPath, "bin");
+
+		env.addClass(root, "p0", "Name",
+			"package p0;	\n"+
+			"public class Name {}");
+		env.addClass(root, "p0", "SpecialName",
+			"package p0;	\n"+
+			"public class SpecialName extends Name {}");
+		env.addClass(root, "p0", "Base",
+			"package p0;	\n"+
+			"public class Base {	\n"+
+			"   public Name getName() { return new Name(); }\n"+
+			"}");
+		env.addClass(root, "p", "T1",
+			"package p;	\n"+
+			"import base p0.Base;\n"+
+			"public team class T1 {	\n"+
+			"   protected class R playedBy Base {\n" +
+			"       protected abstract p0.Name getName();\n" +
+			"       getName -> getName;\n"+
+			"   }\n"+
+			"}");
+		env.addClass(root, "p", "T2",
+			"package p;	\n"+
+			"public team class T2 extends T1 {\n"+
+			"   protected class R {\n" +
+			"       protected String describe() { return String.valueOf(getName()); }\n" +
+			"   }\n"+
+			"}");
+
+		fullBuild(projectPath);
+		expectingNoProblems();
+
+		/* Change the return type of the bound base method */
+		env.addClass(root, "p0", "Base",
+			"package p0;	\n"+
+			"public class Base {	\n"+
+			"   public SpecialName getName() { return new SpecialName(); }\n"+
+			"}");
+
+		/* build must recompile T2, which does not mention Base. */
+		incrementalBuild(projectPath);
+		expectingNoProblems();
+		assertTrue("bound team not recompiled", classFileContains("Project", "p", "T1$__OT__R.class", "Lp0/SpecialName;"));
+		assertTrue("sub team not recompiled", classFileContains("Project", "p", "T2$__OT__R.class", "Lp0/SpecialName;"));
+	}
+
+	/*
+	 * A role file of a nested team is modified,
+	 * the file of the outermost team must be compiled together with it.
+	 */
+	public void testModifyRoFiOfNestedTeam() throws Exception {
+		System.out.println("***** testModifyRoFiOfNestedTeam() *****");
+		IPath projectPath = env.addProject("Project", "1.5");
+		env.addExternalJars(projectPath, Util.getJavaClassLibs());
+		env.addExternalJar(projectPath, getOTREPath(this.weavingScheme));
+
+		// remove old package fragment root so that names don't collide
+		env.removePackageFragmentRoot(projectPath, "");
+
+		IPath root = env.addPackageFragmentRoot(projectPath, "src");
+		env.setOutputFolder(projectPath, "bin");
+
+		env.addClass(root, "p", "Outer",
+			"package p;	\n"+
+			"public team class Outer {	\n"+
+			"   public team class Inner {\n" +
+			"       public String test() { return new RF().m(); }\n"+
+			"   }\n"+
+			"}");
+		env.addClass(root, "p.Outer.Inner", "RF",
+			"team package p.Outer.Inner;	\n"+
+			"protected class RF {\n"+
+			"   protected String m() { return \"before-edit\"; }\n"+
+			"}");
+
+		fullBuild(projectPath);
+		expectingNoProblems();
+
+		env.addClass(root, "p.Outer.Inner", "RF",
+			"team package p.Outer.Inner;	\n"+
+			"protected class RF {\n"+
+			"   protected String m() { return \"after-edit\"; }\n"+
+			"}");
+
+		incrementalBuild(projectPath);
+		expectingNoProblems();
+		assertTrue("role file not recompiled", classFileContains("Project", "p", "RF.class", "after-edit"));
+	}
+
+	/*
+	 * A state written by a previous version (without OT/J dependencies) is not read,
+	 * instead a full build records the dependencies again.
+	 */
+	public void testReadOldState() throws Exception {
+		System.out.println("***** testReadOldState() *****");
+		IPath projectPath = env.addProject("Project", "1.5");
+		env.addExternalJars(projectPath, Util.getJavaClassLibs());
+		env.addExternalJar(projectPath, getOTREPath(this.weavingScheme));
+
+		// remove old package fragment root so that names don't collide
+		env.removePackageFragmentRoot(projectPath, "");
+
+		IPath root = env.addPackageFragmentRoot(projectPath, "src");
+		env.setOutputFolder(projectPath, "bin");
+
+		env.addClass(root, "p", "AA",
+			"package p;	\n"+
+			"public team class AA {	}");
+		env.addClass(root, "p.AA", "R",
+			"team package p.AA;	\n"+
+			"protected class R {}");
+
+		fullBuild(projectPath);
+		expectingNoProblems();
+
+		IProject project = env.getProject("Project");
+		JavaModelManager manager = JavaModelManager.getJavaModelManager();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			JavaBuilder.writeState(manager.getLastBuiltState(project, null), out);
+		}
+		byte[] stateBytes = bytes.toByteArray();
+
+		// the current state is read including its OT/J dependencies:
+		State state = JavaBuilder.readState(project, new DataInputStream(new ByteArrayInputStream(stateBytes)));
+		assertNotNull(state);
+		OTDependencies dependencies = state.getOTDependencies().get("src/p/AA/R.java");
+		assertNotNull(dependencies);
+		assertEquals("p/AA", dependencies.enclosingTeam);
+
+		// a state of the previous version is not read:
+		stateBytes[0] = (byte) (State.VERSION - 1);
+		assertNull(JavaBuilder.readState(project, new DataInputStream(new ByteArrayInputStream(stateBytes))));
+
+		// without a state the next build is a full build:
+		manager.setLastBuiltState(project, null);
+		env.addClass(root, "p.AA", "R",
+			"team package p.AA;	\n"+
+			"protected class R { void m() {} }");
+		incrementalBuild(projectPath);
+		expectingNoProblems();
+		state = (State) manager.getLastBuiltState(project, null);
+		assertNotNull(state.getOTDependencies().get("src/p/AA/R.java"));
+	}
+
+	/*
+	 * Only the body of a role method in a super team from a prerequisite project is modified,
+	 * the sub team must be recompiled since it contains a copy of that method.
+	 */
+	public void testModifySuperTeamInOtherProject() throws Exception {
+		System.out.println("***** testModifySuperTeamInOtherProject() *****");
+		IPath superPath = env.addProject("SuperProject", "1.5");
+		env.addExternalJars(superPath, Util.getJavaClassLibs());
+		env.addExternalJar(superPath, getOTREPath(this.weavingScheme));
+		env.removePackageFragmentRoot(superPath, "");
+		IPath superRoot = env.addPackageFragmentRoot(superPath, "src");
+		env.setOutputFolder(superPath, "bin");
+
+		IPath subPath = env.addProject("SubProject", "1.5");
+		env.addExternalJars(subPath, Util.getJavaClassLibs());
+		env.addExternalJar(subPath, getOTREPath(this.weavingScheme));
+		env.removePackageFragmentRoot(subPath, "");
+		IPath subRoot = env.addPackageFragmentRoot(subPath, "src");
+		env.setOutputFolder(subPath, "bin");
+		env.addRequiredProject(subPath, superPath);
+
+		env.addClass(superRoot, "p", "AA",
+			"package p;	\n"+
+			"public team class AA {	\n"+
+			"   protected class R {\n" +
+			"       protected String bar() { return \"before-edit\"; }\n"+
+			"}}");
+		env.addClass(subRoot, "q", "AB",
+			"package q;	\n"+
+			"public team class AB extends p.AA {\n"+
+			"   protected class R {\n"+
+			"       protected String other() { return \"other\"; }\n"+
+			"   }\n"+
+			"}");
+
+		fullBuild();
+		expectingNoProblems();
+		assertTrue(classFileContains("SubProject", "q", "AB$__OT__R.class", "before-edit"));
+
+		/* Change the body of R.bar() only */
+		env.addClass(superRoot, "p", "AA",
+			"package p;	\n"+
+			"public team class AA {	\n"+
+			"   protected class R {\n" +
+			"       protected String bar() { return \"after-edit\"; }\n"+
+			"}}");
+
+		incrementalBuild();
+		expectingNoProblems();
+		assertTrue("sub team not recompiled", classFileContains("SubProject", "q", "AB$__OT__R.class", "after-edit"));
+	}
+
+	/** Does any class file in the given package, whose name ends in the given suffix, contain the given string? */
+	private boolean classFileContains(String projectName, String packageFolder, String fileNameSuffix, String string) throws IOException {
+		File folder = env.getProject(projectName).getFolder("bin").getFolder(packageFolder).getLocation().toFile();
+		File[] files = folder.listFiles();
+		assertNotNull("missing output folder "+folder, files);
+		for (File file : files)
+			if (file.getName().endsWith(fileNameSuffix)
+					&& new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1).contains(string))
+				return true;
+		return false;
+	}
 }
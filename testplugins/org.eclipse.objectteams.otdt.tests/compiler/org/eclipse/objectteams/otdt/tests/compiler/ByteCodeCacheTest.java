@@ -0,0 +1,270 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.compiler;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.objectteams.otdt.internal.core.compiler.model.ByteCodeCache;
+import org.eclipse.objectteams.otdt.tests.otjld.AbstractOTJLDTest;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ByteCodeCache}, which bounds the class file bytes retained for copy inheritance.
+ */
+public class ByteCodeCacheTest extends AbstractOTJLDTest {
+
+	public ByteCodeCacheTest(String name) {
+		super(name);
+	}
+	public static Class<? extends TestCase> testClass() {
+		return ByteCodeCacheTest.class;
+	}
+	public static Test suite() {
+		return buildMinimalComplianceTestSuite(testClass(), F_1_8);
+	}
+
+	/** Records evictions, optionally failing to evict. */
+	static class Owner implements ByteCodeCache.Evictable {
+		final String name;
+		final List<String> log;
+		final boolean fail;
+		Owner(String name, List<String> log, boolean fail) {
+			this.name = name;
+			this.log = log;
+			this.fail = fail;
+		}
+		@Override
+		public void evictByteCode() {
+			synchronized (this.log) {
+				this.log.add(this.name);
+			}
+			if (this.fail)
+				throw new IllegalStateException("cannot evict "+this.name);
+		}
+	}
+
+	// the owner used longest ago is evicted first, re-using an owner neither counts its bytes twice nor evicts it
+	public void testLeastRecentlyUsedFirst() {
+		List<String> evicted = new ArrayList<String>();
+		ByteCodeCache cache = new ByteCodeCache(250);
+		Owner a = new Owner("a", evicted, false);
+		Owner b = new Owner("b", evicted, false);
+		Owner c = new Owner("c", evicted, false);
+		cache.retain(a, new byte[100]);
+		cache.retain(b, new byte[100]);
+		cache.retain(a, new byte[100]);
+		assertEquals(200, cache.size());
+		assertTrue(evicted.isEmpty());
+
+		cache.retain(c, new byte[100]);
+		assertEquals(Arrays.asList("b"), evicted);
+		assertTrue(cache.isRetained(a));
+		assertFalse(cache.isRetained(b));
+		assertTrue(cache.isRetained(c));
+		assertEquals(200, cache.size());
+	}
+
+	// a team larger than the capacity still gets its bytes: the owner being used is never evicted, only everybody else
+	public void testOwnerInUseExceedsCapacity() {
+		List<String> evicted = new ArrayList<String>();
+		ByteCodeCache cache = new ByteCodeCache(150);
+		Owner a = new Owner("a", evicted, false);
+		Owner b = new Owner("b", evicted, false);
+		Owner big = new Owner("big", evicted, false);
+		cache.retain(a, new byte[50]);
+		cache.forget(a); // owner has dropped its bytes by itself, nothing to evict
+		cache.retain(b, new byte[50]);
+		cache.retain(big, new byte[400]);
+		assertEquals(Arrays.asList("b"), evicted);
+		assertTrue(cache.isRetained(big));
+		assertEquals(400, cache.size());
+
+		cache.retain(a, new byte[50]);
+		assertEquals("the big owner goes as soon as it is no longer in use", Arrays.asList("b", "big"), evicted);
+		assertEquals(50, cache.size());
+	}
+
+	// an owner that fails to drop its bytes doesn't keep the others from being evicted, nor from being registered anew
+	public void testFailingOwner() {
+		List<String> evicted = new ArrayList<String>();
+		ByteCodeCache cache = new ByteCodeCache(100);
+		Owner a = new Owner("a", evicted, true);
+		Owner b = new Owner("b", evicted, false);
+		Owner c = new Owner("c", evicted, false);
+		cache.retain(a, new byte[50]);
+		cache.retain(b, new byte[50]);
+		try {
+			cache.retain(c, new byte[100]);
+			fail("failure to evict should be reported");
+		} catch (IllegalStateException e) {
+			assertEquals("cannot evict a", e.getMessage());
+		}
+		assertEquals(Arrays.asList("a", "b"), evicted);
+		assertFalse(cache.isRetained(a));
+		assertFalse(cache.isRetained(b));
+		assertEquals(100, cache.size());
+
+		cache.retain(b, new byte[50]);
+		assertEquals(Arrays.asList("a", "b", "c"), evicted);
+	}
+
+	// an owner being evicted by one thread may wait for another thread that is using the cache, without deadlock
+	public void testEvictionWaitsForOtherThread() throws InterruptedException {
+		final ByteCodeCache cache = new ByteCodeCache(100);
+		final Owner other = new Owner("other", new ArrayList<String>(), false);
+		final boolean[] otherDone = new boolean[1];
+		ByteCodeCache.Evictable waiting = new ByteCodeCache.Evictable() {
+			@Override
+			public void evictByteCode() {
+				// like a model whose lock is held by another thread that is about to call retain():
+				Thread thread = new Thread() {
+					@Override
+					public void run() {
+						cache.retain(other, new byte[10]);
+					}
+				};
+				thread.start();
+				try {
+					thread.join(10000);
+				} catch (InterruptedException e) {
+					return;
+				}
+				otherDone[0] = !thread.isAlive();
+			}
+		};
+		cache.retain(waiting, new byte[100]);
+		cache.retain(new Owner("new", new ArrayList<String>(), false), new byte[50]);
+		assertTrue("retain() from another thread was blocked during eviction", otherDone[0]);
+	}
+
+	// many threads retaining and forgetting concurrently: the size stays consistent with the registered owners
+	public void testConcurrentUse() throws InterruptedException {
+		final ByteCodeCache cache = new ByteCodeCache(1000);
+		final List<String> evicted = new ArrayList<String>();
+		final Owner[] owners = new Owner[40];
+		for (int i = 0; i < owners.length; i++)
+			owners[i] = new Owner("o"+i, evicted, false);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int n = 0; n < 10000; n++) {
+						Owner owner = owners[(n * 7 + offset) % owners.length];
+						if (n % 5 == 0)
+							cache.forget(owner);
+						else
+							cache.retain(owner, new byte[100]);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		long expectedSize = 0;
+		for (Owner owner : owners)
+			if (cache.isRetained(owner))
+				expectedSize += 100;
+		assertEquals(expectedSize, cache.size());
+		assertTrue("size "+cache.size()+" exceeds capacity", cache.size() <= 1000);
+		assertFalse(evicted.isEmpty());
+	}
+
+	// with a capacity of 0 bytes for copy inheritance are evicted as soon as possible and re-read from disk,
+	// which must produce the same class files as a compilation that retains all bytes
+	public void testEvictedBytesAreReRead() throws Exception {
+		String[] sources = new String[] {
+			"p/BCMain.java",
+				"package p;\n" +
+				"public class BCMain {\n" +
+				"    public static void main(String[] args) {\n" +
+				"        new BCSubTeam1().run(new BCBase());\n" +
+				"        new BCSubTeam2().run(new BCBase());\n" +
+				"    }\n" +
+				"}\n",
+			"p/BCBase.java",
+				"package p;\n" +
+				"public class BCBase {\n" +
+				"    public String m() { return \"base\"; }\n" +
+				"}\n",
+			"p/BCTeam.java",
+				"package p;\n" +
+				"public team class BCTeam {\n" +
+				"    protected class R playedBy BCBase {\n" +
+				"        String tag() { return \"R\"; }\n" +
+				"        callin String wrap() { return tag()+\"(\"+base.wrap()+\")\"; }\n" +
+				"        wrap <- replace m;\n" +
+				"    }\n" +
+				"    public void run(BCBase b) {\n" +
+				"        within (this) System.out.print(b.m()+\";\");\n" +
+				"    }\n" +
+				"}\n",
+			"p/BCSubTeam1.java",
+				"package p;\n" +
+				"public team class BCSubTeam1 extends BCTeam {\n" +
+				"    protected class R {\n" +
+				"        String tag() { return \"1\"+tsuper.tag(); }\n" +
+				"    }\n" +
+				"}\n",
+			"p/BCSubTeam2.java",
+				"package p;\n" +
+				"public team class BCSubTeam2 extends BCTeam {\n" +
+				"    protected class R {\n" +
+				"        String tag() { return \"2\"+tsuper.tag(); }\n" +
+				"    }\n" +
+				"}\n"
+		};
+		String expectedOutput = "1R(base);2R(base);";
+		runConformTest(sources, expectedOutput);
+		Map<String, byte[]> retained = readClassFiles();
+
+		String previous = System.setProperty(ByteCodeCache.CAPACITY_PROPERTY, "0");
+		try {
+			runConformTest(sources, expectedOutput);
+		} finally {
+			if (previous == null)
+				System.clearProperty(ByteCodeCache.CAPACITY_PROPERTY);
+			else
+				System.setProperty(ByteCodeCache.CAPACITY_PROPERTY, previous);
+		}
+		Map<String, byte[]> reRead = readClassFiles();
+		assertEquals(retained.keySet(), reRead.keySet());
+		for (Map.Entry<String, byte[]> entry : retained.entrySet())
+			assertTrue("class file differs: "+entry.getKey(), Arrays.equals(entry.getValue(), reRead.get(entry.getKey())));
+	}
+
+	private Map<String, byte[]> readClassFiles() throws Exception {
+		Map<String, byte[]> result = new TreeMap<String, byte[]>();
+		File[] files = new File(OUTPUT_DIR, "p").listFiles();
+		assertNotNull("no class files", files);
+		for (File file : files)
+			if (file.getName().endsWith(".class"))
+				result.put(file.getName(), Files.readAllBytes(file.toPath()));
+		return result;
+	}
+}
@@ -0,0 +1,122 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ *		Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.compiler;
+
+import java.io.File;
+
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.util.ClassFileBytesDisassembler;
+import org.eclipse.jdt.internal.compiler.lookup.Binding;
+import org.eclipse.jdt.internal.compiler.lookup.ReferenceBinding;
+import org.eclipse.objectteams.otdt.internal.core.compiler.model.TypeModel;
+import org.eclipse.objectteams.otdt.tests.otjld.AbstractOTJLDTest;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+
+/**
+ * Tests for sharing the bindings resolved from a constant pool among all readers of the same class file
+ * (see <code>TypeModel.getResolvedConstantPools()</code>).
+ */
+public class ResolvedConstantPoolTest extends AbstractOTJLDTest {
+
+	public ResolvedConstantPoolTest(String name) {
+		super(name);
+	}
+	public static Class<? extends TestCase> testClass() {
+		return ResolvedConstantPoolTest.class;
+	}
+	public static Test suite() {
+		return buildMinimalComplianceTestSuite(testClass(), F_1_8);
+	}
+
+	// readers of the same class file share their tables, also after the bytes have been evicted and re-read,
+	// readers of different class files never do
+	public void testTablesPerClassFile() {
+		TypeModel model = new TypeModel((ReferenceBinding) null);
+		byte[] bytes = new byte[] { 1, 2, 3 };
+		Binding[][] tables = model.getResolvedConstantPools(bytes, 3);
+		assertEquals(3, tables.length);
+		assertSame(tables, model.getResolvedConstantPools(bytes, 3));
+		assertSame("re-read bytes", tables, model.getResolvedConstantPools(bytes.clone(), 3));
+		assertNotSame("other class file", tables, model.getResolvedConstantPools(new byte[] { 1, 2, 4 }, 3));
+		assertNotSame("other class file", tables, model.getResolvedConstantPools(new byte[] { 1, 2, 3, 0 }, 3));
+	}
+
+	// the same role is copied into two sub teams, resolving local variable types both erased and generic
+	public void testErasedAndGenericLocals() throws Exception {
+		runConformTest(
+			new String[] {
+		"p/CPMain.java",
+				"package p;\n" +
+				"public class CPMain {\n" +
+				"    public static void main(String[] args) {\n" +
+				"        System.out.print(new CPSubTeam1().run()+\";\"+new CPSubTeam2().run()+\";\");\n" +
+				"    }\n" +
+				"}\n",
+		"p/CPTeam.java",
+				"package p;\n" +
+				"import java.util.ArrayList;\n" +
+				"import java.util.List;\n" +
+				"public team class CPTeam {\n" +
+				"    protected class R {\n" +
+				"        protected String join() {\n" +
+				"            List<String> names = new ArrayList<String>();\n" +
+				"            names.add(tag());\n" +
+				"            List raw = names;\n" +
+				"            String first = names.get(0);\n" +
+				"            return first+\"/\"+raw.size();\n" +
+				"        }\n" +
+				"        String tag() { return \"R\"; }\n" +
+				"    }\n" +
+				"    public String run() { return new R().join(); }\n" +
+				"}\n",
+		"p/CPSubTeam1.java",
+				"package p;\n" +
+				"public team class CPSubTeam1 extends CPTeam {\n" +
+				"    protected class R {\n" +
+				"        String tag() { return \"R1\"; }\n" +
+				"    }\n" +
+				"}\n",
+		"p/CPSubTeam2.java",
+				"package p;\n" +
+				"public team class CPSubTeam2 extends CPTeam {\n" +
+				"    protected class R {\n" +
+				"        String tag() { return \"R22\"; }\n" +
+				"    }\n" +
+				"}\n"
+			},
+			"R1/1;R22/1;");
+
+		for (String subTeam : new String[] { "CPSubTeam1", "CPSubTeam2" }) {
+			String actualOutput = disassemble("p/"+subTeam+"$__OT__R.class");
+			int typeTable = actualOutput.indexOf("Local variable type table:");
+			assertTrue("missing local variable type table in "+subTeam, typeTable != -1);
+			assertTrue("wrong erased type in "+subTeam,
+					actualOutput.substring(0, typeTable).contains("local: names index: 2 type: java.util.List\n"));
+			assertTrue("wrong generic type in "+subTeam,
+					actualOutput.substring(typeTable).contains("local: names index: 2 type: java.util.List<java.lang.String>\n"));
+		}
+	}
+
+	private String disassemble(String fileName) throws Exception {
+		ClassFileBytesDisassembler disassembler = ToolFactory.createDefaultClassFileBytesDisassembler();
+		byte[] classFileBytes = org.eclipse.jdt.internal.compiler.util.Util.getFileByteContent(new File(OUTPUT_DIR + File.separator + fileName));
+		return disassembler.disassemble(classFileBytes, "\n", ClassFileBytesDisassembler.DETAILED);
+	}
+}
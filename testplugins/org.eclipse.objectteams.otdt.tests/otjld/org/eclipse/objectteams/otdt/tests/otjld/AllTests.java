@@ -34,13 +34,17 @@ import org.eclipse.objectteams.otdt.tests.otjld.calloutbinding.OverridingAccessR
 import org.eclipse.objectteams.otdt.tests.otjld.liftlower.AllSmartLiftingTests;
 import org.eclipse.objectteams.otdt.tests.otjld.liftlower.DeclaredLifting;
 import org.eclipse.objectteams.otdt.tests.otjld.other.AccessModifiers;
+import org.eclipse.objectteams.otdt.tests.otjld.other.AheadOfTimeWeaving;
 import org.eclipse.objectteams.otdt.tests.otjld.other.Exceptions;
 import org.eclipse.objectteams.otdt.tests.otjld.other.Java5;
 import org.eclipse.objectteams.otdt.tests.otjld.other.Java7;
 import org.eclipse.objectteams.otdt.tests.otjld.other.Java8;
+import org.eclipse.objectteams.otdt.tests.otjld.other.KeepFrames;
+import org.eclipse.objectteams.otdt.tests.otjld.other.Metrics;
 import org.eclipse.objectteams.otdt.tests.otjld.other.Misc;
 import org.eclipse.objectteams.otdt.tests.otjld.other.Modifiers;
 import org.eclipse.objectteams.otdt.tests.otjld.other.OTNullTypeAnnotationTest;
+import org.eclipse.objectteams.otdt.tests.otjld.other.ParallelHierarchies;
 import org.eclipse.objectteams.otdt.tests.otjld.regression.CompilationOrder;
 import org.eclipse.objectteams.otdt.tests.otjld.regression.ComplexStructures;
 import org.eclipse.objectteams.otdt.tests.otjld.regression.DevelopmentExamples;
@@ -141,6 +145,10 @@ public class AllTests {
 		/*---*/addComplianceSuite(suite, Java8.testClass(), AbstractCompilerTest.F_1_8);
 		/*---*/addComplianceSuite(suite, OTNullTypeAnnotationTest.testClass(), AbstractCompilerTest.F_1_8);
 		/*0.m*/addComplianceSuite(suite, Misc.testClass());
+		/*---*/addComplianceSuite(suite, AheadOfTimeWeaving.testClass(), AbstractCompilerTest.F_1_8);
+		/*---*/addComplianceSuite(suite, Metrics.testClass(), AbstractCompilerTest.F_1_8);
+		/*---*/addComplianceSuite(suite, ParallelHierarchies.testClass(), AbstractCompilerTest.F_1_8);
+		/*---*/addComplianceSuite(suite, KeepFrames.testClass(), AbstractCompilerTest.F_1_8);
 
 		// regression:
 		/*B.1*/addComplianceSuite(suite, ReportedBugs.testClass());
@@ -8711,4 +8711,126 @@ public class CallinMethodBinding extends AbstractOTJLDTest {
 				"----------\n";
     	runner.runNegativeTest();
     }
+
+    // before/after callins to base methods with only primitive parameters are dispatched without boxing,
+    // mixed with bindings that still require boxing (parameter mapping, replace) and a base guard
+    public void testDirectDispatch1() {
+       runConformTest(
+            new String[] {
+		"TDirectDispatch1Main.java",
+			    "public class TDirectDispatch1Main {\n" +
+			    "    public static void main(String[] args) {\n" +
+			    "        TeamDirectDispatch1 t = new TeamDirectDispatch1();\n" +
+			    "        t.activate();\n" +
+			    "        TDirectDispatch1 b = new TDirectDispatch1();\n" +
+			    "        System.out.print(b.scale(1.5, 2.0f, true)+\"|\");\n" +
+			    "        b.tick('x');\n" +
+			    "        System.out.print(b.add(-1, 2, (short)3)+\"|\");\n" +
+			    "        System.out.print(b.add(5, 2, (short)3)+\"|\");\n" +
+			    "        System.out.print(b.id(21)+\"|\");\n" +
+			    "        System.out.print(t.log);\n" +
+			    "    }\n" +
+			    "}\n",
+		"TDirectDispatch1.java",
+			    "public class TDirectDispatch1 {\n" +
+			    "    public double scale(double d, float f, boolean b) { return b ? d * f : d; }\n" +
+			    "    public void tick(char c) { System.out.print(\"tick|\"); }\n" +
+			    "    public long add(long a, int b, short c) { return a + b + c; }\n" +
+			    "    public int id(int i) { return i; }\n" +
+			    "}\n",
+		"TeamDirectDispatch1.java",
+			    "public team class TeamDirectDispatch1 {\n" +
+			    "    public StringBuilder log = new StringBuilder();\n" +
+			    "    protected class R playedBy TDirectDispatch1 {\n" +
+			    "        void bs(double d, float f, boolean b) { log.append(\"bs(\"+d+\",\"+f+\",\"+b+\")\"); }\n" +
+			    "        b1: bs <- before scale;\n" +
+			    "        void af(double d) { log.append(\"af(\"+d+\")\"); }\n" +
+			    "        a1: af <- after scale;\n" +
+			    "        void res(double r) { log.append(\"res=\"+r); }\n" +
+			    "        a2: void res(double r) <- after double scale(double d, float f, boolean b)\n" +
+			    "            with { r <- result }\n" +
+			    "        void mp(float x) { log.append(\"mp\"+x); }\n" +
+			    "        b2: void mp(float x) <- before double scale(double d, float f, boolean b)\n" +
+			    "            with { x <- f + 1 }\n" +
+			    "        precedence b1, b2;\n" +
+			    "        precedence after a1, a2;\n" +
+			    "        void tk(char c) { log.append(\"tk\"+c); }\n" +
+			    "        tk <- after tick;\n" +
+			    "        void ad(long a, int b, short c) { log.append(\"ad\"+a+\"/\"+b+\"/\"+c); }\n" +
+			    "        void ad(long a, int b, short c) <- before long add(long a, int b, short c)\n" +
+			    "            base when (a > 0);\n" +
+			    "        void bi(int i) { log.append(\"bi\"+i); }\n" +
+			    "        bi <- before id;\n" +
+			    "        callin int ri(int i) { return base.ri(i) * 2; }\n" +
+			    "        ri <- replace id;\n" +
+			    "    }\n" +
+			    "}\n"
+            },
+            "3.0|tick|4|10|42|bs(1.5,2.0,true)mp3.0res=3.0af(1.5)tkxad5/2/3bi21");
+    }
+
+    // with -Dot.dispatch.indy base methods keep their original code guarded by an invokedynamic,
+    // which must be relinked when the team is activated and deactivated (incl. try-catch, super call and subclass receiver)
+    public void testIndyDispatch1() {
+       runTest(
+            new String[] {
+		"TIndyDispatch1Main.java",
+			    "public class TIndyDispatch1Main {\n" +
+			    "    static String run(TIndyDispatch1 b, TIndyDispatch1Sub s, TeamIndyDispatch1 t) {\n" +
+			    "        return b.work(3)+\" \"+b.name(\"x\")+\" \"+b.name(null)+\" \"+s.name(\"s\")+\" \"+t.count+\"|\";\n" +
+			    "    }\n" +
+			    "    public static void main(String[] args) {\n" +
+			    "        TIndyDispatch1 b = new TIndyDispatch1();\n" +
+			    "        TIndyDispatch1Sub s = new TIndyDispatch1Sub();\n" +
+			    "        TeamIndyDispatch1 t = new TeamIndyDispatch1();\n" +
+			    "        System.out.print(run(b, s, t));\n" +
+			    "        t.activate();\n" +
+			    "        System.out.print(run(b, s, t));\n" +
+			    "        t.deactivate();\n" +
+			    "        System.out.print(run(b, s, t));\n" +
+			    "    }\n" +
+			    "}\n",
+		"TIndyDispatch1Super.java",
+			    "public class TIndyDispatch1Super {\n" +
+			    "    public String name(String s) { return \"S:\"+s; }\n" +
+			    "}\n",
+		"TIndyDispatch1.java",
+			    "public class TIndyDispatch1 extends TIndyDispatch1Super {\n" +
+			    "    public int work(int i) { return i + 1; }\n" +
+			    "    public String name(String s) {\n" +
+			    "        String r;\n" +
+			    "        try {\n" +
+			    "            if (s == null) throw new IllegalStateException();\n" +
+			    "            r = super.name(s)+\"/B\";\n" +
+			    "        } catch (IllegalStateException e) {\n" +
+			    "            r = \"caught\";\n" +
+			    "        }\n" +
+			    "        return r;\n" +
+			    "    }\n" +
+			    "}\n",
+		"TIndyDispatch1Sub.java",
+			    "public class TIndyDispatch1Sub extends TIndyDispatch1 {}\n",
+		"TeamIndyDispatch1.java",
+			    "public team class TeamIndyDispatch1 {\n" +
+			    "    public int count;\n" +
+			    "    protected class R playedBy TIndyDispatch1 {\n" +
+			    "        void bw(int i) { count++; }\n" +
+			    "        bw <- before work;\n" +
+			    "        callin String rn(String s) { return \"[\"+base.rn(s)+\"]\"; }\n" +
+			    "        rn <- replace name;\n" +
+			    "    }\n" +
+			    "}\n"
+            },
+            false,
+            "",
+            "4 S:x/B caught S:s/B 0|4 [S:x/B] [caught] [S:s/B] 1|4 S:x/B caught S:s/B 1|",
+            "",
+            false,
+            null,
+            true,
+            new String[] { "-Dot.dispatch.indy" },
+            getCompilerOptions(),
+            null,
+            true);
+    }
 }
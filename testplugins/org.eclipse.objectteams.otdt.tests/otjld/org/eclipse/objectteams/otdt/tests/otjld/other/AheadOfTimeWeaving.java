@@ -0,0 +1,258 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.otjld.other;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.tests.util.Util;
+import org.eclipse.objectteams.otdt.core.ext.WeavingScheme;
+import org.eclipse.objectteams.otdt.tests.ClasspathUtil;
+import org.eclipse.objectteams.otdt.tests.otjld.AbstractOTJLDTest;
+
+/**
+ * Tests for weaving ahead of time by the OTDRE (<code>AheadOfTimeWeaver</code>):
+ * each program is first run normally using the java agent,
+ * then its class files are woven ahead of time and the woven program is run in a new JVM without the agent,
+ * with only the OT/J runtime on the classpath.
+ */
+public class AheadOfTimeWeaving extends AbstractOTJLDTest {
+
+	static final String AOT_WEAVER_CLASS = "org.eclipse.objectteams.otredyn.transformer.aot.AheadOfTimeWeaver";
+
+	public AheadOfTimeWeaving(String name) {
+		super(name);
+	}
+
+	// Static initializer to specify tests subset using TESTS_* static variables
+	// All specified tests which does not belong to the class are skipped...
+	static {
+//		TESTS_NAMES = new String[] { "testAOT1_callinCalloutActivation"};
+//		TESTS_NUMBERS = new int[] { 1459 };
+//		TESTS_RANGE = new int[] { 1097, -1 };
+	}
+
+	public static Test suite() {
+		return buildMinimalComplianceTestSuite(testClass(), F_1_8);
+	}
+
+	public static Class testClass() {
+		return AheadOfTimeWeaving.class;
+	}
+
+	static final String BASE_SOURCE =
+			"public class AOTBase {\n" +
+			"    private String secret;\n" +
+			"    public AOTBase(String secret) { this.secret = secret; }\n" +
+			"    public void greet() { System.out.print(\"greet;\"); }\n" +
+			"    private String reveal() { return \"revealed\"; }\n" +
+			"}\n";
+
+	static final String TEAM_SOURCE =
+			"public team class AOTTeam {\n" +
+			"    @SuppressWarnings(\"decapsulation\")\n" +
+			"    protected class R playedBy AOTBase {\n" +
+			"        String getSecret() -> get String secret;\n" +
+			"        String reveal() -> String reveal();\n" +
+			"        void before() { System.out.print(\"before \"+getSecret()+\" \"+reveal()+\";\"); }\n" +
+			"        before <- before greet;\n" +
+			"    }\n" +
+			"}\n";
+
+	// callin, callout with decapsulation of a private field and method, explicit activation and deactivation
+	public void testAOT1_callinCalloutActivation() throws Exception {
+		if (this.weavingScheme != WeavingScheme.OTDRE)
+			return;
+		String expectedOutput = "greet;before b revealed;greet;greet;";
+		runConformTest(
+			new String[] {
+		"AOTMain1.java",
+				"public class AOTMain1 {\n" +
+				"    public static void main(String[] args) {\n" +
+				"        AOTBase b = new AOTBase(\"b\");\n" +
+				"        b.greet();\n" +
+				"        AOTTeam t = new AOTTeam();\n" +
+				"        t.activate();\n" +
+				"        b.greet();\n" +
+				"        t.deactivate();\n" +
+				"        b.greet();\n" +
+				"    }\n" +
+				"}\n",
+		"AOTBase.java",
+				BASE_SOURCE,
+		"AOTTeam.java",
+				TEAM_SOURCE
+			},
+			expectedOutput);
+
+		File woven = weaveAheadOfTime(new File(OUTPUT_DIR), null, null);
+		assertEquals(expectedOutput, runWithoutAgent(woven, "AOTMain1"));
+	}
+
+	// a team configured via -Dot.teamconfig is activated at the start of the main class
+	public void testAOT2_globalActivation() throws Exception {
+		if (this.weavingScheme != WeavingScheme.OTDRE)
+			return;
+		runConformTest(
+			new String[] {
+		"AOTMain2.java",
+				"public class AOTMain2 {\n" +
+				"    public static void main(String[] args) {\n" +
+				"        new AOTBase(\"b\").greet();\n" +
+				"    }\n" +
+				"}\n",
+		"AOTBase.java",
+				BASE_SOURCE,
+		"AOTTeam.java",
+				TEAM_SOURCE
+			},
+			"greet;");
+
+		String configFile = OUTPUT_DIR+File.separator+"teams.txt";
+		Util.writeToFile("AOTTeam\n", configFile);
+		File woven = weaveAheadOfTime(new File(OUTPUT_DIR), "AOTMain2", configFile);
+		assertEquals("before b revealed;greet;", runWithoutAgent(woven, "AOTMain2"));
+	}
+
+	// activating a team that has not been woven ahead of time ignores its callins, reporting this once
+	public void testAOT3_unwovenTeam() throws Exception {
+		if (this.weavingScheme != WeavingScheme.OTDRE)
+			return;
+		runConformTest(
+			new String[] {
+		"AOTMain3.java",
+				"public class AOTMain3 {\n" +
+				"    public static void main(String[] args) {\n" +
+				"        AOTBase b = new AOTBase(\"b\");\n" +
+				"        new AOTTeam().activate();\n" +
+				"        new AOTUnwoven().activate();\n" +
+				"        new AOTUnwoven().activate();\n" +
+				"        b.greet();\n" +
+				"    }\n" +
+				"}\n",
+		"AOTBase.java",
+				BASE_SOURCE,
+		"AOTTeam.java",
+				TEAM_SOURCE,
+		"AOTUnwoven.java",
+				"public team class AOTUnwoven {\n" +
+				"    protected class R playedBy AOTBase {\n" +
+				"        void after() { System.out.print(\"unwoven;\"); }\n" +
+				"        after <- after greet;\n" +
+				"    }\n" +
+				"}\n"
+			},
+			"before b revealed;greet;unwoven;unwoven;");
+
+		// weave all classes except AOTUnwoven, which is added to the classpath unwoven:
+		File input = new File(OUTPUT_DIR+"-aot-input");
+		Util.flushDirectoryContent(input);
+		input.mkdirs();
+		for (File classFile : new File(OUTPUT_DIR).listFiles())
+			if (classFile.getName().endsWith(".class") && !classFile.getName().startsWith("AOTUnwoven"))
+				Files.copy(classFile.toPath(), new File(input, classFile.getName()).toPath());
+		File woven = weaveAheadOfTime(input, null, null);
+
+		List<String> command = javaCommand(woven.getPath(), OUTPUT_DIR, ClasspathUtil.getOTREPath(this.weavingScheme));
+		command.add("AOTMain3");
+		String[] outputs = run(command);
+		assertEquals("before b revealed;greet;", outputs[0]);
+		assertEquals("OTDRE: Team AOTUnwoven has not been woven ahead of time and no weaver is present,"
+				+ " its callin bindings are ignored (reported once per team)\n",
+				Util.convertToIndependantLineDelimiter(outputs[1]));
+	}
+
+	/** Weave the given input in a new JVM, answer the directory containing the woven classes. */
+	private File weaveAheadOfTime(File input, String mainClass, String configFile) throws Exception {
+		File woven = new File(OUTPUT_DIR+"-aot");
+		Util.flushDirectoryContent(woven);
+		List<String> classpath = new ArrayList<String>();
+		for (IPath path : ClasspathUtil.getWeaverPaths(this.weavingScheme))
+			classpath.add(path.toOSString());
+		classpath.add(ClasspathUtil.getOTREPath(this.weavingScheme));
+		List<String> command = javaCommand(classpath.toArray(new String[classpath.size()]));
+		if (configFile != null)
+			command.add(1, "-Dot.teamconfig="+configFile);
+		command.add(AOT_WEAVER_CLASS);
+		if (mainClass != null) {
+			command.add("-main");
+			command.add(mainClass);
+		}
+		command.add("-out");
+		command.add(woven.getPath());
+		command.add(input.getPath());
+		run(command);
+		assertTrue("no woven classes", woven.isDirectory());
+		return woven;
+	}
+
+	/** Run the woven classes in a new JVM without the OTDRE agent, answer the program's output. */
+	private String runWithoutAgent(File woven, String mainClass) throws Exception {
+		List<String> command = javaCommand(woven.getPath(), ClasspathUtil.getOTREPath(this.weavingScheme));
+		command.add(mainClass);
+		String[] outputs = run(command);
+		assertEquals("unexpected error output", "", outputs[1]);
+		return outputs[0];
+	}
+
+	private List<String> javaCommand(String... classpath) {
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home")+File.separator+"bin"+File.separator+"java");
+		command.add("-cp");
+		command.add(String.join(File.pathSeparator, classpath));
+		return command;
+	}
+
+	/** Run the given command, which must succeed, answer its standard output and error output. */
+	private String[] run(List<String> command) throws IOException, InterruptedException {
+		File errorFile = File.createTempFile("aot", ".err");
+		try {
+			Process process = new ProcessBuilder(command).redirectError(errorFile).start();
+			String output;
+			try (InputStream stream = process.getInputStream()) {
+				output = readAll(stream);
+			}
+			int exitCode = process.waitFor();
+			String errorOutput;
+			try (InputStream stream = Files.newInputStream(errorFile.toPath())) {
+				errorOutput = readAll(stream);
+			}
+			assertEquals("command "+command+" failed:\n"+output+errorOutput, 0, exitCode);
+			return new String[] { output, errorOutput };
+		} finally {
+			errorFile.delete();
+		}
+	}
+
+	private static String readAll(InputStream stream) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int n;
+		while ((n = stream.read(buffer)) != -1)
+			bytes.write(buffer, 0, n);
+		return bytes.toString();
+	}
+}
@@ -0,0 +1,130 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.otjld.other;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import junit.framework.Test;
+
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.util.ClassFileBytesDisassembler;
+import org.eclipse.objectteams.otdt.core.ext.WeavingScheme;
+import org.eclipse.objectteams.otdt.tests.otjld.AbstractOTJLDTest;
+
+/**
+ * Tests for weaving by the OTDRE with <code>-Dot.weaving.keepframes</code>,
+ * where methods not touched by weaving are copied with their original stack map frames.
+ * <p>
+ * The woven classes are inspected in the dump written by <code>-Dot.dump</code>
+ * (directory <code>otdyn</code> in the working directory), which is enabled for all OTJLD runs.
+ * </p>
+ */
+public class KeepFrames extends AbstractOTJLDTest {
+
+	public KeepFrames(String name) {
+		super(name);
+	}
+
+	// Static initializer to specify tests subset using TESTS_* static variables
+	// All specified tests which does not belong to the class are skipped...
+	static {
+//		TESTS_NAMES = new String[] { "testKF1_callinCalloutDecapsulation"};
+//		TESTS_NUMBERS = new int[] { 1459 };
+//		TESTS_RANGE = new int[] { 1097, -1 };
+	}
+
+	public static Test suite() {
+		return buildMinimalComplianceTestSuite(testClass(), F_1_8);
+	}
+
+	public static Class testClass() {
+		return KeepFrames.class;
+	}
+
+	// a base class is woven for a callin binding, a callout and decapsulation of a private method and field,
+	// the frames of its untouched method keep the declared local type CharSequence,
+	// which recomputing the frames would replace by a common super type of String and StringBuilder
+	public void testKF1_callinCalloutDecapsulation() throws Exception {
+		if (this.weavingScheme != WeavingScheme.OTDRE)
+			return;
+		File dumped = new File("otdyn", "KF1Base.class");
+		dumped.delete();
+		runConformTest(
+			new String[] {
+		"KF1Main.java",
+				"public class KF1Main {\n" +
+				"    public static void main(String[] args) {\n" +
+				"        KF1Base b = new KF1Base();\n" +
+				"        new KF1Team().activate();\n" +
+				"        System.out.print(b.m(1)+\";\"+b.untouched(1)+\";\"+b.untouched(5));\n" +
+				"    }\n" +
+				"}\n",
+		"KF1Base.java",
+				"public class KF1Base {\n" +
+				"    private int secret = 3;\n" +
+				"    private String hidden(int x) { return \"h\"+(x+this.secret); }\n" +
+				"    public String m(int x) { return \"m\"+x; }\n" +
+				"    public int untouched(int n) {\n" +
+				"        CharSequence cs;\n" +
+				"        if (n > 2)\n" +
+				"            cs = \"long\";\n" +
+				"        else\n" +
+				"            cs = new StringBuilder(\"s\");\n" +
+				"        return cs.length() + n;\n" +
+				"    }\n" +
+				"}\n",
+		"KF1Team.java",
+				"public team class KF1Team {\n" +
+				"    @SuppressWarnings(\"decapsulation\")\n" +
+				"    protected class R playedBy KF1Base {\n" +
+				"        String hidden(int x) -> String hidden(int x);\n" +
+				"        int getSecret() -> get int secret;\n" +
+				"        callin String wrap(int x) { return \"[\"+base.wrap(x)+\"|\"+hidden(x)+\"|\"+getSecret()+\"]\"; }\n" +
+				"        wrap <- replace m;\n" +
+				"    }\n" +
+				"}\n"
+			},
+			"[m1|h4|3];2;9",
+			null/*classLibraries*/,
+			true/*shouldFlushOutputDirectory*/,
+			new String[] { "-Dot.weaving.keepframes=true" }/*vmArguments*/);
+
+		assertTrue("woven class was not dumped", dumped.exists());
+		String original = stackMapFrames(new File(OUTPUT_DIR, "KF1Base.class"), "untouched");
+		assertTrue("unexpected original frames:\n"+original, original.contains("java.lang.CharSequence"));
+		assertEquals("frames of untouched method", original, stackMapFrames(dumped, "untouched"));
+	}
+
+	/** Answer the disassembled stack map table of the given method, which must be the only method by that name. */
+	private String stackMapFrames(File classFile, String methodName) throws Exception {
+		String output = disassemble(classFile);
+		int start = output.indexOf(" "+methodName+"(");
+		assertTrue("method "+methodName+" not found in "+classFile, start != -1);
+		int end = output.indexOf("// Method descriptor", start);
+		String method = end != -1 ? output.substring(start, end) : output.substring(start);
+		int frames = method.indexOf("Stack map table");
+		assertTrue("no stack map table for "+methodName+" in "+classFile, frames != -1);
+		return method.substring(frames).trim();
+	}
+
+	private String disassemble(File classFile) throws Exception {
+		ClassFileBytesDisassembler disassembler = ToolFactory.createDefaultClassFileBytesDisassembler();
+		return disassembler.disassemble(Files.readAllBytes(classFile.toPath()), "\n", ClassFileBytesDisassembler.DETAILED);
+	}
+}
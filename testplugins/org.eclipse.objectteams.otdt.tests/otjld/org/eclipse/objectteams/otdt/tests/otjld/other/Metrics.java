@@ -0,0 +1,106 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.otjld.other;
+
+import junit.framework.Test;
+
+import org.eclipse.objectteams.otdt.core.ext.WeavingScheme;
+import org.eclipse.objectteams.otdt.tests.otjld.AbstractOTJLDTest;
+
+/**
+ * Tests for the runtime metrics of the OTDRE (<code>-Dot.metrics=true</code>),
+ * as published by the MXBean <code>org.eclipse.objectteams:type=RuntimeMetrics</code>.
+ */
+public class Metrics extends AbstractOTJLDTest {
+
+	public Metrics(String name) {
+		super(name);
+	}
+
+	// Static initializer to specify tests subset using TESTS_* static variables
+	// All specified tests which does not belong to the class are skipped...
+	static {
+//		TESTS_NAMES = new String[] { "testM1_countersAndMXBean"};
+//		TESTS_NUMBERS = new int[] { 1459 };
+//		TESTS_RANGE = new int[] { 1097, -1 };
+	}
+
+	public static Test suite() {
+		return buildMinimalComplianceTestSuite(testClass(), F_1_8);
+	}
+
+	public static Class testClass() {
+		return Metrics.class;
+	}
+
+	// counters for weaving, dispatch and lifting, histogram of active teams, role cache sizes, reset
+	public void testM1_countersAndMXBean() {
+		if (this.weavingScheme != WeavingScheme.OTDRE)
+			return;
+		runConformTest(
+			new String[] {
+		"TM1Main.java",
+				"import java.lang.management.ManagementFactory;\n" +
+				"import javax.management.MBeanServer;\n" +
+				"import javax.management.ObjectName;\n" +
+				"import javax.management.openmbean.CompositeData;\n" +
+				"import javax.management.openmbean.TabularData;\n" +
+				"public class TM1Main {\n" +
+				"    public static void main(String[] args) throws Exception {\n" +
+				"        MBeanServer server = ManagementFactory.getPlatformMBeanServer();\n" +
+				"        ObjectName name = new ObjectName(\"org.eclipse.objectteams:type=RuntimeMetrics\");\n" +
+				"        for (int i = 0; i < 100 && !server.isRegistered(name); i++)\n" +
+				"            Thread.sleep(50);\n" +
+				"        System.out.print(((Long) server.getAttribute(name, \"ClassesWoven\")).longValue() > 0);\n" +
+				"        server.invoke(name, \"reset\", null, null);\n" +
+				"        TM1Base b1 = new TM1Base();\n" +
+				"        TM1Base b2 = new TM1Base();\n" +
+				"        TM1Team t = new TM1Team();\n" +
+				"        t.activate();\n" +
+				"        b1.m();\n" +
+				"        b1.m();\n" +
+				"        b2.m();\n" +
+				"        System.out.print(\"|\"+server.getAttribute(name, \"CallinDispatches\"));\n" +
+				"        System.out.print(\"|\"+server.getAttribute(name, \"LiftingCalls\"));\n" +
+				"        System.out.print(\"|\"+server.getAttribute(name, \"LiftingCacheMisses\"));\n" +
+				"        System.out.print(\"|\"+server.getAttribute(name, \"LiftingCacheHits\"));\n" +
+				"        CompositeData teams = (CompositeData) server.getAttribute(name, \"ActiveTeamsPerDispatch\");\n" +
+				"        System.out.print(\"|\"+teams.get(\"count\")+\"/\"+teams.get(\"max\"));\n" +
+				"        TabularData roles = (TabularData) server.getAttribute(name, \"RoleCacheSizes\");\n" +
+				"        System.out.print(\"|\"+roles.size()+\"/\"+((CompositeData) roles.values().iterator().next()).get(\"value\"));\n" +
+				"        System.out.print(\"|\"+(((Integer) server.getAttribute(name, \"Joinpoints\")).intValue() > 0));\n" +
+				"    }\n" +
+				"}\n",
+		"TM1Base.java",
+				"public class TM1Base {\n" +
+				"    public void m() { }\n" +
+				"}\n",
+		"TM1Team.java",
+				"public team class TM1Team {\n" +
+				"    protected class R playedBy TM1Base {\n" +
+				"        void rm() { }\n" +
+				"        rm <- after m;\n" +
+				"    }\n" +
+				"}\n"
+			},
+			"true|3|3|2|1|3/1|1/2|true",
+			null/*classLibraries*/,
+			true/*shouldFlushOutputDirectory*/,
+			new String[] { "-Dot.metrics=true" }/*vmArguments*/);
+	}
+}
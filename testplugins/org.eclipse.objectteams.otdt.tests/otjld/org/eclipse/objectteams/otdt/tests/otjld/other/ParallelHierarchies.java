@@ -0,0 +1,165 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.otjld.other;
+
+import java.util.Map;
+
+import junit.framework.Test;
+
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.objectteams.otdt.tests.otjld.AbstractOTJLDTest;
+
+/**
+ * Tests for parsing methods of independent team hierarchies in parallel
+ * (option {@link CompilerOptions#OPTION_ParallelHierarchies}):
+ * a team, its role files and its super team form one hierarchy, which is parsed by one worker thread.
+ */
+public class ParallelHierarchies extends AbstractOTJLDTest {
+
+	public ParallelHierarchies(String name) {
+		super(name);
+	}
+
+	// Static initializer to specify tests subset using TESTS_* static variables
+	// All specified tests which does not belong to the class are skipped...
+	static {
+//		TESTS_NAMES = new String[] { "testPH1_teamsRoleFilesAndSuperTeams"};
+//		TESTS_NUMBERS = new int[] { 1459 };
+//		TESTS_RANGE = new int[] { 1097, -1 };
+	}
+
+	public static Test suite() {
+		return buildMinimalComplianceTestSuite(testClass(), F_1_8);
+	}
+
+	public static Class testClass() {
+		return ParallelHierarchies.class;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected Map getCompilerOptions() {
+		Map options = super.getCompilerOptions();
+		options.put(CompilerOptions.OPTION_ParallelHierarchies, CompilerOptions.ENABLED);
+		return options;
+	}
+
+	// a sub team with an implicitly inherited role and a role file, and an independent team
+	public void testPH1_teamsRoleFilesAndSuperTeams() {
+		runConformTest(
+			new String[] {
+		"p/PH1Main.java",
+				"package p;\n" +
+				"public class PH1Main {\n" +
+				"    public static void main(String[] args) {\n" +
+				"        new PH1SubTeam().run(new PH1Base());\n" +
+				"        new PH1Team2().run(new PH1Base());\n" +
+				"    }\n" +
+				"}\n",
+		"p/PH1Base.java",
+				"package p;\n" +
+				"public class PH1Base {\n" +
+				"    public String m() { return \"base\"; }\n" +
+				"}\n",
+		"p/PH1Team.java",
+				"package p;\n" +
+				"public team class PH1Team {\n" +
+				"    protected class R playedBy PH1Base {\n" +
+				"        String tag() { return \"R\"; }\n" +
+				"        callin String wrap() { return tag()+\"(\"+base.wrap()+\")\"; }\n" +
+				"        wrap <- replace m;\n" +
+				"    }\n" +
+				"}\n",
+		"p/PH1SubTeam.java",
+				"package p;\n" +
+				"public team class PH1SubTeam extends PH1Team {\n" +
+				"    protected class R {\n" +
+				"        String tag() { return \"Sub\"+tsuper.tag(); }\n" +
+				"    }\n" +
+				"    public void run(PH1Base b) {\n" +
+				"        within (this) System.out.print(b.m()+\";\");\n" +
+				"    }\n" +
+				"}\n",
+		"p/PH1SubTeam/RF.java",
+				"team package p.PH1SubTeam;\n" +
+				"protected class RF playedBy PH1Base {\n" +
+				"    void log() { System.out.print(\"RF;\"); }\n" +
+				"    log <- before m;\n" +
+				"}\n",
+		"p/PH1Team2.java",
+				"package p;\n" +
+				"public team class PH1Team2 {\n" +
+				"    protected class R2 playedBy PH1Base {\n" +
+				"        callin String upper() { return base.upper().toUpperCase(); }\n" +
+				"        upper <- replace m;\n" +
+				"    }\n" +
+				"    public void run(PH1Base b) {\n" +
+				"        within (this) System.out.print(b.m()+\";\");\n" +
+				"    }\n" +
+				"}\n"
+			},
+			"RF;SubR(base);BASE;");
+	}
+
+	// syntax errors found by different worker threads are reported against their own units
+	public void testPH2_syntaxErrorsInSeveralHierarchies() {
+		runNegativeTest(
+			new String[] {
+		"p/PH2Team.java",
+				"package p;\n" +
+				"public team class PH2Team {\n" +
+				"    protected class R {\n" +
+				"        int count() { int s = 0 +; return s; }\n" +
+				"    }\n" +
+				"}\n",
+		"p/PH2SubTeam.java",
+				"package p;\n" +
+				"public team class PH2SubTeam extends PH2Team {\n" +
+				"    void ok() { }\n" +
+				"}\n",
+		"p/PH2SubTeam/RF.java",
+				"team package p.PH2SubTeam;\n" +
+				"protected class RF {\n" +
+				"    void log() { int = 3; }\n" +
+				"}\n",
+		"p/PH2Team2.java",
+				"package p;\n" +
+				"public team class PH2Team2 {\n" +
+				"    void test() { return 1 }\n" +
+				"}\n"
+			},
+			"----------\n" +
+			"1. ERROR in p\\PH2Team.java (at line 4)\n" +
+			"	int count() { int s = 0 +; return s; }\n" +
+			"	                        ^\n" +
+			"Syntax error on token \"+\", ++ expected\n" +
+			"----------\n" +
+			"----------\n" +
+			"1. ERROR in p\\PH2Team2.java (at line 3)\n" +
+			"	void test() { return 1 }\n" +
+			"	                     ^\n" +
+			"Syntax error, insert \";\" to complete BlockStatements\n" +
+			"----------\n" +
+			"----------\n" +
+			"1. ERROR in p\\PH2SubTeam\\RF.java (at line 3)\n" +
+			"	void log() { int = 3; }\n" +
+			"	             ^^^\n" +
+			"Syntax error, insert \". class\" to complete Expression\n" +
+			"----------\n");
+	}
+}
@@ -5659,4 +5659,72 @@ public class LiftingAndLowering extends AbstractOTJLDTest {
     		},
     		"base");
     }
+
+    // concurrent lifting: roles are looked up without locking, creation is still exclusive
+    public void testConcurrentLifting1() {
+    	Map customOptions = getCompilerOptions();
+    	customOptions.put(CompilerOptions.OPTION_ConcurrentLifting, CompilerOptions.ENABLED);
+    	runConformTest(
+    		new String[] {
+    			"TeamConcurrentLifting1.java",
+    			"import java.util.concurrent.atomic.AtomicInteger;\n" +
+    			"public team class TeamConcurrentLifting1 {\n" +
+    			"	protected class R0 playedBy TConcurrentLifting1 {\n" +
+    			"	}\n" +
+    			"	protected class R1 extends R0 {\n" +
+    			"		void rm() { }\n" +
+    			"		rm <- after bm;\n" +
+    			"	}\n" +
+    			"	protected class R2 playedBy TConcurrentLifting1_2 {\n" +
+    			"		protected R2(TConcurrentLifting1_2 b) { created.incrementAndGet(); }\n" +
+    			"		void rm() { }\n" +
+    			"		rm <- after bm;\n" +
+    			"	}\n" +
+    			"	AtomicInteger created = new AtomicInteger();\n" +
+    			"	public static void main(String[] args) throws Exception {\n" +
+    			"		final TeamConcurrentLifting1 t = new TeamConcurrentLifting1();\n" +
+    			"		t.activate(ALL_THREADS);\n" +
+    			"		// concurrent lifting of the same base objects must create exactly one role per base:\n" +
+    			"		final TConcurrentLifting1_2[] bases = new TConcurrentLifting1_2[1000];\n" +
+    			"		for (int i = 0; i < bases.length; i++) bases[i] = new TConcurrentLifting1_2();\n" +
+    			"		Thread[] threads = new Thread[8];\n" +
+    			"		for (int i = 0; i < threads.length; i++) {\n" +
+    			"			threads[i] = new Thread() { public void run() { for (int k = 0; k < 20; k++) for (TConcurrentLifting1_2 b : bases) b.bm(); } };\n" +
+    			"			threads[i].start();\n" +
+    			"		}\n" +
+    			"		for (Thread th : threads) th.join();\n" +
+    			"		System.out.print(t.created.get()+\"|\"+t.countR2()+\"|\"+t.hasRole(bases[7])+\"|\");\n" +
+    			"		// explicit creation of a role of the wrong type breaks subsequent lifting:\n" +
+    			"		TConcurrentLifting1 b = new TConcurrentLifting1();\n" +
+    			"		t.createR0(b);\n" +
+    			"		try {\n" +
+    			"			b.bm();\n" +
+    			"		} catch (org.objectteams.WrongRoleException wre) {\n" +
+    			"			System.out.print(\"Caught|\");\n" +
+    			"		}\n" +
+    			"		try {\n" +
+    			"			t.createR0(b);\n" +
+    			"		} catch (org.objectteams.DuplicateRoleException dre) {\n" +
+    			"			System.out.print(\"Duplicate\");\n" +
+    			"		}\n" +
+    			"	}\n" +
+    			"	void createR0(TConcurrentLifting1 b) { new R0(b); }\n" +
+    			"	int countR2() { return getAllRoles(R2.class).length; }\n" +
+    			"}\n",
+    			"TConcurrentLifting1.java",
+    			"public class TConcurrentLifting1 {\n" +
+    			"	void bm() { }\n" +
+    			"}\n",
+    			"TConcurrentLifting1_2.java",
+    			"public class TConcurrentLifting1_2 {\n" +
+    			"	void bm() { }\n" +
+    			"}\n"
+    		},
+    		"1000|1000|true|Caught|Duplicate",
+    		null/*classLibraries*/,
+    		true/*shouldFlushOutputDirectory*/,
+    		null/*vmArguments*/,
+    		customOptions,
+    		null/*no custom requestor*/);
+    }
 }
@@ -2755,4 +2755,68 @@ public class ExplicitTeamActivation extends AbstractOTJLDTest {
             },
             "O");
     }
+
+    // with lazy thread tracking, per-thread activation state is discarded when the thread ends
+    // 5.2.19-otjld-lazy-thread-tracking-1
+    public void test5219_lazyThreadTracking1() {
+       runConformTest(
+            new String[] {
+		"Team5219lta1.java",
+			    "public team class Team5219lta1 {\n" +
+			    "    protected class R playedBy T5219lta1 {\n" +
+			    "        void k() { System.out.print(\"K\"); }\n" +
+			    "        k <- after o;\n" +
+			    "    }\n" +
+			    "    // the ended thread is still strongly reachable, so entries can only be gone after explicit cleanup:\n" +
+			    "    static int perThreadEntries(org.objectteams.Team t) {\n" +
+			    "        try {\n" +
+			    "            int count = 0;\n" +
+			    "            for (String name : new String[] { \"_OT$activatedThreads\", \"_OT$deactivatedThreads\" }) {\n" +
+			    "                java.lang.reflect.Field f = org.objectteams.Team.class.getDeclaredField(name);\n" +
+			    "                f.setAccessible(true);\n" +
+			    "                count += ((org.objectteams.ConcurrentWeakIdentityMap<?,?>) f.get(t)).size();\n" +
+			    "            }\n" +
+			    "            return count;\n" +
+			    "        } catch (Exception e) {\n" +
+			    "            return -1;\n" +
+			    "        }\n" +
+			    "    }\n" +
+			    "    public static void main(String[] args) throws InterruptedException {\n" +
+			    "        final Team5219lta1 t = new Team5219lta1();\n" +
+			    "        Thread th1 = new Thread(new Runnable() {\n" +
+			    "            public void run() {\n" +
+			    "                t.activate();\n" +
+			    "                new T5219lta1().o();\n" +
+			    "            }\n" +
+			    "        });\n" +
+			    "        th1.start();\n" +
+			    "        th1.join();\n" +
+			    "        System.out.print(\"|\"+perThreadEntries(t)+\"|\");\n" +
+			    "        new T5219lta1().o();\n" +
+			    "        t.activate(org.objectteams.Team.ALL_THREADS);\n" +
+			    "        Thread th2 = new Thread(new Runnable() {\n" +
+			    "            public void run() {\n" +
+			    "                t.deactivate();\n" +
+			    "                new T5219lta1().o();\n" +
+			    "            }\n" +
+			    "        });\n" +
+			    "        th2.start();\n" +
+			    "        th2.join();\n" +
+			    "        System.out.print(\"|\"+perThreadEntries(t)+\"|\");\n" +
+			    "        new T5219lta1().o();\n" +
+			    "    }\n" +
+			    "}\n" +
+			    "  \n",
+		"T5219lta1.java",
+			    "public class T5219lta1 {\n" +
+			    "    void o() { System.out.print(\"O\"); }\n" +
+			    "}\n"
+            },
+            "OK|0|OO|0|OK",
+            null/*classLibraries*/,
+            true/*shouldFlushOutputDirectory*/,
+            new String[] { "-Dot.thread.tracking=LAZY" }/*vmArguments*/,
+            getCompilerOptions(),
+            null/*no custom requestor*/);
+    }
 }
@@ -0,0 +1,101 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Common scaffolding for tests of caches that persist their data in files from one launch to the next.
+ * <p>
+ * Each test works in a fresh temporary directory {@link #dir}, which is deleted afterwards.
+ * Opening a cache on that directory anew simulates the next launch (or another JVM sharing the directory).
+ * System properties set via {@link #setProperty(String, String)} are restored after each test.
+ * </p>
+ */
+public abstract class AbstractPersistentCacheTest extends TestCase {
+
+	protected File dir;
+	private final Map<String, String> savedProperties = new HashMap<String, String>();
+
+	public AbstractPersistentCacheTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.dir = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (Map.Entry<String, String> entry : this.savedProperties.entrySet()) {
+			if (entry.getValue() == null)
+				System.clearProperty(entry.getKey());
+			else
+				System.setProperty(entry.getKey(), entry.getValue());
+		}
+		this.savedProperties.clear();
+		delete(this.dir);
+		super.tearDown();
+	}
+
+	/** Set (or clear, if value is null) a system property for the remainder of the current test. */
+	protected void setProperty(String key, String value) {
+		if (!this.savedProperties.containsKey(key))
+			this.savedProperties.put(key, System.getProperty(key));
+		if (value == null)
+			System.clearProperty(key);
+		else
+			System.setProperty(key, value);
+	}
+
+	/** Simulate a write that was interrupted by a crash, by cutting the given number of bytes from the end of the file. */
+	protected static void truncate(File file, long bytesLost) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			assertTrue("file too short to truncate: "+file, raf.length() >= bytesLost);
+			raf.setLength(raf.length() - bytesLost);
+		}
+	}
+
+	/** Simulate damage on disk by inverting the bits of the byte at the given position of the file. */
+	protected static void corrupt(File file, long position) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.seek(position);
+			int b = raf.read();
+			assertTrue("no byte at position "+position+" of "+file, b >= 0);
+			raf.seek(position);
+			raf.write(~b);
+		}
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null)
+			for (File child : children)
+				delete(child);
+		file.delete();
+	}
+}
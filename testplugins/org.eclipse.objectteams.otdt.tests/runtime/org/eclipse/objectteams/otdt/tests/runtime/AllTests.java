@@ -0,0 +1,42 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for classes of the runtime environment, that can be tested without compiling OT/J programs.
+ */
+public class AllTests
+{
+
+	public static Test suite()
+	{
+		TestSuite suite = new TestSuite("All Runtime Tests");
+		//$JUnit-BEGIN$
+		suite.addTestSuite(DoublyWeakHashMapTest.class);
+		suite.addTestSuite(DirectDispatchTest.class);
+		suite.addTestSuite(RedefinitionBatchTest.class);
+		suite.addTestSuite(WovenClassCacheTest.class);
+		suite.addTestSuite(WeavingDecisionIndexTest.class);
+		suite.addTestSuite(ScanResultCacheTest.class);
+		//$JUnit-END$
+		return suite;
+	}
+}
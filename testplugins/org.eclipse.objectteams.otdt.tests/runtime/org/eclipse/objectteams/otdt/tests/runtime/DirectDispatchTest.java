@@ -0,0 +1,86 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import java.util.Arrays;
+
+import org.objectteams.IBoundBase2;
+import org.objectteams.ITeam;
+import org.objectteams.Team;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the allocation-free callin dispatch protocol
+ * ({@link Team#_OT$callAllBindingsDirect(IBoundBase2, Object[], int, int, long, long, long)}).
+ */
+public class DirectDispatchTest extends TestCase {
+
+	// sorts as in org.objectweb.asm.Type:
+	static final int BOOLEAN = 1, INT = 5, FLOAT = 6, DOUBLE = 8;
+
+	/** A bound base class without a generated _OT$callOrigDirect. */
+	static class BoxedBase implements IBoundBase2 {
+		int lastId;
+		Object[] lastArgs;
+		Object result;
+
+		public Object _OT$callOrig(int boundMethod_id, Object[] args) {
+			this.lastId = boundMethod_id;
+			this.lastArgs = args;
+			return this.result;
+		}
+		public Object _OT$access(int accessId, int opKind, Object[] args, ITeam caller) {
+			return null;
+		}
+		public void _OT$addOrRemoveRole(Object aRole, boolean adding) {
+			// nop
+		}
+	}
+
+	static int shape(int returnSort, int... argSorts) {
+		int shape = returnSort | (argSorts.length << 4);
+		for (int i = 0; i < argSorts.length; i++)
+			shape |= argSorts[i] << (8 + 4*i);
+		return shape;
+	}
+
+	public DirectDispatchTest(String name) {
+		super(name);
+	}
+
+	// without active teams, the default implementation of _OT$callOrigDirect delegates to the boxed _OT$callOrig
+	public void testDefaultCallOrigDirect() {
+		BoxedBase base = new BoxedBase();
+		base.result = Double.valueOf(3.0);
+		Object[] noTeams = new Object[] { new ITeam[0], new int[0] };
+		long result = Team._OT$callAllBindingsDirect(base, noTeams, 7, shape(DOUBLE, DOUBLE, FLOAT, BOOLEAN),
+				Double.doubleToRawLongBits(1.5), Float.floatToRawIntBits(2.0f), 1);
+		assertEquals(7, base.lastId);
+		assertEquals("[1.5, 2.0, true]", Arrays.toString(base.lastArgs));
+		assertEquals(3.0, Double.longBitsToDouble(result), 0.0);
+	}
+
+	public void testDefaultCallOrigDirectVoid() {
+		BoxedBase base = new BoxedBase();
+		long result = base._OT$callOrigDirect(3, shape(0, INT), -5, 0, 0);
+		assertEquals(3, base.lastId);
+		assertEquals("[-5]", Arrays.toString(base.lastArgs));
+		assertEquals(0L, result);
+	}
+}
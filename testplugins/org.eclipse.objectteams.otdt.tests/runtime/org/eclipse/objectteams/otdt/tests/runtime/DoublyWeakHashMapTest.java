@@ -0,0 +1,188 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectteams.DoublyWeakHashMap;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the role cache of teams.
+ */
+public class DoublyWeakHashMapTest extends TestCase {
+
+	/** Maximum time to wait for the garbage collector to clear weak references. */
+	static final long GC_TIMEOUT_MILLIS = 10000;
+
+	static class Key {
+		int id;
+		Key(int id) { this.id = id; }
+		@Override
+		public boolean equals(Object o) { return o instanceof Key && ((Key)o).id == this.id; }
+		@Override
+		public int hashCode() { return this.id / 3; } // provoke collisions
+	}
+
+	interface Condition {
+		boolean holds();
+	}
+
+	/** Trigger garbage collection until the condition holds, fail after {@link #GC_TIMEOUT_MILLIS}. */
+	static void collectUntil(String message, Condition condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + GC_TIMEOUT_MILLIS;
+		while (!condition.holds()) {
+			if (System.currentTimeMillis() > deadline)
+				fail(message+" (not collected within "+GC_TIMEOUT_MILLIS+"ms)");
+			System.gc();
+			Thread.sleep(10);
+		}
+	}
+
+	public DoublyWeakHashMapTest(String name) {
+		super(name);
+	}
+
+	// keys are compared using equals(), like in the WeakHashMap used before
+	public void testBasicOperations() {
+		DoublyWeakHashMap<Key,String> map = new DoublyWeakHashMap<Key,String>();
+		int n = 1000;
+		Key[] keys = new Key[n];
+		String[] values = new String[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = new Key(i);
+			values[i] = "v"+i;
+			map.put(keys[i], values[i]);
+		}
+		assertEquals(n, map.size());
+		assertEquals("v7", map.get(keys[7]));
+		assertEquals("v999", map.get(new Key(999)));
+		assertFalse(map.containsKey(new Key(n)));
+
+		String other = "w7";
+		map.put(new Key(7), other); // replaces the value, keeps the key
+		assertEquals(n, map.size());
+		assertEquals("w7", map.get(keys[7]));
+		boolean found = false;
+		for (Key key : map.keySet())
+			if (key.id == 7) {
+				assertSame("contained key should be kept", keys[7], key);
+				found = true;
+			}
+		assertTrue(found);
+
+		for (int i = 0; i < n; i += 2)
+			map.remove(new Key(i));
+		assertEquals(n/2, map.size());
+		assertNull(map.get(keys[2]));
+		assertEquals("v3", map.get(keys[3]));
+		assertEquals(n/2, map.values().size());
+		assertEquals(n/2, map.keySet().size());
+
+		assertNull(map.get(null));
+		assertFalse(map.containsKey(null));
+		assertNull(map.remove(null));
+
+		map.clear();
+		assertEquals(0, map.size());
+		assertTrue(map.isEmpty());
+	}
+
+	// entries of collected keys are purged
+	public void testCollectedKeys() throws InterruptedException {
+		final DoublyWeakHashMap<Object,Object> map = new DoublyWeakHashMap<Object,Object>();
+		int n = 10000;
+		final Object[] keptKeys = new Object[n/10];
+		Object[] values = new Object[n];
+		for (int i = 0; i < n; i++) {
+			Object key = new Object();
+			if (i % 10 == 0)
+				keptKeys[i/10] = key;
+			values[i] = new Object(); // keep values strongly reachable
+			map.put(key, values[i]);
+		}
+		assertEquals(n, map.size());
+		collectUntil("entries of unreachable keys should be purged", new Condition() {
+			public boolean holds() { return map.size() == keptKeys.length; }
+		});
+		assertEquals(keptKeys.length, map.values().size());
+		assertSame(values[50], map.get(keptKeys[5]));
+	}
+
+	// entries whose value was collected are no longer answered
+	public void testCollectedValues() throws InterruptedException {
+		final DoublyWeakHashMap<Object,Object> map = new DoublyWeakHashMap<Object,Object>();
+		final Object key = new Object();
+		Object keptValue = new Object();
+		Object otherKey = new Object();
+		map.put(otherKey, keptValue);
+		map.put(key, new Object());
+		collectUntil("entry with unreachable value should not be answered", new Condition() {
+			public boolean holds() { return map.get(key) == null; }
+		});
+		assertEquals(1, map.values().size());
+		assertSame(keptValue, map.get(otherKey));
+	}
+
+	// concurrent modifications and lock-free reading
+	public void testConcurrentAccess() throws InterruptedException {
+		final DoublyWeakHashMap<Object,Object> map = new DoublyWeakHashMap<Object,Object>();
+		final int n = 20000;
+		final Object[] keys = new Object[n];
+		final Object[] values = new Object[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = new Object();
+			values[i] = new Object();
+		}
+		final AtomicInteger errors = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					// each thread owns the keys i with i % 8 == offset, but reads all keys:
+					for (int round = 0; round < 3; round++) {
+						for (int i = offset; i < n; i += 8) {
+							map.put(keys[i], values[i]);
+							if (map.get(keys[i]) != values[i])
+								errors.incrementAndGet();
+						}
+						for (int i = 0; i < n; i++) {
+							Object value = map.get(keys[i]);
+							if (value != null && value != values[i])
+								errors.incrementAndGet();
+						}
+						for (int i = offset; i < n; i += 16)
+							if (map.remove(keys[i]) != values[i])
+								errors.incrementAndGet();
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals("wrong values observed", 0, errors.get());
+		for (int i = 0; i < n; i++)
+			assertEquals("presence of key "+i, i % 16 >= 8, map.get(keys[i]) != null);
+		assertEquals(n/2, map.size());
+		assertEquals(n/2, map.values().size());
+	}
+}
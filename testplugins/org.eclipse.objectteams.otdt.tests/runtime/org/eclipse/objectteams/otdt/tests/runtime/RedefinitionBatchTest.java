@@ -0,0 +1,140 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.UnmodifiableClassException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.objectteams.otredyn.bytecode.IRedefineStrategy;
+import org.eclipse.objectteams.otredyn.bytecode.RedefineStrategyFactory;
+import org.eclipse.objectteams.otredyn.bytecode.RedefinitionBatch;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for batching class redefinitions per weaving transaction.
+ */
+public class RedefinitionBatchTest extends TestCase {
+
+	static class A {}
+	static class B {}
+	static class C {}
+
+	/** Records redefinitions instead of performing them, fails for {@link #unmodifiable}. */
+	static class RecordingStrategy implements IRedefineStrategy {
+		List<String> log = new ArrayList<String>();
+		Class<?> unmodifiable;
+
+		public void redefine(Class<?> clazz, byte[] bytecode) throws ClassNotFoundException, UnmodifiableClassException {
+			if (clazz == this.unmodifiable)
+				throw new UnmodifiableClassException(clazz.getSimpleName());
+			this.log.add(clazz.getSimpleName()+":"+bytecode[0]);
+		}
+		@Override
+		public void redefine(ClassDefinition[] definitions) throws ClassNotFoundException, UnmodifiableClassException {
+			StringBuilder buf = new StringBuilder("batch");
+			for (ClassDefinition definition : definitions) {
+				if (definition.getDefinitionClass() == this.unmodifiable)
+					throw new UnmodifiableClassException(definition.getDefinitionClass().getSimpleName());
+				buf.append(' ').append(definition.getDefinitionClass().getSimpleName()).append(':').append(definition.getDefinitionClassFile()[0]);
+			}
+			this.log.add(buf.toString());
+		}
+	}
+
+	/** Records the classes whose redefinition failed. */
+	static class FailureRecorder implements RedefinitionBatch.IFailureHandler {
+		List<String> log;
+		String name;
+		FailureRecorder(List<String> log, String name) {
+			this.log = log;
+			this.name = name;
+		}
+		public void redefinitionFailed(Throwable t) {
+			this.log.add("failed "+this.name+": "+t.getClass().getSimpleName());
+		}
+	}
+
+	private IRedefineStrategy previousStrategy;
+	private RecordingStrategy strategy;
+
+	public RedefinitionBatchTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.previousStrategy = RedefineStrategyFactory.getRedefineStrategy();
+		this.strategy = new RecordingStrategy();
+		RedefineStrategyFactory.setRedefineStrategy(this.strategy);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		RedefineStrategyFactory.setRedefineStrategy(this.previousStrategy);
+		super.tearDown();
+	}
+
+	private boolean defer(Class<?> clazz, int version) {
+		return RedefinitionBatch.defer(clazz, new byte[] { (byte) version }, new FailureRecorder(this.strategy.log, clazz.getSimpleName()));
+	}
+
+	// outside a transaction the caller has to redefine immediately
+	public void testNoTransaction() {
+		assertFalse(defer(A.class, 1));
+		RedefinitionBatch.end(); // no effect without begin()
+		assertEquals("[]", this.strategy.log.toString());
+	}
+
+	// all classes are redefined in one step when the outermost transaction ends, using the latest bytes per class
+	public void testBatch() {
+		RedefinitionBatch.begin();
+		assertTrue(defer(A.class, 1));
+		RedefinitionBatch.begin();
+		assertTrue(defer(B.class, 1));
+		assertTrue(defer(A.class, 2));
+		RedefinitionBatch.end();
+		assertEquals("nested transaction should not flush", "[]", this.strategy.log.toString());
+		assertTrue(defer(C.class, 1));
+		RedefinitionBatch.end();
+		assertEquals("[batch A:2 B:1 C:1]", this.strategy.log.toString());
+		assertFalse("batch should be closed", defer(A.class, 3));
+	}
+
+	// a single pending class is redefined on its own
+	public void testSingle() {
+		RedefinitionBatch.begin();
+		defer(B.class, 1);
+		RedefinitionBatch.end();
+		assertEquals("[B:1]", this.strategy.log.toString());
+	}
+
+	// when the batch fails, each class is redefined individually, and only the failing class is reported
+	public void testFallbackWhenOneClassFails() {
+		this.strategy.unmodifiable = B.class;
+		RedefinitionBatch.begin();
+		defer(A.class, 1);
+		defer(B.class, 1);
+		defer(C.class, 1);
+		RedefinitionBatch.end();
+		assertEquals("[A:1, failed B: UnmodifiableClassException, C:1]", this.strategy.log.toString());
+	}
+}
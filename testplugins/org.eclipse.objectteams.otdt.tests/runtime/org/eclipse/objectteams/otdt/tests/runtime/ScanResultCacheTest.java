@@ -0,0 +1,133 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.objectteams.internal.osgi.weaving.ScanResultCache;
+import org.eclipse.objectteams.internal.osgi.weaving.ScanResultCache.ScanResult;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Tests for the persisted results of scanning the teams of an aspect bundle (<code>-Dotequinox.scan.cache</code>).
+ * An incomplete list of base classes would silently prevent weaving, so no failure may yield partial results.
+ */
+public class ScanResultCacheTest extends AbstractPersistentCacheTest {
+
+	private Bundle bundle;
+	private File file;
+
+	public ScanResultCacheTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.bundle = FrameworkUtil.getBundle(getClass());
+		this.file = new File(this.dir, this.bundle.getSymbolicName()+".txt");
+	}
+
+	private ScanResultCache open() {
+		return ScanResultCache.open(this.dir, this.bundle);
+	}
+
+	private static void assertResult(ScanResultCache cache, String teamName, String className, String baseClassNames) {
+		ScanResult result = cache.get(teamName);
+		assertNotNull(teamName, result);
+		assertEquals(className, result.className);
+		assertEquals(baseClassNames, result.baseClassNames.toString());
+	}
+
+	// results recorded in one launch are found in the next, a launch without new results doesn't rewrite the file
+	public void testReuseInNextLaunch() {
+		ScanResultCache cache = open();
+		assertNull(cache.get("p.T1"));
+		cache.put("p.T1", "p.T1", Arrays.asList("b.B1", "b.B2"));
+		cache.put("p.T2", "p.T2$__OT__R", Collections.<String>emptyList());
+		cache.save();
+
+		cache = open();
+		assertResult(cache, "p.T1", "p.T1", "[b.B1, b.B2]");
+		assertResult(cache, "p.T2", "p.T2$__OT__R", "[]");
+		assertNull(cache.get("p.T3"));
+		assertTrue(this.file.setLastModified(1000));
+		cache.save();
+		assertEquals(1000, this.file.lastModified());
+	}
+
+	// results recorded for a different version or build of the aspect bundle are discarded
+	public void testAspectBundleChanged() throws IOException {
+		try (FileWriter writer = new FileWriter(this.file)) {
+			writer.write("# 0.0.1|0\np.T1=p.T1|b.B1\n");
+		}
+		ScanResultCache cache = open();
+		assertNull(cache.get("p.T1"));
+		cache.put("p.T1", "p.T1", Arrays.asList("b.B2"));
+		cache.save();
+		assertResult(open(), "p.T1", "p.T1", "[b.B2]");
+	}
+
+	// a launch crashed while saving new results: the results of the launch before are still complete
+	public void testCrashDuringSave() throws IOException {
+		ScanResultCache cache = open();
+		cache.put("p.T1", "p.T1", Arrays.asList("b.B1", "b.B2"));
+		cache.save();
+		try (FileWriter writer = new FileWriter(new File(this.file.getPath()+".tmp"))) {
+			writer.write("# "+this.bundle.getVersion()+'|'+this.bundle.getLastModified()+"\np.T1=p.T1|b.B1,b.");
+		}
+
+		cache = open();
+		assertResult(cache, "p.T1", "p.T1", "[b.B1, b.B2]");
+		cache.put("p.T2", "p.T2", Arrays.asList("b.B3"));
+		cache.save();
+		cache = open();
+		assertResult(cache, "p.T1", "p.T1", "[b.B1, b.B2]");
+		assertResult(cache, "p.T2", "p.T2", "[b.B3]");
+	}
+
+	// two launches sharing the data area save in turns: the file holds the complete results of one of them
+	public void testConcurrentLaunches() {
+		ScanResultCache first = open();
+		ScanResultCache second = open();
+		first.put("p.T1", "p.T1", Arrays.asList("b.B1"));
+		second.put("p.T1", "p.T1", Arrays.asList("b.B1"));
+		second.put("p.T2", "p.T2", Arrays.asList("b.B2"));
+		second.save();
+		first.save();
+		ScanResultCache cache = open();
+		assertResult(cache, "p.T1", "p.T1", "[b.B1]");
+		assertNull("results of the first launch replace those of the second", cache.get("p.T2"));
+	}
+
+	// failure to write the results is logged, not thrown, and leaves no temporary file behind
+	public void testSaveFailure() throws IOException {
+		assertTrue(this.file.mkdir()); // occupy the file name
+		assertTrue(new File(this.file, "content").createNewFile());
+		ScanResultCache cache = open();
+		cache.put("p.T1", "p.T1", Arrays.asList("b.B1"));
+		cache.save();
+		assertResult(cache, "p.T1", "p.T1", "[b.B1]");
+		assertFalse(new File(this.file.getPath()+".tmp").exists());
+	}
+}
@@ -0,0 +1,196 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.objectteams.internal.osgi.weaving.OTWeavingHook.WeavingReason;
+import org.eclipse.objectteams.internal.osgi.weaving.WeavingDecisionIndex;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Tests for the persistent index of weaving decisions of OT/Equinox (<code>-Dotequinox.weaving.index</code>),
+ * which accumulates the decisions of all sessions in one hash table.
+ */
+public class WeavingDecisionIndexTest extends AbstractPersistentCacheTest {
+
+	static final String BUNDLE = "test.bundle";
+
+	private BundleContext context;
+	private File file;
+	private List<WeavingDecisionIndex> opened = new ArrayList<WeavingDecisionIndex>();
+
+	public WeavingDecisionIndexTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.context = FrameworkUtil.getBundle(getClass()).getBundleContext();
+		this.file = new File(this.dir, "weavingDecisions.idx");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (WeavingDecisionIndex index : this.opened)
+			this.context.removeBundleListener(index);
+		super.tearDown();
+	}
+
+	private WeavingDecisionIndex open() {
+		WeavingDecisionIndex index = WeavingDecisionIndex.open(this.context, this.file);
+		assertNotNull(index);
+		this.opened.add(index);
+		return index;
+	}
+
+	private static WeavingReason decision(int i) {
+		return i % 3 == 0 ? WeavingReason.Thread : WeavingReason.None;
+	}
+
+	// each session adds more decisions than the table of the previous session could hold
+	public void testGrowingOverSessions() {
+		int total = 0;
+		for (int size : new int[] { 10, 1000, 5000 }) {
+			WeavingDecisionIndex index = open();
+			for (int i = 0; i < total; i++)
+				assertEquals("p.C"+i, decision(i), index.get(BUNDLE, "p.C"+i));
+			for (int i = total; i < total + size; i++) {
+				assertNull("p.C"+i, index.get(BUNDLE, "p.C"+i));
+				index.put(BUNDLE, "p.C"+i, decision(i));
+			}
+			total += size;
+			index.save(this.context);
+		}
+		WeavingDecisionIndex index = open();
+		for (int i = 0; i < total; i++)
+			assertEquals("p.C"+i, decision(i), index.get(BUNDLE, "p.C"+i));
+		assertNull("bundle name is part of the key", index.get("other.bundle", "p.C1"));
+	}
+
+	// the first decision for a class is final, both within a session and against earlier sessions
+	public void testFirstDecisionWins() throws InterruptedException {
+		WeavingDecisionIndex index = open();
+		index.put(BUNDLE, "p.Old", WeavingReason.Thread);
+		index.save(this.context);
+
+		final WeavingDecisionIndex current = open();
+		current.put(BUNDLE, "p.Old", WeavingReason.None);
+		assertEquals(WeavingReason.Thread, current.get(BUNDLE, "p.Old"));
+		// two threads racing to decide the same classes:
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[2];
+		for (int t = 0; t < threads.length; t++) {
+			final WeavingReason reason = t == 0 ? WeavingReason.None : WeavingReason.Thread;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < 1000; i++)
+						current.put(BUNDLE, "p.C"+i, reason);
+				}
+			};
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+		WeavingReason[] decided = new WeavingReason[1000];
+		for (int i = 0; i < decided.length; i++)
+			assertNotNull(decided[i] = current.get(BUNDLE, "p.C"+i));
+		current.save(this.context);
+
+		index = open();
+		assertEquals(WeavingReason.Thread, index.get(BUNDLE, "p.Old"));
+		for (int i = 0; i < decided.length; i++)
+			assertEquals("next session must answer as this session did", decided[i], index.get(BUNDLE, "p.C"+i));
+	}
+
+	// an index written with different options is discarded
+	public void testOptionsChanged() {
+		WeavingDecisionIndex index = open();
+		index.put(BUNDLE, "p.C", WeavingReason.None);
+		index.save(this.context);
+
+		setProperty("otequinox.weave.thread", "false");
+		assertNull(open().get(BUNDLE, "p.C"));
+	}
+
+	// after a bundle has changed during the session, the index is neither consulted nor written
+	public void testBundleChangedDuringSession() {
+		WeavingDecisionIndex index = open();
+		index.put(BUNDLE, "p.C", WeavingReason.None);
+		index.save(this.context);
+
+		index = open();
+		index.put(BUNDLE, "p.D", WeavingReason.None);
+		index.bundleChanged(new BundleEvent(BundleEvent.UPDATED, this.context.getBundle()));
+		assertNull(index.get(BUNDLE, "p.C"));
+		assertNull(index.get(BUNDLE, "p.D"));
+		index.put(BUNDLE, "p.E", WeavingReason.None);
+		index.save(this.context);
+		assertFalse("nothing to be picked up by the next session", new File(this.file.getPath()+".new").exists());
+	}
+
+	// the previous session crashed while saving: the decisions of earlier sessions are still used
+	public void testCrashDuringSave() throws IOException {
+		WeavingDecisionIndex index = open();
+		index.put(BUNDLE, "p.C", WeavingReason.Thread);
+		index.save(this.context);
+		index = open();
+		index.put(BUNDLE, "p.D", WeavingReason.None);
+		index.save(this.context);
+		// simulate the crash by leaving an incompletely written copy of the last file:
+		File pending = new File(this.file.getPath()+".new");
+		File temp = new File(pending.getPath()+".tmp");
+		Files.copy(pending.toPath(), temp.toPath());
+		truncate(temp, 8);
+		assertTrue(pending.delete());
+
+		index = open();
+		assertEquals(WeavingReason.Thread, index.get(BUNDLE, "p.C"));
+		assertNull("decisions of the crashed session are lost", index.get(BUNDLE, "p.D"));
+		index.put(BUNDLE, "p.D", WeavingReason.None);
+		index.save(this.context);
+		index = open();
+		assertEquals(WeavingReason.Thread, index.get(BUNDLE, "p.C"));
+		assertEquals(WeavingReason.None, index.get(BUNDLE, "p.D"));
+	}
+
+	// an index file that has been damaged on disk is discarded as a whole
+	public void testTruncatedIndex() throws IOException {
+		WeavingDecisionIndex index = open();
+		index.put(BUNDLE, "p.C", WeavingReason.Thread);
+		index.save(this.context);
+		open(); // picks up the pending file
+		truncate(this.file, 8);
+		assertNull(open().get(BUNDLE, "p.C"));
+	}
+}
@@ -0,0 +1,159 @@
+/**********************************************************************
+ * This file is part of "Object Teams Development Tooling"-Software
+ *
+ * Copyright 2026 Eclipse Foundation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Please visit http://www.eclipse.org/objectteams for updates and contact.
+ *
+ * Contributors:
+ * 	  Eclipse Foundation - Initial API and implementation
+ **********************************************************************/
+package org.eclipse.objectteams.otdt.tests.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.eclipse.objectteams.otredyn.bytecode.asm.WovenClassCache;
+
+/**
+ * Tests for the persistent cache of load-time woven classes (<code>-Dot.weaving.cache</code>),
+ * which several JVMs may share while being launched with different options.
+ */
+public class WovenClassCacheTest extends AbstractPersistentCacheTest {
+
+	static final byte[] ORIGINAL = { (byte)0xCA, (byte)0xFE, (byte)0xBA, (byte)0xBE, 1 };
+
+	public WovenClassCacheTest(String name) {
+		super(name);
+	}
+
+	private WovenClassCache open() {
+		WovenClassCache cache = WovenClassCache.open(this.dir);
+		assertNotNull(cache);
+		return cache;
+	}
+
+	private static byte[] woven(int i) {
+		return new byte[] { (byte)0xCA, (byte)0xFE, (byte)0xBA, (byte)0xBE, (byte) i, (byte) (i >> 8), 42 };
+	}
+
+	private static void assertCached(WovenClassCache cache, byte[] key, byte[] expected) {
+		byte[] actual = cache.get(key);
+		assertTrue("expected "+Arrays.toString(expected)+" but was "+Arrays.toString(actual), Arrays.equals(expected, actual));
+	}
+
+	// the key covers both the original bytes and the transformation applied to them
+	public void testKey() {
+		WovenClassCache cache = open();
+		byte[] key = cache.computeKey("p/C|true|java/lang/Object", ORIGINAL);
+		assertTrue(Arrays.equals(key, open().computeKey("p/C|true|java/lang/Object", ORIGINAL)));
+		assertFalse("superclass weavability is an input",
+				Arrays.equals(key, cache.computeKey("p/C|false|java/lang/Object", ORIGINAL)));
+		assertFalse("original bytes are an input",
+				Arrays.equals(key, cache.computeKey("p/C|true|java/lang/Object", woven(0))));
+	}
+
+	// two JVMs with the same options append to the same files in turns: each entry must stay readable with its own bytes
+	public void testInterleavedAppendsByTwoJVMs() {
+		WovenClassCache first = open();
+		WovenClassCache second = open();
+		byte[][] keys = new byte[20][];
+		for (int i = 0; i < keys.length; i++) {
+			WovenClassCache cache = i % 2 == 0 ? first : second;
+			keys[i] = cache.computeKey("p/C"+i, ORIGINAL);
+			cache.put(keys[i], woven(i));
+		}
+		WovenClassCache next = open();
+		for (int i = 0; i < keys.length; i++)
+			assertCached(next, keys[i], woven(i));
+		assertNull("first JVM doesn't see entries added by the second before the next launch", first.get(keys[1]));
+	}
+
+	// a JVM launched with other options resets the files while another JVM still uses them
+	public void testResetByJVMWithOtherOptions() {
+		WovenClassCache plain = open();
+		byte[] key = plain.computeKey("p/C", ORIGINAL);
+		plain.put(key, woven(1));
+
+		setProperty("ot.dispatch.indy", "true");
+		WovenClassCache indy = open();
+		assertNull("entry woven without indy dispatch must not be used", indy.get(key));
+		indy.put(key, woven(2));
+		assertNull("bytes written by the other JVM must not be taken for our own", plain.get(key));
+
+		byte[] otherKey = plain.computeKey("p/D", ORIGINAL);
+		plain.put(otherKey, woven(3));
+		WovenClassCache nextIndy = open();
+		assertCached(nextIndy, key, woven(2));
+		assertNull("entries woven without indy dispatch must not enter the indy cache", nextIndy.get(otherKey));
+	}
+
+	// each option checked during weaving invalidates the cache
+	public void testOptionsInFingerprint() {
+		for (String option : new String[] { "ot.dispatch.indy", "ot.weaving.keepframes", "ot.implicit.team.activation" }) {
+			WovenClassCache cache = open();
+			byte[] key = cache.computeKey("p/C", ORIGINAL);
+			cache.put(key, woven(1));
+			setProperty(option, "true");
+			assertNull(option, open().get(key));
+			setProperty(option, null);
+			assertNull(option+": cache should have been reset", open().get(key));
+		}
+	}
+
+	// the JVM crashed after appending the class bytes, but before (or while) appending the index entry
+	public void testCrashBeforeIndexWritten() throws IOException {
+		WovenClassCache cache = open();
+		byte[] key1 = cache.computeKey("p/C1", ORIGINAL);
+		byte[] key2 = cache.computeKey("p/C2", ORIGINAL);
+		cache.put(key1, woven(1));
+		cache.put(key2, woven(2));
+		truncate(new File(this.dir, "woven.idx"), 1);
+
+		cache = open();
+		assertCached(cache, key1, woven(1));
+		assertNull(cache.get(key2));
+		cache.put(key2, woven(2));
+		assertCached(open(), key2, woven(2));
+	}
+
+	// the index entry was written, but the class bytes didn't fully reach the disk
+	public void testCrashBeforeDataWritten() throws IOException {
+		WovenClassCache cache = open();
+		byte[] key = cache.computeKey("p/C", ORIGINAL);
+		cache.put(key, woven(1));
+		truncate(new File(this.dir, "woven.dat"), 1);
+
+		cache = open();
+		assertNull(cache.get(key));
+		byte[] otherKey = cache.computeKey("p/D", ORIGINAL);
+		cache.put(otherKey, woven(2));
+		cache = open();
+		assertCached(cache, otherKey, woven(2));
+		assertNull("incomplete entry must not cover the bytes appended after it", cache.get(key));
+	}
+
+	// damaged class bytes are detected by the checksum
+	public void testCorruptedData() throws IOException {
+		WovenClassCache cache = open();
+		byte[] key = cache.computeKey("p/C", ORIGINAL);
+		cache.put(key, woven(1));
+		corrupt(new File(this.dir, "woven.dat"), 5);
+		assertNull(open().get(key));
+	}
+
+	// when the directory cannot be used, weaving proceeds without a cache
+	public void testUnusableDirectory() throws IOException {
+		File file = new File(this.dir, "notADirectory");
+		assertTrue(file.createNewFile());
+		assertNull(WovenClassCache.open(file));
+	}
+}
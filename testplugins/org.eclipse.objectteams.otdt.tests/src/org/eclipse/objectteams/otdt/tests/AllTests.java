@@ -41,6 +41,8 @@ public class AllTests
 		suite.addTest(org.eclipse.objectteams.otdt.tests.compiler.ast.TypeDeclarationTest.suite());
 		suite.addTest(org.eclipse.objectteams.otdt.tests.compiler.smap.AllTests.suite());
 		suite.addTest(org.eclipse.objectteams.otdt.tests.compiler.AttributesTest.suite());
+		suite.addTest(org.eclipse.objectteams.otdt.tests.compiler.ByteCodeCacheTest.suite());
+		suite.addTest(org.eclipse.objectteams.otdt.tests.compiler.ResolvedConstantPoolTest.suite());
 
 		//hierarchy
 		suite.addTest(org.eclipse.objectteams.otdt.tests.hierarchy.AllTests.suite());
@@ -66,6 +68,9 @@ public class AllTests
 		// the OTJLD suite:
 		suite.addTest(org.eclipse.objectteams.otdt.tests.otjld.AllTests.suite());
 
+		//runtime
+		suite.addTest(org.eclipse.objectteams.otdt.tests.runtime.AllTests.suite());
+
 		//$JUnit-END$
 		return suite;
     }